@@ -0,0 +1,80 @@
+package com.bayzdelivery.benchmarks;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+/**
+ * Connection and fixture helpers shared by the database benchmarks.
+ * <p>
+ * The benchmarks run against the PostgreSQL database of the application (see {@code docker-compose.yml}),
+ * which must have been migrated by starting the application once. The connection can be overridden with the
+ * system properties {@code bench.jdbc.url}, {@code bench.jdbc.user} and {@code bench.jdbc.password}.
+ * <p>
+ * All fixture rows are created with a "bench-" prefix so they can be told apart from real data.
+ */
+final class BenchmarkDatabase {
+
+    private BenchmarkDatabase() {
+    }
+
+    static Connection connect() throws SQLException {
+        return connect(new Properties());
+    }
+
+    /**
+     * @param driverProperties additional properties of the PostgreSQL driver, e.g. {@code reWriteBatchedInserts}
+     */
+    static Connection connect(Properties driverProperties) throws SQLException {
+        Properties properties = new Properties();
+        properties.putAll(driverProperties);
+        properties.setProperty("user", System.getProperty("bench.jdbc.user", "db_user"));
+        properties.setProperty("password", System.getProperty("bench.jdbc.password", "123qwe"));
+        Connection connection = DriverManager.getConnection(
+                System.getProperty("bench.jdbc.url", "jdbc:postgresql://localhost:5432/bayzdelivery"), properties);
+        connection.setAutoCommit(true);
+        return connection;
+    }
+
+    static long insertPerson(Connection connection, String role) throws SQLException {
+        try ( PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO person (name, email, registration_number, role) VALUES (?, ?, ?, ?) RETURNING id") ) {
+            String name = "bench-" + role.toLowerCase() + "-" + System.nanoTime();
+            statement.setString(1, name);
+            statement.setString(2, name + "@bench.local");
+            statement.setString(3, name);
+            statement.setString(4, role);
+            return singleLong(statement);
+        }
+    }
+
+    static long insertOrder(Connection connection, long customerId, double price) throws SQLException {
+        try ( PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO orders (id, order_name, order_price, customer_id, order_time) VALUES (nextval('orders_seq'), ?, ?, ?, now()) RETURNING id") ) {
+            statement.setString(1, "bench-order-" + System.nanoTime());
+            statement.setDouble(2, price);
+            statement.setLong(3, customerId);
+            return singleLong(statement);
+        }
+    }
+
+    static long singleLong(PreparedStatement statement) throws SQLException {
+        try ( ResultSet resultSet = statement.executeQuery() ) {
+            return resultSet.next() ? resultSet.getLong(1) : -1L;
+        }
+    }
+
+    static void deleteFixtures(Connection connection, long... personIds) throws SQLException {
+        try ( Statement statement = connection.createStatement() ) {
+            for ( long personId : personIds ) {
+                statement.executeUpdate("DELETE FROM delivery WHERE delivery_man_id = " + personId + " OR customer_id = " + personId);
+                statement.executeUpdate("DELETE FROM orders WHERE customer_id = " + personId);
+                statement.executeUpdate("DELETE FROM person WHERE id = " + personId);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.bayzdelivery.benchmarks;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Runs JMH benchmarks and writes their results as JSON, to be compared across runs.
+ * <p>
+ * Takes the usual JMH command line, e.g. the benchmarks to run as regular expressions. Unless given on the command
+ * line, the results are written in the JSON format of JMH to a new file per run, and the GC profiler is enabled, so
+ * every result holds the allocation rate ({@code gc.alloc.rate.norm}, bytes per operation) next to the time per
+ * operation. The files can be compared with tools such as JMH Visualizer.
+ * <p>
+ * Configuration, as system properties:
+ * - `jmh.results.dir`: Directory of the result files, default {@code results}.
+ * <p>
+ * Run with: {@code java -cp target/benchmarks.jar com.bayzdelivery.benchmarks.BenchmarkRunner DeliveryMappingBenchmark}
+ */
+public final class BenchmarkRunner {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        if ( commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListProfilers()
+                || commandLine.shouldListResultFormats() ) {
+            Main.main(args);
+            return;
+        }
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+        if ( !commandLine.getResultFormat().hasValue() && !commandLine.getResult().hasValue() ) {
+            Path directory = Path.of(System.getProperty("jmh.results.dir", "results"));
+            Files.createDirectories(directory);
+            Path result = directory.resolve("jmh-" + LocalDateTime.now().format(FILE_TIMESTAMP) + ".json");
+            options.resultFormat(ResultFormatType.JSON).result(result.toString());
+            System.out.println("Writing results to " + result.toAbsolutePath());
+        }
+        if ( commandLine.getProfilers().isEmpty() ) {
+            options.addProfiler(GCProfiler.class);
+        }
+        new Runner(options.build()).run();
+    }
+}
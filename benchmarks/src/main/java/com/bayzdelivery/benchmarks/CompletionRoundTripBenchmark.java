@@ -0,0 +1,173 @@
+package com.bayzdelivery.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of a delivery completion done the way {@code DeliveryServiceImpl.completeDelivery} used to do
+ * it (loading the delivery with its delivery man and order, a full-row update and the ledger upsert in one
+ * transaction) with the single conditional update of {@code DeliveryRepository.completeActiveDelivery}, which reads
+ * the price captured at pickup and writes the ledger in the same statement.
+ * <p>
+ * The statements mirror what Hibernate issues for the repository calls. Every invocation picks up a new delivery
+ * outside of the measurement, so there is an ACTIVE delivery to complete.
+ * <p>
+ * Run with: {@code java -jar target/benchmarks.jar CompletionRoundTripBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CompletionRoundTripBenchmark {
+
+    private static final String LOAD_FOR_COMPLETION = """
+            SELECT d.id, d.start_time, d.end_time, d.distance, d.price, d.commission, d.status, d.overdue_notified_at,
+                   d.customer_id, dm.id, dm.name, dm.email, dm.registration_number, dm.role,
+                   o.id, o.order_name, o.order_price, o.order_time, o.customer_id
+              FROM delivery d
+              LEFT JOIN person dm ON dm.id = d.delivery_man_id
+              LEFT JOIN orders o ON o.id = d.order_id
+             WHERE d.id = ?""";
+
+    private static final String MERGE = """
+            UPDATE delivery
+               SET start_time = ?, end_time = ?, distance = ?, price = ?, commission = ?, status = ?,
+                   overdue_notified_at = ?, delivery_man_id = ?, customer_id = ?, order_id = ?
+             WHERE id = ?""";
+
+    private static final String LEDGER_UPSERT = """
+            INSERT INTO courier_commission_hourly (delivery_man_id, bucket_start, total_commission, completed_count)
+            VALUES (?, date_trunc('hour', CAST(? AS TIMESTAMP)), ?, 1)
+            ON CONFLICT (delivery_man_id, bucket_start) DO UPDATE
+               SET total_commission = courier_commission_hourly.total_commission + EXCLUDED.total_commission,
+                   completed_count  = courier_commission_hourly.completed_count + EXCLUDED.completed_count""";
+
+    private static final String CONDITIONAL_COMPLETION = """
+            WITH completed AS (
+                UPDATE delivery d
+                   SET status = 'COMPLETED',
+                       end_time = ?,
+                       commission = COALESCE(d.price, (SELECT o.order_price FROM orders o WHERE o.id = d.order_id)) * 0.05
+                                    + ? * 0.5
+                 WHERE d.id = ?
+                   AND d.status = 'ACTIVE'
+                RETURNING d.id, d.delivery_man_id, d.start_time, d.end_time, d.commission, d.distance
+            ), ledger AS (
+                INSERT INTO courier_commission_hourly (delivery_man_id, bucket_start, total_commission, completed_count)
+                SELECT c.delivery_man_id, date_trunc('hour', CAST(c.start_time AS TIMESTAMP)), c.commission, 1
+                  FROM completed c
+                ON CONFLICT (delivery_man_id, bucket_start) DO UPDATE
+                   SET total_commission = courier_commission_hourly.total_commission + EXCLUDED.total_commission,
+                       completed_count  = courier_commission_hourly.completed_count + EXCLUDED.completed_count
+            )
+            SELECT c.id, c.delivery_man_id, p.name, c.start_time, c.end_time, c.commission, c.distance
+              FROM completed c
+              JOIN person p ON p.id = c.delivery_man_id""";
+
+    private Connection connection;
+    private long customerId;
+    private long deliveryManId;
+    private long orderId;
+    private long deliveryId;
+
+    private PreparedStatement pickup;
+    private PreparedStatement loadForCompletion;
+    private PreparedStatement merge;
+    private PreparedStatement ledgerUpsert;
+    private PreparedStatement conditionalCompletion;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = BenchmarkDatabase.connect();
+        customerId = BenchmarkDatabase.insertPerson(connection, "CUSTOMER");
+        deliveryManId = BenchmarkDatabase.insertPerson(connection, "DELIVERY_MAN");
+        orderId = BenchmarkDatabase.insertOrder(connection, customerId, 100.0);
+
+        pickup = connection.prepareStatement("""
+                INSERT INTO delivery (delivery_man_id, customer_id, order_id, start_time, distance, price, commission, status)
+                VALUES (?, ?, ?, ?, 10.0, 100.0, 10.0, 'ACTIVE') RETURNING id""");
+        loadForCompletion = connection.prepareStatement(LOAD_FOR_COMPLETION);
+        merge = connection.prepareStatement(MERGE);
+        ledgerUpsert = connection.prepareStatement(LEDGER_UPSERT);
+        conditionalCompletion = connection.prepareStatement(CONDITIONAL_COMPLETION);
+    }
+
+    @Setup(Level.Invocation)
+    public void pickUp() throws SQLException {
+        pickup.setLong(1, deliveryManId);
+        pickup.setLong(2, customerId);
+        pickup.setLong(3, orderId);
+        pickup.setTimestamp(4, Timestamp.from(Instant.now()));
+        deliveryId = BenchmarkDatabase.singleLong(pickup);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try ( PreparedStatement ledger = connection.prepareStatement("DELETE FROM courier_commission_hourly WHERE delivery_man_id = ?") ) {
+            ledger.setLong(1, deliveryManId);
+            ledger.executeUpdate();
+        }
+        BenchmarkDatabase.deleteFixtures(connection, deliveryManId, customerId);
+        connection.close();
+    }
+
+    @Benchmark
+    public double loadAndMergeCompletion() throws SQLException {
+        connection.setAutoCommit(false);
+        try {
+            loadForCompletion.setLong(1, deliveryId);
+            Timestamp startTime;
+            double orderPrice;
+            try ( ResultSet resultSet = loadForCompletion.executeQuery() ) {
+                if ( !resultSet.next() || !"ACTIVE".equals(resultSet.getString(7)) ) {
+                    throw new IllegalStateException("Delivery is already completed");
+                }
+                startTime = resultSet.getTimestamp(2);
+                orderPrice = resultSet.getDouble(17);
+            }
+            double commission = orderPrice * 0.05 + 15.0 * 0.5;
+            merge.setTimestamp(1, startTime);
+            merge.setTimestamp(2, Timestamp.from(Instant.now()));
+            merge.setDouble(3, 10.0);
+            merge.setDouble(4, orderPrice);
+            merge.setDouble(5, commission);
+            merge.setString(6, "COMPLETED");
+            merge.setTimestamp(7, null);
+            merge.setLong(8, deliveryManId);
+            merge.setLong(9, customerId);
+            merge.setLong(10, orderId);
+            merge.setLong(11, deliveryId);
+            merge.executeUpdate();
+            ledgerUpsert.setLong(1, deliveryManId);
+            ledgerUpsert.setTimestamp(2, startTime);
+            ledgerUpsert.setDouble(3, commission);
+            ledgerUpsert.executeUpdate();
+            connection.commit();
+            return commission;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    @Benchmark
+    public double conditionalUpdateCompletion() throws SQLException {
+        conditionalCompletion.setTimestamp(1, Timestamp.from(Instant.now()));
+        conditionalCompletion.setDouble(2, 15.0);
+        conditionalCompletion.setLong(3, deliveryId);
+        try ( ResultSet resultSet = conditionalCompletion.executeQuery() ) {
+            if ( !resultSet.next() ) {
+                throw new IllegalStateException("Delivery is already completed");
+            }
+            return resultSet.getDouble(6);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.bayzdelivery.benchmarks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of a running application under many concurrent clients, to compare the platform-thread
+ * mode with the {@code virtual-threads} profile.
+ * <p>
+ * Unlike the JMH benchmarks this is a closed-loop load generator against a running instance: every client sends
+ * a request, waits for the response and sends the next one, for a warmup and then a measured period. The clients
+ * are virtual threads of the load generator, so 2,000 of them cost no more than a few carrier threads. The default
+ * path pages through the registered users, a read that costs one database round trip per request and is not
+ * cached.
+ * <p>
+ * Configuration, as system properties:
+ * - `load.url`: Base URL of the application, default {@code http://localhost:8081}.
+ * - `load.path`: Path requested by every client, default {@code /assessment/regapi/getAllUsers?limit=20}.
+ * - `load.clients`: Number of concurrent clients, default 2000.
+ * - `load.warmup-seconds`: Duration of the unmeasured warmup, default 15.
+ * - `load.duration-seconds`: Duration of the measurement, default 60.
+ * <p>
+ * Run with: {@code java -cp target/benchmarks.jar com.bayzdelivery.benchmarks.ConcurrentClientsLoad}
+ */
+public final class ConcurrentClientsLoad {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(60);
+
+    private ConcurrentClientsLoad() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        URI uri = URI.create(System.getProperty("load.url", "http://localhost:8081")
+                + System.getProperty("load.path", "/assessment/regapi/getAllUsers?limit=20"));
+        int clients = Integer.getInteger("load.clients", 2000);
+        long warmupNanos = TimeUnit.SECONDS.toNanos(Integer.getInteger("load.warmup-seconds", 15));
+        long durationNanos = TimeUnit.SECONDS.toNanos(Integer.getInteger("load.duration-seconds", 60));
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(REQUEST_TIMEOUT)
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(REQUEST_TIMEOUT).GET().build();
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long measureUntil = measureFrom + durationNanos;
+        List<Future<ClientResult>> futures = new ArrayList<>(clients);
+        try ( ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor() ) {
+            for ( int i = 0; i < clients; i++ ) {
+                futures.add(executor.submit(() -> runClient(httpClient, request, measureFrom, measureUntil)));
+            }
+            System.out.printf("%d clients requesting %s for %d s after a %d s warmup%n", clients, uri,
+                    TimeUnit.NANOSECONDS.toSeconds(durationNanos), TimeUnit.NANOSECONDS.toSeconds(warmupNanos));
+        }
+
+        long errors = 0;
+        LatencyBuffer latencies = new LatencyBuffer();
+        for ( Future<ClientResult> future : futures ) {
+            ClientResult result = future.get();
+            errors += result.errors();
+            latencies.addAll(result.latencies());
+        }
+        long[] sorted = latencies.sorted();
+        double seconds = durationNanos / 1e9;
+        System.out.printf("requests: %d, errors: %d, throughput: %.1f req/s%n", sorted.length, errors, sorted.length / seconds);
+        if ( sorted.length > 0 ) {
+            System.out.printf("latency ms: p50 %.1f, p90 %.1f, p99 %.1f, max %.1f%n",
+                    percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99), sorted[sorted.length - 1] / 1e6);
+        }
+    }
+
+    private static ClientResult runClient(HttpClient httpClient, HttpRequest request, long measureFrom, long measureUntil) {
+        LatencyBuffer latencies = new LatencyBuffer();
+        long errors = 0;
+        long now;
+        while ( (now = System.nanoTime()) < measureUntil ) {
+            boolean ok;
+            try {
+                ok = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+            } catch ( IOException e ) {
+                ok = false;
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            long end = System.nanoTime();
+            if ( now >= measureFrom && end <= measureUntil ) {
+                if ( ok ) {
+                    latencies.add(end - now);
+                } else {
+                    errors++;
+                }
+            }
+        }
+        return new ClientResult(latencies, errors);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    private record ClientResult(LatencyBuffer latencies, long errors) {
+    }
+
+    /**
+     * A growable array of latencies in nanoseconds, without boxing.
+     */
+    private static final class LatencyBuffer {
+        private long[] values = new long[256];
+        private int size;
+
+        void add(long value) {
+            if ( size == values.length ) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(LatencyBuffer other) {
+            if ( size + other.size > values.length ) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + other.size));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+        }
+
+        long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
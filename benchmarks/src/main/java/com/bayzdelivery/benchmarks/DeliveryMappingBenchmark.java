@@ -0,0 +1,81 @@
+package com.bayzdelivery.benchmarks;
+
+import com.bayzdelivery.dto.DeliveryManCommission;
+import com.bayzdelivery.dto.DeliveryResponse;
+import com.bayzdelivery.dto.OrderResponse;
+import com.bayzdelivery.events.DeliveryCompletedEvent;
+import com.bayzdelivery.model.Orders;
+import com.bayzdelivery.utils.DeliveryHelper;
+import com.bayzdelivery.utils.OrderHelper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the in-memory mappings of the delivery hot paths: the top delivery men rows of the ledger query mapped
+ * by {@code DeliveryHelper.mapToDeliveryManCommission}, the rows returned by the completion statements mapped to
+ * the completed event and response by {@code DeliveryHelper.mapToDeliveryCompletedEvent} and
+ * {@code DeliveryHelper.mapToCompletedDeliveryResponse}, and the entity to response mapping of
+ * {@code OrderHelper.mapToOrdersResponse}.
+ * <p>
+ * The commission itself is calculated by the completion statements in the database, so it is not measured here;
+ * {@code CompletionRoundTripBenchmark} covers those statements.
+ * <p>
+ * The rows are shaped like the ones the PostgreSQL driver returns: boxed numbers, strings and {@code Timestamp}s.
+ * {@value #ROWS} rows and entities are prepared and cycled through, so the mapping is not measured on a single hot
+ * object. Run with {@code -prof gc} to see the allocation per operation.
+ * <p>
+ * Run with: {@code java -jar target/benchmarks.jar DeliveryMappingBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DeliveryMappingBenchmark {
+
+    static final int ROWS = 1024;
+
+    private Object[][] commissionRows;
+    private Object[][] completionRows;
+    private Orders[] orders;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        commissionRows = new Object[ROWS][];
+        completionRows = new Object[ROWS][];
+        orders = new Orders[ROWS];
+        for ( int i = 0; i < ROWS; i++ ) {
+            commissionRows[i] = new Object[]{(long) i, "Delivery Man " + i, 1_000.0 + i, 40L + i % 20};
+            completionRows[i] = DomainFixtures.completionRow(i);
+            orders[i] = DomainFixtures.delivery(i).getOrders();
+        }
+    }
+
+    @Benchmark
+    public DeliveryManCommission mapToDeliveryManCommission() {
+        return DeliveryHelper.mapToDeliveryManCommission(commissionRows[nextIndex()]);
+    }
+
+    @Benchmark
+    public DeliveryCompletedEvent mapToDeliveryCompletedEvent() {
+        return DeliveryHelper.mapToDeliveryCompletedEvent(completionRows[nextIndex()]);
+    }
+
+    @Benchmark
+    public DeliveryResponse mapToCompletedDeliveryResponse() {
+        return DeliveryHelper.mapToCompletedDeliveryResponse(completionRows[nextIndex()]);
+    }
+
+    @Benchmark
+    public OrderResponse mapToOrdersResponse() {
+        return OrderHelper.mapToOrdersResponse(orders[nextIndex()]);
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (ROWS - 1);
+        return next;
+    }
+}
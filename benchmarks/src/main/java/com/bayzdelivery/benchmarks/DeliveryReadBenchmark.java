@@ -0,0 +1,127 @@
+package com.bayzdelivery.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the read path of {@code /delivery/getDelivery/{id}} before and after the delivery associations were
+ * made lazy: the join Hibernate issued for {@code deliveryRepository.findById} while the delivery man, customer,
+ * order and the order's customer were all EAGER, against the single-table read of
+ * {@code DeliveryRepository.findDeliveryResponseById}.
+ * <p>
+ * {@value #DELIVERIES} completed deliveries of {@value #DELIVERY_MEN} delivery men are seeded and read back in
+ * random order. The statements mirror what Hibernate issues for both repository calls.
+ * <p>
+ * Run with: {@code java -jar target/benchmarks.jar DeliveryReadBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DeliveryReadBenchmark {
+
+    static final int DELIVERIES = 10_000;
+    static final int DELIVERY_MEN = 50;
+
+    private static final String EAGER_JOIN = """
+            SELECT d.id, d.start_time, d.end_time, d.distance, d.price, d.commission, d.status, d.overdue_notified_at,
+                   dm.id, dm.name, dm.email, dm.registration_number, dm.role,
+                   c.id, c.name, c.email, c.registration_number, c.role,
+                   o.id, o.order_name, o.order_price, o.order_time,
+                   oc.id, oc.name, oc.email, oc.registration_number, oc.role
+              FROM delivery d
+              LEFT JOIN person dm ON dm.id = d.delivery_man_id
+              LEFT JOIN person c ON c.id = d.customer_id
+              LEFT JOIN orders o ON o.id = d.order_id
+              LEFT JOIN person oc ON oc.id = o.customer_id
+             WHERE d.id = ?""";
+
+    private static final String PROJECTION = """
+            SELECT d.id, d.delivery_man_id, d.start_time, d.end_time, d.status, d.commission, d.distance
+              FROM delivery d
+             WHERE d.id = ?""";
+
+    private Connection connection;
+    private long customerId;
+    private long[] deliveryManIds;
+    private long[] deliveryIds;
+    private PreparedStatement eagerJoin;
+    private PreparedStatement projection;
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = BenchmarkDatabase.connect();
+        customerId = BenchmarkDatabase.insertPerson(connection, "CUSTOMER");
+        long orderId = BenchmarkDatabase.insertOrder(connection, customerId, 100.0);
+        deliveryManIds = new long[DELIVERY_MEN];
+        for ( int i = 0; i < DELIVERY_MEN; i++ ) {
+            deliveryManIds[i] = BenchmarkDatabase.insertPerson(connection, "DELIVERY_MAN");
+        }
+
+        deliveryIds = new long[DELIVERIES];
+        Instant now = Instant.now();
+        try ( PreparedStatement insert = connection.prepareStatement("""
+                INSERT INTO delivery (delivery_man_id, customer_id, order_id, start_time, end_time, distance, commission, status)
+                VALUES (?, ?, ?, ?, ?, 3.0, 6.5, 'COMPLETED') RETURNING id""") ) {
+            for ( int i = 0; i < DELIVERIES; i++ ) {
+                Instant startTime = now.minus(DELIVERIES - i, ChronoUnit.MINUTES);
+                insert.setLong(1, deliveryManIds[i % DELIVERY_MEN]);
+                insert.setLong(2, customerId);
+                insert.setLong(3, orderId);
+                insert.setTimestamp(4, Timestamp.from(startTime));
+                insert.setTimestamp(5, Timestamp.from(startTime.plus(20, ChronoUnit.MINUTES)));
+                deliveryIds[i] = BenchmarkDatabase.singleLong(insert);
+            }
+        }
+        try ( Statement statement = connection.createStatement() ) {
+            statement.execute("ANALYZE delivery");
+        }
+        eagerJoin = connection.prepareStatement(EAGER_JOIN);
+        projection = connection.prepareStatement(PROJECTION);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        long[] personIds = new long[DELIVERY_MEN + 1];
+        System.arraycopy(deliveryManIds, 0, personIds, 0, DELIVERY_MEN);
+        personIds[DELIVERY_MEN] = customerId;
+        BenchmarkDatabase.deleteFixtures(connection, personIds);
+        connection.close();
+    }
+
+    @Benchmark
+    public void eagerJoinRead(Blackhole blackhole) throws SQLException {
+        read(eagerJoin, blackhole);
+    }
+
+    @Benchmark
+    public void projectionRead(Blackhole blackhole) throws SQLException {
+        read(projection, blackhole);
+    }
+
+    private void read(PreparedStatement statement, Blackhole blackhole) throws SQLException {
+        statement.setLong(1, deliveryIds[random.nextInt(DELIVERIES)]);
+        try ( ResultSet resultSet = statement.executeQuery() ) {
+            int columns = resultSet.getMetaData().getColumnCount();
+            while ( resultSet.next() ) {
+                for ( int column = 1; column <= columns; column++ ) {
+                    blackhole.consume(resultSet.getObject(column));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.bayzdelivery.benchmarks;
+
+import com.bayzdelivery.model.Delivery;
+import com.bayzdelivery.model.Orders;
+import com.bayzdelivery.model.Person;
+import com.bayzdelivery.utils.DeliveryStatus;
+import com.bayzdelivery.utils.PersonRole;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Entity and row fixtures shared by the in-memory benchmarks.
+ * <p>
+ * The entities are built with all their associations populated, as after a fetch join, so the benchmarks measure
+ * the worst case of the code that walks them. Calls with the same seed return equal but separate objects.
+ */
+final class DomainFixtures {
+
+    private static final Instant START_TIME = Instant.parse("2025-03-20T10:00:00Z");
+    private static final LocalDateTime ORDER_TIME = LocalDateTime.parse("2025-03-20T09:45:00");
+
+    private DomainFixtures() {
+    }
+
+    static Delivery delivery(int seed) {
+        Person customer = person(2L * seed + 1, PersonRole.CUSTOMER);
+        Orders orders = new Orders();
+        orders.setId((long) seed);
+        orders.setOrderName("Order " + seed);
+        orders.setOrderPrice(10.0 + seed % 100);
+        orders.setCustomer(customer);
+        orders.setOrderTime(ORDER_TIME);
+
+        Delivery delivery = new Delivery();
+        delivery.setId((long) seed);
+        delivery.setStartTime(START_TIME.plus(seed, ChronoUnit.MINUTES));
+        delivery.setEndTime(START_TIME.plus(seed + 30L, ChronoUnit.MINUTES));
+        delivery.setDistance(1.0 + seed % 10);
+        delivery.setPrice(orders.getOrderPrice());
+        delivery.setCommission(orders.getOrderPrice() * 0.05 + delivery.getDistance() * 0.5);
+        delivery.setDeliveryMan(person(2L * seed + 2, PersonRole.DELIVERY_MAN));
+        delivery.setCustomer(person(2L * seed + 1, PersonRole.CUSTOMER));
+        delivery.setOrders(orders);
+        delivery.setStatus(DeliveryStatus.COMPLETED);
+        return delivery;
+    }
+
+    /**
+     * A row of the completion statements of {@code DeliveryRepository} for the delivery of the same seed, with the
+     * column types the PostgreSQL driver returns.
+     */
+    static Object[] completionRow(int seed) {
+        Delivery delivery = delivery(seed);
+        return new Object[]{delivery.getId(), delivery.getDeliveryMan().getId(), delivery.getDeliveryMan().getName(),
+                Timestamp.from(delivery.getStartTime()), Timestamp.from(delivery.getEndTime()),
+                delivery.getCommission(), delivery.getDistance()};
+    }
+
+    private static Person person(long id, PersonRole role) {
+        Person person = new Person();
+        person.setId(id);
+        person.setName("bench-person-" + id);
+        person.setEmail("bench-person-" + id + "@example.com");
+        person.setRegistrationNumber("REG-" + id);
+        person.setRole(role);
+        return person;
+    }
+}
@@ -0,0 +1,61 @@
+package com.bayzdelivery.benchmarks;
+
+import com.bayzdelivery.model.Delivery;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@code equals} and {@code hashCode} of the {@code Delivery} entity, which compare its ID and hash
+ * its class, so neither reads the lazy delivery man, customer or order.
+ * <p>
+ * Every delivery is compared with an equal copy built from separate objects. The hash of the delivery ID alone is
+ * measured as the baseline.
+ * <p>
+ * Run with: {@code java -jar target/benchmarks.jar EntityEqualityBenchmark}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityEqualityBenchmark {
+
+    static final int DELIVERIES = 1024;
+
+    private Delivery[] deliveries;
+    private Delivery[] copies;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        deliveries = new Delivery[DELIVERIES];
+        copies = new Delivery[DELIVERIES];
+        for ( int i = 0; i < DELIVERIES; i++ ) {
+            deliveries[i] = DomainFixtures.delivery(i);
+            copies[i] = DomainFixtures.delivery(i);
+        }
+    }
+
+    @Benchmark
+    public int deliveryHashCode() {
+        return deliveries[nextIndex()].hashCode();
+    }
+
+    @Benchmark
+    public boolean deliveryEquals() {
+        int i = nextIndex();
+        return deliveries[i].equals(copies[i]);
+    }
+
+    @Benchmark
+    public int idHashCode() {
+        return deliveries[nextIndex()].getId().hashCode();
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (DELIVERIES - 1);
+        return next;
+    }
+}
@@ -0,0 +1,76 @@
+package com.bayzdelivery.benchmarks;
+
+import com.bayzdelivery.dto.DeliveryManCommission;
+import com.bayzdelivery.dto.DeliveryResponse;
+import com.bayzdelivery.dto.OrderResponse;
+import com.bayzdelivery.dto.TopDeliveryMenResponse;
+import com.bayzdelivery.utils.DeliveryHelper;
+import com.bayzdelivery.utils.OrderHelper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Jackson serialization of the response bodies of the delivery and order endpoints:
+ * {@code DeliveryResponse}, {@code TopDeliveryMenResponse} and {@code OrderResponse}.
+ * <p>
+ * The mapper is configured like the one of Spring Boot: the Java time module is registered and dates are written as
+ * ISO strings. The writers are created once per type, as Spring MVC caches its serializers. Run with
+ * {@code -prof gc} to see the allocation per response.
+ * <p>
+ * Run with: {@code java -jar target/benchmarks.jar JsonSerializationBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private ObjectWriter deliveryWriter;
+    private ObjectWriter topDeliveryMenWriter;
+    private ObjectWriter orderWriter;
+    private DeliveryResponse deliveryResponse;
+    private TopDeliveryMenResponse topDeliveryMenResponse;
+    private OrderResponse orderResponse;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        JsonMapper mapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        deliveryWriter = mapper.writerFor(DeliveryResponse.class);
+        topDeliveryMenWriter = mapper.writerFor(TopDeliveryMenResponse.class);
+        orderWriter = mapper.writerFor(OrderResponse.class);
+
+        deliveryResponse = DeliveryHelper.mapToCompletedDeliveryResponse(DomainFixtures.completionRow(1));
+        orderResponse = OrderHelper.mapToOrdersResponse(DomainFixtures.delivery(1).getOrders());
+        List<DeliveryManCommission> topDeliveryMen = List.of(
+                new DeliveryManCommission(1L, "Delivery Man 1", 1_250.5, 48, 26.05),
+                new DeliveryManCommission(2L, "Delivery Man 2", 1_190.0, 45, 26.44),
+                new DeliveryManCommission(3L, "Delivery Man 3", 1_020.25, 41, 24.88));
+        topDeliveryMenResponse = new TopDeliveryMenResponse(topDeliveryMen, 1_153.58);
+    }
+
+    @Benchmark
+    public byte[] deliveryResponse() throws JsonProcessingException {
+        return deliveryWriter.writeValueAsBytes(deliveryResponse);
+    }
+
+    @Benchmark
+    public byte[] topDeliveryMenResponse() throws JsonProcessingException {
+        return topDeliveryMenWriter.writeValueAsBytes(topDeliveryMenResponse);
+    }
+
+    @Benchmark
+    public byte[] orderResponse() throws JsonProcessingException {
+        return orderWriter.writeValueAsBytes(orderResponse);
+    }
+}
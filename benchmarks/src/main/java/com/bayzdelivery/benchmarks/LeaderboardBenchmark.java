@@ -0,0 +1,164 @@
+package com.bayzdelivery.benchmarks;
+
+import com.bayzdelivery.dto.DeliveryManCommission;
+import com.bayzdelivery.repositories.CommissionLedgerRepository;
+import com.bayzdelivery.repositories.DeliveryRepository;
+import com.bayzdelivery.service.LeaderboardServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the "this month" top 3 of the in-memory {@link LeaderboardServiceImpl} with the same query answered by
+ * PostgreSQL from the hourly commission ledger ({@code CommissionLedgerRepository.findTopDeliveryMen}).
+ * <p>
+ * Both sides hold the same data: {@value #DELIVERY_MEN} delivery men with completed deliveries on each of the last
+ * 35 days. The in-memory leaderboard is rebuilt from daily rows handed in by a stub ledger repository, outside
+ * of any transaction; the ledger is seeded with hourly buckets and removed again after the trial.
+ * <p>
+ * Run with: {@code java -jar target/benchmarks.jar LeaderboardBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LeaderboardBenchmark {
+
+    static final int DELIVERY_MEN = 500;
+    private static final int DAYS = 35;
+    private static final int BUCKETS_PER_DAY = 8;
+    private static final int TOP = 3;
+
+    private static final String LEDGER_TOP_QUERY = """
+            SELECT t.delivery_man_id, p.name, SUM(t.commission), SUM(t.completed)
+              FROM (SELECT l.delivery_man_id, l.total_commission AS commission, l.completed_count AS completed
+                      FROM courier_commission_hourly l
+                     WHERE l.bucket_start >= ? AND l.bucket_start < ?
+                    UNION ALL
+                    SELECT d.delivery_man_id, d.commission, 1
+                      FROM delivery d
+                     WHERE d.status = 'COMPLETED'
+                       AND ((d.start_time >= ? AND d.start_time < ?) OR (d.start_time >= ? AND d.start_time <= ?))) t
+              JOIN person p ON p.id = t.delivery_man_id
+             GROUP BY t.delivery_man_id, p.name
+             ORDER BY SUM(t.commission) DESC
+             LIMIT ?""";
+
+    private LeaderboardServiceImpl leaderboard;
+    private Connection connection;
+    private PreparedStatement ledgerTop;
+    private long[] deliveryManIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = BenchmarkDatabase.connect();
+        deliveryManIds = new long[DELIVERY_MEN];
+        for ( int i = 0; i < DELIVERY_MEN; i++ ) {
+            deliveryManIds[i] = BenchmarkDatabase.insertPerson(connection, "DELIVERY_MAN");
+        }
+
+        LocalDate today = LocalDate.now();
+        SplittableRandom random = new SplittableRandom(42);
+        List<Object[]> dailyRows = new ArrayList<>();
+        connection.setAutoCommit(false);
+        try ( PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO courier_commission_hourly (delivery_man_id, bucket_start, total_commission, completed_count) VALUES (?, ?, ?, ?)") ) {
+            for ( int day = 0; day < DAYS; day++ ) {
+                LocalDate date = today.minusDays(day);
+                for ( long deliveryManId : deliveryManIds ) {
+                    double dayCommission = 0;
+                    for ( int bucket = 0; bucket < BUCKETS_PER_DAY; bucket++ ) {
+                        double commission = 5 + random.nextDouble() * 20;
+                        dayCommission += commission;
+                        insert.setLong(1, deliveryManId);
+                        insert.setObject(2, date.atTime(8 + bucket, 0));
+                        insert.setDouble(3, commission);
+                        insert.setLong(4, 1);
+                        insert.addBatch();
+                    }
+                    dailyRows.add(new Object[]{deliveryManId, "bench", Date.valueOf(date), dayCommission, (long) BUCKETS_PER_DAY});
+                }
+                insert.executeBatch();
+            }
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        try ( Statement statement = connection.createStatement() ) {
+            statement.execute("ANALYZE courier_commission_hourly");
+        }
+        ledgerTop = connection.prepareStatement(LEDGER_TOP_QUERY);
+
+        leaderboard = new LeaderboardServiceImpl(stub(CommissionLedgerRepository.class, "findDailyCommissionsSince", dailyRows),
+                stub(DeliveryRepository.class, "findCompletedIdsByIdIn", List.of()),
+                stub(PlatformTransactionManager.class, "getTransaction", new SimpleTransactionStatus()));
+        leaderboard.rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        BenchmarkDatabase.deleteFixtures(connection, deliveryManIds);
+        connection.close();
+    }
+
+    @Benchmark
+    public List<DeliveryManCommission> inMemoryThisMonth() {
+        LocalDateTime now = LocalDateTime.now();
+        return leaderboard.findTopDeliveryMen(now.toLocalDate().withDayOfMonth(1).atStartOfDay(), now, TOP)
+                .orElseThrow();
+    }
+
+    @Benchmark
+    public void ledgerQueryThisMonth(Blackhole blackhole) throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime start = now.toLocalDate().withDayOfMonth(1).atStartOfDay();
+        LocalDateTime bucketsTo = now.truncatedTo(ChronoUnit.HOURS);
+        ledgerTop.setObject(1, start);
+        ledgerTop.setObject(2, bucketsTo);
+        ledgerTop.setObject(3, start);
+        ledgerTop.setObject(4, start);
+        ledgerTop.setObject(5, bucketsTo);
+        ledgerTop.setObject(6, now);
+        ledgerTop.setInt(7, TOP);
+        try ( ResultSet resultSet = ledgerTop.executeQuery() ) {
+            while ( resultSet.next() ) {
+                blackhole.consume(resultSet.getLong(1));
+                blackhole.consume(resultSet.getDouble(3));
+            }
+        }
+    }
+
+    /**
+     * Stubs an interface whose given method returns the result; void methods do nothing and any other method fails.
+     */
+    private static <T> T stub(Class<T> type, String methodName, Object result) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if ( method.getName().equals(methodName) ) {
+                        return result;
+                    }
+                    if ( method.getReturnType() == void.class ) {
+                        return null;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                }));
+    }
+}
@@ -0,0 +1,118 @@
+package com.bayzdelivery.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the ingestion of orders before and after {@code POST /orders/batch}: one auto-committed
+ * {@code INSERT ... RETURNING id} per order, as issued while {@code orders.id} was an identity column, against
+ * the batched inserts Hibernate issues for {@code OrdersServiceImpl.saveBatch}, where the ids are taken from
+ * {@code orders_seq} 50 at a time and every chunk of {@value #CHUNK_SIZE} orders is committed once.
+ * <p>
+ * The batched inserts use a connection with {@code reWriteBatchedInserts=true}, so the driver sends every
+ * chunk as multi-row inserts. The scores are orders per second.
+ * <p>
+ * Run with: {@code java -jar target/benchmarks.jar OrderIngestBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class OrderIngestBenchmark {
+
+    static final int ORDERS = 1_000;
+    static final int CHUNK_SIZE = 500;
+    static final int SEQUENCE_INCREMENT = 50;
+
+    private static final String INSERT = "INSERT INTO orders (id, order_name, order_price, customer_id, order_time) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_RETURNING = "INSERT INTO orders (id, order_name, order_price, customer_id, order_time) VALUES (nextval('orders_seq'), ?, ?, ?, ?) RETURNING id";
+
+    private Connection connection;
+    private Connection batchConnection;
+    private long customerId;
+    private PreparedStatement insertReturning;
+    private PreparedStatement insert;
+    private PreparedStatement nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = BenchmarkDatabase.connect();
+        Properties properties = new Properties();
+        properties.setProperty("reWriteBatchedInserts", "true");
+        batchConnection = BenchmarkDatabase.connect(properties);
+        customerId = BenchmarkDatabase.insertPerson(connection, "CUSTOMER");
+        insertReturning = connection.prepareStatement(INSERT_RETURNING);
+        insert = batchConnection.prepareStatement(INSERT);
+        nextId = batchConnection.prepareStatement("SELECT nextval('orders_seq')");
+    }
+
+    @TearDown(Level.Iteration)
+    public void deleteOrders() throws SQLException {
+        try ( Statement statement = connection.createStatement() ) {
+            statement.executeUpdate("DELETE FROM orders WHERE customer_id = " + customerId);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        BenchmarkDatabase.deleteFixtures(connection, customerId);
+        batchConnection.close();
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public long insertPerRow() throws SQLException {
+        long lastId = 0L;
+        Timestamp orderTime = Timestamp.from(Instant.now());
+        for ( int i = 0; i < ORDERS; i++ ) {
+            insertReturning.setString(1, "bench-order-" + i);
+            insertReturning.setDouble(2, 10.0 + i % 100);
+            insertReturning.setLong(3, customerId);
+            insertReturning.setTimestamp(4, orderTime);
+            lastId = BenchmarkDatabase.singleLong(insertReturning);
+        }
+        return lastId;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS)
+    public long insertBatched() throws SQLException {
+        long id = 0L;
+        long lastAllocatedId = 0L;
+        Timestamp orderTime = Timestamp.from(Instant.now());
+        batchConnection.setAutoCommit(false);
+        try {
+            for ( int from = 0; from < ORDERS; from += CHUNK_SIZE ) {
+                for ( int i = from; i < Math.min(from + CHUNK_SIZE, ORDERS); i++ ) {
+                    if ( id >= lastAllocatedId ) {
+                        // pooled optimizer: one sequence call hands out the next block of ids
+                        lastAllocatedId = BenchmarkDatabase.singleLong(nextId);
+                        id = lastAllocatedId - SEQUENCE_INCREMENT;
+                    }
+                    insert.setLong(1, ++id);
+                    insert.setString(2, "bench-order-" + i);
+                    insert.setDouble(3, 10.0 + i % 100);
+                    insert.setLong(4, customerId);
+                    insert.setTimestamp(5, orderTime);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+                batchConnection.commit();
+            }
+        } finally {
+            batchConnection.setAutoCommit(true);
+        }
+        return id;
+    }
+}
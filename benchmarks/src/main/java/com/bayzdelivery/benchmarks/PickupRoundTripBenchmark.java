@@ -0,0 +1,120 @@
+package com.bayzdelivery.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of a delivery pickup done the way {@code DeliveryServiceImpl.createDelivery} used to do it
+ * (two existence checks, an active delivery count and the insert, each its own round trip) with the single
+ * guarded insert of {@code DeliveryRepository.insertActiveDelivery}.
+ * <p>
+ * The statements mirror what Hibernate issues for the repository calls. Every invocation completes the created
+ * delivery again outside of the measurement, so the delivery man is free for the next pickup.
+ * <p>
+ * Run with: {@code java -jar target/benchmarks.jar PickupRoundTripBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PickupRoundTripBenchmark {
+
+    private static final String GUARDED_INSERT = """
+            INSERT INTO delivery (delivery_man_id, customer_id, order_id, start_time, distance, price, commission, status)
+            SELECT dm.id, o.customer_id, o.id, ?, ?, o.order_price, o.order_price * 0.05 + ? * 0.5, 'ACTIVE'
+              FROM orders o
+              JOIN person dm ON dm.id = ?
+             WHERE o.id = ?
+               AND NOT EXISTS (SELECT 1 FROM delivery d WHERE d.delivery_man_id = ? AND d.status = 'ACTIVE')
+            RETURNING id""";
+
+    private Connection connection;
+    private long customerId;
+    private long deliveryManId;
+    private long orderId;
+    private long lastDeliveryId;
+
+    private PreparedStatement orderExists;
+    private PreparedStatement deliveryManExists;
+    private PreparedStatement activeCount;
+    private PreparedStatement plainInsert;
+    private PreparedStatement guardedInsert;
+    private PreparedStatement complete;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = BenchmarkDatabase.connect();
+        customerId = BenchmarkDatabase.insertPerson(connection, "CUSTOMER");
+        deliveryManId = BenchmarkDatabase.insertPerson(connection, "DELIVERY_MAN");
+        orderId = BenchmarkDatabase.insertOrder(connection, customerId, 100.0);
+
+        orderExists = connection.prepareStatement("SELECT COUNT(*) FROM orders WHERE id = ?");
+        deliveryManExists = connection.prepareStatement("SELECT COUNT(*) FROM person WHERE id = ?");
+        activeCount = connection.prepareStatement("SELECT COUNT(*) FROM delivery WHERE delivery_man_id = ? AND status = ?");
+        plainInsert = connection.prepareStatement("""
+                INSERT INTO delivery (delivery_man_id, customer_id, order_id, start_time, distance, commission, status)
+                VALUES (?, ?, ?, ?, ?, ?, 'ACTIVE') RETURNING id""");
+        guardedInsert = connection.prepareStatement(GUARDED_INSERT);
+        complete = connection.prepareStatement("UPDATE delivery SET status = 'COMPLETED' WHERE id = ?");
+    }
+
+    @TearDown(Level.Invocation)
+    public void completeLastDelivery() throws SQLException {
+        complete.setLong(1, lastDeliveryId);
+        complete.executeUpdate();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        BenchmarkDatabase.deleteFixtures(connection, deliveryManId, customerId);
+        connection.close();
+    }
+
+    @Benchmark
+    public long fourRoundTripPickup() throws SQLException {
+        orderExists.setLong(1, orderId);
+        if ( BenchmarkDatabase.singleLong(orderExists) == 0 ) {
+            throw new IllegalStateException("Order does not exists");
+        }
+        deliveryManExists.setLong(1, deliveryManId);
+        if ( BenchmarkDatabase.singleLong(deliveryManExists) == 0 ) {
+            throw new IllegalStateException("Delivery man does not exists");
+        }
+        activeCount.setLong(1, deliveryManId);
+        activeCount.setString(2, "ACTIVE");
+        if ( BenchmarkDatabase.singleLong(activeCount) > 0 ) {
+            throw new IllegalStateException("Delivery man is already delivering an order");
+        }
+        plainInsert.setLong(1, deliveryManId);
+        plainInsert.setLong(2, customerId);
+        plainInsert.setLong(3, orderId);
+        plainInsert.setTimestamp(4, Timestamp.from(Instant.now()));
+        plainInsert.setDouble(5, 10.0);
+        plainInsert.setDouble(6, 10.0);
+        lastDeliveryId = BenchmarkDatabase.singleLong(plainInsert);
+        return lastDeliveryId;
+    }
+
+    @Benchmark
+    public long guardedInsertPickup() throws SQLException {
+        guardedInsert.setTimestamp(1, Timestamp.from(Instant.now()));
+        guardedInsert.setDouble(2, 10.0);
+        guardedInsert.setDouble(3, 10.0);
+        guardedInsert.setLong(4, deliveryManId);
+        guardedInsert.setLong(5, orderId);
+        guardedInsert.setLong(6, deliveryManId);
+        lastDeliveryId = BenchmarkDatabase.singleLong(guardedInsert);
+        if ( lastDeliveryId < 0 ) {
+            throw new IllegalStateException("Pickup was rejected");
+        }
+        return lastDeliveryId;
+    }
+}
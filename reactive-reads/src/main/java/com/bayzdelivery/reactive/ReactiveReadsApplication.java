@@ -0,0 +1,23 @@
+package com.bayzdelivery.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * Non-blocking read API of bayzdelivery.
+ * <p>
+ * Serves the read-heavy endpoints of the application on WebFlux and R2DBC, so a few event-loop threads can hold
+ * thousands of concurrent pollers without a thread or a JDBC connection each. It reads the schema migrated by the
+ * application and never writes; creating and completing orders and deliveries stays on the application.
+ * <p>
+ * The configuration is read from {@code reactive-reads.yml}, so the {@code application.yml} of the application
+ * jar on the classpath is not picked up.
+ */
+@SpringBootApplication
+public class ReactiveReadsApplication {
+
+    public static void main(String[] args) {
+        System.setProperty("spring.config.name", "reactive-reads");
+        SpringApplication.run(ReactiveReadsApplication.class, args);
+    }
+}
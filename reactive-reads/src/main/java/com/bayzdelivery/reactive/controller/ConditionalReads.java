@@ -0,0 +1,64 @@
+package com.bayzdelivery.reactive.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+/**
+ * Answers conditional GET requests of single-row reads from the row version alone, the non-blocking
+ * counterpart of the application's {@code ConditionalGet}.
+ * <p>
+ * The ETag of a response is its row version in quotes, the same tag as the application's, so a client may poll
+ * either. The version is read first; when it matches one of the tags of the {@code If-None-Match} header, the
+ * request is answered with {@code 304 Not Modified} without reading the response. Reads whose version cannot be
+ * found are answered without an ETag, so a missing row is answered with {@code 404 Not Found}.
+ */
+final class ConditionalReads {
+
+    private static final String ANY = "*";
+    private static final String WEAK_PREFIX = "W/";
+
+    private ConditionalReads() {
+    }
+
+    /**
+     * Answers a read, with {@code 304 Not Modified} if the client already holds the current version.
+     *
+     * @param ifNoneMatch the {@code If-None-Match} header of the request, may be null
+     * @param version     the version of the row, empty if the row does not exist
+     * @param response    the response, read only if the client does not hold the current version
+     * @return the response entity
+     */
+    static <T> Mono<ResponseEntity<T>> respond(String ifNoneMatch, Mono<Long> version, Mono<T> response) {
+        return version
+                .map(ConditionalReads::eTag)
+                .flatMap(eTag -> matches(ifNoneMatch, eTag)
+                        ? Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).<T>build())
+                        : response.map(body -> ResponseEntity.ok().eTag(eTag).body(body)))
+                .switchIfEmpty(response.map(ResponseEntity::ok))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    static String eTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Compares the tags of an {@code If-None-Match} header with the current ETag, using the weak comparison.
+     */
+    static boolean matches(String ifNoneMatch, String eTag) {
+        if ( ifNoneMatch == null || ifNoneMatch.isBlank() ) {
+            return false;
+        }
+        for ( String tag : ifNoneMatch.split(",") ) {
+            String candidate = tag.trim();
+            if ( candidate.startsWith(WEAK_PREFIX) ) {
+                candidate = candidate.substring(WEAK_PREFIX.length());
+            }
+            if ( ANY.equals(candidate) || eTag.equals(candidate) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,105 @@
+package com.bayzdelivery.reactive.controller;
+
+import com.bayzdelivery.dto.DeliveryResponse;
+import com.bayzdelivery.dto.OrderResponse;
+import com.bayzdelivery.dto.TopDeliveryMenResponse;
+import com.bayzdelivery.reactive.service.ReactiveReadService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * ReactiveReadController serves the read-heavy endpoints of the application on the same paths, without blocking.
+ * <p>
+ * - Dependencies:
+ * Uses an instance of ReactiveReadService to read deliveries, orders and the leaderboard.
+ * <p>
+ * - Endpoints:
+ * 1. getDeliveryById: Retrieves a delivery, answering conditional requests of an unchanged delivery with 304.
+ * 2. getOrderById: Retrieves an order, answering conditional requests of an unchanged order with 304.
+ * 3. getAllOrders: Streams the orders, ordered by ID, as a JSON array or, with {@code Accept: application/x-ndjson},
+ * as newline-delimited JSON. Rows are written as they are read and read only as fast as the client consumes them.
+ * 4. getTopDeliveryMen: Retrieves the top delivery men of a time range.
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+public class ReactiveReadController {
+
+    private final ReactiveReadService reactiveReadService;
+
+    /**
+     * Retrieves the delivery details for a given delivery ID.
+     *
+     * @param deliveryId  the ID of the delivery to be retrieved
+     * @param ifNoneMatch the ETags the client already holds, may be null
+     * @return the delivery with its version as ETag, 304 Not Modified if it has not changed,
+     * or 404 Not Found if the delivery does not exist
+     */
+    @GetMapping("/delivery/getDelivery/{delivery-id}")
+    public Mono<ResponseEntity<DeliveryResponse>> getDeliveryById(@PathVariable(name = "delivery-id") Long deliveryId,
+                                                                  @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.debug("Entered into getDeliveryById Delivery ID: {}", deliveryId);
+        return ConditionalReads.respond(ifNoneMatch, reactiveReadService.findDeliveryVersion(deliveryId),
+                reactiveReadService.findDeliveryById(deliveryId));
+    }
+
+    /**
+     * Retrieves the order details for the specified order ID.
+     *
+     * @param orderId     the ID of the order to retrieve
+     * @param ifNoneMatch the ETags the client already holds, may be null
+     * @return the order with its version as ETag, 304 Not Modified if it has not changed,
+     * or 404 Not Found if the order does not exist
+     */
+    @GetMapping("/orders/getOrder/{order-id}")
+    public Mono<ResponseEntity<OrderResponse>> getOrderById(@PathVariable(name = "order-id") Long orderId,
+                                                            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.debug("Entered into getOrderById for OrderId : {}", orderId);
+        return ConditionalReads.respond(ifNoneMatch, reactiveReadService.findOrderVersion(orderId),
+                reactiveReadService.findOrderById(orderId));
+    }
+
+    /**
+     * Streams the orders, ordered by ID.
+     * <p>
+     * Unlike the paginated endpoint of the application, the response holds every order after {@code after};
+     * a continuation token issued by the application resumes the listing after its page.
+     *
+     * @param after the continuation token of a page, omitted for all orders
+     * @return the orders, written as they are read
+     */
+    @GetMapping(value = "/orders/getAllOrder", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<OrderResponse> getAllOrders(@RequestParam(required = false) String after) {
+        log.debug("Entered into getAllOrders, After:{}", after);
+        return reactiveReadService.streamOrders(after);
+    }
+
+    /**
+     * Retrieves the top-performing delivery men within a specified time range.
+     *
+     * @param startTime the start of the time range, formatted in ISO date-time
+     * @param endTime   the end of the time range, formatted in ISO date-time
+     * @return the top delivery men and the average commission of the top 3
+     */
+    @GetMapping("/delivery/top-delivery-men")
+    public Mono<TopDeliveryMenResponse> getTopDeliveryMen(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime
+    ) {
+        log.debug("Entered into getTopDeliveryMen StartTime : {},EndTime : {}", startTime, endTime);
+        return reactiveReadService.getTopDeliveryMen(startTime, endTime);
+    }
+}
@@ -0,0 +1,19 @@
+package com.bayzdelivery.reactive.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Answers invalid read requests, e.g. a malformed continuation token or an inverted time range,
+ * with 400 Bad Request, as the application does.
+ */
+@RestControllerAdvice
+public class ReadExceptionHandler {
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+}
@@ -0,0 +1,191 @@
+package com.bayzdelivery.reactive.repositories;
+
+import com.bayzdelivery.dto.DeliveryManCommission;
+import com.bayzdelivery.dto.DeliveryResponse;
+import com.bayzdelivery.dto.OrderResponse;
+import com.bayzdelivery.utils.DeliveryHelper;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Reads deliveries, orders and the commission ledger over R2DBC.
+ * <p>
+ * The statements are those of the JPA repositories of the application, written as SQL against the same schema.
+ * Each read is a single statement and returns response DTOs directly, so no entity is ever built.
+ * <p>
+ * Key Features:
+ * - findDeliveryById / findOrderById: Single-row reads, empty if the row does not exist.
+ * - findDeliveryVersion / findOrderVersion: Read the ETag version of a row without reading the row.
+ * - findOrdersAfter: Streams the orders after an ID in fetches of `reactive-reads.fetch-size` rows, so a slow
+ * client holds back the database reads instead of filling memory.
+ * - findTopDeliveryMen: Aggregates the hourly commission ledger and the partial hours at both edges of a window.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReactiveReadRepository {
+
+    private final DatabaseClient databaseClient;
+
+    @Value("${reactive-reads.fetch-size:500}")
+    private int fetchSize = 500;
+
+    /**
+     * Reads a single delivery as a response DTO.
+     *
+     * @param deliveryId the ID of the delivery
+     * @return the delivery, or empty if it does not exist
+     */
+    public Mono<DeliveryResponse> findDeliveryById(Long deliveryId) {
+        return databaseClient.sql("""
+                        SELECT d.id, d.delivery_man_id, d.distance, d.start_time, d.end_time, d.status, d.commission
+                          FROM delivery d
+                         WHERE d.id = :deliveryId""")
+                .bind("deliveryId", deliveryId)
+                .map(ReactiveReadRepository::toDeliveryResponse)
+                .one();
+    }
+
+    /**
+     * Reads the row version of a delivery, the ETag of its response.
+     *
+     * @param deliveryId the ID of the delivery
+     * @return the version, or empty if the delivery does not exist
+     */
+    public Mono<Long> findDeliveryVersion(Long deliveryId) {
+        return databaseClient.sql("SELECT d.version FROM delivery d WHERE d.id = :deliveryId")
+                .bind("deliveryId", deliveryId)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    /**
+     * Reads a single order as a response DTO, with the customer name joined in the same statement.
+     *
+     * @param orderId the ID of the order
+     * @return the order, or empty if it does not exist
+     */
+    public Mono<OrderResponse> findOrderById(Long orderId) {
+        return databaseClient.sql("""
+                        SELECT o.id, o.order_name, o.order_price, c.name
+                          FROM orders o
+                          JOIN person c ON c.id = o.customer_id
+                         WHERE o.id = :orderId""")
+                .bind("orderId", orderId)
+                .map(ReactiveReadRepository::toOrderResponse)
+                .one();
+    }
+
+    /**
+     * Reads the ETag version of an order: the sum of the row versions of the order and its customer,
+     * whose name is part of the order response.
+     *
+     * @param orderId the ID of the order
+     * @return the version, or empty if the order does not exist
+     */
+    public Mono<Long> findOrderVersion(Long orderId) {
+        return databaseClient.sql("""
+                        SELECT o.version + c.version
+                          FROM orders o
+                          JOIN person c ON c.id = o.customer_id
+                         WHERE o.id = :orderId""")
+                .bind("orderId", orderId)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    /**
+     * Streams the orders after an ID as response DTOs, ordered by ID.
+     * <p>
+     * Rows are fetched from a portal {@code fetchSize} at a time and only as fast as the subscriber requests them.
+     *
+     * @param afterId the ID after which the orders start, 0 for all orders
+     * @return the orders, ordered by ID
+     */
+    public Flux<OrderResponse> findOrdersAfter(long afterId) {
+        return databaseClient.sql("""
+                        SELECT o.id, o.order_name, o.order_price, c.name
+                          FROM orders o
+                          JOIN person c ON c.id = o.customer_id
+                         WHERE o.id > :afterId
+                         ORDER BY o.id""")
+                .bind("afterId", afterId)
+                .filter(statement -> statement.fetchSize(fetchSize))
+                .map(ReactiveReadRepository::toOrderResponse)
+                .all();
+    }
+
+    /**
+     * Retrieves the top delivery men by commission for deliveries started between startTime and endTime.
+     * The whole hours of the window, [bucketsFrom, bucketsTo), are read from the ledger; only the partial
+     * hours at both edges of the window are aggregated from the delivery table.
+     *
+     * @param startTime   the start of the window, inclusive
+     * @param endTime     the end of the window, inclusive
+     * @param bucketsFrom the first whole hour of the window
+     * @param bucketsTo   the end of the last whole hour of the window, exclusive
+     * @param limit       the maximum number of delivery men to return
+     * @return the delivery men ordered by total commission, highest first
+     */
+    public Flux<DeliveryManCommission> findTopDeliveryMen(LocalDateTime startTime, LocalDateTime endTime,
+                                                          LocalDateTime bucketsFrom, LocalDateTime bucketsTo, int limit) {
+        return databaseClient.sql("""
+                        SELECT t.delivery_man_id,
+                               p.name,
+                               SUM(t.commission),
+                               SUM(t.completed)
+                          FROM (SELECT l.delivery_man_id, l.total_commission AS commission, l.completed_count AS completed
+                                  FROM courier_commission_hourly l
+                                 WHERE l.bucket_start >= :bucketsFrom
+                                   AND l.bucket_start < :bucketsTo
+                                UNION ALL
+                                SELECT d.delivery_man_id, d.commission, 1
+                                  FROM delivery d
+                                 WHERE d.status = 'COMPLETED'
+                                   AND ((d.start_time >= :startTime AND d.start_time < :bucketsFrom)
+                                     OR (d.start_time >= :bucketsTo AND d.start_time <= :endTime))) t
+                          JOIN person p ON p.id = t.delivery_man_id
+                         GROUP BY t.delivery_man_id, p.name
+                         ORDER BY SUM(t.commission) DESC
+                         LIMIT :limit""")
+                .bind("startTime", startTime)
+                .bind("endTime", endTime)
+                .bind("bucketsFrom", bucketsFrom)
+                .bind("bucketsTo", bucketsTo)
+                .bind("limit", limit)
+                .map(row -> DeliveryHelper.mapToDeliveryManCommission(new Object[]{
+                        row.get(0), row.get(1), row.get(2), row.get(3)}))
+                .all();
+    }
+
+    // start_time and end_time are TIMESTAMP columns holding the local time of the application, as the
+    // application's DeliveryResponse converts them back to
+    private static DeliveryResponse toDeliveryResponse(Readable row) {
+        Double distance = row.get("distance", Double.class);
+        Double commission = row.get("commission", Double.class);
+        return new DeliveryResponse(
+                row.get("id", Long.class),
+                row.get("delivery_man_id", Long.class),
+                null,
+                distance != null ? distance : 0.0,
+                row.get("start_time", LocalDateTime.class),
+                row.get("end_time", LocalDateTime.class),
+                row.get("status", String.class),
+                commission != null ? commission : 0.0);
+    }
+
+    private static OrderResponse toOrderResponse(Readable row) {
+        Double price = row.get("order_price", Double.class);
+        return new OrderResponse(
+                row.get("id", Long.class),
+                row.get("order_name", String.class),
+                price != null ? price : 0.0,
+                row.get("name", String.class));
+    }
+}
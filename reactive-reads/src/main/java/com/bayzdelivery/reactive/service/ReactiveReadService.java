@@ -0,0 +1,27 @@
+package com.bayzdelivery.reactive.service;
+
+import com.bayzdelivery.dto.DeliveryResponse;
+import com.bayzdelivery.dto.OrderResponse;
+import com.bayzdelivery.dto.TopDeliveryMenResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+/**
+ * Non-blocking reads of deliveries, orders and the delivery men leaderboard.
+ */
+public interface ReactiveReadService {
+
+    Mono<DeliveryResponse> findDeliveryById(Long deliveryId);
+
+    Mono<Long> findDeliveryVersion(Long deliveryId);
+
+    Mono<OrderResponse> findOrderById(Long orderId);
+
+    Mono<Long> findOrderVersion(Long orderId);
+
+    Flux<OrderResponse> streamOrders(String after);
+
+    Mono<TopDeliveryMenResponse> getTopDeliveryMen(LocalDateTime startTime, LocalDateTime endTime);
+}
@@ -0,0 +1,105 @@
+package com.bayzdelivery.reactive.service;
+
+import com.bayzdelivery.dto.DeliveryManCommission;
+import com.bayzdelivery.dto.DeliveryResponse;
+import com.bayzdelivery.dto.OrderResponse;
+import com.bayzdelivery.dto.TopDeliveryMenResponse;
+import com.bayzdelivery.reactive.repositories.ReactiveReadRepository;
+import com.bayzdelivery.utils.ContinuationToken;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Implementation of the {@link ReactiveReadService} interface on the {@link ReactiveReadRepository}.
+ * <p>
+ * Key Features:
+ * - Single deliveries and orders, and their ETag versions, computed as by the application.
+ * - streamOrders: Streams the orders after a continuation token of the application's paginated listing, row by
+ * row, instead of building the list of a page.
+ * - getTopDeliveryMen: The top 3 delivery men of a window and their average commission. The application answers
+ * day-aligned windows from its in-memory leaderboard; that leaderboard is not shared, so every window is read
+ * from the hourly commission ledger here.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReactiveReadServiceImpl implements ReactiveReadService {
+
+    private static final int TOP_DELIVERY_MEN_LIMIT = 3;
+
+    private final ReactiveReadRepository reactiveReadRepository;
+
+    @Override
+    public Mono<DeliveryResponse> findDeliveryById(Long deliveryId) {
+        return reactiveReadRepository.findDeliveryById(deliveryId);
+    }
+
+    @Override
+    public Mono<Long> findDeliveryVersion(Long deliveryId) {
+        return reactiveReadRepository.findDeliveryVersion(deliveryId);
+    }
+
+    @Override
+    public Mono<OrderResponse> findOrderById(Long orderId) {
+        return reactiveReadRepository.findOrderById(orderId);
+    }
+
+    @Override
+    public Mono<Long> findOrderVersion(Long orderId) {
+        return reactiveReadRepository.findOrderVersion(orderId);
+    }
+
+    /**
+     * Streams the orders, ordered by ID, starting after the given continuation token.
+     *
+     * @param after the continuation token of a page, or null for all orders
+     * @return the orders, emitted as the client consumes them
+     * @throws IllegalArgumentException if the token is invalid
+     */
+    @Override
+    public Flux<OrderResponse> streamOrders(String after) {
+        return reactiveReadRepository.findOrdersAfter(ContinuationToken.decode(after));
+    }
+
+    /**
+     * Retrieves the top 3 delivery men by commission for a time range and their average commission.
+     * The whole hours of the range come from the ledger, the partial hours at both edges from the delivery table.
+     *
+     * @param startTime the start time of the range
+     * @param endTime   the end time of the range
+     * @return the top delivery men and the average commission of the top 3
+     * @throws IllegalArgumentException if the start time occurs after the end time
+     */
+    @Override
+    public Mono<TopDeliveryMenResponse> getTopDeliveryMen(LocalDateTime startTime, LocalDateTime endTime) {
+        if ( startTime.isAfter(endTime) ) {
+            return Mono.error(new IllegalArgumentException("StartTime must be before endTime"));
+        }
+        LocalDateTime bucketsFrom = startTime.truncatedTo(ChronoUnit.HOURS);
+        if ( bucketsFrom.isBefore(startTime) ) {
+            bucketsFrom = bucketsFrom.plusHours(1);
+        }
+        LocalDateTime bucketsTo = endTime.truncatedTo(ChronoUnit.HOURS);
+        if ( bucketsTo.isBefore(bucketsFrom) ) {
+            // the range does not contain a whole hour
+            bucketsFrom = endTime;
+            bucketsTo = endTime;
+        }
+        return reactiveReadRepository.findTopDeliveryMen(startTime, endTime, bucketsFrom, bucketsTo, TOP_DELIVERY_MEN_LIMIT)
+                .collectList()
+                .map(ReactiveReadServiceImpl::toResponse);
+    }
+
+    private static TopDeliveryMenResponse toResponse(List<DeliveryManCommission> topDeliveryMen) {
+        double totalCommissionTop3 = topDeliveryMen.stream().mapToDouble(DeliveryManCommission::totalCommission).sum();
+        double averageCommissionOfTop3 = !topDeliveryMen.isEmpty() ? totalCommissionTop3 / topDeliveryMen.size() : 0.0;
+        return new TopDeliveryMenResponse(topDeliveryMen, Math.max(averageCommissionOfTop3, 0.0));
+    }
+}
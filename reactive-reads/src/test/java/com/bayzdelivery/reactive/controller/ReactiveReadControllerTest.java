@@ -0,0 +1,169 @@
+package com.bayzdelivery.reactive.controller;
+
+import com.bayzdelivery.dto.DeliveryManCommission;
+import com.bayzdelivery.dto.DeliveryResponse;
+import com.bayzdelivery.dto.OrderResponse;
+import com.bayzdelivery.dto.TopDeliveryMenResponse;
+import com.bayzdelivery.reactive.exceptions.ReadExceptionHandler;
+import com.bayzdelivery.reactive.service.ReactiveReadService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.publisher.PublisherProbe;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the {@code ReactiveReadController} class, bound to a WebTestClient with a mocked service.
+ * <p>
+ * Test Scenarios:
+ * - Fetching a delivery with its ETag, and a missing delivery.
+ * - Answering a conditional fetch of an unchanged order with 304 Not Modified without reading the order.
+ * - Streaming the orders as a JSON array and as newline-delimited JSON.
+ * - Rejecting an invalid continuation token and an inverted time range with 400 Bad Request.
+ * - Retrieving the top delivery men of a time range.
+ */
+@ExtendWith(MockitoExtension.class)
+public class ReactiveReadControllerTest {
+
+    @Mock
+    private ReactiveReadService reactiveReadService;
+
+    @InjectMocks
+    private ReactiveReadController reactiveReadController;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    public void setUp() {
+        webTestClient = WebTestClient.bindToController(reactiveReadController)
+                .controllerAdvice(new ReadExceptionHandler())
+                .build();
+    }
+
+    @Test
+    public void testGetDeliveryById_Found() {
+        DeliveryResponse delivery = new DeliveryResponse(1L, 2L, null, 5.0, LocalDateTime.now(), null, "ACTIVE", 0.0);
+        when(reactiveReadService.findDeliveryVersion(1L)).thenReturn(Mono.just(3L));
+        when(reactiveReadService.findDeliveryById(1L)).thenReturn(Mono.just(delivery));
+
+        webTestClient.get().uri("/delivery/getDelivery/1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"3\"")
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.status").isEqualTo("ACTIVE");
+    }
+
+    @Test
+    public void testGetDeliveryById_NotFound() {
+        when(reactiveReadService.findDeliveryVersion(1L)).thenReturn(Mono.empty());
+        when(reactiveReadService.findDeliveryById(1L)).thenReturn(Mono.empty());
+
+        webTestClient.get().uri("/delivery/getDelivery/1")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void testGetOrderById_NotModified() {
+        PublisherProbe<OrderResponse> order = PublisherProbe.of(Mono.just(new OrderResponse(1L, "Pizza", 10.0, "Alice")));
+        when(reactiveReadService.findOrderVersion(1L)).thenReturn(Mono.just(4L));
+        when(reactiveReadService.findOrderById(1L)).thenReturn(order.mono());
+
+        webTestClient.get().uri("/orders/getOrder/1")
+                .header("If-None-Match", "\"4\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals("ETag", "\"4\"");
+        order.assertWasNotSubscribed();
+    }
+
+    @Test
+    public void testGetOrderById_Modified() {
+        when(reactiveReadService.findOrderVersion(1L)).thenReturn(Mono.just(5L));
+        when(reactiveReadService.findOrderById(1L)).thenReturn(Mono.just(new OrderResponse(1L, "Pizza", 10.0, "Alice")));
+
+        webTestClient.get().uri("/orders/getOrder/1")
+                .header("If-None-Match", "\"4\"")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("ETag", "\"5\"")
+                .expectBody()
+                .jsonPath("$.customer").isEqualTo("Alice");
+    }
+
+    @Test
+    public void testGetAllOrders_JsonArray() {
+        when(reactiveReadService.streamOrders(null)).thenReturn(Flux.just(
+                new OrderResponse(1L, "Pizza", 10.0, "Alice"),
+                new OrderResponse(2L, "Pasta", 12.0, "Bob")));
+
+        webTestClient.get().uri("/orders/getAllOrder")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[1].orderName").isEqualTo("Pasta");
+    }
+
+    @Test
+    public void testGetAllOrders_Ndjson() {
+        when(reactiveReadService.streamOrders("token")).thenReturn(Flux.just(
+                new OrderResponse(1L, "Pizza", 10.0, "Alice"),
+                new OrderResponse(2L, "Pasta", 12.0, "Bob")));
+
+        webTestClient.get().uri("/orders/getAllOrder?after=token")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(OrderResponse.class).hasSize(2);
+    }
+
+    @Test
+    public void testGetAllOrders_InvalidToken() {
+        when(reactiveReadService.streamOrders("bad")).thenThrow(new IllegalArgumentException("Invalid continuation token: bad"));
+
+        webTestClient.get().uri("/orders/getAllOrder?after=bad")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void testGetTopDeliveryMen() {
+        TopDeliveryMenResponse response = new TopDeliveryMenResponse(
+                List.of(new DeliveryManCommission(1L, "John", 100.0, 4, 25.0)), 100.0);
+        when(reactiveReadService.getTopDeliveryMen(any(), any())).thenReturn(Mono.just(response));
+
+        webTestClient.get().uri("/delivery/top-delivery-men?startTime=2025-01-01T00:00:00&endTime=2025-01-02T00:00:00")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.topDeliveryMen[0].deliveryManName").isEqualTo("John")
+                .jsonPath("$.averageCommissionOfTop3").isEqualTo(100.0);
+    }
+
+    @Test
+    public void testGetTopDeliveryMen_InvertedRange() {
+        when(reactiveReadService.getTopDeliveryMen(any(), any()))
+                .thenReturn(Mono.error(new IllegalArgumentException("StartTime must be before endTime")));
+
+        webTestClient.get().uri("/delivery/top-delivery-men?startTime=2025-01-02T00:00:00&endTime=2025-01-01T00:00:00")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+}
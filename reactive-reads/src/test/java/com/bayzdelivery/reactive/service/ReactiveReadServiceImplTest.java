@@ -0,0 +1,80 @@
+package com.bayzdelivery.reactive.service;
+
+import com.bayzdelivery.dto.DeliveryManCommission;
+import com.bayzdelivery.reactive.repositories.ReactiveReadRepository;
+import com.bayzdelivery.utils.ContinuationToken;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the {@code ReactiveReadServiceImpl} class.
+ * <p>
+ * Test Scenarios:
+ * - Resuming the order stream after a continuation token.
+ * - Splitting a time range into ledger buckets and edges, and averaging the top delivery men.
+ * - Rejecting an inverted time range without reading.
+ */
+@ExtendWith(MockitoExtension.class)
+public class ReactiveReadServiceImplTest {
+
+    @Mock
+    private ReactiveReadRepository reactiveReadRepository;
+
+    @InjectMocks
+    private ReactiveReadServiceImpl reactiveReadService;
+
+    @Test
+    public void testStreamOrders_AfterToken() {
+        when(reactiveReadRepository.findOrdersAfter(42L)).thenReturn(Flux.empty());
+
+        StepVerifier.create(reactiveReadService.streamOrders(ContinuationToken.encode(42L))).verifyComplete();
+        verify(reactiveReadRepository).findOrdersAfter(42L);
+    }
+
+    @Test
+    public void testGetTopDeliveryMen_SplitsRangeIntoBuckets() {
+        LocalDateTime startTime = LocalDateTime.of(2025, 1, 1, 10, 30);
+        LocalDateTime endTime = LocalDateTime.of(2025, 1, 1, 14, 15);
+        when(reactiveReadRepository.findTopDeliveryMen(startTime, endTime,
+                LocalDateTime.of(2025, 1, 1, 11, 0), LocalDateTime.of(2025, 1, 1, 14, 0), 3))
+                .thenReturn(Flux.just(
+                        new DeliveryManCommission(1L, "John", 120.0, 4, 30.0),
+                        new DeliveryManCommission(2L, "Jane", 60.0, 2, 30.0)));
+
+        StepVerifier.create(reactiveReadService.getTopDeliveryMen(startTime, endTime))
+                .expectNextMatches(response -> response.topDeliveryMen().size() == 2
+                        && response.averageCommissionOfTop3() == 90.0)
+                .verifyComplete();
+    }
+
+    @Test
+    public void testGetTopDeliveryMen_WithoutWholeHour() {
+        LocalDateTime startTime = LocalDateTime.of(2025, 1, 1, 10, 15);
+        LocalDateTime endTime = LocalDateTime.of(2025, 1, 1, 10, 45);
+        when(reactiveReadRepository.findTopDeliveryMen(startTime, endTime, endTime, endTime, 3)).thenReturn(Flux.empty());
+
+        StepVerifier.create(reactiveReadService.getTopDeliveryMen(startTime, endTime))
+                .expectNextMatches(response -> response.topDeliveryMen().isEmpty() && response.averageCommissionOfTop3() == 0.0)
+                .verifyComplete();
+    }
+
+    @Test
+    public void testGetTopDeliveryMen_InvertedRange() {
+        LocalDateTime startTime = LocalDateTime.of(2025, 1, 2, 0, 0);
+
+        StepVerifier.create(reactiveReadService.getTopDeliveryMen(startTime, startTime.minusDays(1)))
+                .verifyError(IllegalArgumentException.class);
+        verifyNoInteractions(reactiveReadRepository);
+    }
+}
@@ -0,0 +1,53 @@
+package com.bayzdelivery.config;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+
+/**
+ * Publishes the state of the asynchronous log appenders of the root logger.
+ * <p>
+ * Metrics, tagged with the `appender` name:
+ * - `logging.async.queue.size`: Gauge of the events waiting to be written.
+ * - `logging.async.queue.capacity`: Gauge of the capacity of the queue.
+ * - `logging.async.dropped`: Counter of the events dropped because the queue was (nearly) full.
+ */
+@Component
+public class AsyncLoggingMetrics {
+
+    static final String QUEUE_SIZE_GAUGE = "logging.async.queue.size";
+    static final String QUEUE_CAPACITY_GAUGE = "logging.async.queue.capacity";
+    static final String DROPPED_COUNTER = "logging.async.dropped";
+
+    public AsyncLoggingMetrics(MeterRegistry meterRegistry) {
+        if ( !(LoggerFactory.getILoggerFactory() instanceof LoggerContext loggerContext) ) {
+            return;
+        }
+        Iterator<Appender<ILoggingEvent>> appenders = loggerContext.getLogger(Logger.ROOT_LOGGER_NAME).iteratorForAppenders();
+        while ( appenders.hasNext() ) {
+            if ( appenders.next() instanceof MeteredAsyncAppender appender ) {
+                register(meterRegistry, appender);
+            }
+        }
+    }
+
+    static void register(MeterRegistry meterRegistry, MeteredAsyncAppender appender) {
+        Gauge.builder(QUEUE_SIZE_GAUGE, appender, MeteredAsyncAppender::getNumberOfElementsInQueue)
+                .tag("appender", appender.getName())
+                .register(meterRegistry);
+        Gauge.builder(QUEUE_CAPACITY_GAUGE, appender, MeteredAsyncAppender::getQueueSize)
+                .tag("appender", appender.getName())
+                .register(meterRegistry);
+        FunctionCounter.builder(DROPPED_COUNTER, appender, MeteredAsyncAppender::getDroppedCount)
+                .tag("appender", appender.getName())
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,46 @@
+package com.bayzdelivery.config;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logback {@link AsyncAppender} that counts the events it drops.
+ * <p>
+ * Logging threads only put events into a bounded queue; a single worker thread writes them to the wrapped appender,
+ * so a slow console or disk never holds a request thread or its locks. When the queue is more than 80% full, events
+ * of level INFO and below are dropped, and with {@code neverBlock} even WARN and ERROR events are dropped when the
+ * queue is full instead of blocking the caller. Both kinds of drops are counted here and published by
+ * {@link AsyncLoggingMetrics}.
+ */
+public class MeteredAsyncAppender extends AsyncAppender {
+
+    private final LongAdder dropped = new LongAdder();
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if ( isNeverBlock() && getRemainingCapacity() == 0 ) {
+            dropped.increment();
+            return;
+        }
+        super.append(event);
+    }
+
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        // only asked once the queue is past the discarding threshold
+        boolean discardable = super.isDiscardable(event);
+        if ( discardable ) {
+            dropped.increment();
+        }
+        return discardable;
+    }
+
+    /**
+     * @return the number of events dropped since the appender was started
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+}
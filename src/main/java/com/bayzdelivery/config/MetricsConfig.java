@@ -0,0 +1,36 @@
+package com.bayzdelivery.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the metrics the application records.
+ * <p>
+ * The {@link MeterRegistry} is provided by Spring Boot Actuator, which publishes it in the Prometheus format at
+ * {@code /actuator/prometheus}. Actuator also records, without further code:
+ * - `http.server.requests`: Timer of every controller endpoint, tagged with its URI template, method and status.
+ * - `spring.data.repository.invocations`: Timer of every repository query method, tagged with the repository
+ * and the method.
+ * - `hikaricp.connections.*`: Gauges of the connection pool, and timers of the wait for a connection
+ * (`hikaricp.connections.acquire`) and of its use (`hikaricp.connections.usage`).
+ * <p>
+ * On top of these, this configuration enables:
+ * - The {@link TimedAspect}, which times the methods of the services annotated with
+ * {@link io.micrometer.core.annotation.Timed} as `service.method`, tagged with the class and the method.
+ * - {@link SchedulerMetrics}, which times the runs of the scheduled tasks and counts their overruns.
+ * <p>
+ * Timers publish histogram buckets rather than client-side percentiles (see {@code management.metrics.distribution}
+ * in {@code application.yml}): recording stays a few atomic increments and percentiles are computed when queried.
+ */
+@Configuration
+public class MetricsConfig {
+
+    public static final String SERVICE_TIMER = "service.method";
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
@@ -0,0 +1,22 @@
+package com.bayzdelivery.config;
+
+import com.bayzdelivery.jobs.LoggingNotificationSink;
+import com.bayzdelivery.jobs.NotificationSink;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the destination of the customer support notifications.
+ * <p>
+ * Falls back to a {@link LoggingNotificationSink} unless another {@link NotificationSink} is defined.
+ */
+@Configuration
+public class NotificationConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(NotificationSink.class)
+    public NotificationSink notificationSink() {
+        return new LoggingNotificationSink();
+    }
+}
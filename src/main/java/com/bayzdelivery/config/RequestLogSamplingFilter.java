@@ -0,0 +1,87 @@
+package com.bayzdelivery.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Samples the requests whose DEBUG logs are written.
+ * <p>
+ * Every request is sampled with the rate of the longest configured path prefix it starts with, or with the default
+ * rate. A sampled request is marked in the MDC for {@link SampledRequestTurboFilter}, which then lets the DEBUG and
+ * TRACE logs of the application through while the request is handled, and is summarized in one line with its status
+ * and duration. Requests that are not sampled only pay for a random number.
+ * <p>
+ * Configuration:
+ * - `request-log.sampling.default-rate`: Share of the requests sampled, between 0 and 1.
+ * - `request-log.sampling.rates`: Comma-separated `path=rate` entries overriding the default rate of the paths starting
+ * with `path`, relative to the context path, e.g. `/delivery/getDelivery=0.001`.
+ */
+@Slf4j
+@Component
+public class RequestLogSamplingFilter extends OncePerRequestFilter {
+
+    static final String SAMPLED_MDC_KEY = "sampled";
+
+    private final double defaultRate;
+    private final Map<String, Double> rates = new LinkedHashMap<>();
+
+    public RequestLogSamplingFilter(@Value("${request-log.sampling.default-rate:0.0}") double defaultRate,
+                                    @Value("${request-log.sampling.rates:}") String[] rates) {
+        this.defaultRate = defaultRate;
+        for ( String entry : rates ) {
+            int separator = entry.lastIndexOf('=');
+            if ( separator <= 0 ) {
+                throw new IllegalArgumentException("Invalid request-log.sampling.rates entry: " + entry);
+            }
+            this.rates.put(entry.substring(0, separator).trim(), Double.parseDouble(entry.substring(separator + 1).trim()));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        double rate = rateOf(path);
+        if ( rate <= 0.0 || ThreadLocalRandom.current().nextDouble() >= rate ) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        long start = System.nanoTime();
+        MDC.put(SAMPLED_MDC_KEY, "true");
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            log.debug("Sampled request {} {} answered {} in {} ms", request.getMethod(), path, response.getStatus(),
+                    (System.nanoTime() - start) / 1_000_000);
+            MDC.remove(SAMPLED_MDC_KEY);
+        }
+    }
+
+    /**
+     * @param path the path of a request, relative to the context path
+     * @return the sampling rate of the longest configured prefix of the path, or the default rate
+     */
+    double rateOf(String path) {
+        double rate = defaultRate;
+        int longest = -1;
+        for ( Map.Entry<String, Double> entry : rates.entrySet() ) {
+            if ( entry.getKey().length() > longest && path.startsWith(entry.getKey()) ) {
+                rate = entry.getValue();
+                longest = entry.getKey().length();
+            }
+        }
+        return rate;
+    }
+}
@@ -0,0 +1,33 @@
+package com.bayzdelivery.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * Logback turbo filter that enables the DEBUG and TRACE logs of the application for sampled requests only.
+ * <p>
+ * The request logs of the controllers and services are written at DEBUG, below the INFO level of the root logger,
+ * so they cost no more than a level check. {@link RequestLogSamplingFilter} marks a sample of the requests in the
+ * MDC; while a marked request is handled, the DEBUG and TRACE events of the loggers under {@code loggerPrefix}
+ * are accepted whatever the configured level, so every log line of the sampled request is written.
+ */
+public class SampledRequestTurboFilter extends TurboFilter {
+
+    private String loggerPrefix = "com.bayzdelivery";
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if ( level == null || level.isGreaterOrEqual(Level.INFO) || !logger.getName().startsWith(loggerPrefix) ) {
+            return FilterReply.NEUTRAL;
+        }
+        return MDC.get(RequestLogSamplingFilter.SAMPLED_MDC_KEY) != null ? FilterReply.ACCEPT : FilterReply.NEUTRAL;
+    }
+
+    public void setLoggerPrefix(String loggerPrefix) {
+        this.loggerPrefix = loggerPrefix;
+    }
+}
@@ -0,0 +1,120 @@
+package com.bayzdelivery.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.context.EmbeddedValueResolverAware;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.util.StringValueResolver;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the runs of the {@link Scheduled} methods and counts their overruns.
+ * <p>
+ * A run overruns when it takes longer than the period of its task, its fixed rate or else its fixed delay.
+ * A fixed-rate task that overruns starts its next run late, and a fixed-delay task runs less often than configured;
+ * either way the task does not keep up with its schedule. Cron tasks have no period and never overrun.
+ * <p>
+ * Metrics, tagged with the `task` (class and method name):
+ * - `scheduler.run`: Timer of the runs, including the failed ones.
+ * - `scheduler.overruns`: Counter of the runs longer than the period of the task.
+ */
+@Aspect
+@Component
+public class SchedulerMetrics implements EmbeddedValueResolverAware {
+
+    public static final String RUN_TIMER = "scheduler.run";
+    public static final String OVERRUNS_COUNTER = "scheduler.overruns";
+
+    private final MeterRegistry meterRegistry;
+    private StringValueResolver valueResolver;
+
+    public SchedulerMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void setEmbeddedValueResolver(StringValueResolver resolver) {
+        this.valueResolver = resolver;
+    }
+
+    @Around("@annotation(scheduled)")
+    public Object time(ProceedingJoinPoint joinPoint, Scheduled scheduled) throws Throwable {
+        String task = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            record(task, periodMillis(scheduled), System.nanoTime() - start);
+        }
+    }
+
+    void record(String task, long periodMillis, long durationNanos) {
+        runTimer(meterRegistry, task).record(durationNanos, TimeUnit.NANOSECONDS);
+        if ( periodMillis > 0 && durationNanos > TimeUnit.MILLISECONDS.toNanos(periodMillis) ) {
+            overrunsCounter(meterRegistry, task).increment();
+        }
+    }
+
+    /**
+     * @param meterRegistry the registry
+     * @param task          the name of the task
+     * @return the run timer of the task, for tasks scheduled without {@link Scheduled}
+     */
+    public static Timer runTimer(MeterRegistry meterRegistry, String task) {
+        return Timer.builder(RUN_TIMER)
+                .tag("task", task)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param meterRegistry the registry
+     * @param task          the name of the task
+     * @return the overrun counter of the task, for tasks scheduled without {@link Scheduled}
+     */
+    public static Counter overrunsCounter(MeterRegistry meterRegistry, String task) {
+        return Counter.builder(OVERRUNS_COUNTER)
+                .tag("task", task)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the fixed rate of the task, else its fixed delay, in milliseconds; 0 for cron tasks
+     */
+    long periodMillis(Scheduled scheduled) {
+        if ( scheduled.fixedRate() >= 0 ) {
+            return scheduled.timeUnit().toMillis(scheduled.fixedRate());
+        }
+        if ( StringUtils.hasText(scheduled.fixedRateString()) ) {
+            return parseMillis(scheduled.fixedRateString(), scheduled.timeUnit());
+        }
+        if ( scheduled.fixedDelay() >= 0 ) {
+            return scheduled.timeUnit().toMillis(scheduled.fixedDelay());
+        }
+        if ( StringUtils.hasText(scheduled.fixedDelayString()) ) {
+            return parseMillis(scheduled.fixedDelayString(), scheduled.timeUnit());
+        }
+        return 0;
+    }
+
+    private long parseMillis(String value, TimeUnit timeUnit) {
+        String resolved = valueResolver != null ? valueResolver.resolveStringValue(value) : value;
+        if ( resolved == null || resolved.isBlank() ) {
+            return 0;
+        }
+        try {
+            return timeUnit.toMillis(Long.parseLong(resolved.trim()));
+        } catch ( NumberFormatException e ) {
+            // ISO-8601 durations such as PT15M, as accepted by @Scheduled
+            return Duration.parse(resolved.trim()).toMillis();
+        }
+    }
+}
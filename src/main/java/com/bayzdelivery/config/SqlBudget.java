@@ -0,0 +1,28 @@
+package com.bayzdelivery.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the largest number of JDBC statements a controller method may issue for one request.
+ * <p>
+ * The budget is checked by the {@link SqlBudgetFilter} after every request: a request over its budget is logged
+ * as a warning and counted, or fails with {@code sql-budget.fail-on-exceed}, as set in tests. It catches N+1
+ * regressions, where a change makes the number of statements grow with the number of rows read.
+ * <p>
+ * The budget covers the worst path of the endpoint, e.g. the existence checks that explain a rejected pickup.
+ * Statements issued by work handed to other threads, such as streamed responses, are not counted.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SqlBudget {
+
+    /**
+     * @return the largest number of statements per request
+     */
+    int value();
+}
@@ -0,0 +1,174 @@
+package com.bayzdelivery.config;
+
+import com.bayzdelivery.exceptions.SqlBudgetExceededException;
+import com.bayzdelivery.utils.SqlStatementStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts the JDBC statements, rows and database time of every request, reports them and checks them against the
+ * {@link SqlBudget} of the endpoint.
+ * <p>
+ * The counters are begun when the request is received and filled in by the {@link SqlCountingDataSource}. When the
+ * request has been handled, they are recorded as metrics tagged with the URI template of the endpoint, so a
+ * change in the number of statements per request shows on the dashboards, and compared with the budget of the
+ * controller method: a request over its budget is logged as a warning and counted, or fails with
+ * {@link SqlBudgetExceededException} when {@code sql-budget.fail-on-exceed} is set, as in tests.
+ * <p>
+ * With {@code sql-budget.response-headers}, the counters are also returned as the headers {@code X-Sql-Statements},
+ * {@code X-Sql-Rows} and {@code X-Sql-Time-Ms}, for looking at single requests during development. The headers are
+ * set just before the response body is written, so they cover the statements of the controller; they are switched
+ * off in the {@code prod} profile.
+ * <p>
+ * Configuration:
+ * - `sql-budget.response-headers`: Returns the counters as response headers.
+ * - `sql-budget.fail-on-exceed`: Fails the requests over their budget instead of logging a warning.
+ * <p>
+ * Metrics:
+ * - `http.server.requests.sql.statements`: Distribution of the statements per request, tagged with the `uri`.
+ * - `http.server.requests.sql.rows`: Distribution of the rows read per request, tagged with the `uri`.
+ * - `http.server.requests.sql.time`: Timer of the database time per request, tagged with the `uri`.
+ * - `http.server.requests.sql.budget.exceeded`: Counter of the requests over their budget, tagged with the `uri`.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class SqlBudgetFilter extends OncePerRequestFilter {
+
+    static final String STATEMENTS_SUMMARY = "http.server.requests.sql.statements";
+    static final String ROWS_SUMMARY = "http.server.requests.sql.rows";
+    static final String TIME_TIMER = "http.server.requests.sql.time";
+    static final String EXCEEDED_COUNTER = "http.server.requests.sql.budget.exceeded";
+
+    static final String STATEMENTS_HEADER = "X-Sql-Statements";
+    static final String ROWS_HEADER = "X-Sql-Rows";
+    static final String TIME_HEADER = "X-Sql-Time-Ms";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${sql-budget.response-headers:false}")
+    private boolean responseHeaders;
+
+    @Value("${sql-budget.fail-on-exceed:false}")
+    private boolean failOnExceed;
+
+    public SqlBudgetFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementStats stats = SqlStatementStats.begin();
+        try {
+            if ( responseHeaders ) {
+                StatsHeaderResponse headerResponse = new StatsHeaderResponse(response, stats);
+                filterChain.doFilter(request, headerResponse);
+                headerResponse.setStatsHeaders();
+            } else {
+                filterChain.doFilter(request, response);
+            }
+        } finally {
+            SqlStatementStats.clear();
+        }
+        Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if ( handler instanceof HandlerMethod handlerMethod ) {
+            report(request, handlerMethod, stats);
+        }
+    }
+
+    void report(HttpServletRequest request, HandlerMethod handlerMethod, SqlStatementStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary.builder(STATEMENTS_SUMMARY).tag("uri", uri).register(meterRegistry).record(stats.statements());
+        DistributionSummary.builder(ROWS_SUMMARY).tag("uri", uri).register(meterRegistry).record(stats.rows());
+        Timer.builder(TIME_TIMER).tag("uri", uri).register(meterRegistry).record(stats.nanos(), TimeUnit.NANOSECONDS);
+
+        SqlBudget budget = handlerMethod.getMethodAnnotation(SqlBudget.class);
+        if ( budget == null || stats.statements() <= budget.value() ) {
+            return;
+        }
+        Counter.builder(EXCEEDED_COUNTER).tag("uri", uri).register(meterRegistry).increment();
+        String message = String.format("%s issued %d SQL statements, over its budget of %d (rows: %d, time: %d ms)",
+                handlerMethod.getShortLogMessage(), stats.statements(), budget.value(), stats.rows(),
+                TimeUnit.NANOSECONDS.toMillis(stats.nanos()));
+        if ( failOnExceed ) {
+            throw new SqlBudgetExceededException(message);
+        }
+        log.warn(message);
+    }
+
+    /**
+     * Sets the counters as headers just before the response is committed.
+     */
+    private static final class StatsHeaderResponse extends HttpServletResponseWrapper {
+
+        private final SqlStatementStats stats;
+        private boolean headersSet;
+
+        StatsHeaderResponse(HttpServletResponse response, SqlStatementStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        void setStatsHeaders() {
+            if ( headersSet || isCommitted() ) {
+                return;
+            }
+            headersSet = true;
+            setHeader(STATEMENTS_HEADER, Long.toString(stats.statements()));
+            setHeader(ROWS_HEADER, Long.toString(stats.rows()));
+            setHeader(TIME_HEADER, Long.toString(TimeUnit.NANOSECONDS.toMillis(stats.nanos())));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            setStatsHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            setStatsHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            setStatsHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            setStatsHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            setStatsHeaders();
+            super.sendError(sc);
+        }
+    }
+}
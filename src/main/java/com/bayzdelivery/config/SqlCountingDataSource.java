@@ -0,0 +1,118 @@
+package com.bayzdelivery.config;
+
+import com.bayzdelivery.utils.SqlStatementStats;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Counts the JDBC statements, the rows read and the database time of the current request in its
+ * {@link SqlStatementStats}.
+ * <p>
+ * The connections of the pool are wrapped in thin JDK proxies: statements created by a connection are wrapped to
+ * time their {@code execute*} calls, and the result sets they return are wrapped to count the rows read with
+ * {@code next()}. As the wrapping happens at the JDBC level, the statements of Hibernate, Spring Data and
+ * {@code JdbcTemplate} are all counted. When the current thread has no counters, the proxies only delegate.
+ * <p>
+ * The data source extends {@link DelegatingDataSource}, which Spring Boot unwraps, so the connection pool
+ * metrics still find the Hikari pool.
+ */
+public class SqlCountingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+    private static final Set<String> RESULT_SET_METHODS = Set.of("executeQuery", "getResultSet", "getGeneratedKeys");
+    private static final Set<String> STATEMENT_METHODS = Set.of("createStatement", "prepareStatement", "prepareCall");
+
+    public SqlCountingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(Connection.class, obtainTargetDataSource().getConnection(), SqlCountingDataSource::onConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(Connection.class, obtainTargetDataSource().getConnection(username, password),
+                SqlCountingDataSource::onConnection);
+    }
+
+    private static Object onConnection(Object connection, Method method, Object[] args) throws Throwable {
+        Object result = invoke(connection, method, args);
+        if ( result != null && STATEMENT_METHODS.contains(method.getName()) ) {
+            return wrapStatement(result);
+        }
+        return result;
+    }
+
+    private static Object wrapStatement(Object statement) {
+        if ( statement instanceof CallableStatement callable ) {
+            return wrap(CallableStatement.class, callable, SqlCountingDataSource::onStatement);
+        }
+        if ( statement instanceof PreparedStatement prepared ) {
+            return wrap(PreparedStatement.class, prepared, SqlCountingDataSource::onStatement);
+        }
+        return wrap(Statement.class, statement, SqlCountingDataSource::onStatement);
+    }
+
+    private static Object onStatement(Object statement, Method method, Object[] args) throws Throwable {
+        SqlStatementStats stats = SqlStatementStats.current();
+        Object result;
+        if ( stats != null && EXECUTE_METHODS.contains(method.getName()) ) {
+            long start = System.nanoTime();
+            try {
+                result = invoke(statement, method, args);
+            } finally {
+                stats.recordStatement(System.nanoTime() - start);
+            }
+        } else {
+            result = invoke(statement, method, args);
+        }
+        if ( result instanceof ResultSet resultSet && RESULT_SET_METHODS.contains(method.getName()) ) {
+            return wrap(ResultSet.class, resultSet, SqlCountingDataSource::onResultSet);
+        }
+        return result;
+    }
+
+    private static Object onResultSet(Object resultSet, Method method, Object[] args) throws Throwable {
+        Object result = invoke(resultSet, method, args);
+        if ( Boolean.TRUE.equals(result) && "next".equals(method.getName()) ) {
+            SqlStatementStats stats = SqlStatementStats.current();
+            if ( stats != null ) {
+                stats.recordRow();
+            }
+        }
+        return result;
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch ( InvocationTargetException e ) {
+            throw e.getCause();
+        }
+    }
+
+    private static <T> T wrap(Class<T> type, Object target, Interceptor interceptor) {
+        InvocationHandler handler = (proxy, method, args) -> interceptor.intercept(target, method, args);
+        return type.cast(Proxy.newProxyInstance(SqlCountingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    @FunctionalInterface
+    private interface Interceptor {
+        Object intercept(Object target, Method method, Object[] args) throws Throwable;
+    }
+}
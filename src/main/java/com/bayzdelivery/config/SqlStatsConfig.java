@@ -0,0 +1,31 @@
+package com.bayzdelivery.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuration of the per-request SQL statement counting.
+ * <p>
+ * Wraps the application's {@link DataSource} in a {@link SqlCountingDataSource}, so the JDBC statements, rows and
+ * database time of every request are counted; the {@link SqlBudgetFilter} reports them and checks the
+ * {@link SqlBudget} of the endpoint.
+ */
+@Configuration
+public class SqlStatsConfig {
+
+    @Bean
+    public static BeanPostProcessor sqlCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ( bean instanceof DataSource dataSource && !(bean instanceof SqlCountingDataSource) ) {
+                    return new SqlCountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+}
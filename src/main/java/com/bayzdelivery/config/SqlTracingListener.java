@@ -0,0 +1,60 @@
+package com.bayzdelivery.config;
+
+import com.bayzdelivery.utils.RequestTrace;
+import org.hibernate.SessionEventListener;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Records a span for every SQL statement Hibernate executes for a traced request.
+ * <p>
+ * Registered with Hibernate both as the statement inspector, which sees the SQL of each statement when it is
+ * prepared, and as a session event listener, which is called around each execution; the span of an execution is
+ * named after the SQL prepared last on the same thread. Bind values are not recorded. The time spent reading
+ * the rows of a result set after the execution is part of the enclosing span.
+ * <p>
+ * Configured in {@code application.yml} with {@code hibernate.session_factory.statement_inspector} and
+ * {@code hibernate.session.events.auto}.
+ */
+public class SqlTracingListener implements StatementInspector, SessionEventListener {
+
+    @Override
+    public String inspect(String sql) {
+        RequestTrace trace = RequestTrace.current();
+        if ( trace != null ) {
+            trace.prepared(sql);
+        }
+        return sql;
+    }
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        RequestTrace trace = RequestTrace.current();
+        if ( trace != null ) {
+            trace.startSpan("sql", trace.preparedSql());
+        }
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        RequestTrace trace = RequestTrace.current();
+        if ( trace != null ) {
+            trace.endSpan();
+        }
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        RequestTrace trace = RequestTrace.current();
+        if ( trace != null ) {
+            trace.startSpan("sql", "batch: " + trace.preparedSql());
+        }
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        RequestTrace trace = RequestTrace.current();
+        if ( trace != null ) {
+            trace.endSpan();
+        }
+    }
+}
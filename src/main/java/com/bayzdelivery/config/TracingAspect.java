@@ -0,0 +1,41 @@
+package com.bayzdelivery.config;
+
+import com.bayzdelivery.utils.RequestTrace;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records a span for every call of a controller or service method of a traced request.
+ * <p>
+ * Calls outside a traced request, i.e. of unsampled requests and of scheduled jobs, only look up the
+ * {@link RequestTrace} of their thread. Calls of a bean to its own methods are not intercepted and have no span.
+ */
+@Aspect
+@Component
+public class TracingAspect {
+
+    @Around("execution(public * com.bayzdelivery.controller..*(..)) && @within(org.springframework.web.bind.annotation.RestController)")
+    public Object traceController(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace("controller", joinPoint);
+    }
+
+    @Around("execution(public * com.bayzdelivery.service..*(..)) && @within(org.springframework.stereotype.Service)")
+    public Object traceService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return trace("service", joinPoint);
+    }
+
+    private static Object trace(String kind, ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestTrace trace = RequestTrace.current();
+        if ( trace == null ) {
+            return joinPoint.proceed();
+        }
+        trace.startSpan(kind, joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            trace.endSpan();
+        }
+    }
+}
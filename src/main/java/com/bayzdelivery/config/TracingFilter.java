@@ -0,0 +1,102 @@
+package com.bayzdelivery.config;
+
+import com.bayzdelivery.dto.TraceSummary;
+import com.bayzdelivery.jobs.TraceExporter;
+import com.bayzdelivery.utils.RequestTrace;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Assigns a trace ID to every request and traces a sample of the requests.
+ * <p>
+ * The trace ID is put into the log MDC as {@code traceId}, so every log line of the request carries it, and is
+ * returned in the {@code X-Trace-Id} response header. Whether a request is traced is decided once when it is
+ * received (head-based sampling), with the rate {@code tracing.sample-rate}; a request with the header
+ * {@code X-Trace-Sampled: true} is always traced. The controller and service spans are recorded by the
+ * {@link TracingAspect}, the SQL spans by the {@link SqlTracingListener}. When the response has been written,
+ * the finished trace is handed to every {@link TraceExporter}.
+ * <p>
+ * Configuration:
+ * - `tracing.enabled`: Switches tracing on or off; trace IDs are assigned either way.
+ * - `tracing.sample-rate`: Share of the requests traced, between 0 and 1.
+ * - `tracing.max-spans`: Largest number of spans recorded per request.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class TracingFilter extends OncePerRequestFilter {
+
+    static final String TRACE_ID_MDC_KEY = "traceId";
+    static final String TRACE_ID_HEADER = "X-Trace-Id";
+    static final String SAMPLED_HEADER = "X-Trace-Sampled";
+
+    private final List<TraceExporter> exporters;
+
+    @Value("${tracing.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${tracing.sample-rate:0.05}")
+    private double sampleRate = 0.05;
+
+    @Value("${tracing.max-spans:256}")
+    private int maxSpans = 256;
+
+    public TracingFilter(List<TraceExporter> exporters) {
+        this.exporters = exporters;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String traceId = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        MDC.put(TRACE_ID_MDC_KEY, traceId);
+        response.setHeader(TRACE_ID_HEADER, traceId);
+        try {
+            if ( !sampled(request) ) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            String path = request.getRequestURI().substring(request.getContextPath().length());
+            RequestTrace trace = RequestTrace.begin(traceId, request.getMethod(), path, maxSpans);
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                RequestTrace.clear();
+                export(trace.finish(response.getStatus()));
+            }
+        } finally {
+            MDC.remove(TRACE_ID_MDC_KEY);
+        }
+    }
+
+    private boolean sampled(HttpServletRequest request) {
+        if ( !enabled ) {
+            return false;
+        }
+        return Boolean.parseBoolean(request.getHeader(SAMPLED_HEADER))
+                || (sampleRate > 0.0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    private void export(TraceSummary trace) {
+        for ( TraceExporter exporter : exporters ) {
+            try {
+                exporter.export(trace);
+            } catch ( RuntimeException e ) {
+                log.warn("Trace exporter {} failed: {}", exporter.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+}
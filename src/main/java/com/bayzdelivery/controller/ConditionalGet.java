@@ -0,0 +1,105 @@
+package com.bayzdelivery.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Answers conditional GET requests of single-row reads from the row version alone.
+ * <p>
+ * The strong ETag of a response is its version in quotes: the row version, or for a response read from several
+ * rows, the versions and keys of the rows joined into one string. The version is looked up first; when it matches one
+ * of the tags of the {@code If-None-Match} header, the request is answered with {@code 304 Not Modified} without
+ * reading the response. Otherwise the response is read for that version and returned with its ETag. The response
+ * must not be older than the version it is read for: read from the database after the version, it is at least as
+ * new, and a change in between only costs the client one more full response. A response served from a cache must
+ * have been cached for the same version, as the {@code ReferenceCache} does, or it could carry the ETag of a newer
+ * row than its own and be kept by the client as current.
+ * <p>
+ * Reads whose version cannot be found are answered without an ETag, so the read reports a missing row as usual.
+ * <p>
+ * Metrics:
+ * - `http.conditional.reads`: Counter of the versioned reads, tagged with the `endpoint` and the `result`:
+ * `not_modified` (answered with 304), `modified` (If-None-Match did not match) or `unconditional` (no If-None-Match).
+ * The 304 ratio of an endpoint is `not_modified` over the sum of the three.
+ */
+@Component
+public class ConditionalGet {
+
+    static final String READS_COUNTER = "http.conditional.reads";
+
+    private static final String ANY = "*";
+    private static final String WEAK_PREFIX = "W/";
+
+    private final MeterRegistry meterRegistry;
+
+    public ConditionalGet(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Answers a read, with {@code 304 Not Modified} if the client already holds the current version.
+     *
+     * @param endpoint    the name of the endpoint, used as metric tag
+     * @param ifNoneMatch the {@code If-None-Match} header of the request, may be null
+     * @param version     looks up the version of the row, empty if the row does not exist
+     * @param response    reads the response for the version looked up, null if there is none; a null response is
+     *                    answered with 404 Not Found
+     * @return the response entity
+     */
+    public <V, T> ResponseEntity<T> respond(String endpoint, String ifNoneMatch, Supplier<Optional<V>> version,
+                                            Function<V, T> response) {
+        Optional<V> current = version.get();
+        Optional<String> eTag = current.map(ConditionalGet::eTag);
+        if ( eTag.isPresent() && matches(ifNoneMatch, eTag.get()) ) {
+            counter(endpoint, "not_modified").increment();
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag.get()).build();
+        }
+        T body = response.apply(current.orElse(null));
+        if ( body == null ) {
+            return ResponseEntity.notFound().build();
+        }
+        if ( eTag.isEmpty() ) {
+            return ResponseEntity.ok(body);
+        }
+        counter(endpoint, ifNoneMatch == null ? "unconditional" : "modified").increment();
+        return ResponseEntity.ok().eTag(eTag.get()).body(body);
+    }
+
+    static String eTag(Object version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Compares the tags of an {@code If-None-Match} header with the current ETag. If-None-Match uses the weak
+     * comparison, so a weak tag matches the strong tag with the same value.
+     */
+    static boolean matches(String ifNoneMatch, String eTag) {
+        if ( ifNoneMatch == null || ifNoneMatch.isBlank() ) {
+            return false;
+        }
+        for ( String tag : ifNoneMatch.split(",") ) {
+            String candidate = tag.trim();
+            if ( candidate.startsWith(WEAK_PREFIX) ) {
+                candidate = candidate.substring(WEAK_PREFIX.length());
+            }
+            if ( ANY.equals(candidate) || eTag.equals(candidate) ) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Counter counter(String endpoint, String result) {
+        return Counter.builder(READS_COUNTER)
+                .tag("endpoint", endpoint)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
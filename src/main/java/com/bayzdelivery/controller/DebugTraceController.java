@@ -0,0 +1,56 @@
+package com.bayzdelivery.controller;
+
+import com.bayzdelivery.dto.TraceSummary;
+import com.bayzdelivery.jobs.SlowTraceRing;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * DebugTraceController exposes the recent slow request traces kept in memory.
+ * <p>
+ * The controller maps its endpoints under "/debug" base path.
+ * <p>
+ * - Dependencies:
+ * Uses the SlowTraceRing holding the sampled traces longer than {@code tracing.slow-threshold-ms}.
+ * <p>
+ * - Endpoints:
+ * 1. getTraces: Handles GET requests to list the most recent slow traces, newest first.
+ * 2. getTrace: Handles GET requests to retrieve a slow trace by its ID, as found in the logs
+ * and the {@code X-Trace-Id} response header.
+ */
+@RestController
+@RequestMapping("/debug")
+@RequiredArgsConstructor
+public class DebugTraceController {
+
+    private final SlowTraceRing slowTraceRing;
+
+    /**
+     * Lists the most recent slow traces with their controller, service and SQL spans.
+     *
+     * @param limit the maximum number of traces to return
+     * @return a ResponseEntity containing the traces, newest first
+     */
+    @GetMapping("/traces")
+    public ResponseEntity<List<TraceSummary>> getTraces(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(slowTraceRing.recent(limit));
+    }
+
+    /**
+     * Retrieves a slow trace by its ID.
+     *
+     * @param traceId the ID of the trace
+     * @return a ResponseEntity containing the trace, or a 404 Not Found response if it is not in the ring
+     */
+    @GetMapping("/traces/{trace-id}")
+    public ResponseEntity<TraceSummary> getTrace(@PathVariable(name = "trace-id") String traceId) {
+        return slowTraceRing.find(traceId).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
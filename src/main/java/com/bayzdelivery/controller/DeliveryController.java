@@ -1,5 +1,8 @@
 package com.bayzdelivery.controller;
 
+import com.bayzdelivery.config.SqlBudget;
+import com.bayzdelivery.dto.BatchResponse;
+import com.bayzdelivery.dto.DeliveryCompletion;
 import com.bayzdelivery.dto.DeliveryResponse;
 import com.bayzdelivery.dto.TopDeliveryMenResponse;
 import com.bayzdelivery.model.Delivery;
@@ -9,10 +12,12 @@ import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * DeliveryController handles delivery-related operations such as creating, completing,
@@ -26,6 +31,7 @@ import java.time.LocalDateTime;
 public class DeliveryController {
 
     private final DeliveryService deliveryService;
+    private final ConditionalGet conditionalGet;
 
     /**
      * Creates a new delivery based on the provided delivery details.
@@ -34,10 +40,11 @@ public class DeliveryController {
      * @return a {@link ResponseEntity} containing the created {@link DeliveryResponse}
      */
     @PostMapping(path = "/createDelivery")
+    @SqlBudget(3)
     public ResponseEntity<DeliveryResponse> createDelivery(@RequestBody @Valid Delivery delivery) {
-        log.info("Entered into created Delivery : {}", delivery);
+        log.debug("Entered into created Delivery");
         DeliveryResponse createDelivery = deliveryService.createDelivery(delivery);
-        log.info("Exiting from created Delivery : {}", createDelivery);
+        log.debug("Exiting from created Delivery");
         return ResponseEntity.ok(createDelivery);
     }
 
@@ -49,29 +56,51 @@ public class DeliveryController {
      * @return a {@link ResponseEntity} containing the details of the completed {@link DeliveryResponse}
      */
     @PostMapping(path = "/completeDelivery/{distance}/{delivery-id}")
+    @SqlBudget(2)
     public ResponseEntity<DeliveryResponse> completeDelivery(@PathVariable double distance, @PathVariable(name = "delivery-id") @NotNull Long deliveryId) {
-        log.info("Entered into complete Delivery for Delivery ID: {}", deliveryId);
+        log.debug("Entered into complete Delivery for Delivery ID: {}", deliveryId);
         DeliveryResponse completedDelivery = deliveryService.completeDelivery(distance, deliveryId);
-        log.info("Exiting from complete Delivery for Delivery ID: {}", completedDelivery);
+        log.debug("Exiting from complete Delivery for Delivery ID: {}", deliveryId);
         return ResponseEntity.ok(completedDelivery);
     }
 
+    /**
+     * Completes a batch of deliveries in one request, e.g. the completions a courier app queued while offline.
+     * Each completion is applied on its own terms; the response reports the outcome of every completion.
+     *
+     * @param completions the IDs of the deliveries to be completed and the distances covered
+     * @return a {@link ResponseEntity} containing the number of completed and failed deliveries and the result of each completion
+     */
+    @PostMapping(path = "/completeDelivery/batch")
+    public ResponseEntity<BatchResponse> completeDeliveries(@RequestBody List<DeliveryCompletion> completions) {
+        log.debug("Entered into complete Deliveries, Size: {}", completions.size());
+        BatchResponse response = deliveryService.completeDeliveries(completions);
+        log.debug("Exiting from complete Deliveries, Succeeded: {}, Failed: {}", response.succeeded(), response.failed());
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Retrieves the delivery details for a given delivery ID.
+     * <p>
+     * The response carries the row version of the delivery as ETag. A request whose {@code If-None-Match} header
+     * holds the current version is answered with 304 Not Modified from the version alone.
      *
-     * @param deliveryId the ID of the delivery to be retrieved; must not be null
+     * @param deliveryId  the ID of the delivery to be retrieved; must not be null
+     * @param ifNoneMatch the ETags the client already holds, may be null
      * @return a {@link ResponseEntity} containing the {@link DeliveryResponse} if the delivery exists,
+     * a 304 Not Modified status if it has not changed,
      * or a {@link ResponseEntity} with a 404 Not Found status if the delivery is not found
      */
     @GetMapping(path = "/getDelivery/{delivery-id}")
-    public ResponseEntity<DeliveryResponse> getDeliveryById(@PathVariable(name = "delivery-id") @NotNull Long deliveryId) {
-        log.info("Entered into getDeliveryById Delivery ID: {}", deliveryId);
-        DeliveryResponse delivery = deliveryService.findById(deliveryId);
-        if ( delivery != null ) {
-            log.info("Exiting from getDeliveryById for Delivery ID: {}", delivery);
-            return ResponseEntity.ok(delivery);
-        }
-        return ResponseEntity.notFound().build();
+    @SqlBudget(2)
+    public ResponseEntity<DeliveryResponse> getDeliveryById(@PathVariable(name = "delivery-id") @NotNull Long deliveryId,
+                                                            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.debug("Entered into getDeliveryById Delivery ID: {}", deliveryId);
+        return conditionalGet.respond("/delivery/getDelivery", ifNoneMatch, () -> deliveryService.findVersion(deliveryId), version -> {
+            DeliveryResponse delivery = deliveryService.findById(deliveryId);
+            log.debug("Exiting from getDeliveryById for Delivery ID: {}", deliveryId);
+            return delivery;
+        });
     }
 
     /**
@@ -82,13 +111,14 @@ public class DeliveryController {
      * @return a {@link ResponseEntity} containing the {@link TopDeliveryMenResponse} with the details of top-performing delivery men
      */
     @GetMapping("/top-delivery-men")
+    @SqlBudget(1)
     public ResponseEntity<TopDeliveryMenResponse> getTopDeliveryMen(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime
     ) {
-        log.info("Entered into getTopDeliveryMen StartTime : {},EndTime : {}", startTime, endTime);
+        log.debug("Entered into getTopDeliveryMen StartTime : {},EndTime : {}", startTime, endTime);
         var response = deliveryService.getTopDeliveryMen(startTime, endTime);
-        log.info("Exiting from getTopDeliveryMen StartTime : {},EndTime : {}", startTime, endTime);
+        log.debug("Exiting from getTopDeliveryMen StartTime : {},EndTime : {}", startTime, endTime);
         return ResponseEntity.ok(response);
     }
 }
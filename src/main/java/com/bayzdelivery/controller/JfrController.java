@@ -0,0 +1,118 @@
+package com.bayzdelivery.controller;
+
+import com.bayzdelivery.dto.JfrRecordingResponse;
+import com.bayzdelivery.service.JfrRecordingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JfrController starts and stops Java Flight Recorder recordings of the running application and downloads them.
+ * <p>
+ * The controller maps its endpoints under "/admin/jfr" base path. It is meant for operators and must not be
+ * reachable from outside, see the "Profiling" section of DOC.md.
+ * <p>
+ * - Dependencies:
+ * Uses the JfrRecordingService to manage the recordings.
+ * <p>
+ * - Endpoints:
+ * 1. startRecording: Handles POST requests to start a recording with the given JDK settings and duration.
+ * 2. stopRecording: Handles POST requests to stop a recording before its duration has elapsed.
+ * 3. getRecordings: Handles GET requests to list the recordings.
+ * 4. downloadRecording: Handles GET requests to stream the `.jfr` file of a stopped recording.
+ * 5. closeRecording: Handles DELETE requests to close a recording and delete its data.
+ */
+@RestController
+@RequestMapping("/admin/jfr")
+@RequiredArgsConstructor
+public class JfrController {
+
+    private final JfrRecordingService jfrRecordingService;
+
+    /**
+     * Starts a recording.
+     *
+     * @param profile         the JDK settings, `default` (low overhead) or `profile` (more detail)
+     * @param durationSeconds the duration after which the recording stops by itself
+     * @return a ResponseEntity containing the started recording
+     */
+    @PostMapping("/start")
+    public ResponseEntity<JfrRecordingResponse> startRecording(@RequestParam(defaultValue = "default") String profile,
+                                                               @RequestParam(defaultValue = "60") long durationSeconds) {
+        return ResponseEntity.ok(jfrRecordingService.start(profile, Duration.ofSeconds(durationSeconds)));
+    }
+
+    /**
+     * Stops a running recording; stopping a stopped recording has no effect.
+     *
+     * @param recordingId the ID of the recording
+     * @return a ResponseEntity containing the stopped recording, or a 404 Not Found response if there is no such recording
+     */
+    @PostMapping("/{recording-id}/stop")
+    public ResponseEntity<JfrRecordingResponse> stopRecording(@PathVariable(name = "recording-id") long recordingId) {
+        return jfrRecordingService.stop(recordingId).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Lists the recordings started through this endpoint.
+     *
+     * @return a ResponseEntity containing the recordings, oldest first
+     */
+    @GetMapping
+    public ResponseEntity<List<JfrRecordingResponse>> getRecordings() {
+        return ResponseEntity.ok(jfrRecordingService.findAll());
+    }
+
+    /**
+     * Streams the recorded data of a stopped recording, to be opened in JDK Mission Control or with the `jfr` tool.
+     *
+     * @param recordingId the ID of the recording
+     * @return a ResponseEntity streaming the `.jfr` file, or a 404 Not Found response if there is no such recording
+     * @throws IOException if the data cannot be read from disk
+     */
+    @GetMapping("/{recording-id}/file")
+    public ResponseEntity<StreamingResponseBody> downloadRecording(@PathVariable(name = "recording-id") long recordingId)
+            throws IOException {
+        Optional<InputStream> stream = jfrRecordingService.openStream(recordingId);
+        if ( stream.isEmpty() ) {
+            return ResponseEntity.notFound().build();
+        }
+        StreamingResponseBody body = out -> {
+            try ( InputStream in = stream.get() ) {
+                in.transferTo(out);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("recording-" + recordingId + ".jfr").build().toString())
+                .body(body);
+    }
+
+    /**
+     * Closes a recording and deletes its data.
+     *
+     * @param recordingId the ID of the recording
+     * @return a 204 No Content response, or a 404 Not Found response if there is no such recording
+     */
+    @DeleteMapping("/{recording-id}")
+    public ResponseEntity<Void> closeRecording(@PathVariable(name = "recording-id") long recordingId) {
+        return jfrRecordingService.close(recordingId) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+}
@@ -1,12 +1,21 @@
 package com.bayzdelivery.controller;
 
+import com.bayzdelivery.config.SqlBudget;
+import com.bayzdelivery.dto.BatchResponse;
+import com.bayzdelivery.dto.KeysetPage;
 import com.bayzdelivery.dto.OrderResponse;
 import com.bayzdelivery.model.Orders;
 import com.bayzdelivery.service.OrdersService;
+import com.bayzdelivery.utils.ContinuationToken;
+import com.bayzdelivery.utils.NdjsonWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -22,8 +31,11 @@ import java.util.List;
  * <p>
  * - Endpoints:
  * 1. newOrder: Handles POST requests to create a new order.
- * 2. getAllOrders: Handles GET requests to retrieve all orders.
- * 3. getOrderById: Handles GET requests to retrieve a specific order by its ID.
+ * 2. newOrders: Handles POST requests to create a batch of orders.
+ * 3. getAllOrders: Handles GET requests to retrieve the orders page by page.
+ * 4. streamAllOrders: Handles GET requests to export all orders as newline-delimited JSON.
+ * 5. getOrderById: Handles GET requests to retrieve a specific order by its ID, answering conditional
+ * requests of an unchanged order with 304 Not Modified.
  */
 @Slf4j
 @RestController
@@ -32,6 +44,8 @@ import java.util.List;
 public class OrdersController {
 
     private final OrdersService orderService;
+    private final ObjectMapper objectMapper;
+    private final ConditionalGet conditionalGet;
 
     /**
      * Creates a new order by persisting the provided order details.
@@ -40,38 +54,87 @@ public class OrdersController {
      * @return a ResponseEntity containing the created order's response object
      */
     @PostMapping("/newOrder")
+    @SqlBudget(3)
     public ResponseEntity<OrderResponse> newOrder(@RequestBody Orders order) {
-        log.info("Entered into create newOrder : {}", order);
+        log.debug("Entered into create newOrder");
         return ResponseEntity.ok(orderService.save(order));
     }
 
     /**
-     * Retrieves all orders from the database.
+     * Creates a batch of new orders in one request.
+     * Each order is validated and saved on its own terms; the response reports the outcome of every order.
      *
-     * @return a ResponseEntity containing a list of OrderResponse objects representing all available orders.
+     * @param orders the details of the orders to be created
+     * @return a ResponseEntity containing the number of created and failed orders and the result of each order
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResponse> newOrders(@RequestBody List<Orders> orders) {
+        log.debug("Entered into create newOrders, Size:{}", orders.size());
+        BatchResponse response = orderService.saveBatch(orders);
+        log.debug("Exiting from create newOrders, Succeeded:{}, Failed:{}", response.succeeded(), response.failed());
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Retrieves a page of orders, ordered by ID.
+     * <p>
+     * The continuation token of the next page is returned in the {@code X-Continuation-Token} header,
+     * which is absent on the last page; passing it back as {@code after} retrieves the next page.
+     *
+     * @param after the continuation token of the previous page, omitted for the first page
+     * @param limit the maximum number of orders of the page
+     * @return a ResponseEntity containing a list of OrderResponse objects representing the page of orders.
      */
     @GetMapping("/getAllOrder")
-    public ResponseEntity<List<OrderResponse>> getAllOrders() {
-        log.info("Entered into getAllOrders");
-        return ResponseEntity.ok(orderService.getAll());
+    @SqlBudget(1)
+    public ResponseEntity<List<OrderResponse>> getAllOrders(@RequestParam(required = false) String after,
+                                                            @RequestParam(required = false) Integer limit) {
+        log.debug("Entered into getAllOrders, After:{}, Limit:{}", after, limit);
+        KeysetPage<OrderResponse> page = orderService.getPage(after, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if ( page.continuationToken() != null ) {
+            response.header(ContinuationToken.HEADER, page.continuationToken());
+        }
+        return response.body(page.items());
+    }
+
+    /**
+     * Exports all orders, ordered by ID, as newline-delimited JSON.
+     * <p>
+     * The orders are written to the response while they are read from a database cursor,
+     * so the export runs in constant memory whatever the number of orders.
+     *
+     * @return a ResponseEntity streaming one OrderResponse JSON document per line
+     */
+    @GetMapping(value = "/getAllOrder/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllOrders() {
+        log.debug("Entered into streamAllOrders");
+        StreamingResponseBody body = outputStream -> orderService.streamAll(new NdjsonWriter<>(objectMapper, outputStream));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     /**
      * Retrieves the order details for the specified order ID.
+     * <p>
+     * The response carries the version of the order as ETag. A request whose {@code If-None-Match} header
+     * holds the current version is answered with 304 Not Modified from the version alone.
      *
-     * @param orderId the unique identifier of the order to retrieve
+     * @param orderId     the unique identifier of the order to retrieve
+     * @param ifNoneMatch the ETags the client already holds, may be null
      * @return a ResponseEntity containing the order details if found,
+     * a 304 Not Modified response if the order has not changed,
      * or a 404 Not Found response if no order exists with the provided ID
      */
     @GetMapping("/getOrder/{order-id}")
-    public ResponseEntity<OrderResponse> getOrderById(@PathVariable(name = "order-id") Long orderId) {
-        log.info("Entered into getOrderById for OrderId : {}", orderId);
-        OrderResponse orders = orderService.findById(orderId);
-        if ( orders != null ) {
-            log.info("Exiting from getOrderById for orders : {}", orders);
-            return ResponseEntity.ok(orders);
-        }
-        return ResponseEntity.notFound().build();
+    @SqlBudget(2)
+    public ResponseEntity<OrderResponse> getOrderById(@PathVariable(name = "order-id") Long orderId,
+                                                      @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.debug("Entered into getOrderById for OrderId : {}", orderId);
+        return conditionalGet.respond("/orders/getOrder", ifNoneMatch, () -> orderService.findVersion(orderId), version -> {
+            OrderResponse orders = orderService.findById(orderId, version);
+            log.debug("Exiting from getOrderById for OrderId : {}", orderId);
+            return orders;
+        });
     }
 
 
@@ -1,13 +1,21 @@
 package com.bayzdelivery.controller;
 
+import com.bayzdelivery.config.SqlBudget;
+import com.bayzdelivery.dto.KeysetPage;
 import com.bayzdelivery.dto.PersonRegisterResponse;
 import com.bayzdelivery.model.Person;
 import com.bayzdelivery.service.PersonService;
 import jakarta.validation.constraints.NotNull;
+import com.bayzdelivery.utils.ContinuationToken;
+import com.bayzdelivery.utils.NdjsonWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -23,8 +31,10 @@ import java.util.List;
  * <p>
  * Endpoints:
  * 1. registerNewUser: Handles POST requests to register a new user.
- * 2. getAllUsers: Handles GET requests to fetch a list of all registered users.
- * 3. getUserById: Handles GET requests to fetch the details of a specific user based on the user ID.
+ * 2. getAllUsers: Handles GET requests to fetch the registered users page by page.
+ * 3. streamAllUsers: Handles GET requests to export all registered users as newline-delimited JSON.
+ * 4. getUserById: Handles GET requests to fetch the details of a specific user based on the user ID,
+ * answering conditional requests of an unchanged user with 304 Not Modified.
  */
 @Slf4j
 @RestController
@@ -32,55 +42,89 @@ import java.util.List;
 @RequiredArgsConstructor
 public class PersonController {
     private final PersonService personService;
+    private final ObjectMapper objectMapper;
+    private final ConditionalGet conditionalGet;
 
     /**
      * Registers a new user by saving their details and returns the response.
+     * A body carrying the ID of a registered user updates the details of that user.
      *
      * @param user the details of the person to be registered
      * @return a ResponseEntity containing the registration details of the person
      */
     @PostMapping("/newRegister")
+    @SqlBudget(3)
     public ResponseEntity<PersonRegisterResponse> registerNewUser(@RequestBody Person user) {
-        log.info("Entered into registerNewUser : {}", user);
+        log.debug("Entered into registerNewUser");
         PersonRegisterResponse userRegisterResponse = personService.save(user);
-        log.info("Exiting from registerNewUser : {}", userRegisterResponse);
+        log.debug("Exiting from registerNewUser");
         return ResponseEntity.ok(userRegisterResponse);
 
     }
 
     /**
-     * Retrieves all registered users.
+     * Retrieves a page of registered users, ordered by ID.
      * <p>
-     * This method fetches a list of all registered users and returns it as a response.
+     * The continuation token of the next page is returned in the {@code X-Continuation-Token} header,
+     * which is absent on the last page; passing it back as {@code after} retrieves the next page.
      * Logs are generated at both entry and exit points for traceability.
      *
+     * @param after the continuation token of the previous page, omitted for the first page
+     * @param limit the maximum number of users of the page
      * @return a ResponseEntity containing a list of PersonRegisterResponse objects,
      * each representing a registered user's details
      */
     @GetMapping("/getAllUsers")
-    public ResponseEntity<List<PersonRegisterResponse>> getAllUsers() {
-        log.info("Entered into getAllUsers");
-        List<PersonRegisterResponse> userList = personService.getAll();
-        log.info("Exiting from getAllUsers UserList : {}", userList);
-        return ResponseEntity.ok(userList);
+    @SqlBudget(1)
+    public ResponseEntity<List<PersonRegisterResponse>> getAllUsers(@RequestParam(required = false) String after,
+                                                                    @RequestParam(required = false) Integer limit) {
+        log.debug("Entered into getAllUsers, After:{}, Limit:{}", after, limit);
+        KeysetPage<PersonRegisterResponse> page = personService.getPage(after, limit);
+        log.debug("Exiting from getAllUsers, Size:{}", page.items().size());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if ( page.continuationToken() != null ) {
+            response.header(ContinuationToken.HEADER, page.continuationToken());
+        }
+        return response.body(page.items());
+    }
+
+    /**
+     * Exports all registered users, ordered by ID, as newline-delimited JSON.
+     * <p>
+     * The users are written to the response while they are read from a database cursor,
+     * so the export runs in constant memory whatever the number of users.
+     *
+     * @return a ResponseEntity streaming one PersonRegisterResponse JSON document per line
+     */
+    @GetMapping(value = "/getAllUsers/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        log.debug("Entered into streamAllUsers");
+        StreamingResponseBody body = outputStream -> personService.streamAll(new NdjsonWriter<>(objectMapper, outputStream));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
 
     /**
      * Retrieves the user details for the specified user ID.
+     * <p>
+     * The response carries the row version of the user as ETag. A request whose {@code If-None-Match} header
+     * holds the current version is answered with 304 Not Modified from the version alone.
      *
-     * @param userId the unique identifier of the user to retrieve
+     * @param userId      the unique identifier of the user to retrieve
+     * @param ifNoneMatch the ETags the client already holds, may be null
      * @return a ResponseEntity containing the user details if found,
+     * a 304 Not Modified response if the user has not changed,
      * or a 404 Not Found response if no user exists with the provided ID
      */
     @GetMapping("/user/{user-id}")
-    public ResponseEntity<PersonRegisterResponse> getUserById(@PathVariable(name = "user-id") @NotNull Long userId) {
-        log.info("Entered into getUserById for UserId :{}", userId);
-        PersonRegisterResponse userDetail = personService.findById(userId);
-        if ( userDetail != null ) {
-            log.info("Exiting from getUserById for UserId :{}, userDetail:{}", userId, userDetail);
-            return ResponseEntity.ok(userDetail);
-        }
-        return ResponseEntity.notFound().build();
+    @SqlBudget(2)
+    public ResponseEntity<PersonRegisterResponse> getUserById(@PathVariable(name = "user-id") @NotNull Long userId,
+                                                              @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.debug("Entered into getUserById for UserId :{}", userId);
+        return conditionalGet.respond("/regapi/user", ifNoneMatch, () -> personService.findVersion(userId), version -> {
+            PersonRegisterResponse userDetail = personService.findById(userId, version);
+            log.debug("Exiting from getUserById for UserId :{}", userId);
+            return userDetail;
+        });
     }
 
 }
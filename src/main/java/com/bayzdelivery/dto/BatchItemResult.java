@@ -0,0 +1,31 @@
+package com.bayzdelivery.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Represents the outcome of one item of a batch request.
+ * <p>
+ * Fields:
+ * - index: Position of the item in the request, starting at 0.
+ * - id: Unique identifier of the entity the item created or updated; null if the item failed.
+ * - status: SUCCEEDED or FAILED.
+ * - error: Why the item failed; null if it succeeded.
+ */
+public record BatchItemResult(int index, Long id, String status, String error) {
+
+    public static final String SUCCEEDED = "SUCCEEDED";
+    public static final String FAILED = "FAILED";
+
+    public static BatchItemResult succeeded(int index, Long id) {
+        return new BatchItemResult(index, id, SUCCEEDED, null);
+    }
+
+    public static BatchItemResult failed(int index, String error) {
+        return new BatchItemResult(index, null, FAILED, error);
+    }
+
+    @JsonIgnore
+    public boolean isSucceeded() {
+        return SUCCEEDED.equals(status);
+    }
+}
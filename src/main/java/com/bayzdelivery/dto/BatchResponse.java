@@ -0,0 +1,19 @@
+package com.bayzdelivery.dto;
+
+import java.util.List;
+
+/**
+ * Represents the response to a batch request.
+ * <p>
+ * Fields:
+ * - succeeded: The number of items that were applied.
+ * - failed: The number of items that were rejected or could not be applied.
+ * - results: The outcome of every item, in the order of the request.
+ */
+public record BatchResponse(int succeeded, int failed, List<BatchItemResult> results) {
+
+    public static BatchResponse of(List<BatchItemResult> results) {
+        int succeeded = (int) results.stream().filter(BatchItemResult::isSucceeded).count();
+        return new BatchResponse(succeeded, results.size() - succeeded, results);
+    }
+}
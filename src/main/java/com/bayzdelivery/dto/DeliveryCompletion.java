@@ -0,0 +1,12 @@
+package com.bayzdelivery.dto;
+
+/**
+ * A record that represents one completion of a batch completion request.
+ * <p>
+ * Fields:
+ * - deliveryId: Unique identifier of the delivery to be completed.
+ * - distance: The distance covered for the delivery.
+ */
+public record DeliveryCompletion(Long deliveryId,
+                                 Double distance) {
+}
@@ -0,0 +1,25 @@
+package com.bayzdelivery.dto;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * A record that represents a Java Flight Recorder recording started through the admin endpoint.
+ * <p>
+ * Fields:
+ * - id: Identifier of the recording, used to stop, download and close it.
+ * - name: The name of the recording.
+ * - profile: The JFR settings the recording was started with, `default` or `profile`.
+ * - state: The state of the recording: `RUNNING`, `STOPPED` or `CLOSED`.
+ * - startTime: The time the recording was started.
+ * - duration: The requested duration, after which the recording stops by itself.
+ * - size: The size of the recorded data in bytes, known once the recording has stopped.
+ */
+public record JfrRecordingResponse(long id,
+                                   String name,
+                                   String profile,
+                                   String state,
+                                   Instant startTime,
+                                   Duration duration,
+                                   long size) {
+}
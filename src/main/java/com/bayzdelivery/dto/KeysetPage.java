@@ -0,0 +1,35 @@
+package com.bayzdelivery.dto;
+
+import com.bayzdelivery.utils.ContinuationToken;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Represents one page of a keyset-paginated listing.
+ * <p>
+ * Fields:
+ * - items: The rows of the page, ordered by ID.
+ * - continuationToken: The token of the next page, or null if this is the last page.
+ *
+ * @param <T> the type of the rows
+ */
+public record KeysetPage<T>(List<T> items, String continuationToken) {
+
+    /**
+     * Builds a page from rows fetched with a limit of one more than the page size; the extra row
+     * only tells whether another page follows and is dropped.
+     *
+     * @param rows  the rows after the previous page, at most limit + 1
+     * @param limit the page size
+     * @param idOf  the ID of a row
+     * @return the page holding the first limit rows
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, int limit, Function<T, Long> idOf) {
+        if ( rows.size() <= limit ) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new KeysetPage<>(List.copyOf(items), ContinuationToken.encode(idOf.apply(items.get(limit - 1))));
+    }
+}
@@ -0,0 +1,19 @@
+package com.bayzdelivery.dto;
+
+import java.time.Instant;
+
+/**
+ * A record that represents a delivery found by the overdue scan.
+ * <p>
+ * Only the columns the overdue check needs are read, so the scan does not load the delivery entity
+ * together with its delivery man, customer and order.
+ * <p>
+ * Fields:
+ * - id: Unique identifier of the delivery.
+ * - deliveryManId: Unique identifier of the delivery person handling the delivery.
+ * - startTime: The time the delivery started.
+ */
+public record OverdueDelivery(Long id,
+                              Long deliveryManId,
+                              Instant startTime) {
+}
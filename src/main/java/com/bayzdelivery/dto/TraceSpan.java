@@ -0,0 +1,18 @@
+package com.bayzdelivery.dto;
+
+/**
+ * A record that represents one timed step of a traced request.
+ * <p>
+ * Fields:
+ * - kind: The layer of the step: `controller`, `service` or `sql`.
+ * - name: The class and method of a controller or service span, the SQL of a statement span.
+ * - depth: The nesting level of the span, 0 for the outermost span of the request.
+ * - startMicros: The start of the span, in microseconds after the start of the request.
+ * - durationMicros: The duration of the span in microseconds.
+ */
+public record TraceSpan(String kind,
+                        String name,
+                        int depth,
+                        long startMicros,
+                        long durationMicros) {
+}
@@ -0,0 +1,27 @@
+package com.bayzdelivery.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A record that represents a finished trace of one request and its latency breakdown.
+ * <p>
+ * Fields:
+ * - traceId: Identifier of the request, also found in its log lines and its `X-Trace-Id` response header.
+ * - method: The HTTP method of the request.
+ * - path: The path of the request, relative to the context path.
+ * - status: The HTTP status of the response.
+ * - startTime: The time the request was received.
+ * - durationMicros: The duration of the request in microseconds.
+ * - spans: The controller, service and SQL spans of the request, ordered by start.
+ * - droppedSpans: The number of spans not recorded because the trace reached its span limit.
+ */
+public record TraceSummary(String traceId,
+                           String method,
+                           String path,
+                           int status,
+                           Instant startTime,
+                           long durationMicros,
+                           List<TraceSpan> spans,
+                           int droppedSpans) {
+}
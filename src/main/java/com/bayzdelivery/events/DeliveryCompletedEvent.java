@@ -0,0 +1,25 @@
+package com.bayzdelivery.events;
+
+import java.time.Instant;
+
+/**
+ * Application event published when a delivery has been completed.
+ * <p>
+ * Listeners that keep derived state, such as the in-memory leaderboard, use it to update themselves
+ * without reading the delivery back from the database.
+ * <p>
+ * Fields:
+ * - deliveryId: Unique identifier of the completed delivery.
+ * - deliveryManId: Unique identifier of the delivery man who completed the delivery.
+ * - deliveryManName: Name of the delivery man.
+ * - startTime: The time the delivery started.
+ * - endTime: The time the delivery was completed.
+ * - commission: The commission earned for the delivery.
+ */
+public record DeliveryCompletedEvent(Long deliveryId,
+                                     Long deliveryManId,
+                                     String deliveryManName,
+                                     Instant startTime,
+                                     Instant endTime,
+                                     double commission) {
+}
@@ -0,0 +1,19 @@
+package com.bayzdelivery.events;
+
+import java.time.Instant;
+
+/**
+ * Application event published when a delivery man has picked up an order and the ACTIVE delivery was created.
+ * <p>
+ * Listeners that track in-flight deliveries, such as the overdue timer, use it to start tracking the delivery
+ * without reading it back from the database.
+ * <p>
+ * Fields:
+ * - deliveryId: Unique identifier of the created delivery.
+ * - deliveryManId: Unique identifier of the delivery man who picked up the order.
+ * - startTime: The time the delivery started.
+ */
+public record DeliveryStartedEvent(Long deliveryId,
+                                   Long deliveryManId,
+                                   Instant startTime) {
+}
@@ -0,0 +1,41 @@
+package com.bayzdelivery.events.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event of one delivery completion, including the conditional update of the delivery and the ledger.
+ * <p>
+ * Fields:
+ * - deliveryId: Unique identifier of the completed delivery.
+ * - deliveryManId: Unique identifier of the courier, 0 if the completion was rejected.
+ * - distance: The distance covered in kilometers.
+ * - commission: The commission earned, 0 if the completion was rejected.
+ * - completed: Whether the delivery was completed.
+ */
+@Name("com.bayzdelivery.Completion")
+@Label("Delivery Completion")
+@Category({"BayzDelivery", "Delivery"})
+@Description("Completion of an ACTIVE delivery by DeliveryService.completeDelivery")
+@StackTrace(false)
+public class CompletionEvent extends Event {
+
+    @Label("Delivery Id")
+    public long deliveryId;
+
+    @Label("Courier Id")
+    public long deliveryManId;
+
+    @Label("Distance")
+    public double distance;
+
+    @Label("Commission")
+    public double commission;
+
+    @Label("Completed")
+    public boolean completed;
+}
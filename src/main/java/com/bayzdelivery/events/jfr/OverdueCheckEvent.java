@@ -0,0 +1,33 @@
+package com.bayzdelivery.events.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event of one run of the scheduled overdue delivery check.
+ * <p>
+ * Fields:
+ * - rowsExamined: The number of newly overdue deliveries claimed.
+ * - batches: The number of claim queries run.
+ * - failed: Whether the run ended with an error.
+ */
+@Name("com.bayzdelivery.OverdueCheck")
+@Label("Overdue Delivery Check")
+@Category({"BayzDelivery", "Jobs"})
+@Description("Run of DeliveryCheckService.checkDelivery")
+@StackTrace(false)
+public class OverdueCheckEvent extends Event {
+
+    @Label("Rows Examined")
+    public long rowsExamined;
+
+    @Label("Batches")
+    public int batches;
+
+    @Label("Failed")
+    public boolean failed;
+}
@@ -0,0 +1,38 @@
+package com.bayzdelivery.events.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event of one delivery pickup, from the request reaching the service to the ACTIVE delivery being created
+ * or the pickup being rejected.
+ * <p>
+ * Fields:
+ * - orderId: Unique identifier of the picked up order.
+ * - deliveryManId: Unique identifier of the courier.
+ * - deliveryId: Unique identifier of the created delivery, 0 if the pickup was rejected.
+ * - accepted: Whether the delivery was created.
+ */
+@Name("com.bayzdelivery.Pickup")
+@Label("Delivery Pickup")
+@Category({"BayzDelivery", "Delivery"})
+@Description("Creation of an ACTIVE delivery by DeliveryService.createDelivery")
+@StackTrace(false)
+public class PickupEvent extends Event {
+
+    @Label("Order Id")
+    public long orderId;
+
+    @Label("Courier Id")
+    public long deliveryManId;
+
+    @Label("Delivery Id")
+    public long deliveryId;
+
+    @Label("Accepted")
+    public boolean accepted;
+}
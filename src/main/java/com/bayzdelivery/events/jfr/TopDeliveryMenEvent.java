@@ -0,0 +1,35 @@
+package com.bayzdelivery.events.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event of one top delivery men query.
+ * <p>
+ * Fields:
+ * - rangeMillis: The length of the queried time range.
+ * - source: `memory` if answered by the in-memory leaderboard, `ledger` if read from the commission ledger.
+ * - deliveryMen: The number of delivery men returned.
+ */
+@Name("com.bayzdelivery.TopDeliveryMen")
+@Label("Top Delivery Men")
+@Category({"BayzDelivery", "Leaderboard"})
+@Description("Top delivery men query of DeliveryService.getTopDeliveryMen")
+@StackTrace(false)
+public class TopDeliveryMenEvent extends Event {
+
+    @Label("Range")
+    @Timespan(Timespan.MILLISECONDS)
+    public long rangeMillis;
+
+    @Label("Source")
+    public String source;
+
+    @Label("Delivery Men")
+    public int deliveryMen;
+}
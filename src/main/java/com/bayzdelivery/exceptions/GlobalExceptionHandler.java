@@ -2,6 +2,7 @@ package com.bayzdelivery.exceptions;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
@@ -70,4 +71,15 @@ public class GlobalExceptionHandler {
     public ResponseEntity<String> handlePersonNotFoundExceptionException(IllegalArgumentException ex) {
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.NOT_FOUND);
     }
+
+    /**
+     * Answers an update of a row that was changed concurrently, detected by its row version.
+     *
+     * @param ex the optimistic locking failure
+     * @return a 409 Conflict response
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex) {
+        return new ResponseEntity<>("The resource was changed concurrently, reload it and try again", HttpStatus.CONFLICT);
+    }
 }
@@ -0,0 +1,13 @@
+package com.bayzdelivery.exceptions;
+
+/**
+ * Exception thrown when a request issues more JDBC statements than the {@code @SqlBudget} of its endpoint.
+ * <p>
+ * It is only thrown with {@code sql-budget.fail-on-exceed}, so a test exercising an endpoint fails on an
+ * N+1 regression; otherwise the excess is logged as a warning.
+ */
+public class SqlBudgetExceededException extends RuntimeException {
+    public SqlBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -1,38 +1,281 @@
 package com.bayzdelivery.jobs;
 
-
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Async;
+import com.bayzdelivery.dto.OverdueDelivery;
+import com.bayzdelivery.repositories.DeliveryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
 /**
  * This class is responsible for handling notifications related to delayed deliveries.
- * It contains methods for periodic checks and notifying the customer support team
- * in case of delayed deliveries.
+ * <p>
+ * Overdue deliveries are handed in by the overdue check and put on a bounded queue without blocking the check.
+ * A dedicated dispatcher thread coalesces them into batches, which are closed once they hold
+ * {@code delivery-notification.batch-size} deliveries or {@code delivery-notification.flush-interval-ms}
+ * after their first delivery, and hands each batch to the configured {@link NotificationSink}.
+ * <p>
+ * Key Features:
+ * 1. A delivery is notified once per {@code delivery-notification.renotify-after-minutes}, however often it is reported.
+ * 2. When the queue is full the delivery is rejected rather than blocking the caller; its overdue notification mark
+ * is cleared, so it is claimed again by the next check. Callers check {@link #isFull()} to stop handing in more.
+ * 3. When the sink fails the overdue notification marks of the batch are cleared, so the batch is notified again by the next check.
+ * 4. Deliveries still queued on shutdown are sent before the dispatcher stops. If they cannot be sent in time, the
+ * overdue notification marks of the deliveries left unsent are cleared, so another instance or the next start
+ * notifies them.
+ * <p>
+ * Metrics:
+ * - `delivery.notification.queue.size`: Gauge of the deliveries waiting to be sent.
+ * - `delivery.notification.enqueued`: Counter of the deliveries accepted.
+ * - `delivery.notification.deduplicated`: Counter of the deliveries skipped as already notified.
+ * - `delivery.notification.rejected`: Counter of the deliveries rejected because the queue was full.
+ * - `delivery.notification.sent` / `delivery.notification.failed`: Counters of the deliveries the sink sent or failed on.
+ * - `delivery.notification.send`: Timer of a sink call.
  */
+@Slf4j
 @Component
 public class DelayedDeliveryNotifier {
 
-    private static final Logger LOG = LoggerFactory.getLogger(DelayedDeliveryNotifier.class);
+    static final String QUEUE_SIZE_GAUGE = "delivery.notification.queue.size";
+    static final String ENQUEUED_COUNTER = "delivery.notification.enqueued";
+    static final String DEDUPLICATED_COUNTER = "delivery.notification.deduplicated";
+    static final String REJECTED_COUNTER = "delivery.notification.rejected";
+    static final String SENT_COUNTER = "delivery.notification.sent";
+    static final String FAILED_COUNTER = "delivery.notification.failed";
+    static final String SEND_TIMER = "delivery.notification.send";
+
+    /** Queued by {@link #stop()} to wake up the dispatcher; never sent. */
+    private static final OverdueDelivery SHUTDOWN = new OverdueDelivery(null, null, null);
+
+    private final NotificationSink notificationSink;
+    private final DeliveryRepository deliveryRepository;
+    private final MeterRegistry meterRegistry;
+    private final Counter enqueued;
+    private final Counter deduplicated;
+    private final Counter rejected;
+    private final Counter sent;
+    private final Counter failed;
+    private final Timer sendTimer;
+
+    @Value("${delivery-notification.queue-capacity:10000}")
+    private int queueCapacity = 10000;
+
+    @Value("${delivery-notification.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${delivery-notification.flush-interval-ms:1000}")
+    private long flushIntervalMs = 1000;
+
+    @Value("${delivery-notification.renotify-after-minutes:60}")
+    private long renotifyAfterMinutes = 60;
+
+    private Clock clock = Clock.systemUTC();
+
+    private final Map<Long, Instant> notifiedAt = new ConcurrentHashMap<>();
+    private volatile BlockingQueue<OverdueDelivery> queue;
+    private ExecutorService dispatcher;
+    private volatile boolean running;
+
+    public DelayedDeliveryNotifier(NotificationSink notificationSink, DeliveryRepository deliveryRepository,
+                                   MeterRegistry meterRegistry) {
+        this.notificationSink = notificationSink;
+        this.deliveryRepository = deliveryRepository;
+        this.meterRegistry = meterRegistry;
+        this.enqueued = Counter.builder(ENQUEUED_COUNTER).register(meterRegistry);
+        this.deduplicated = Counter.builder(DEDUPLICATED_COUNTER).register(meterRegistry);
+        this.rejected = Counter.builder(REJECTED_COUNTER).register(meterRegistry);
+        this.sent = Counter.builder(SENT_COUNTER).register(meterRegistry);
+        this.failed = Counter.builder(FAILED_COUNTER).register(meterRegistry);
+        this.sendTimer = Timer.builder(SEND_TIMER).register(meterRegistry);
+    }
+
+    /**
+     * Starts the dispatcher thread and registers the gauge of its queue.
+     */
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(Math.max(queueCapacity, 1));
+        dispatcher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "delayed-delivery-notifier");
+            thread.setDaemon(true);
+            return thread;
+        });
+        running = true;
+        dispatcher.submit(this::dispatch);
+        Gauge.builder(QUEUE_SIZE_GAUGE, this, DelayedDeliveryNotifier::queuedDeliveries).register(meterRegistry);
+    }
+
+    /**
+     * Stops the dispatcher thread once the queued deliveries have been sent. If the dispatcher does not finish in
+     * time it is interrupted, and the overdue notification marks of the deliveries still queued are cleared before
+     * returning.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        queue.offer(SHUTDOWN);
+        dispatcher.shutdown();
+        try {
+            if ( !dispatcher.awaitTermination(2 * flushIntervalMs + 1000, TimeUnit.MILLISECONDS) ) {
+                dispatcher.shutdownNow();
+                releaseQueued();
+            }
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            dispatcher.shutdownNow();
+            releaseQueued();
+        }
+    }
+
+    /**
+     * Takes the deliveries still queued off the queue and clears their overdue notification marks.
+     */
+    private void releaseQueued() {
+        List<OverdueDelivery> unsent = new ArrayList<>();
+        queue.drainTo(unsent);
+        unsent.removeIf(delivery -> delivery == SHUTDOWN);
+        if ( unsent.isEmpty() ) {
+            return;
+        }
+        log.warn("Delayed delivery notifier stopped with {} deliveries not notified, releasing them", unsent.size());
+        unsent.forEach(delivery -> notifiedAt.remove(delivery.id()));
+        releaseOverdueNotifications(unsent.stream().map(OverdueDelivery::id).toList());
+    }
 
     /**
-     * Use this method for the TASK 3
+     * Removes the deliveries notified longer than {@code delivery-notification.renotify-after-minutes} ago,
+     * so the deduplication only holds recently notified deliveries.
      */
     @Scheduled(fixedDelay = 30000)
     public void checkDelayedDeliveries() {
-
+        Instant cutoff = clock.instant().minus(renotifyAfter());
+        notifiedAt.values().removeIf(notified -> notified.isBefore(cutoff));
+        log.debug("Delayed delivery notifier, Queued:{}, RecentlyNotified:{}", queuedDeliveries(), notifiedAt.size());
     }
 
+    /**
+     * Queues a customer support notification for an overdue delivery without blocking the caller.
+     * The delivery is skipped when it was notified within {@code delivery-notification.renotify-after-minutes},
+     * and rejected when the queue is full.
+     *
+     * @param delivery the overdue delivery
+     * @return true if the delivery was queued, false if it was skipped or rejected
+     */
+    public boolean notifyCustomerSupport(OverdueDelivery delivery) {
+        if ( delivery == null || delivery.id() == null ) {
+            log.warn("Attempted to notify customer support for a null delivery.");
+            return false;
+        }
+        Instant now = clock.instant();
+        Instant cutoff = now.minus(renotifyAfter());
+        Instant previous = notifiedAt.putIfAbsent(delivery.id(), now);
+        if ( previous != null && (!previous.isBefore(cutoff) || !notifiedAt.replace(delivery.id(), previous, now)) ) {
+            deduplicated.increment();
+            return false;
+        }
+        if ( !queue.offer(delivery) ) {
+            notifiedAt.remove(delivery.id(), now);
+            releaseOverdueNotifications(List.of(delivery.id()));
+            rejected.increment();
+            log.warn("Notification queue is full, Delivery ID {} will be notified by a later check", delivery.id());
+            return false;
+        }
+        enqueued.increment();
+        return true;
+    }
 
     /**
-     * This method should be called to notify customer support team
-     * It just writes notification on console but it may be email or push notification in real.
-     * So that this method should run in an async way.
+     * @return true if the queue holds as many deliveries as it can, so a new delivery would be rejected
      */
-    @Async
-    public void notifyCustomerSupport() {
-        LOG.info("Customer support team is notified!");
+    public boolean isFull() {
+        BlockingQueue<OverdueDelivery> current = queue;
+        return current != null && current.remainingCapacity() == 0;
+    }
+
+    private void dispatch() {
+        List<OverdueDelivery> batch = new ArrayList<>(batchSize);
+        while ( running || !queue.isEmpty() ) {
+            try {
+                OverdueDelivery first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if ( first == null || first == SHUTDOWN ) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while ( batch.size() < batchSize ) {
+                    if ( !running ) {
+                        queue.drainTo(batch, batchSize - batch.size());
+                        batch.removeIf(delivery -> delivery == SHUTDOWN);
+                        break;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    OverdueDelivery next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if ( next == null || next == SHUTDOWN ) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                send(batch);
+            } catch ( InterruptedException e ) {
+                // interrupted by stop, the deliveries taken for the batch have not been sent
+                Thread.currentThread().interrupt();
+                batch.removeIf(delivery -> delivery == SHUTDOWN);
+                if ( !batch.isEmpty() ) {
+                    batch.forEach(delivery -> notifiedAt.remove(delivery.id()));
+                    releaseOverdueNotifications(batch.stream().map(OverdueDelivery::id).toList());
+                }
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(List<OverdueDelivery> batch) {
+        List<OverdueDelivery> deliveries = List.copyOf(batch);
+        try {
+            sendTimer.record(() -> notificationSink.send(deliveries));
+            sent.increment(deliveries.size());
+        } catch ( RuntimeException e ) {
+            deliveries.forEach(delivery -> notifiedAt.remove(delivery.id()));
+            releaseOverdueNotifications(deliveries.stream().map(OverdueDelivery::id).toList());
+            failed.increment(deliveries.size());
+            log.error("Error while notifying customer support about {} overdue deliveries: {}", deliveries.size(), e.getMessage(), e);
+        }
+    }
+
+    private void releaseOverdueNotifications(List<Long> deliveryIds) {
+        try {
+            deliveryRepository.releaseOverdueNotifications(deliveryIds);
+        } catch ( RuntimeException e ) {
+            log.error("Error while releasing the overdue notification of deliveries {}: {}", deliveryIds, e.getMessage(), e);
+        }
+    }
+
+    private Duration renotifyAfter() {
+        return Duration.ofMinutes(renotifyAfterMinutes);
+    }
+
+    private double queuedDeliveries() {
+        return queue.size();
     }
 }
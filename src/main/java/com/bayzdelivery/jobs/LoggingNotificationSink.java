@@ -0,0 +1,21 @@
+package com.bayzdelivery.jobs;
+
+import com.bayzdelivery.dto.OverdueDelivery;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+/**
+ * NotificationSink that writes the notifications to the application log.
+ * <p>
+ * Used when no other sink is configured, e.g. locally and in tests.
+ */
+@Slf4j
+public class LoggingNotificationSink implements NotificationSink {
+
+    @Override
+    public void send(List<OverdueDelivery> deliveries) {
+        log.info("Customer support team is notified! {} deliveries are overdue: {}", deliveries.size(),
+                deliveries.stream().map(OverdueDelivery::id).toList());
+    }
+}
@@ -0,0 +1,22 @@
+package com.bayzdelivery.jobs;
+
+import com.bayzdelivery.dto.OverdueDelivery;
+
+import java.util.List;
+
+/**
+ * Destination of the customer support notifications sent by the {@link DelayedDeliveryNotifier}.
+ * <p>
+ * Implementations deliver one batch of overdue deliveries at a time, e.g. as an email, a chat message
+ * or a ticket. A batch is never empty. Throwing an exception marks the whole batch as not notified,
+ * so its deliveries are notified again by a later check.
+ */
+public interface NotificationSink {
+
+    /**
+     * Sends one notification for the given overdue deliveries.
+     *
+     * @param deliveries the overdue deliveries, ordered as they were detected
+     */
+    void send(List<OverdueDelivery> deliveries);
+}
@@ -0,0 +1,229 @@
+package com.bayzdelivery.jobs;
+
+import com.bayzdelivery.config.SchedulerMetrics;
+import com.bayzdelivery.dto.OverdueDelivery;
+import com.bayzdelivery.events.DeliveryCompletedEvent;
+import com.bayzdelivery.events.DeliveryStartedEvent;
+import com.bayzdelivery.repositories.DeliveryRepository;
+import com.bayzdelivery.utils.DeliveryHelper;
+import com.bayzdelivery.utils.HashedTimerWheel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detects overdue deliveries as soon as they cross the overdue threshold, instead of waiting for the next
+ * overdue check.
+ * <p>
+ * Every ACTIVE delivery gets a deadline of its start time plus {@code delivery-check.overdue-threshold-minutes}
+ * in a {@link HashedTimerWheel}. The deadline is armed when the delivery is picked up and cancelled when it is
+ * completed; a dedicated thread advances the wheel every {@code delivery-check.timer-wheel.tick-ms}. The deliveries
+ * whose deadline expired are claimed in the database, which skips deliveries completed or notified elsewhere in the
+ * meantime, and handed to the {@link DelayedDeliveryNotifier}.
+ * <p>
+ * Key Responsibilities:
+ * - Rebuilding the deadlines of the ACTIVE deliveries not notified yet when the application has started.
+ * - Arming and cancelling deadlines from {@link DeliveryStartedEvent}s and {@link DeliveryCompletedEvent}s.
+ * - Claiming and notifying the deliveries whose deadline has expired.
+ * <p>
+ * Deadlines are only armed by the instance that handled the pickup. The overdue check of the
+ * {@code DeliveryCheckService} keeps running at a slower rate as a safety net for pickups handled by other
+ * instances and for expiries that could not be claimed.
+ * <p>
+ * Configuration:
+ * - `delivery-check.timer-wheel.enabled`: Switches the overdue timer on or off.
+ * - `delivery-check.timer-wheel.tick-ms`: Duration of one tick; deliveries are notified at most one tick late.
+ * - `delivery-check.timer-wheel.wheel-size`: Number of buckets of the wheel.
+ * <p>
+ * Metrics:
+ * - `delivery.overdue.timer.pending`: Gauge of the armed deadlines.
+ * - `delivery.overdue.timer.expired`: Counter of the deadlines that expired.
+ * - `scheduler.run` and `scheduler.overruns` with the task `OverdueDeliveryWatcher.tick`: Timer of the ticks and
+ * counter of the ticks longer than `delivery-check.timer-wheel.tick-ms`.
+ */
+@Slf4j
+@Component
+public class OverdueDeliveryWatcher {
+
+    static final String PENDING_GAUGE = "delivery.overdue.timer.pending";
+    static final String EXPIRED_COUNTER = "delivery.overdue.timer.expired";
+    static final String TICK_TASK = "OverdueDeliveryWatcher.tick";
+
+    private final DeliveryRepository deliveryRepository;
+    private final DelayedDeliveryNotifier delayedDeliveryNotifier;
+    private final MeterRegistry meterRegistry;
+    private final Counter expired;
+    private final Timer tickTimer;
+    private final Counter tickOverruns;
+
+    @Value("${delivery-check.overdue-threshold-minutes}")
+    private int overdueThresholdMinutes;
+
+    @Value("${delivery-check.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${delivery-check.timer-wheel.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${delivery-check.timer-wheel.tick-ms:1000}")
+    private long tickMillis = 1000;
+
+    @Value("${delivery-check.timer-wheel.wheel-size:512}")
+    private int wheelSize = 512;
+
+    private Clock clock = Clock.systemUTC();
+
+    private volatile HashedTimerWheel<Long, OverdueDelivery> wheel;
+    private ScheduledExecutorService ticker;
+
+    public OverdueDeliveryWatcher(DeliveryRepository deliveryRepository, DelayedDeliveryNotifier delayedDeliveryNotifier,
+                                  MeterRegistry meterRegistry) {
+        this.deliveryRepository = deliveryRepository;
+        this.delayedDeliveryNotifier = delayedDeliveryNotifier;
+        this.meterRegistry = meterRegistry;
+        this.expired = Counter.builder(EXPIRED_COUNTER).register(meterRegistry);
+        this.tickTimer = SchedulerMetrics.runTimer(meterRegistry, TICK_TASK);
+        this.tickOverruns = SchedulerMetrics.overrunsCounter(meterRegistry, TICK_TASK);
+    }
+
+    /**
+     * Registers the gauge of the armed deadlines, creates the wheel and starts the thread advancing it.
+     */
+    @PostConstruct
+    public void start() {
+        Gauge.builder(PENDING_GAUGE, this, OverdueDeliveryWatcher::pendingDeadlines).register(meterRegistry);
+        if ( !enabled ) {
+            return;
+        }
+        wheel = new HashedTimerWheel<>(tickMillis, wheelSize, clock.millis());
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "overdue-delivery-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tickSafely, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the thread advancing the wheel.
+     */
+    @PreDestroy
+    public void stop() {
+        if ( ticker != null ) {
+            ticker.shutdownNow();
+        }
+    }
+
+    /**
+     * Arms the deadlines of all ACTIVE deliveries customer support has not been notified about yet.
+     * Deliveries that are already overdue expire with the next tick.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if ( wheel == null ) {
+            return;
+        }
+        log.info("Entered into rebuild of the overdue delivery timer");
+        try {
+            Limit limit = Limit.of(Math.max(batchSize, 1));
+            long afterId = 0L;
+            List<OverdueDelivery> batch;
+            do {
+                batch = deliveryRepository.findActiveDeliveriesNotNotified(afterId, limit);
+                batch.forEach(this::arm);
+                if ( !batch.isEmpty() ) {
+                    afterId = batch.get(batch.size() - 1).id();
+                }
+            } while ( batch.size() == limit.max() );
+        } catch ( RuntimeException e ) {
+            log.error("Error while rebuilding the overdue delivery timer, the overdue check will catch up: {}", e.getMessage(), e);
+        }
+        log.info("Exiting from rebuild of the overdue delivery timer, Pending:{}", wheel.size());
+    }
+
+    /**
+     * Arms the overdue deadline of a delivery once its pickup has committed.
+     *
+     * @param event the started delivery
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeliveryStarted(DeliveryStartedEvent event) {
+        arm(new OverdueDelivery(event.deliveryId(), event.deliveryManId(), event.startTime()));
+    }
+
+    /**
+     * Cancels the overdue deadline of a delivery once its completion has committed.
+     *
+     * @param event the completed delivery
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeliveryCompleted(DeliveryCompletedEvent event) {
+        if ( wheel != null && event.deliveryId() != null ) {
+            wheel.cancel(event.deliveryId());
+        }
+    }
+
+    void arm(OverdueDelivery delivery) {
+        if ( wheel == null || delivery.id() == null || delivery.startTime() == null ) {
+            return;
+        }
+        long deadline = delivery.startTime().plus(Duration.ofMinutes(overdueThresholdMinutes)).toEpochMilli();
+        wheel.schedule(delivery.id(), delivery, deadline);
+    }
+
+    /**
+     * Advances the wheel to the current time, then claims and notifies the deliveries whose deadline expired.
+     */
+    void tick() {
+        List<OverdueDelivery> expiredDeliveries = wheel.advance(clock.millis());
+        if ( expiredDeliveries.isEmpty() ) {
+            return;
+        }
+        expired.increment(expiredDeliveries.size());
+        List<Long> deliveryIds = expiredDeliveries.stream().map(OverdueDelivery::id).toList();
+        int chunk = Math.max(batchSize, 1);
+        for ( int from = 0; from < deliveryIds.size(); from += chunk ) {
+            List<Long> ids = deliveryIds.subList(from, Math.min(from + chunk, deliveryIds.size()));
+            deliveryRepository.claimOverdueDeliveriesById(ids, clock.instant()).stream()
+                    .map(DeliveryHelper::mapToOverdueDelivery)
+                    .forEach(delayedDeliveryNotifier::notifyCustomerSupport);
+        }
+    }
+
+    private void tickSafely() {
+        long start = System.nanoTime();
+        try {
+            tick();
+        } catch ( RuntimeException e ) {
+            log.error("Error while notifying expired overdue deadlines, the overdue check will catch up: {}", e.getMessage(), e);
+        } finally {
+            long nanos = System.nanoTime() - start;
+            tickTimer.record(nanos, TimeUnit.NANOSECONDS);
+            if ( nanos > TimeUnit.MILLISECONDS.toNanos(tickMillis) ) {
+                tickOverruns.increment();
+            }
+        }
+    }
+
+    private double pendingDeadlines() {
+        HashedTimerWheel<Long, OverdueDelivery> current = wheel;
+        return current == null ? 0 : current.size();
+    }
+}
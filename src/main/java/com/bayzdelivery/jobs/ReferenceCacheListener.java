@@ -0,0 +1,163 @@
+package com.bayzdelivery.jobs;
+
+import com.bayzdelivery.service.ReferenceCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+/**
+ * Applies the reference cache invalidations of the other instances of the application.
+ * <p>
+ * A dedicated thread holds its own PostgreSQL connection, outside of the connection pool, that runs
+ * {@code LISTEN} on the {@code reference-cache.channel} channel and hands every notification to
+ * {@link ReferenceCache#evict(String)}. Notifications sent while the connection is down are lost, so the whole
+ * cache is dropped whenever the connection is (re)established.
+ * <p>
+ * The listener only starts when the datasource is a PostgreSQL database.
+ * <p>
+ * Configuration:
+ * - `reference-cache.channel`: Channel the invalidations are received on.
+ * - `reference-cache.listen.poll-ms`: Longest time the thread waits for notifications before checking for shutdown.
+ * - `reference-cache.listen.retry-ms`: Delay before reconnecting after the connection failed.
+ * <p>
+ * Metrics:
+ * - `reference.cache.invalidations.received`: Counter of the invalidations received.
+ * - `reference.cache.listener.reconnects`: Counter of the times the connection was (re)established.
+ */
+@Slf4j
+@Component
+public class ReferenceCacheListener {
+
+    static final String RECEIVED_COUNTER = "reference.cache.invalidations.received";
+    static final String RECONNECTS_COUNTER = "reference.cache.listener.reconnects";
+
+    private static final String POSTGRESQL_URL_PREFIX = "jdbc:postgresql:";
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private final ReferenceCache referenceCache;
+    private final DataSourceProperties dataSourceProperties;
+    private final Counter received;
+    private final Counter reconnects;
+
+    @Value("${reference-cache.channel:reference_cache}")
+    private String channel = "reference_cache";
+
+    @Value("${reference-cache.listen.poll-ms:500}")
+    private int pollMillis = 500;
+
+    @Value("${reference-cache.listen.retry-ms:5000}")
+    private long retryMillis = 5000;
+
+    private volatile boolean running;
+    private ExecutorService listener;
+
+    public ReferenceCacheListener(ReferenceCache referenceCache, DataSourceProperties dataSourceProperties,
+                                  MeterRegistry meterRegistry) {
+        this.referenceCache = referenceCache;
+        this.dataSourceProperties = dataSourceProperties;
+        this.received = Counter.builder(RECEIVED_COUNTER).register(meterRegistry);
+        this.reconnects = Counter.builder(RECONNECTS_COUNTER).register(meterRegistry);
+    }
+
+    /**
+     * Starts the thread listening for invalidations.
+     *
+     * @throws IllegalStateException if the channel is not a plain lower case identifier
+     */
+    @PostConstruct
+    public void start() {
+        String url = dataSourceProperties.determineUrl();
+        if ( url == null || !url.startsWith(POSTGRESQL_URL_PREFIX) ) {
+            log.info("Datasource is not PostgreSQL, not listening for reference cache invalidations");
+            return;
+        }
+        if ( !CHANNEL_NAME.matcher(channel).matches() ) {
+            throw new IllegalStateException("Invalid reference cache channel: " + channel);
+        }
+        running = true;
+        listener = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reference-cache-listener");
+            thread.setDaemon(true);
+            return thread;
+        });
+        listener.execute(this::listen);
+    }
+
+    /**
+     * Stops the thread listening for invalidations.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if ( listener != null ) {
+            listener.shutdownNow();
+        }
+    }
+
+    private void listen() {
+        while ( running ) {
+            try ( Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword()) ) {
+                try ( Statement statement = connection.createStatement() ) {
+                    statement.execute("LISTEN " + channel);
+                }
+                // invalidations sent while not listening are lost
+                referenceCache.evictAll();
+                reconnects.increment();
+                log.info("Listening for reference cache invalidations on channel {}", channel);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while ( running ) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollMillis);
+                    if ( notifications != null ) {
+                        for ( PGNotification notification : notifications ) {
+                            apply(notification.getParameter());
+                        }
+                    }
+                }
+            } catch ( SQLException e ) {
+                if ( !running ) {
+                    return;
+                }
+                log.error("Error while listening for reference cache invalidations, reconnecting in {} ms: {}", retryMillis, e.getMessage(), e);
+                if ( !sleepBeforeRetry() ) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void apply(String invalidation) {
+        received.increment();
+        try {
+            referenceCache.evict(invalidation);
+        } catch ( RuntimeException e ) {
+            log.error("Error while applying reference cache invalidation {}, dropping the whole cache: {}", invalidation, e.getMessage(), e);
+            referenceCache.evictAll();
+        }
+    }
+
+    private boolean sleepBeforeRetry() {
+        try {
+            Thread.sleep(retryMillis);
+            return true;
+        } catch ( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
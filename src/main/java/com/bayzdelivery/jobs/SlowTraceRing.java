@@ -0,0 +1,88 @@
+package com.bayzdelivery.jobs;
+
+import com.bayzdelivery.dto.TraceSummary;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * TraceExporter that keeps the most recent slow traces in memory, for the {@code /debug/traces} endpoint.
+ * <p>
+ * Traces shorter than the threshold are ignored. Slow traces are written into a fixed-size ring, each one replacing
+ * the oldest, so the memory held is bounded whatever the load, and writers never wait for each other: a writer only
+ * claims the next slot with an atomic increment.
+ * <p>
+ * Configuration:
+ * - `tracing.slow-threshold-ms`: Shortest request kept in the ring.
+ * - `tracing.ring-size`: Number of slow traces kept.
+ * <p>
+ * Metrics:
+ * - `tracing.slow.traces`: Counter of the sampled traces longer than the threshold.
+ */
+@Component
+public class SlowTraceRing implements TraceExporter {
+
+    static final String SLOW_COUNTER = "tracing.slow.traces";
+
+    private final AtomicReferenceArray<TraceSummary> ring;
+    private final AtomicLong written = new AtomicLong();
+    private final long thresholdMicros;
+    private final Counter slow;
+
+    public SlowTraceRing(@Value("${tracing.slow-threshold-ms:500}") long thresholdMillis,
+                         @Value("${tracing.ring-size:256}") int ringSize,
+                         MeterRegistry meterRegistry) {
+        this.ring = new AtomicReferenceArray<>(Math.max(ringSize, 1));
+        this.thresholdMicros = TimeUnit.MILLISECONDS.toMicros(thresholdMillis);
+        this.slow = Counter.builder(SLOW_COUNTER).register(meterRegistry);
+    }
+
+    @Override
+    public void export(TraceSummary trace) {
+        if ( trace.durationMicros() < thresholdMicros ) {
+            return;
+        }
+        slow.increment();
+        long slot = written.getAndIncrement();
+        ring.set((int) (slot % ring.length()), trace);
+    }
+
+    /**
+     * @param limit the maximum number of traces to return
+     * @return the most recent slow traces, newest first
+     */
+    public List<TraceSummary> recent(int limit) {
+        long last = written.get();
+        int count = (int) Math.min(Math.min(last, ring.length()), Math.max(limit, 0));
+        List<TraceSummary> traces = new ArrayList<>(count);
+        for ( long slot = last - 1; slot >= last - count; slot-- ) {
+            TraceSummary trace = ring.get((int) (slot % ring.length()));
+            if ( trace != null ) {
+                traces.add(trace);
+            }
+        }
+        return traces;
+    }
+
+    /**
+     * @param traceId the ID of a trace
+     * @return the trace, if it is still in the ring
+     */
+    public Optional<TraceSummary> find(String traceId) {
+        for ( int i = 0; i < ring.length(); i++ ) {
+            TraceSummary trace = ring.get(i);
+            if ( trace != null && trace.traceId().equals(traceId) ) {
+                return Optional.of(trace);
+            }
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,20 @@
+package com.bayzdelivery.jobs;
+
+import com.bayzdelivery.dto.TraceSummary;
+
+/**
+ * Destination of the finished request traces.
+ * <p>
+ * Every exporter bean receives every sampled trace once its response has been written, on the request thread,
+ * so implementations must be quick and hand slow work, e.g. sending spans to a collector, to a queue of their own.
+ * Exceptions are logged and do not affect the request or the other exporters.
+ */
+public interface TraceExporter {
+
+    /**
+     * Exports one finished trace.
+     *
+     * @param trace the trace and its spans
+     */
+    void export(TraceSummary trace);
+}
@@ -0,0 +1,109 @@
+package com.bayzdelivery.jobs;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Reports virtual threads that block while pinned to their carrier thread.
+ * <p>
+ * A virtual thread that blocks inside a {@code synchronized} block or a native frame cannot unmount, so it holds one
+ * of the few carrier threads for the whole wait. This monitor streams the {@code jdk.VirtualThreadPinned} JFR events
+ * of the running JVM, records their durations and logs the stack trace of every distinct pinning site once, so the
+ * code holding a monitor across a blocking call can be found and changed to a {@code ReentrantLock}.
+ * <p>
+ * The monitor only runs when virtual threads are enabled, i.e. with the {@code virtual-threads} profile.
+ * <p>
+ * Configuration:
+ * - `virtual-threads.pinning.threshold-ms`: Shortest pinned block that is recorded.
+ * - `virtual-threads.pinning.max-logged-sites`: Largest number of distinct stack traces logged.
+ * <p>
+ * Metrics:
+ * - `jvm.threads.virtual.pinned`: Timer of the pinned blocks longer than the threshold.
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    static final String PINNED_TIMER = "jvm.threads.virtual.pinned";
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private static final int LOGGED_FRAMES = 12;
+
+    private final Timer pinned;
+    private final Set<String> loggedSites = ConcurrentHashMap.newKeySet();
+
+    @Value("${virtual-threads.pinning.threshold-ms:20}")
+    private long thresholdMillis = 20;
+
+    @Value("${virtual-threads.pinning.max-logged-sites:100}")
+    private int maxLoggedSites = 100;
+
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry) {
+        this.pinned = Timer.builder(PINNED_TIMER).register(meterRegistry);
+    }
+
+    /**
+     * Starts streaming the pinning events of this JVM.
+     */
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMillis)).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Recording virtual threads pinned for more than {} ms", thresholdMillis);
+    }
+
+    /**
+     * Stops streaming the pinning events.
+     */
+    @PreDestroy
+    public void stop() {
+        if ( stream != null ) {
+            stream.close();
+        }
+    }
+
+    void onPinned(RecordedEvent event) {
+        pinned.record(event.getDuration());
+        String site = describe(event.getStackTrace());
+        if ( loggedSites.size() < maxLoggedSites && loggedSites.add(site) ) {
+            log.warn("Virtual thread {} pinned for {} ms at:{}", event.getThread() != null ? event.getThread().getJavaName() : "?",
+                    event.getDuration().toMillis(), site);
+        }
+    }
+
+    private static String describe(RecordedStackTrace stackTrace) {
+        if ( stackTrace == null ) {
+            return " <no stack trace>";
+        }
+        return stackTrace.getFrames().stream()
+                .limit(LOGGED_FRAMES)
+                .map(VirtualThreadPinningMonitor::describe)
+                .collect(Collectors.joining());
+    }
+
+    private static String describe(RecordedFrame frame) {
+        return System.lineSeparator() + "\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + "(line " + frame.getLineNumber() + ")";
+    }
+}
@@ -0,0 +1,60 @@
+package com.bayzdelivery.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Represents one hourly bucket of the commission ledger: the commission a delivery man earned and the number
+ * of deliveries completed, for deliveries started within that hour.
+ * <p>
+ * This class is mapped to the "courier_commission_hourly" table, which is maintained incrementally whenever a
+ * delivery is completed, so leaderboard queries can merge a few buckets instead of scanning every delivery.
+ * <p>
+ * Key Features:
+ * 1. Identified by the delivery man and the start of the hour.
+ * 2. Holds the running commission total and completed delivery count of that hour.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "courier_commission_hourly")
+@IdClass(CourierCommissionHourly.Key.class)
+public class CourierCommissionHourly {
+
+    @Id
+    @Column(name = "delivery_man_id")
+    private Long deliveryManId;
+
+    @Id
+    @Column(name = "bucket_start")
+    private LocalDateTime bucketStart;
+
+    @Column(name = "total_commission", nullable = false)
+    private double totalCommission;
+
+    @Column(name = "completed_count", nullable = false)
+    private long completedCount;
+
+    /**
+     * Composite primary key of a ledger bucket.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Serial
+        private static final long serialVersionUID = 716230553146201L;
+
+        private Long deliveryManId;
+
+        private LocalDateTime bucketStart;
+    }
+}
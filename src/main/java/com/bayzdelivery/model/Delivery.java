@@ -6,11 +6,13 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.io.Serial;
 import java.io.Serializable;
 import java.time.Instant;
-import java.util.Objects;
 
 /**
  * Represents a delivery entity which stores details about the delivery,
@@ -24,9 +26,20 @@ import java.util.Objects;
  * 1. Identifies a unique delivery using a primary key.
  * 2. Maintains start and end times for the delivery.
  * 3. Tracks the distance covered during the delivery.
- * 4. Captures pricing and commission information.
+ * 4. Captures the order price at pickup and the commission earned, so a completion does not read the order.
  * 5. Associates the delivery with a delivery person, a customer, and an order.
  * 6. Monitors the delivery's current progress status.
+ * 7. Records when customer support was notified about the delivery being overdue.
+ * 8. Carries a row version for optimistic locking and the ETag of the delivery. The native updates of the
+ * repository increment it as well.
+ * <p>
+ * The associations are lazy and excluded from {@code toString}; the use cases that need their data read it
+ * with projection queries.
+ * <p>
+ * Equality is based on the ID alone, so comparing or hashing a delivery never initializes its lazy associations:
+ * two deliveries are equal when they have the same ID, also if one of them is a Hibernate proxy, and a delivery
+ * that has not been saved yet is only equal to itself. The hash code is the same for all deliveries, so it does
+ * not change when a new delivery is saved and gets its ID while held in a hash-based collection.
  */
 @Data
 @NoArgsConstructor
@@ -53,20 +66,23 @@ public class Delivery implements Serializable {
     private Double distance;
 
     @Column(name = "price")
-    private double price;
+    private Double price;
 
     @Column(name = "commission")
     private double commission;
 
-    @ManyToOne
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "delivery_man_id", referencedColumnName = "id")
     private Person deliveryMan;
 
-    @ManyToOne
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id", referencedColumnName = "id")
     private Person customer;
 
-    @ManyToOne
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id", referencedColumnName = "id")
     private Orders orders;
 
@@ -74,25 +90,25 @@ public class Delivery implements Serializable {
     @Enumerated(EnumType.STRING)
     private DeliveryStatus status;
 
+    @Column(name = "overdue_notified_at")
+    private Instant overdueNotifiedAt;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @Override
     public boolean equals(Object o) {
         if ( this == o ) return true;
-        if ( o == null || getClass() != o.getClass() ) return false;
+        if ( o == null || Hibernate.getClass(this) != Hibernate.getClass(o) ) return false;
         Delivery delivery = (Delivery) o;
-        return Double.compare(delivery.price, price) == 0 &&
-                Double.compare(delivery.commission, commission) == 0 &&
-                Objects.equals(id, delivery.id) &&
-                Objects.equals(startTime, delivery.startTime) &&
-                Objects.equals(endTime, delivery.endTime) &&
-                Objects.equals(distance, delivery.distance) &&
-                Objects.equals(deliveryMan, delivery.deliveryMan) &&
-                Objects.equals(customer, delivery.customer) &&
-                Objects.equals(orders, delivery.orders) &&
-                status == delivery.status;
+        // read through the getter, the fields of a proxy are not initialized
+        return id != null && id.equals(delivery.getId());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(id, startTime, endTime, distance, price, commission, deliveryMan, customer, orders, status);
+        return Hibernate.getClass(this).hashCode();
     }
 }
\ No newline at end of file
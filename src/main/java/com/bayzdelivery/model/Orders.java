@@ -4,6 +4,8 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDateTime;
 import java.util.Objects;
@@ -21,6 +23,10 @@ import java.util.Objects;
  * 3. Establishes a relationship between an order and a customer using a
  * many-to-one association.
  * 4. Stores the time when the order was placed.
+ * 5. Loads the customer lazily; reads that need the customer name use projection queries.
+ * 6. Draws its ID from the `orders_seq` sequence with Hibernate's pooled optimizer, 50 IDs per round trip,
+ * so inserts of many orders can be sent as JDBC batches.
+ * 7. Carries a row version, incremented by every update, for optimistic locking and the ETag of the order.
  * <p>
  * Includes overridden `equals` and `hashCode` methods for comparing and
  * hashing objects based on their properties.
@@ -33,7 +39,8 @@ import java.util.Objects;
 public class Orders {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -42,13 +49,19 @@ public class Orders {
     @Column(nullable = false)
     private double orderPrice;
 
-    @ManyToOne
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "customer_id", referencedColumnName = "id", nullable = false)
     private Person customer;
 
     @Column(nullable = false)
     private LocalDateTime orderTime;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @Override
     public boolean equals(Object o) {
         if ( this == o ) return true;
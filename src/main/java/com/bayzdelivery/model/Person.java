@@ -7,6 +7,7 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.io.Serial;
 import java.io.Serializable;
@@ -27,6 +28,7 @@ import java.util.Objects;
  * system (e.g., CUSTOMER, DELIVERY_MAN, ADMIN).
  * 4. Includes overridden methods for `equals` and `hashCode` for object comparison
  * and hashing based on key attributes.
+ * 5. Carries a row version, incremented by every update, for optimistic locking and the ETag of the person.
  * <p>
  * Implements the Serializable interface to allow for object serialization and
  * deserialization.
@@ -58,6 +60,11 @@ public class Person implements Serializable {
     @Enumerated(EnumType.STRING)
     private PersonRole role;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private long version;
+
     @Override
     public boolean equals(Object o) {
         if ( this == o ) return true;
@@ -0,0 +1,88 @@
+package com.bayzdelivery.repositories;
+
+import com.bayzdelivery.model.CourierCommissionHourly;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository interface for the hourly commission ledger of the delivery men.
+ * <p>
+ * The ledger holds one row per delivery man and hour with the commission earned and the deliveries completed
+ * for deliveries started in that hour. It is written when deliveries are completed and read by the leaderboard,
+ * both for the windows answered from the database and to rebuild the in-memory leaderboard;
+ * completions write it in the completion statements of {@link DeliveryRepository#completeActiveDelivery} and
+ * {@link DeliveryRepository#completeActiveDeliveries}.
+ * <p>
+ * Methods:
+ * - findTopDeliveryMen: Retrieves the top delivery men by commission for a time window.
+ * - findDailyCommissionsSince: Sums the ledger per delivery man and start day.
+ */
+@Repository
+public interface CommissionLedgerRepository extends JpaRepository<CourierCommissionHourly, CourierCommissionHourly.Key> {
+
+    /**
+     * Retrieves the top delivery men by commission for deliveries started between startTime and endTime.
+     * The whole hours of the window, [bucketsFrom, bucketsTo), are read from the ledger; only the partial
+     * hours at both edges of the window are aggregated from the delivery table.
+     * Each row holds the delivery man's ID, name, total commission and number of completed deliveries.
+     *
+     * @param startTime   the start of the window, inclusive
+     * @param endTime     the end of the window, inclusive
+     * @param bucketsFrom the first whole hour of the window
+     * @param bucketsTo   the end of the last whole hour of the window, exclusive
+     * @param limit       the maximum number of delivery men to return
+     * @return the delivery men ordered by total commission, highest first
+     */
+    @Query(value = """
+            SELECT t.delivery_man_id,
+                   p.name,
+                   SUM(t.commission),
+                   SUM(t.completed)
+              FROM (SELECT l.delivery_man_id, l.total_commission AS commission, l.completed_count AS completed
+                      FROM courier_commission_hourly l
+                     WHERE l.bucket_start >= :bucketsFrom
+                       AND l.bucket_start < :bucketsTo
+                    UNION ALL
+                    SELECT d.delivery_man_id, d.commission, 1
+                      FROM delivery d
+                     WHERE d.status = 'COMPLETED'
+                       AND ((d.start_time >= :startTime AND d.start_time < :bucketsFrom)
+                         OR (d.start_time >= :bucketsTo AND d.start_time <= :endTime))) t
+              JOIN person p ON p.id = t.delivery_man_id
+             GROUP BY t.delivery_man_id, p.name
+             ORDER BY SUM(t.commission) DESC
+             LIMIT :limit""", nativeQuery = true)
+    List<Object[]> findTopDeliveryMen(
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime,
+            @Param("bucketsFrom") LocalDateTime bucketsFrom,
+            @Param("bucketsTo") LocalDateTime bucketsTo,
+            @Param("limit") int limit
+    );
+
+    /**
+     * Sums the ledger per delivery man and start day for the hours starting at or after the given time, to rebuild
+     * the in-memory leaderboard without aggregating the deliveries themselves.
+     * Each row holds the delivery man's ID, name, the start day, the total commission and the number of completed
+     * deliveries.
+     *
+     * @param since the first hour to include
+     * @return one row per delivery man and day
+     */
+    @Query(value = """
+            SELECT l.delivery_man_id,
+                   p.name,
+                   CAST(l.bucket_start AS DATE),
+                   SUM(l.total_commission),
+                   SUM(l.completed_count)
+              FROM courier_commission_hourly l
+              JOIN person p ON p.id = l.delivery_man_id
+             WHERE l.bucket_start >= :since
+             GROUP BY l.delivery_man_id, p.name, CAST(l.bucket_start AS DATE)""", nativeQuery = true)
+    List<Object[]> findDailyCommissionsSince(@Param("since") LocalDateTime since);
+}
@@ -1,15 +1,20 @@
 package com.bayzdelivery.repositories;
 
+import com.bayzdelivery.dto.DeliveryResponse;
+import com.bayzdelivery.dto.OverdueDelivery;
 import com.bayzdelivery.model.Delivery;
-import com.bayzdelivery.utils.DeliveryStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
-import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository interface for managing delivery-related operations in the database.
@@ -17,55 +22,291 @@ import java.util.List;
  * for the Delivery entity.
  * <p>
  * Additional custom queries are provided for specific business requirements, such as:
- * 1. Counting deliveries by delivery man's ID and status.
- * 2. Fetching statistics for delivery persons based on commission earned within a time frame.
- * 3. Retrieving deliveries by status with a start time before a given threshold.
+ * 1. Registering a pickup as a single guarded insert, and completing a delivery as a single conditional update.
+ * The native updates increment the row version like Hibernate does for entity updates.
+ * 2. Claiming the deliveries that have newly become overdue, and releasing claims that could not be notified.
+ * 3. Reading which deliveries of a list are completed, for the rebuild of the in-memory leaderboard.
  * <p>
  * Methods:
- * - countByDeliveryManIdAndStatus: Counts the number of deliveries for a specific delivery person and status.
- * - findTopDeliveryMenByCommission: Retrieves the top delivery persons based on total commission earned
- * and allows filtering by a time period.
- * - findByStatusAndStartTimeBefore: Finds deliveries based on a specific status and before a certain start time.
+ * - insertActiveDelivery: Inserts an ACTIVE delivery if the order and delivery man exist and the delivery man is free.
+ * - completeActiveDelivery: Completes an ACTIVE delivery and adds it to the commission ledger.
+ * - completeActiveDeliveries: Completes the ACTIVE deliveries of a batch and adds them to the commission ledger.
+ * - findIdsByIdIn: Reads which of the given delivery IDs exist.
+ * - findCompletedIdsByIdIn: Reads which of the given deliveries are completed.
+ * - findDeliveryResponseById: Reads a delivery as a response from the delivery table alone.
+ * - findVersionById: Reads the row version of a delivery for its ETag.
+ * - claimOverdueDeliveries: Marks a batch of newly overdue ACTIVE deliveries as notified and returns them.
+ * - claimOverdueDeliveriesById: Marks the given ACTIVE deliveries as notified and returns them.
+ * - findActiveDeliveriesNotNotified: Finds a batch of ACTIVE deliveries that are not marked as notified.
+ * - releaseOverdueNotifications: Clears the notification mark of deliveries that could not be notified.
  */
 @Repository
 public interface DeliveryRepository extends JpaRepository<Delivery, Long> {
     /**
-     * Counts the number of deliveries associated with a specific delivery person and a given delivery status.
+     * Registers a pickup in a single round trip. The ACTIVE delivery row is only inserted when the order and
+     * the delivery man exist and the delivery man has no other ACTIVE delivery; the order price is captured as the
+     * price of the delivery and the commission is derived from it in the same statement. The partial unique index {@code ux_delivery_active_delivery_man}
+     * backs the last guard against concurrent pickups.
      *
-     * @param deliveryManId the ID of the delivery person whose deliveries are to be counted
-     * @param status        the status of deliveries to be included in the count
-     * @return the number of deliveries for the specified delivery person and status
+     * @param orderId        the ID of the order being picked up
+     * @param deliveryManId  the ID of the delivery man picking up the order
+     * @param customerId     the ID of the customer; falls back to the customer of the order when null
+     * @param startTime      the time the delivery started
+     * @param distance       the distance of the delivery, may be null
+     * @param orderPriceRate the share of the order price earned as commission
+     * @param distanceRate   the commission earned per distance unit
+     * @return the ID of the created delivery, or empty if one of the guards rejected the pickup
      */
-    int countByDeliveryManIdAndStatus(Long deliveryManId, DeliveryStatus status);
+    @Transactional
+    @Query(value = """
+            INSERT INTO delivery (delivery_man_id, customer_id, order_id, start_time, distance, price, commission, status)
+            SELECT dm.id,
+                   COALESCE(CAST(:customerId AS BIGINT), o.customer_id),
+                   o.id,
+                   :startTime,
+                   CAST(:distance AS DOUBLE PRECISION),
+                   o.order_price,
+                   o.order_price * :orderPriceRate + COALESCE(CAST(:distance AS DOUBLE PRECISION), 0) * :distanceRate,
+                   'ACTIVE'
+              FROM orders o
+              JOIN person dm ON dm.id = :deliveryManId
+             WHERE o.id = :orderId
+               AND NOT EXISTS (SELECT 1
+                                 FROM delivery d
+                                WHERE d.delivery_man_id = :deliveryManId
+                                  AND d.status = 'ACTIVE')
+            RETURNING id""", nativeQuery = true)
+    Optional<Long> insertActiveDelivery(
+            @Param("orderId") Long orderId,
+            @Param("deliveryManId") Long deliveryManId,
+            @Param("customerId") Long customerId,
+            @Param("startTime") Instant startTime,
+            @Param("distance") Double distance,
+            @Param("orderPriceRate") double orderPriceRate,
+            @Param("distanceRate") double distanceRate
+    );
 
     /**
-     * Retrieves the top delivery men based on the total commission earned within a specified date and time range.
-     * The result includes each delivery man's ID, name, total commission earned, and the number of completed deliveries in the given period.
-     **/
-    @Query(""" 
-            SELECT d.deliveryMan.id,
-                   d.deliveryMan.name,
-                   SUM(d.commission),
-                   COUNT(d.id)
-               FROM Delivery d
-               WHERE d.startTime BETWEEN :startTime AND :endTime
-               AND d.status = 'COMPLETED'
-               GROUP BY d.deliveryMan.id, d.deliveryMan.name
-               ORDER BY SUM(d.commission) DESC""")
-    List<Object[]> findTopDeliveryMenByCommission(
-            @Param("startTime") LocalDateTime startTime,
-            @Param("endTime") LocalDateTime endTime
+     * Completes a delivery in a single round trip. The delivery is only updated while it is ACTIVE, so of two
+     * concurrent completions exactly one succeeds. The commission is derived from the price captured at pickup,
+     * falling back to the order price for deliveries picked up before the price was captured. The commission is
+     * added to the hourly commission ledger in the same statement.
+     * Each row holds the delivery's ID, the delivery man's ID and name, the start time, the end time,
+     * the commission and the distance.
+     *
+     * @param deliveryId     the ID of the delivery
+     * @param endTime        the time the delivery was completed
+     * @param distance       the distance covered for the delivery
+     * @param orderPriceRate the share of the order price earned as commission
+     * @param distanceRate   the commission earned per distance unit
+     * @return the completed delivery, or no row if the delivery does not exist or is not ACTIVE
+     */
+    @Transactional
+    @Query(value = """
+            WITH completed AS (
+                UPDATE delivery d
+                   SET status = 'COMPLETED',
+                       end_time = :endTime,
+                       commission = COALESCE(d.price, (SELECT o.order_price FROM orders o WHERE o.id = d.order_id)) * :orderPriceRate
+                                    + :distance * :distanceRate,
+                       version = d.version + 1
+                 WHERE d.id = :deliveryId
+                   AND d.status = 'ACTIVE'
+                RETURNING d.id, d.delivery_man_id, d.start_time, d.end_time, d.commission, d.distance
+            ), ledger AS (
+                INSERT INTO courier_commission_hourly (delivery_man_id, bucket_start, total_commission, completed_count)
+                SELECT c.delivery_man_id, date_trunc('hour', CAST(c.start_time AS TIMESTAMP)), c.commission, 1
+                  FROM completed c
+                ON CONFLICT (delivery_man_id, bucket_start) DO UPDATE
+                   SET total_commission = courier_commission_hourly.total_commission + EXCLUDED.total_commission,
+                       completed_count  = courier_commission_hourly.completed_count + EXCLUDED.completed_count
+            )
+            SELECT c.id, c.delivery_man_id, p.name, c.start_time, c.end_time, c.commission, c.distance
+              FROM completed c
+              JOIN person p ON p.id = c.delivery_man_id""", nativeQuery = true)
+    List<Object[]> completeActiveDelivery(
+            @Param("deliveryId") Long deliveryId,
+            @Param("endTime") Instant endTime,
+            @Param("distance") double distance,
+            @Param("orderPriceRate") double orderPriceRate,
+            @Param("distanceRate") double distanceRate
     );
 
     /**
-     * Finds a list of deliveries based on the specified status and whose start time is before the given threshold.
+     * Completes a batch of deliveries in a single round trip, like {@link #completeActiveDelivery} does for one.
+     * Only the deliveries that are still ACTIVE are updated, so a delivery completed concurrently is left out of
+     * the result instead of failing the batch. The commission of the completed deliveries is added to the hourly
+     * commission ledger in the same statement, with one ledger write per delivery man and start hour.
+     * Each row holds the delivery's ID, the delivery man's ID and name, the start time, the end time,
+     * the commission and the distance.
      *
-     * @param status    the status of the deliveries to be filtered
-     * @param threshold the time threshold; deliveries with a start time before this instant will be included
-     * @return a list of deliveries matching the specified criteria
+     * @param deliveryIds    the IDs of the deliveries, without duplicates
+     * @param distances      the distance covered for each delivery, in the order of the IDs
+     * @param endTime        the time the deliveries were completed
+     * @param orderPriceRate the share of the order price earned as commission
+     * @param distanceRate   the commission earned per distance unit
+     * @return the completed deliveries, in no particular order
      */
-    List<Delivery> findByStatusAndStartTimeBefore(
-            @Param("status") DeliveryStatus status,
-            @Param("threshold") Instant threshold
+    @Transactional
+    @Query(value = """
+            WITH completion AS (
+                SELECT *
+                  FROM unnest(CAST(:deliveryIds AS BIGINT[]), CAST(:distances AS DOUBLE PRECISION[])) AS c(id, distance)
+            ), completed AS (
+                UPDATE delivery d
+                   SET status = 'COMPLETED',
+                       end_time = :endTime,
+                       commission = COALESCE(d.price, (SELECT o.order_price FROM orders o WHERE o.id = d.order_id)) * :orderPriceRate
+                                    + c.distance * :distanceRate,
+                       version = d.version + 1
+                  FROM completion c
+                 WHERE d.id = c.id
+                   AND d.status = 'ACTIVE'
+                RETURNING d.id, d.delivery_man_id, d.start_time, d.end_time, d.commission, d.distance
+            ), ledger AS (
+                INSERT INTO courier_commission_hourly (delivery_man_id, bucket_start, total_commission, completed_count)
+                SELECT c.delivery_man_id, date_trunc('hour', CAST(c.start_time AS TIMESTAMP)), SUM(c.commission), COUNT(*)
+                  FROM completed c
+                 GROUP BY c.delivery_man_id, date_trunc('hour', CAST(c.start_time AS TIMESTAMP))
+                ON CONFLICT (delivery_man_id, bucket_start) DO UPDATE
+                   SET total_commission = courier_commission_hourly.total_commission + EXCLUDED.total_commission,
+                       completed_count  = courier_commission_hourly.completed_count + EXCLUDED.completed_count
+            )
+            SELECT c.id, c.delivery_man_id, p.name, c.start_time, c.end_time, c.commission, c.distance
+              FROM completed c
+              JOIN person p ON p.id = c.delivery_man_id""", nativeQuery = true)
+    List<Object[]> completeActiveDeliveries(
+            @Param("deliveryIds") Long[] deliveryIds,
+            @Param("distances") Double[] distances,
+            @Param("endTime") Instant endTime,
+            @Param("orderPriceRate") double orderPriceRate,
+            @Param("distanceRate") double distanceRate
     );
+
+    /**
+     * Reads which of the given deliveries exist, without loading them.
+     *
+     * @param deliveryIds the IDs of the deliveries
+     * @return the IDs that exist, in no particular order
+     */
+    @Query("SELECT d.id FROM Delivery d WHERE d.id IN :deliveryIds")
+    List<Long> findIdsByIdIn(@Param("deliveryIds") Collection<Long> deliveryIds);
+
+    /**
+     * Reads which of the given deliveries are completed, without loading them. Used by the rebuild of the
+     * in-memory leaderboard to tell which of the completions it was notified of are already in the ledger it read.
+     *
+     * @param deliveryIds the IDs of the deliveries
+     * @return the IDs of the completed deliveries, in no particular order
+     */
+    @Query("SELECT d.id FROM Delivery d WHERE d.id IN :deliveryIds AND d.status = com.bayzdelivery.utils.DeliveryStatus.COMPLETED")
+    List<Long> findCompletedIdsByIdIn(@Param("deliveryIds") Collection<Long> deliveryIds);
+
+    /**
+     * Reads a delivery as a response DTO from the delivery table alone; the delivery man is
+     * only referenced by its foreign key.
+     *
+     * @param deliveryId the ID of the delivery
+     * @return the delivery, or empty if it does not exist
+     */
+    @Query("""
+            SELECT new com.bayzdelivery.dto.DeliveryResponse(d.id, d.deliveryMan.id, d.startTime, d.endTime,
+                   CAST(d.status AS String), d.commission, d.distance)
+              FROM Delivery d
+             WHERE d.id = :deliveryId""")
+    Optional<DeliveryResponse> findDeliveryResponseById(@Param("deliveryId") Long deliveryId);
+
+    /**
+     * Reads the row version of a delivery without loading it.
+     *
+     * @param deliveryId the ID of the delivery
+     * @return the version, or empty if the delivery does not exist
+     */
+    @Query("SELECT d.version FROM Delivery d WHERE d.id = :deliveryId")
+    Optional<Long> findVersionById(@Param("deliveryId") Long deliveryId);
+
+    /**
+     * Claims the next batch of ACTIVE deliveries started before the given threshold that customer support has not
+     * been notified about yet, by setting their {@code overdue_notified_at} to the given time. Claimed deliveries
+     * are not returned again, so repeated calls only see deliveries that have newly crossed the threshold; rows
+     * claimed by a concurrent check are skipped. The scan is served by the {@code idx_delivery_overdue_pending} index.
+     * Each row holds the delivery's ID, the delivery man's ID and the start time.
+     *
+     * @param threshold  the time threshold; deliveries with a start time before this instant will be claimed
+     * @param notifiedAt the time to record as the notification time
+     * @param limit      the maximum number of deliveries in the batch
+     * @return the claimed deliveries
+     */
+    @Transactional
+    @Query(value = """
+            UPDATE delivery
+               SET overdue_notified_at = :notifiedAt,
+                   version = version + 1
+             WHERE id IN (SELECT d.id
+                            FROM delivery d
+                           WHERE d.status = 'ACTIVE'
+                             AND d.overdue_notified_at IS NULL
+                             AND d.start_time < :threshold
+                           ORDER BY d.start_time
+                           LIMIT :limit
+                             FOR UPDATE SKIP LOCKED)
+            RETURNING id, delivery_man_id, start_time""", nativeQuery = true)
+    List<Object[]> claimOverdueDeliveries(
+            @Param("threshold") Instant threshold,
+            @Param("notifiedAt") Instant notifiedAt,
+            @Param("limit") int limit
+    );
+
+    /**
+     * Claims the given deliveries as notified about being overdue, like {@link #claimOverdueDeliveries}, for the
+     * deliveries whose overdue deadline has expired in the overdue timer. Deliveries that are no longer ACTIVE or
+     * have already been claimed are skipped. Each row holds the delivery's ID, the delivery man's ID and the start time.
+     *
+     * @param deliveryIds the IDs of the deliveries
+     * @param notifiedAt  the time to record as the notification time
+     * @return the claimed deliveries
+     */
+    @Transactional
+    @Query(value = """
+            UPDATE delivery
+               SET overdue_notified_at = :notifiedAt,
+                   version = version + 1
+             WHERE id IN (:deliveryIds)
+               AND status = 'ACTIVE'
+               AND overdue_notified_at IS NULL
+            RETURNING id, delivery_man_id, start_time""", nativeQuery = true)
+    List<Object[]> claimOverdueDeliveriesById(
+            @Param("deliveryIds") Collection<Long> deliveryIds,
+            @Param("notifiedAt") Instant notifiedAt
+    );
+
+    /**
+     * Finds the next batch of ACTIVE deliveries customer support has not been notified about yet, whether they
+     * are overdue or not. Batches are keyset-paged by delivery ID: pass 0 for the first batch and the last ID of
+     * a batch for the next one.
+     *
+     * @param afterId the last delivery ID of the previous batch
+     * @param limit   the maximum number of deliveries in the batch
+     * @return the deliveries ordered by ID
+     */
+    @Query("""
+            SELECT new com.bayzdelivery.dto.OverdueDelivery(d.id, d.deliveryMan.id, d.startTime)
+              FROM Delivery d
+             WHERE d.status = com.bayzdelivery.utils.DeliveryStatus.ACTIVE
+               AND d.overdueNotifiedAt IS NULL
+               AND d.id > :afterId
+             ORDER BY d.id""")
+    List<OverdueDelivery> findActiveDeliveriesNotNotified(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Clears the overdue notification time of the given deliveries, so the next overdue check claims them again.
+     * Used when customer support could not be notified.
+     *
+     * @param deliveryIds the IDs of the deliveries
+     * @return the number of deliveries updated
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Delivery d SET d.overdueNotifiedAt = NULL, d.version = d.version + 1 WHERE d.id IN :deliveryIds")
+    int releaseOverdueNotifications(@Param("deliveryIds") Collection<Long> deliveryIds);
 }
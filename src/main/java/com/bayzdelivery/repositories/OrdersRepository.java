@@ -1,9 +1,20 @@
 package com.bayzdelivery.repositories;
 
+import com.bayzdelivery.dto.OrderResponse;
 import com.bayzdelivery.model.Orders;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
 /**
  * Repository interface for performing CRUD operations and database interactions
  * for the Orders entity.
@@ -23,4 +34,68 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface OrdersRepository extends JpaRepository<Orders, Long> {
+
+    /**
+     * Reads a page of orders by keyset, from the primary key index, as response DTOs.
+     * <p>
+     * Only the columns of the response are selected, with the customer name joined in the same statement,
+     * so a page costs one query however many customers it spans.
+     *
+     * @param afterId the ID of the last order of the previous page, 0 for the first page
+     * @param limit   the maximum number of orders
+     * @return the orders with an ID greater than afterId, ordered by ID
+     */
+    @Query("""
+            SELECT new com.bayzdelivery.dto.OrderResponse(o.id, o.orderName, o.orderPrice, c.name)
+            FROM Orders o JOIN o.customer c
+            WHERE o.id > :afterId
+            ORDER BY o.id""")
+    List<OrderResponse> findOrderResponsesAfter(@Param("afterId") Long afterId, Limit limit);
+
+    /**
+     * Reads a single order as a response DTO, with the customer name joined in the same statement.
+     *
+     * @param orderId the ID of the order
+     * @return the order, or empty if it does not exist
+     */
+    @Query("""
+            SELECT new com.bayzdelivery.dto.OrderResponse(o.id, o.orderName, o.orderPrice, c.name)
+            FROM Orders o JOIN o.customer c
+            WHERE o.id = :orderId""")
+    Optional<OrderResponse> findOrderResponseById(@Param("orderId") Long orderId);
+
+    /**
+     * Reads the ETag version of an order without loading it: the row version of the order, the ID of its customer
+     * and the row version of the customer, whose name is part of the order response, joined as
+     * {@code <order version>-<customer id>-<customer version>}. The customer ID is part of the version, so moving
+     * the order to another customer changes it even when the versions happen to add up to the same number.
+     *
+     * @param orderId the ID of the order
+     * @return the version, or empty if the order does not exist
+     */
+    @Query("""
+            SELECT CONCAT(CAST(o.version AS String), '-', CAST(c.id AS String), '-', CAST(c.version AS String))
+            FROM Orders o JOIN o.customer c
+            WHERE o.id = :orderId""")
+    Optional<String> findVersionById(@Param("orderId") Long orderId);
+
+    /**
+     * Streams all orders as response DTOs, ordered by ID.
+     * <p>
+     * The rows are fetched from a JDBC cursor in chunks of the fetch size and mapped straight to DTOs,
+     * which are not held by the persistence context, so memory use does not grow with the number of orders.
+     * The stream must be consumed and closed within a transaction; PostgreSQL only keeps a cursor open
+     * outside auto-commit mode.
+     *
+     * @return the stream of all orders
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT new com.bayzdelivery.dto.OrderResponse(o.id, o.orderName, o.orderPrice, c.name)
+            FROM Orders o JOIN o.customer c
+            ORDER BY o.id""")
+    Stream<OrderResponse> streamAllOrderResponses();
 }
@@ -1,9 +1,22 @@
 package com.bayzdelivery.repositories;
 
+import com.bayzdelivery.dto.PersonRegisterResponse;
 import com.bayzdelivery.model.Person;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
 /**
  * Repository interface for managing Person entities in the database.
  * <p>
@@ -22,4 +35,46 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface PersonRepository extends JpaRepository<Person, Long> {
 
+    /**
+     * Reads a page of persons by keyset, from the primary key index.
+     *
+     * @param afterId the ID of the last person of the previous page, 0 for the first page
+     * @param limit   the maximum number of persons
+     * @return the persons with an ID greater than afterId, ordered by ID
+     */
+    List<Person> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    /**
+     * Finds which of the given IDs belong to existing persons, in one statement.
+     *
+     * @param personIds the IDs to look up
+     * @return the IDs of the existing persons
+     */
+    @Query("SELECT p.id FROM Person p WHERE p.id IN :personIds")
+    Set<Long> findExistingIds(@Param("personIds") Collection<Long> personIds);
+
+    /**
+     * Reads the row version of a person without loading it.
+     *
+     * @param personId the ID of the person
+     * @return the version, or empty if the person does not exist
+     */
+    @Query("SELECT p.version FROM Person p WHERE p.id = :personId")
+    Optional<Long> findVersionById(@Param("personId") Long personId);
+
+    /**
+     * Streams all persons as registration DTOs, ordered by ID, from a JDBC cursor.
+     * The stream must be consumed and closed within a transaction.
+     *
+     * @return the stream of all persons
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            SELECT new com.bayzdelivery.dto.PersonRegisterResponse(p.id, p.name, p.email, p.registrationNumber, p.role)
+            FROM Person p
+            ORDER BY p.id""")
+    Stream<PersonRegisterResponse> streamAllRegisteredPersons();
 }
@@ -0,0 +1,99 @@
+package com.bayzdelivery.service;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from a delivery man ID to the commission total and completed delivery count.
+ * <p>
+ * Keys and values are kept in primitive arrays, so adding to a total neither boxes nor allocates.
+ * The map is not thread-safe; {@link LeaderboardServiceImpl} guards it with its lock.
+ */
+final class CommissionTotals {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private double[] commissions;
+    private long[] counts;
+    private int size;
+
+    CommissionTotals(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(8, expectedSize * 2 - 1)) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Callback used to iterate the entries of the map.
+     */
+    interface Visitor {
+        void visit(long deliveryManId, double commission, long count);
+    }
+
+    void add(long deliveryManId, double commission, long count) {
+        if ( deliveryManId == EMPTY ) {
+            throw new IllegalArgumentException("Unsupported delivery man id: " + deliveryManId);
+        }
+        int slot = slotOf(deliveryManId);
+        if ( keys[slot] == EMPTY ) {
+            keys[slot] = deliveryManId;
+            if ( ++size * 2 > keys.length ) {
+                rehash();
+                slot = slotOf(deliveryManId);
+            }
+        }
+        commissions[slot] += commission;
+        counts[slot] += count;
+    }
+
+    void addAll(CommissionTotals other) {
+        other.forEach(this::add);
+    }
+
+    void forEach(Visitor visitor) {
+        for ( int i = 0; i < keys.length; i++ ) {
+            if ( keys[i] != EMPTY ) {
+                visitor.visit(keys[i], commissions[i], counts[i]);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int slotOf(long key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while ( keys[slot] != EMPTY && keys[slot] != key ) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        double[] oldCommissions = commissions;
+        long[] oldCounts = counts;
+        allocate(oldKeys.length << 1);
+        for ( int i = 0; i < oldKeys.length; i++ ) {
+            if ( oldKeys[i] != EMPTY ) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                commissions[slot] = oldCommissions[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        commissions = new double[capacity];
+        counts = new long[capacity];
+    }
+}
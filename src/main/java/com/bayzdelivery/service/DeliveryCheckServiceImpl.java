@@ -1,15 +1,20 @@
 package com.bayzdelivery.service;
 
-import com.bayzdelivery.model.Delivery;
+import com.bayzdelivery.dto.OverdueDelivery;
+import com.bayzdelivery.events.jfr.OverdueCheckEvent;
+import com.bayzdelivery.jobs.DelayedDeliveryNotifier;
 import com.bayzdelivery.repositories.DeliveryRepository;
-import com.bayzdelivery.utils.DeliveryStatus;
-import lombok.RequiredArgsConstructor;
+import com.bayzdelivery.utils.DeliveryHelper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.List;
 
 /**
  * Implementation of the DeliveryCheckService interface responsible for monitoring
@@ -20,29 +25,60 @@ import java.time.Instant;
  * - Scheduling periodic checks for active deliveries using fixed-rate scheduling.
  * - Identifying deliveries flagged as overdue based on a configurable time threshold.
  * - Notifying the customer support team for any deliveries identified as overdue.
+ * - Recording the duration of each scan and the number of rows it examined.
+ * <p>
+ * Overdue deliveries are normally detected within a tick by the {@code OverdueDeliveryWatcher}; this check runs
+ * at a slower rate as a safety net for deliveries the watcher of this instance has not seen.
  * <p>
  * Dependencies:
  * - DeliveryRepository: Repository for querying delivery entities.
+ * - DelayedDeliveryNotifier: Queues the customer support notifications of the overdue deliveries.
+ * - MeterRegistry: Registry for the scan metrics.
  * - `overdueThresholdMinutes`: Configurable time threshold for marking deliveries as overdue.
  * <p>
  * Configuration:
  * - `delivery-check.overdue-threshold-minutes`: Specifies the duration after which a delivery is considered overdue.
  * - `delivery-check.scheduled-fixed-rate-ms`: Defines the fixed rate interval for running the scheduled checks.
+ * - `delivery-check.batch-size`: Maximum number of overdue deliveries claimed per query.
+ * <p>
+ * Metrics:
+ * - `delivery.check.overdue.scan`: Timer of a complete overdue scan.
+ * - `delivery.check.overdue.rows`: Counter of the newly overdue delivery rows claimed.
  * <p>
  * Methods:
  * - checkDelivery(): Scheduled method that evaluates ongoing deliveries, determines if they are overdue, and notifies customer support.
- * - notifyCustomerSupport(Delivery delivery): Notifies the customer support team about an overdue delivery, if applicable.
+ * - notifyCustomerSupport(OverdueDelivery delivery): Hands an overdue delivery to the notifier, if applicable.
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class DeliveryCheckServiceImpl implements DeliveryCheckService {
 
+    static final String SCAN_TIMER = "delivery.check.overdue.scan";
+    static final String ROWS_COUNTER = "delivery.check.overdue.rows";
+
     private final DeliveryRepository deliveryRepository;
+    private final DelayedDeliveryNotifier delayedDeliveryNotifier;
+    private final Timer scanTimer;
+    private final Counter rowsExamined;
 
     @Value("${delivery-check.overdue-threshold-minutes}")
     private int overdueThresholdMinutes;
 
+    @Value("${delivery-check.batch-size:500}")
+    private int batchSize = 500;
+
+    public DeliveryCheckServiceImpl(DeliveryRepository deliveryRepository, DelayedDeliveryNotifier delayedDeliveryNotifier,
+                                    MeterRegistry meterRegistry) {
+        this.deliveryRepository = deliveryRepository;
+        this.delayedDeliveryNotifier = delayedDeliveryNotifier;
+        this.scanTimer = Timer.builder(SCAN_TIMER)
+                .description("Duration of a complete overdue delivery scan")
+                .register(meterRegistry);
+        this.rowsExamined = Counter.builder(ROWS_COUNTER)
+                .description("Overdue delivery rows examined by the scan")
+                .register(meterRegistry);
+    }
+
     /**
      * Periodically checks for overdue deliveries and notifies customer support if necessary.
      * This method is scheduled to execute at a fixed rate defined in the configuration.
@@ -55,50 +91,99 @@ public class DeliveryCheckServiceImpl implements DeliveryCheckService {
      * Configuration:
      * - The fixed execution rate is defined by the property `delivery-check.scheduled-fixed-rate-ms`.
      * - The overdue threshold is defined by the property `delivery-check.overdue-threshold-minutes`.
+     * - The number of deliveries claimed per query is defined by the property `delivery-check.batch-size`.
      * <p>
      * Implementation Details:
      * - The method computes an "overdue time" by subtracting the configured threshold in minutes
      * from the current time.
-     * - It queries the database using the `deliveryRepository` to find deliveries that match
-     * the criteria: status `ACTIVE` and start time before the computed overdue time.
+     * - It claims the ACTIVE deliveries that have newly crossed the overdue time in batches, recording the
+     * notification time on each delivery, so a delivery is notified once however long it stays overdue and
+     * the work per run is proportional to the newly overdue deliveries. Only the ID, the delivery man's ID
+     * and the start time of one batch are held in memory at a time.
      * - For each delivery identified as overdue, the method invokes `notifyCustomerSupport` to
      * notify customer support for further action.
-     * - Logs errors encountered during execution.
+     * - When the notification queue is full, the scan stops: the claims of the rest of the batch are released and
+     * no further batch is claimed, so the scan does not keep claiming and releasing the same oldest deliveries.
+     * They are claimed again by the next run.
+     * - Logs errors encountered during execution; the scan metrics and the {@code com.bayzdelivery.OverdueCheck}
+     * JFR events are recorded in either case.
      * <p>
      * Related Components:
-     * - `DeliveryRepository`: Used to query deliveries based on status and start time criteria.
-     * - `DeliveryStatus`: Enum representing the status of deliveries (e.g., ACTIVE, CREATED).
-     * - `notifyCustomerSupport(Delivery)`: Method responsible for handling notifications to customer support.
+     * - `DeliveryRepository`: Used to claim the newly overdue deliveries.
+     * - `notifyCustomerSupport(OverdueDelivery)`: Method responsible for handling notifications to customer support.
      */
     @Override
     @Scheduled(fixedRateString = "${delivery-check.scheduled-fixed-rate-ms}")
     public void checkDelivery() {
         log.info("Entered into checkDelivery");
+        Timer.Sample sample = Timer.start();
+        OverdueCheckEvent checkEvent = new OverdueCheckEvent();
+        checkEvent.begin();
+        long examined = 0;
+        int batches = 0;
         try {
             var overdueTime = Instant.now().minusSeconds(60L * overdueThresholdMinutes);
             log.info("Over Due delivery Check Time :{}", overdueTime);
-            var overdueDeliveries = deliveryRepository.findByStatusAndStartTimeBefore(
-                    DeliveryStatus.ACTIVE, overdueTime);
-            if ( !overdueDeliveries.isEmpty() ) {
-                overdueDeliveries.forEach(this::notifyCustomerSupport);
-            }
+            int limit = Math.max(batchSize, 1);
+            List<Object[]> batch;
+            boolean queueFull;
+            do {
+                batch = deliveryRepository.claimOverdueDeliveries(overdueTime, Instant.now(), limit);
+                examined += batch.size();
+                batches++;
+                rowsExamined.increment(batch.size());
+                queueFull = !notifyAll(batch.stream().map(DeliveryHelper::mapToOverdueDelivery).toList());
+            } while ( !queueFull && batch.size() == limit );
         } catch ( Exception e ) {
+            checkEvent.failed = true;
             log.error("Error while checking overdue deliveries: {}", e.getMessage(), e);
+        } finally {
+            checkEvent.rowsExamined = examined;
+            checkEvent.batches = batches;
+            checkEvent.commit();
+            long nanos = sample.stop(scanTimer);
+            log.info("Exiting from checkDelivery, Examined:{}, DurationMs:{}", examined, nanos / 1_000_000);
         }
     }
 
+    /**
+     * Hands the deliveries of a claimed batch to the notifier until its queue is full. The notifier releases the
+     * claim of the delivery it rejects; the claims of the deliveries after it are released here.
+     *
+     * @param deliveries the claimed overdue deliveries
+     * @return false if the notification queue was full
+     */
+    private boolean notifyAll(List<OverdueDelivery> deliveries) {
+        for ( int i = 0; i < deliveries.size(); i++ ) {
+            if ( !notifyCustomerSupport(deliveries.get(i)) && delayedDeliveryNotifier.isFull() ) {
+                List<Long> unqueued = deliveries.subList(i + 1, deliveries.size()).stream().map(OverdueDelivery::id).toList();
+                if ( !unqueued.isEmpty() ) {
+                    deliveryRepository.releaseOverdueNotifications(unqueued);
+                }
+                log.warn("Notification queue is full, stopping the overdue scan; {} deliveries left for the next run", unqueued.size() + 1);
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Notifies the customer support team about an overdue delivery, if applicable.
-     * Logs a warning if the delivery object is null. If a valid delivery is provided,
-     * logs the delivery ID and start time, indicating that it requires customer support attention.
+     * Logs a warning if the delivery object is null. If a valid delivery is provided, it is handed to the
+     * DelayedDeliveryNotifier, which sends it with the other overdue deliveries of its batch without blocking the scan.
      *
-     * @param delivery The delivery entity that is flagged as overdue. If null, no notification is performed.
+     * @param delivery The overdue delivery. If null, no notification is performed.
+     * @return true if the delivery was queued
      */
-    void notifyCustomerSupport(Delivery delivery) {
+    boolean notifyCustomerSupport(OverdueDelivery delivery) {
         if ( delivery == null ) {
             log.warn("Attempted to notify customer support for a null delivery.");
-            return;
+            return false;
+        }
+        if ( delayedDeliveryNotifier.notifyCustomerSupport(delivery) ) {
+            log.debug("Notification: Delivery ID {} is overdue. Started at: {}. Queued for the customer support team.", delivery.id(), delivery.startTime());
+            return true;
         }
-        log.info("Notification: Delivery ID {} is overdue. Started at: {}. Please notify the customer support team.", delivery.getId(), delivery.getStartTime());
+        return false;
     }
 }
@@ -1,10 +1,14 @@
 package com.bayzdelivery.service;
 
+import com.bayzdelivery.dto.BatchResponse;
+import com.bayzdelivery.dto.DeliveryCompletion;
 import com.bayzdelivery.dto.DeliveryResponse;
 import com.bayzdelivery.dto.TopDeliveryMenResponse;
 import com.bayzdelivery.model.Delivery;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * DeliveryService interface provides operations to handle the lifecycle of deliveries
@@ -12,7 +16,7 @@ import java.time.LocalDateTime;
  * <p>
  * Features:
  * - Create and manage deliveries.
- * - Fetch details of specific deliveries by ID.
+ * - Fetch details of specific deliveries by ID, or only their version for conditional reads.
  * - Mark deliveries as complete and calculate related metrics such as distance.
  * - Retrieve performance data of top delivery personnel within a specified time range.
  */
@@ -22,7 +26,11 @@ public interface DeliveryService {
 
     DeliveryResponse completeDelivery(double distance, Long deliveryId);
 
+    BatchResponse completeDeliveries(List<DeliveryCompletion> completions);
+
     DeliveryResponse findById(Long deliveryId);
 
+    Optional<Long> findVersion(Long deliveryId);
+
     TopDeliveryMenResponse getTopDeliveryMen(LocalDateTime startTime, LocalDateTime endTime);
 }
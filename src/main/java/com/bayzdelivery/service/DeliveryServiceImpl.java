@@ -1,22 +1,49 @@
 package com.bayzdelivery.service;
 
+import com.bayzdelivery.config.MetricsConfig;
+import com.bayzdelivery.dto.BatchItemResult;
+import com.bayzdelivery.dto.BatchResponse;
+import com.bayzdelivery.dto.DeliveryCompletion;
 import com.bayzdelivery.dto.DeliveryManCommission;
 import com.bayzdelivery.dto.DeliveryResponse;
 import com.bayzdelivery.dto.TopDeliveryMenResponse;
+import com.bayzdelivery.events.DeliveryCompletedEvent;
+import com.bayzdelivery.events.DeliveryStartedEvent;
+import com.bayzdelivery.events.jfr.CompletionEvent;
+import com.bayzdelivery.events.jfr.PickupEvent;
+import com.bayzdelivery.events.jfr.TopDeliveryMenEvent;
 import com.bayzdelivery.exceptions.DeliveryNotFoundException;
 import com.bayzdelivery.model.Delivery;
+import com.bayzdelivery.repositories.CommissionLedgerRepository;
 import com.bayzdelivery.repositories.DeliveryRepository;
 import com.bayzdelivery.repositories.OrdersRepository;
 import com.bayzdelivery.repositories.PersonRepository;
 import com.bayzdelivery.utils.DeliveryHelper;
 import com.bayzdelivery.utils.DeliveryStatus;
+import com.bayzdelivery.utils.StripedLock;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
 
 /**
  * Service implementation for delivery operations. This class is responsible for managing delivery-related
@@ -26,63 +53,144 @@ import java.util.List;
  * Handles the core business logic for managing deliveries and communicates with the repository layer
  * to fetch and persist data. It validates incoming requests, calculates commissions, and ensures proper
  * delivery statuses and operations.
+ * <p>
+ * Configuration:
+ * - `delivery.batch.max-size`: Largest number of completions accepted in one batch.
+ * <p>
+ * JFR events, recorded when enabled in a running recording:
+ * - `com.bayzdelivery.Pickup`: Every pickup, with the order, the courier and whether it was accepted.
+ * - `com.bayzdelivery.Completion`: Every completion, with the courier, the distance and the commission.
+ * - `com.bayzdelivery.TopDeliveryMen`: Every top delivery men query, with its range and whether it was answered
+ * from memory or from the ledger.
  */
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 @RequiredArgsConstructor
 @Slf4j
 public class DeliveryServiceImpl implements DeliveryService {
+    /**
+     * Share of the order price a delivery man earns as commission.
+     */
+    static final double ORDER_PRICE_COMMISSION_RATE = 0.05;
+
+    /**
+     * Commission a delivery man earns per distance unit.
+     */
+    static final double DISTANCE_COMMISSION_RATE = 0.5;
+
+    static final int DELIVERY_MAN_LOCK_STRIPES = 64;
+
+    static final String ACTIVE_DELIVERY_MAN_INDEX = "ux_delivery_active_delivery_man";
+
+    static final int TOP_DELIVERY_MEN_LIMIT = 3;
+
     private final DeliveryRepository deliveryRepository;
     private final OrdersRepository ordersRepository;
     private final PersonRepository personRepository;
+    private final CommissionLedgerRepository commissionLedgerRepository;
+    private final LeaderboardService leaderboardService;
+    private final ApplicationEventPublisher eventPublisher;
 
+    @Value("${delivery.batch.max-size:500}")
+    private int maxBatchSize = 500;
 
     /**
-     * Whenever a deliveryman Picks up delivery he creates a delivery entry with Status as Active or Picked up
-     * checkOrder to verify the active order
-     * checkDeliveryMan to verify the active Deliveryman
-     * activeDeliveries checks the delivery man doesn't have multiple delivery
-     * At the time we calculate the commission
+     * Serializes pickups of the same delivery man within this instance, so concurrent pickups of one delivery man
+     * queue up in memory instead of racing on the database. Across instances the partial unique index
+     * {@value #ACTIVE_DELIVERY_MAN_INDEX} guards the same invariant.
+     */
+    private final StripedLock deliveryManLocks = new StripedLock(DELIVERY_MAN_LOCK_STRIPES);
+
+    /**
+     * Whenever a deliveryman Picks up delivery he creates a delivery entry with Status as Active or Picked up.
+     * The order check, the delivery man check, the single active delivery check and the insert are done by one
+     * guarded insert, so a successful pickup costs a single database round trip.
+     * Only when the insert is rejected the individual checks are run to report the reason.
+     * <p>
+     * Pickups of the same delivery man are serialized by a striped lock; pickups of different delivery men
+     * do not contend. A pickup racing with one on another instance is rejected by the partial unique index.
+     * A {@link DeliveryStartedEvent} is published for the overdue timer.
      *
-     * @param delivery
-     * @return
+     * @param delivery the delivery to be picked up; must reference an order and a delivery man
+     * @return a {@code DeliveryResponse} containing the created delivery
+     * @throws IllegalArgumentException if the order or the delivery man does not exist,
+     *                                  or the delivery man is already delivering an order
      */
     public DeliveryResponse createDelivery(Delivery delivery) {
-
-        log.info("Entered into create Delivery Service : {}", delivery);
-        if ( !ordersRepository.existsById(delivery.getOrders().getId()) ) {
-            throw new IllegalArgumentException("Order does not exists");
+        PickupEvent pickupEvent = new PickupEvent();
+        pickupEvent.begin();
+        Long orderId = delivery.getOrders().getId();
+        Long deliveryManId = delivery.getDeliveryMan().getId();
+        Long customerId = delivery.getCustomer() != null ? delivery.getCustomer().getId() : null;
+        log.debug("Entered into create Delivery Service for Order id:{}, Delivery Man Id:{}", orderId, deliveryManId);
+        try {
+            Long deliveryId = insertActiveDelivery(delivery, orderId, deliveryManId, customerId)
+                    .orElseThrow(() -> rejectedPickup(orderId, deliveryManId));
+            eventPublisher.publishEvent(new DeliveryStartedEvent(deliveryId, deliveryManId, delivery.getStartTime()));
+            log.info("Created a New Delivery pickup Delivery Id:{} for Order id:{}, Delivery Man Id:{}", deliveryId, orderId, deliveryManId);
+            pickupEvent.deliveryId = deliveryId;
+            pickupEvent.accepted = true;
+            return new DeliveryResponse(deliveryId, deliveryManId, delivery.getStartTime(), DeliveryStatus.ACTIVE.toString());
+        } finally {
+            if ( pickupEvent.shouldCommit() ) {
+                pickupEvent.orderId = orderId != null ? orderId : 0L;
+                pickupEvent.deliveryManId = deliveryManId != null ? deliveryManId : 0L;
+                pickupEvent.commit();
+            }
         }
-        log.info("Order check completed for Order id  :{}", delivery.getOrders().getId());
-        if ( !personRepository.existsById(delivery.getDeliveryMan().getId()) ) {
-            throw new IllegalArgumentException("Delivery man does not exists");
-        }
-        log.info("DeliveryMan check completed for Delivery Man Id:{}", delivery.getOrders().getId());
-        int activeDeliveries = deliveryRepository.countByDeliveryManIdAndStatus(delivery.getDeliveryMan().getId(), DeliveryStatus.ACTIVE);
-        if ( activeDeliveries > 0 ) {
-            throw new IllegalArgumentException("Delivery man is already delivering an order");
-        }
-        log.info("DeliveryMan Active delivery check completed for Delivery Man Id:{}, ActiveDeliveries:{}", delivery.getOrders().getId(), activeDeliveries);
-        delivery.setStatus(DeliveryStatus.ACTIVE);
+    }
 
-        delivery.setCommission(calculateCommission(delivery.getOrders().getOrderPrice(), delivery.getDistance()));
-        Delivery savedDelivery = deliveryRepository.save(delivery);
-        log.info("Created a New Delivery pickup data :{}", savedDelivery);
-        return new DeliveryResponse(savedDelivery.getId(), savedDelivery.getDeliveryMan().getId(), savedDelivery.getStartTime(), savedDelivery.getStatus().toString());
+    /**
+     * Runs the guarded pickup insert while holding the lock stripe of the delivery man.
+     *
+     * @return the ID of the created delivery, or empty if the pickup was rejected
+     */
+    private Optional<Long> insertActiveDelivery(Delivery delivery, Long orderId, Long deliveryManId, Long customerId) {
+        Lock lock = deliveryManLocks.lockFor(deliveryManId);
+        lock.lock();
+        try {
+            return deliveryRepository.insertActiveDelivery(orderId, deliveryManId, customerId,
+                    delivery.getStartTime(), delivery.getDistance(),
+                    ORDER_PRICE_COMMISSION_RATE, DISTANCE_COMMISSION_RATE);
+        } catch ( DataIntegrityViolationException e ) {
+            if ( e.getCause() instanceof ConstraintViolationException violation
+                    && ACTIVE_DELIVERY_MAN_INDEX.equalsIgnoreCase(violation.getConstraintName()) ) {
+                log.info("Concurrent pickup rejected by {} for Delivery Man Id:{}", ACTIVE_DELIVERY_MAN_INDEX, deliveryManId);
+                return Optional.empty();
+            }
+            throw e;
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
-     * @param orderPrice
-     * @param distance
-     * @return
+     * Works out why the guarded pickup insert did not create a row.
+     *
+     * @param orderId       the ID of the order that was picked up
+     * @param deliveryManId the ID of the delivery man that picked up the order
+     * @return the exception describing the failed check
      */
-    private double calculateCommission(double orderPrice, double distance) {
-        return ((orderPrice * 0.05) + (distance * 0.5));
+    private IllegalArgumentException rejectedPickup(Long orderId, Long deliveryManId) {
+        if ( !ordersRepository.existsById(orderId) ) {
+            return new IllegalArgumentException("Order does not exists");
+        }
+        if ( !personRepository.existsById(deliveryManId) ) {
+            return new IllegalArgumentException("Delivery man does not exists");
+        }
+        return new IllegalArgumentException("Delivery man is already delivering an order");
     }
 
     /**
-     * Completes a delivery by updating its status, setting the end time,
-     * calculating the commission based on the order price and distance,
-     * and saving the updated delivery details to the repository.
+     * Completes a delivery by updating its status, setting the end time and calculating the commission
+     * based on the order price and distance.
+     * <p>
+     * The completion is a single conditional update that only applies while the delivery is ACTIVE, so of two
+     * concurrent completions of the same delivery exactly one succeeds. The commission is calculated by the
+     * statement, as {@code ORDER_PRICE_COMMISSION_RATE} of the order price captured at pickup plus
+     * {@code DISTANCE_COMMISSION_RATE} per distance unit, and is added to the hourly commission ledger in the same
+     * statement. Only when no delivery was updated the delivery is read to report the reason. A {@link DeliveryCompletedEvent} is published for the in-memory leaderboard and the
+     * overdue timer.
      *
      * @param distance   the distance covered for the delivery
      * @param deliveryId the unique identifier of the delivery to be completed
@@ -90,44 +198,153 @@ public class DeliveryServiceImpl implements DeliveryService {
      * @throws DeliveryNotFoundException if the delivery with the specified ID does not exist
      * @throws IllegalStateException     if the delivery is already marked as completed
      */
+    @Transactional
     public DeliveryResponse completeDelivery(double distance, Long deliveryId) {
-        log.info("Entered into complete Delivery for Delivery Id:{}", deliveryId);
-        Delivery deliveryCreate = deliveryRepository.findById(deliveryId)
-                .orElseThrow(() -> new DeliveryNotFoundException("Delivery not found"));
+        log.debug("Entered into complete Delivery for Delivery Id:{}", deliveryId);
+        CompletionEvent completionEvent = new CompletionEvent();
+        completionEvent.begin();
+        try {
+            Object[] completed = deliveryRepository.completeActiveDelivery(deliveryId, Instant.now(), distance,
+                            ORDER_PRICE_COMMISSION_RATE, DISTANCE_COMMISSION_RATE)
+                    .stream()
+                    .findFirst()
+                    .orElseThrow(() -> rejectedCompletion(deliveryId));
+            DeliveryCompletedEvent completedEvent = DeliveryHelper.mapToDeliveryCompletedEvent(completed);
+            eventPublisher.publishEvent(completedEvent);
+            completionEvent.deliveryManId = completedEvent.deliveryManId();
+            completionEvent.commission = completedEvent.commission();
+            completionEvent.completed = true;
+            log.debug("Exiting from complete Delivery for Delivery Id:{}", deliveryId);
+            return DeliveryHelper.mapToCompletedDeliveryResponse(completed);
+        } finally {
+            if ( completionEvent.shouldCommit() ) {
+                completionEvent.deliveryId = deliveryId != null ? deliveryId : 0L;
+                completionEvent.distance = distance;
+                completionEvent.commit();
+            }
+        }
+    }
 
-        if ( deliveryCreate.getStatus() == DeliveryStatus.COMPLETED ) {
-            throw new IllegalStateException("Delivery is already completed");
+    /**
+     * Works out why the conditional completion did not update a row.
+     *
+     * @param deliveryId the ID of the delivery that was completed
+     * @return the exception describing the failed check
+     */
+    private RuntimeException rejectedCompletion(Long deliveryId) {
+        if ( !deliveryRepository.existsById(deliveryId) ) {
+            return new DeliveryNotFoundException("Delivery not found");
+        }
+        return new IllegalStateException("Delivery is already completed");
+    }
+
+    /**
+     * Completes a batch of deliveries, e.g. the completions a courier app queued while it was offline, and reports
+     * the outcome of each one.
+     * <p>
+     * All deliveries are completed with a single conditional update that only applies to the deliveries that are
+     * still ACTIVE, like {@link #completeDelivery(double, Long)}, and their commission is added to the hourly
+     * commission ledger in the same statement. A delivery completed concurrently by another request is therefore
+     * only reported as failed instead of failing the whole batch. Completions whose delivery was not updated are
+     * reported as failed; only then the IDs that exist are read to tell unknown deliveries from completed ones.
+     * A delivery listed twice fails the second time. A {@link DeliveryCompletedEvent} is published per completed
+     * delivery.
+     *
+     * @param completions the deliveries to be completed and their distances
+     * @return the number of completed and failed deliveries, and the result of every completion in request order
+     * @throws IllegalArgumentException if the batch holds more than {@code delivery.batch.max-size} completions
+     */
+    @Transactional
+    public BatchResponse completeDeliveries(List<DeliveryCompletion> completions) {
+        log.debug("Entered into complete Deliveries, Size:{}", completions.size());
+        if ( completions.size() > maxBatchSize ) {
+            throw new IllegalArgumentException("A batch holds at most " + maxBatchSize + " completions");
         }
+        BatchItemResult[] results = new BatchItemResult[completions.size()];
+        Map<Long, Integer> firstIndexes = new LinkedHashMap<>();
+        for ( int index = 0; index < completions.size(); index++ ) {
+            DeliveryCompletion completion = completions.get(index);
+            if ( completion == null || completion.deliveryId() == null ) {
+                results[index] = BatchItemResult.failed(index, "Delivery ID is required");
+            } else if ( completion.distance() == null ) {
+                results[index] = BatchItemResult.failed(index, "Distance is required");
+            } else {
+                firstIndexes.putIfAbsent(completion.deliveryId(), index);
+            }
+        }
+
+        Set<Long> completedIds = new HashSet<>();
+        if ( !firstIndexes.isEmpty() ) {
+            Long[] deliveryIds = firstIndexes.keySet().toArray(Long[]::new);
+            Double[] distances = firstIndexes.values().stream().map(index -> completions.get(index).distance()).toArray(Double[]::new);
+            for ( Object[] completed : deliveryRepository.completeActiveDeliveries(deliveryIds, distances, Instant.now(),
+                    ORDER_PRICE_COMMISSION_RATE, DISTANCE_COMMISSION_RATE) ) {
+                DeliveryCompletedEvent completedEvent = DeliveryHelper.mapToDeliveryCompletedEvent(completed);
+                completedIds.add(completedEvent.deliveryId());
+                eventPublisher.publishEvent(completedEvent);
+            }
+        }
+        Set<Long> rejectedIds = firstIndexes.keySet().stream()
+                .filter(deliveryId -> !completedIds.contains(deliveryId))
+                .collect(Collectors.toSet());
+        Set<Long> existingIds = rejectedIds.isEmpty() ? Set.of() : new HashSet<>(deliveryRepository.findIdsByIdIn(rejectedIds));
 
-        deliveryCreate.setCommission(calculateCommission(deliveryCreate.getOrders().getOrderPrice(), distance));
-        deliveryCreate.setEndTime(Instant.now());
-        deliveryCreate.setStatus(DeliveryStatus.COMPLETED);
-        Delivery updatedDelivery = deliveryRepository.save(deliveryCreate);
-        log.info("Exiting from complete Delivery for Delivery Id:{}", deliveryId);
-        return new DeliveryResponse(updatedDelivery.getId(), updatedDelivery.getDeliveryMan().getId(), updatedDelivery.getStartTime(), updatedDelivery.getEndTime(), updatedDelivery.getStatus().toString(), updatedDelivery.getCommission(), updatedDelivery.getDistance());
+        for ( int index = 0; index < completions.size(); index++ ) {
+            if ( results[index] != null ) {
+                continue;
+            }
+            Long deliveryId = completions.get(index).deliveryId();
+            if ( completedIds.contains(deliveryId) && firstIndexes.get(deliveryId) == index ) {
+                results[index] = BatchItemResult.succeeded(index, deliveryId);
+            } else if ( completedIds.contains(deliveryId) || existingIds.contains(deliveryId) ) {
+                results[index] = BatchItemResult.failed(index, "Delivery is already completed");
+            } else {
+                results[index] = BatchItemResult.failed(index, "Delivery not found with ID: " + deliveryId);
+            }
+        }
+        BatchResponse response = BatchResponse.of(Arrays.asList(results));
+        log.debug("Exiting from complete Deliveries, Succeeded:{}, Failed:{}", response.succeeded(), response.failed());
+        return response;
     }
 
     /**
      * Retrieves a DeliveryResponse object for the specified delivery ID.
+     * The response is read from the delivery table alone, without loading the delivery's associations.
      *
      * @param deliveryId the unique identifier of the delivery to be retrieved
      * @return a DeliveryResponse object containing the details of the delivery
      * @throws DeliveryNotFoundException if no delivery is found with the provided ID
      */
     public DeliveryResponse findById(Long deliveryId) {
-        log.info("Entered into findById for delivery Id:{}", deliveryId);
-        return deliveryRepository.findById(deliveryId)
+        log.debug("Entered into findById for delivery Id:{}", deliveryId);
+        return deliveryRepository.findDeliveryResponseById(deliveryId)
                 .map(delivery -> {
-                    log.info("Found delivery and Exiting: {}", delivery);
-                    return DeliveryHelper.mapToDeliveryResponse(delivery);
+                    log.debug("Found delivery and Exiting, Delivery Id:{}", deliveryId);
+                    return delivery;
                 })
                 .orElseThrow(() -> new DeliveryNotFoundException("Delivery not found with ID: " + deliveryId));
     }
 
+    /**
+     * Reads the row version of a delivery, which changes with every update of the delivery, without loading it.
+     * Used to answer conditional reads of an unchanged delivery.
+     *
+     * @param deliveryId the unique identifier of the delivery
+     * @return the version of the delivery, or empty if no delivery is found with the provided ID
+     */
+    @Override
+    public Optional<Long> findVersion(Long deliveryId) {
+        return deliveryRepository.findVersionById(deliveryId);
+    }
+
     /**
      * Retrieves the top delivery men based on commissions for a specified time range.
      * The method identifies the top 3 delivery men by their commission earnings within the given period
      * and calculates the average commission among them.
+     * <p>
+     * Day-aligned ranges such as today, the last 7 days or this month are answered by the in-memory
+     * {@link LeaderboardService}. Other ranges are read from the hourly commission ledger, so the cost of the
+     * query depends on the length of the range rather than on the number of deliveries in it.
      *
      * @param startTime the start time of the time range to evaluate top delivery men
      * @param endTime   the end time of the time range to evaluate top delivery men
@@ -136,22 +353,53 @@ public class DeliveryServiceImpl implements DeliveryService {
      * @throws IllegalArgumentException if the start time occurs after the end time
      */
     public TopDeliveryMenResponse getTopDeliveryMen(LocalDateTime startTime, LocalDateTime endTime) {
-        log.info("Entered into getTopDeliveryMen for Time Between StartTime:{}, EndTime : {}", startTime, endTime);
+        log.debug("Entered into getTopDeliveryMen for Time Between StartTime:{}, EndTime : {}", startTime, endTime);
         if ( startTime.isAfter(endTime) ) {
             throw new IllegalArgumentException("StartTime must be before endTime");
         }
 
-        List<Object[]> top3DeliveryMen = deliveryRepository.findTopDeliveryMenByCommission(startTime, endTime);
+        TopDeliveryMenEvent topDeliveryMenEvent = new TopDeliveryMenEvent();
+        topDeliveryMenEvent.begin();
+        // today, the last days and this month are answered from memory, any other range from the ledger
+        Optional<List<DeliveryManCommission>> fromMemory = leaderboardService
+                .findTopDeliveryMen(startTime, endTime, TOP_DELIVERY_MEN_LIMIT);
+        List<DeliveryManCommission> topDeliveryMen = fromMemory.orElseGet(() -> findTopDeliveryMenInLedger(startTime, endTime));
+        if ( topDeliveryMenEvent.shouldCommit() ) {
+            topDeliveryMenEvent.rangeMillis = Duration.between(startTime, endTime).toMillis();
+            topDeliveryMenEvent.source = fromMemory.isPresent() ? "memory" : "ledger";
+            topDeliveryMenEvent.deliveryMen = topDeliveryMen.size();
+            topDeliveryMenEvent.commit();
+        }
 
         // Calculate average commission
-        List<DeliveryManCommission> topDeliveryMen = top3DeliveryMen.stream()
-                .map(DeliveryHelper::mapToDeliveryManCommission)
-                .toList();
         double totalCommissionTop3 = topDeliveryMen.stream().mapToDouble(DeliveryManCommission::totalCommission).sum();
         double averageCommissionOfTop3 = !topDeliveryMen.isEmpty() ? totalCommissionTop3 / topDeliveryMen.size() : 0.0;
-        log.info("Exited from getTopDeliveryMen for Time Between StartTime:{}, EndTime : {}", startTime, endTime);
+        log.debug("Exited from getTopDeliveryMen for Time Between StartTime:{}, EndTime : {}", startTime, endTime);
         return new TopDeliveryMenResponse(topDeliveryMen, Math.max(averageCommissionOfTop3, 0.0));
     }
 
-
+    /**
+     * Retrieves the top delivery men of a time range from the hourly commission ledger. The whole hours
+     * of the range come from the ledger, the partial hours at both edges from the delivery table.
+     *
+     * @param startTime the start time of the range
+     * @param endTime   the end time of the range
+     * @return the top delivery men ordered by commission
+     */
+    private List<DeliveryManCommission> findTopDeliveryMenInLedger(LocalDateTime startTime, LocalDateTime endTime) {
+        LocalDateTime bucketsFrom = startTime.truncatedTo(ChronoUnit.HOURS);
+        if ( bucketsFrom.isBefore(startTime) ) {
+            bucketsFrom = bucketsFrom.plusHours(1);
+        }
+        LocalDateTime bucketsTo = endTime.truncatedTo(ChronoUnit.HOURS);
+        if ( bucketsTo.isBefore(bucketsFrom) ) {
+            // the range does not contain a whole hour
+            bucketsFrom = endTime;
+            bucketsTo = endTime;
+        }
+        return commissionLedgerRepository.findTopDeliveryMen(startTime, endTime, bucketsFrom, bucketsTo, TOP_DELIVERY_MEN_LIMIT)
+                .stream()
+                .map(DeliveryHelper::mapToDeliveryManCommission)
+                .toList();
+    }
 }
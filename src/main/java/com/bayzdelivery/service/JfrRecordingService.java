@@ -0,0 +1,32 @@
+package com.bayzdelivery.service;
+
+import com.bayzdelivery.dto.JfrRecordingResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JfrRecordingService interface provides on-demand Java Flight Recorder recordings of the running application,
+ * so a production incident can be profiled without redeploying or attaching an agent.
+ * <p>
+ * Features:
+ * - Start a recording with the `default` or `profile` settings of the JDK for a bounded duration.
+ * - Stop a recording before its duration has elapsed.
+ * - List the recordings and read the recorded data of a stopped recording as a `.jfr` stream.
+ * - Close a recording and delete its data.
+ */
+public interface JfrRecordingService {
+
+    JfrRecordingResponse start(String profile, Duration duration);
+
+    Optional<JfrRecordingResponse> stop(long id);
+
+    List<JfrRecordingResponse> findAll();
+
+    Optional<InputStream> openStream(long id) throws IOException;
+
+    boolean close(long id);
+}
@@ -0,0 +1,191 @@
+package com.bayzdelivery.service;
+
+import com.bayzdelivery.dto.JfrRecordingResponse;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Implementation of the JfrRecordingService interface on the {@code jdk.jfr} API of the running JVM.
+ * <p>
+ * Key Features:
+ * - Recordings use the settings shipped with the JDK: `default` has an overhead of about 1% and is safe to run
+ * in production, `profile` samples more often and records more events for a shorter investigation.
+ * - Every recording has a duration, bounded by `jfr.max-duration-minutes`, after which it stops by itself, so a
+ * forgotten recording does not keep recording.
+ * - Recordings are written to disk, so the recorded data does not grow the heap.
+ * - At most `jfr.max-recordings` recordings are kept. When a new recording would exceed it, the oldest stopped
+ * recordings are closed; if all of them are still running, the new recording is rejected.
+ * - Only the recordings started by this service are listed and can be stopped, downloaded or closed; other
+ * recordings of the JVM, such as the pinning monitor's stream, are left alone.
+ * <p>
+ * Configuration:
+ * - `jfr.max-duration-minutes`: Longest duration of a recording.
+ * - `jfr.max-recordings`: Largest number of recordings kept, running or stopped.
+ */
+@Slf4j
+@Service
+public class JfrRecordingServiceImpl implements JfrRecordingService {
+
+    static final Set<String> PROFILES = Set.of("default", "profile");
+
+    private final Map<Long, StartedRecording> recordings = new ConcurrentHashMap<>();
+
+    @Value("${jfr.max-duration-minutes:30}")
+    private long maxDurationMinutes = 30;
+
+    @Value("${jfr.max-recordings:4}")
+    private int maxRecordings = 4;
+
+    /**
+     * Starts a recording with the given JDK settings.
+     *
+     * @param profile  the name of the JDK settings, `default` or `profile`
+     * @param duration the duration after which the recording stops by itself
+     * @return the started recording
+     * @throws IllegalArgumentException if the profile is unknown, the duration is not positive or longer than the
+     *                                  maximum, or the maximum number of recordings are running
+     */
+    @Override
+    public synchronized JfrRecordingResponse start(String profile, Duration duration) {
+        if ( !PROFILES.contains(profile) ) {
+            throw new IllegalArgumentException("Profile must be one of " + PROFILES);
+        }
+        if ( duration == null || duration.isNegative() || duration.isZero()
+                || duration.compareTo(Duration.ofMinutes(maxDurationMinutes)) > 0 ) {
+            throw new IllegalArgumentException("Duration must be between 1 second and " + maxDurationMinutes + " minutes");
+        }
+        makeRoom();
+
+        Recording recording = new Recording(configuration(profile));
+        recording.setName("bayzdelivery-" + profile + "-" + recording.getId());
+        recording.setDuration(duration);
+        recording.setToDisk(true);
+        recording.start();
+        StartedRecording started = new StartedRecording(recording, profile);
+        recordings.put(recording.getId(), started);
+        log.info("Started JFR recording Id:{}, Profile:{}, Duration:{}", recording.getId(), profile, duration);
+        return started.toResponse();
+    }
+
+    @Override
+    public Optional<JfrRecordingResponse> stop(long id) {
+        return find(id).map(started -> {
+            if ( started.recording().getState() == RecordingState.RUNNING ) {
+                started.recording().stop();
+                log.info("Stopped JFR recording Id:{}", id);
+            }
+            return started.toResponse();
+        });
+    }
+
+    @Override
+    public List<JfrRecordingResponse> findAll() {
+        return recordings.values().stream()
+                .sorted(Comparator.comparingLong(started -> started.recording().getId()))
+                .map(StartedRecording::toResponse)
+                .toList();
+    }
+
+    /**
+     * Opens the recorded data of a stopped recording in the `.jfr` format.
+     *
+     * @param id the ID of the recording
+     * @return the recorded data, empty if there is no such recording
+     * @throws IllegalArgumentException if the recording has not stopped yet or has no data
+     * @throws IOException              if the data cannot be read from disk
+     */
+    @Override
+    public Optional<InputStream> openStream(long id) throws IOException {
+        Optional<StartedRecording> started = find(id);
+        if ( started.isEmpty() ) {
+            return Optional.empty();
+        }
+        Recording recording = started.get().recording();
+        if ( recording.getState() != RecordingState.STOPPED ) {
+            throw new IllegalArgumentException("Recording " + id + " is " + recording.getState() + ", stop it first");
+        }
+        InputStream stream = recording.getStream(null, null);
+        if ( stream == null ) {
+            throw new IllegalArgumentException("Recording " + id + " has no data");
+        }
+        return Optional.of(stream);
+    }
+
+    @Override
+    public boolean close(long id) {
+        StartedRecording started = recordings.remove(id);
+        if ( started == null ) {
+            return false;
+        }
+        started.recording().close();
+        log.info("Closed JFR recording Id:{}", id);
+        return true;
+    }
+
+    /**
+     * Closes the recordings still open when the application shuts down, which deletes their data.
+     */
+    @PreDestroy
+    public void closeAll() {
+        recordings.keySet().forEach(this::close);
+    }
+
+    private Optional<StartedRecording> find(long id) {
+        StartedRecording started = recordings.get(id);
+        if ( started != null && started.recording().getState() == RecordingState.CLOSED ) {
+            recordings.remove(id);
+            return Optional.empty();
+        }
+        return Optional.ofNullable(started);
+    }
+
+    /**
+     * Closes the oldest stopped recordings until a new recording fits in {@code jfr.max-recordings}.
+     */
+    private void makeRoom() {
+        List<StartedRecording> stopped = recordings.values().stream()
+                .filter(started -> started.recording().getState() != RecordingState.RUNNING
+                        && started.recording().getState() != RecordingState.DELAYED)
+                .sorted(Comparator.comparingLong(started -> started.recording().getId()))
+                .toList();
+        int excess = recordings.size() - maxRecordings + 1;
+        for ( int i = 0; i < excess && i < stopped.size(); i++ ) {
+            close(stopped.get(i).recording().getId());
+        }
+        if ( recordings.size() >= maxRecordings ) {
+            throw new IllegalArgumentException(maxRecordings + " recordings are already running");
+        }
+    }
+
+    private static Configuration configuration(String profile) {
+        try {
+            return Configuration.getConfiguration(profile);
+        } catch ( IOException | ParseException e ) {
+            throw new IllegalStateException("JFR settings " + profile + " cannot be read", e);
+        }
+    }
+
+    private record StartedRecording(Recording recording, String profile) {
+
+        JfrRecordingResponse toResponse() {
+            return new JfrRecordingResponse(recording.getId(), recording.getName(), profile,
+                    recording.getState().name(), recording.getStartTime(), recording.getDuration(), recording.getSize());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.bayzdelivery.service;
+
+import com.bayzdelivery.dto.DeliveryManCommission;
+import com.bayzdelivery.events.DeliveryCompletedEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * LeaderboardService interface provides an in-memory view of the commission earned by the delivery men,
+ * so the common leaderboard windows can be answered without querying the database.
+ * <p>
+ * Features:
+ * - Rebuild the leaderboard from the hourly commission ledger.
+ * - Record completed deliveries as they happen.
+ * - Answer top delivery men queries for day-aligned windows such as today, the last 7 days or this month.
+ */
+public interface LeaderboardService {
+
+    void rebuild();
+
+    void onDeliveryCompleted(DeliveryCompletedEvent event);
+
+    Optional<List<DeliveryManCommission>> findTopDeliveryMen(LocalDateTime startTime, LocalDateTime endTime, int limit);
+}
@@ -0,0 +1,298 @@
+package com.bayzdelivery.service;
+
+import com.bayzdelivery.config.MetricsConfig;
+import com.bayzdelivery.dto.DeliveryManCommission;
+import com.bayzdelivery.events.DeliveryCompletedEvent;
+import com.bayzdelivery.repositories.CommissionLedgerRepository;
+import com.bayzdelivery.repositories.DeliveryRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory implementation of the LeaderboardService.
+ * <p>
+ * Keeps the commission of the completed deliveries per start day and delivery man for the last
+ * {@code leaderboard.in-memory.retention-days} days, which covers today, the last 7 days and this month.
+ * Queries for day-aligned windows merge the days of the window and pick the top delivery men with a bounded heap;
+ * any other window returns empty, so the caller falls back to the database.
+ * <p>
+ * Key Responsibilities:
+ * - Rebuilding the per-day totals from the hourly commission ledger when the application has started, and again
+ * every {@code leaderboard.in-memory.rebuild-interval-ms}.
+ * - Recording completed deliveries from {@link DeliveryCompletedEvent}s once their transaction has committed.
+ * - Answering top delivery men queries without touching the database.
+ * <p>
+ * Completion events are only seen by the instance that handled them. The periodic rebuild picks up the completions
+ * of the other instances, so with several instances a leaderboard lags behind the database by at most one rebuild
+ * interval.
+ * <p>
+ * A rebuild that is already running is not started again, so a slow rebuild is not overlapped by the next one.
+ * <p>
+ * Configuration:
+ * - `leaderboard.in-memory.enabled`: Switches the in-memory leaderboard on or off.
+ * - `leaderboard.in-memory.retention-days`: Number of days, including today, kept in memory.
+ * - `leaderboard.in-memory.rebuild-interval-ms`: Time between the end of a rebuild and the start of the next.
+ */
+@Slf4j
+@Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
+public class LeaderboardServiceImpl implements LeaderboardService {
+
+    private static final LocalTime LAST_SECOND_OF_DAY = LocalTime.of(23, 59, 59);
+    private static final int EXPECTED_DELIVERY_MEN_PER_DAY = 64;
+
+    private final CommissionLedgerRepository commissionLedgerRepository;
+    private final DeliveryRepository deliveryRepository;
+    private final TransactionTemplate snapshotTransaction;
+
+    @Value("${leaderboard.in-memory.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${leaderboard.in-memory.retention-days:35}")
+    private int retentionDays = 35;
+
+    private Clock clock = Clock.systemDefaultZone();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<LocalDate, CommissionTotals> days = new TreeMap<>();
+    private final Map<Long, String> deliveryManNames = new HashMap<>();
+    private final List<DeliveryCompletedEvent> completedDuringRebuild = new ArrayList<>();
+    private boolean rebuilding;
+    private volatile boolean ready;
+
+    public LeaderboardServiceImpl(CommissionLedgerRepository commissionLedgerRepository,
+                                  DeliveryRepository deliveryRepository,
+                                  PlatformTransactionManager transactionManager) {
+        this.commissionLedgerRepository = commissionLedgerRepository;
+        this.deliveryRepository = deliveryRepository;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Rebuilds the per-day totals from the hourly commission ledger of the retained days.
+     * <p>
+     * The ledger is read in a read-only repeatable read transaction. Completions recorded while the ledger is being
+     * read are looked up by delivery ID in the same snapshot when the totals are replaced: the ones already
+     * completed there are part of the ledger totals, the others are applied on top of them. So a completion is
+     * counted once however its end time compares to the other completions.
+     * Until the first rebuild has finished every query falls back to the database; while a later rebuild is
+     * running, queries are answered from the previous totals.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${leaderboard.in-memory.rebuild-interval-ms:60000}",
+            initialDelayString = "${leaderboard.in-memory.rebuild-interval-ms:60000}")
+    public void rebuild() {
+        if ( !enabled ) {
+            return;
+        }
+        log.info("Entered into rebuild of the in-memory leaderboard");
+        lock.writeLock().lock();
+        try {
+            if ( rebuilding ) {
+                log.info("Exiting from rebuild of the in-memory leaderboard, a rebuild is already running");
+                return;
+            }
+            rebuilding = true;
+            completedDuringRebuild.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            snapshotTransaction.executeWithoutResult(status -> replaceTotals(
+                    commissionLedgerRepository.findDailyCommissionsSince(oldestRetainedDay().atStartOfDay())));
+        } catch ( RuntimeException e ) {
+            log.error("Error while rebuilding the in-memory leaderboard, queries fall back to the database: {}", e.getMessage(), e);
+            lock.writeLock().lock();
+            try {
+                rebuilding = false;
+                ready = false;
+                completedDuringRebuild.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Replaces the per-day totals with the ledger rows read by the rebuild, and applies the completions recorded
+     * meanwhile that the ledger does not hold yet. Runs in the transaction that read the rows.
+     */
+    private void replaceTotals(List<Object[]> rows) {
+        NavigableMap<LocalDate, CommissionTotals> rebuiltDays = new TreeMap<>();
+        Map<Long, String> names = new HashMap<>();
+        for ( Object[] row : rows ) {
+            long deliveryManId = ((Number) row[0]).longValue();
+            names.put(deliveryManId, row[1] instanceof String name ? name : "");
+            rebuiltDays.computeIfAbsent(toLocalDate(row[2]), day -> new CommissionTotals(EXPECTED_DELIVERY_MEN_PER_DAY))
+                    .add(deliveryManId, ((Number) row[3]).doubleValue(), ((Number) row[4]).longValue());
+        }
+
+        lock.writeLock().lock();
+        try {
+            Set<Long> inLedger = completedInSnapshot(completedDuringRebuild);
+            days.clear();
+            days.putAll(rebuiltDays);
+            deliveryManNames.clear();
+            deliveryManNames.putAll(names);
+            for ( DeliveryCompletedEvent event : completedDuringRebuild ) {
+                if ( !inLedger.contains(event.deliveryId()) ) {
+                    apply(event);
+                }
+            }
+            completedDuringRebuild.clear();
+            rebuilding = false;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Exiting from rebuild of the in-memory leaderboard, Days:{}, DeliveryMen:{}", rebuiltDays.size(), names.size());
+    }
+
+    private Set<Long> completedInSnapshot(List<DeliveryCompletedEvent> events) {
+        List<Long> deliveryIds = events.stream().map(DeliveryCompletedEvent::deliveryId).filter(Objects::nonNull).toList();
+        if ( deliveryIds.isEmpty() ) {
+            return Set.of();
+        }
+        return new HashSet<>(deliveryRepository.findCompletedIdsByIdIn(deliveryIds));
+    }
+
+    /**
+     * Records a completed delivery once the transaction that completed it has committed.
+     *
+     * @param event the completed delivery
+     */
+    @Override
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDeliveryCompleted(DeliveryCompletedEvent event) {
+        if ( !enabled || event.deliveryManId() == null || event.startTime() == null ) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if ( rebuilding ) {
+                completedDuringRebuild.add(event);
+            } else {
+                apply(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves the top delivery men for a window starting at midnight and ending either now or later,
+     * or at the end of a day. The window must lie within the retained days.
+     *
+     * @param startTime the start of the window
+     * @param endTime   the end of the window
+     * @param limit     the maximum number of delivery men to return
+     * @return the top delivery men ordered by commission, or empty if the window cannot be answered from memory
+     */
+    @Override
+    public Optional<List<DeliveryManCommission>> findTopDeliveryMen(LocalDateTime startTime, LocalDateTime endTime, int limit) {
+        if ( !enabled || !ready || !startTime.toLocalTime().equals(LocalTime.MIDNIGHT) ) {
+            return Optional.empty();
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDate firstDay = startTime.toLocalDate();
+        LocalDate lastDay;
+        if ( !endTime.isBefore(now) ) {
+            lastDay = now.toLocalDate();
+        } else if ( !endTime.toLocalTime().isBefore(LAST_SECOND_OF_DAY) ) {
+            lastDay = endTime.toLocalDate();
+        } else {
+            return Optional.empty();
+        }
+        if ( firstDay.isBefore(oldestRetainedDay()) ) {
+            return Optional.empty();
+        }
+        if ( lastDay.isBefore(firstDay) || limit <= 0 ) {
+            return Optional.of(List.of());
+        }
+
+        lock.readLock().lock();
+        try {
+            Collection<CommissionTotals> window = days.subMap(firstDay, true, lastDay, true).values();
+            CommissionTotals totals;
+            if ( window.size() == 1 ) {
+                totals = window.iterator().next();
+            } else {
+                totals = new CommissionTotals(EXPECTED_DELIVERY_MEN_PER_DAY);
+                window.forEach(totals::addAll);
+            }
+            return Optional.of(topOf(totals, limit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<DeliveryManCommission> topOf(CommissionTotals totals, int limit) {
+        PriorityQueue<DeliveryManCommission> heap = new PriorityQueue<>(limit + 1,
+                Comparator.comparingDouble(DeliveryManCommission::totalCommission));
+        totals.forEach((deliveryManId, commission, count) -> {
+            if ( heap.size() < limit ) {
+                heap.add(toDeliveryManCommission(deliveryManId, commission, count));
+            } else if ( commission > heap.peek().totalCommission() ) {
+                heap.poll();
+                heap.add(toDeliveryManCommission(deliveryManId, commission, count));
+            }
+        });
+        List<DeliveryManCommission> top = new ArrayList<>(heap);
+        top.sort(Comparator.comparingDouble(DeliveryManCommission::totalCommission).reversed());
+        return top;
+    }
+
+    private DeliveryManCommission toDeliveryManCommission(long deliveryManId, double commission, long count) {
+        return new DeliveryManCommission(deliveryManId, deliveryManNames.getOrDefault(deliveryManId, ""),
+                commission, count, count > 0 ? commission / count : 0.0);
+    }
+
+    private void apply(DeliveryCompletedEvent event) {
+        LocalDate oldestRetainedDay = oldestRetainedDay();
+        LocalDate day = LocalDate.ofInstant(event.startTime(), clock.getZone());
+        if ( day.isBefore(oldestRetainedDay) ) {
+            return;
+        }
+        days.computeIfAbsent(day, d -> new CommissionTotals(EXPECTED_DELIVERY_MEN_PER_DAY))
+                .add(event.deliveryManId(), event.commission(), 1);
+        if ( event.deliveryManName() != null ) {
+            deliveryManNames.put(event.deliveryManId(), event.deliveryManName());
+        }
+        days.headMap(oldestRetainedDay, false).clear();
+    }
+
+    private LocalDate oldestRetainedDay() {
+        return LocalDate.now(clock).minusDays(retentionDays - 1L);
+    }
+
+    private LocalDate toLocalDate(Object value) {
+        if ( value instanceof LocalDate localDate ) {
+            return localDate;
+        }
+        if ( value instanceof java.sql.Date date ) {
+            return date.toLocalDate();
+        }
+        if ( value instanceof LocalDateTime localDateTime ) {
+            return localDateTime.toLocalDate();
+        }
+        throw new IllegalArgumentException("Unsupported day value: " + value);
+    }
+}
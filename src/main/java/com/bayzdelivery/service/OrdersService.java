@@ -1,9 +1,13 @@
 package com.bayzdelivery.service;
 
+import com.bayzdelivery.dto.BatchResponse;
+import com.bayzdelivery.dto.KeysetPage;
 import com.bayzdelivery.dto.OrderResponse;
 import com.bayzdelivery.model.Orders;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * OrdersService interface defines the operations available for managing
@@ -11,19 +15,27 @@ import java.util.List;
  * <p>
  * This service provides functionality for:
  * <p>
- * - Retrieving all orders.
- * - Persisting a new order.
- * - Fetching a specific order by its unique identifier.
+ * - Retrieving the orders page by page, or streaming all of them.
+ * - Persisting a new order, or a batch of new orders with a result per order.
+ * - Fetching a specific order by its unique identifier, or only its version for conditional reads.
  * - Deleting an order using its ID.
  * - Updating the details of an existing order.
  */
 public interface OrdersService {
-    List<OrderResponse> getAll();
+    KeysetPage<OrderResponse> getPage(String after, Integer limit);
+
+    void streamAll(Consumer<OrderResponse> consumer);
 
     OrderResponse save(Orders p);
 
+    BatchResponse saveBatch(List<Orders> orders);
+
     OrderResponse findById(Long orderId);
 
+    OrderResponse findById(Long orderId, String version);
+
+    Optional<String> findVersion(Long orderId);
+
     void deleteById(Long orderId);
 
     OrderResponse updateOrder(Long orderId, Orders updatedOrder);
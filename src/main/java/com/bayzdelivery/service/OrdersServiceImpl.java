@@ -1,15 +1,35 @@
 package com.bayzdelivery.service;
 
+import com.bayzdelivery.config.MetricsConfig;
+import com.bayzdelivery.dto.BatchItemResult;
+import com.bayzdelivery.dto.BatchResponse;
+import com.bayzdelivery.dto.KeysetPage;
 import com.bayzdelivery.dto.OrderResponse;
 import com.bayzdelivery.exceptions.OrderNotFoundException;
 import com.bayzdelivery.model.Orders;
 import com.bayzdelivery.repositories.OrdersRepository;
+import com.bayzdelivery.repositories.PersonRepository;
+import com.bayzdelivery.utils.ContinuationToken;
 import com.bayzdelivery.utils.OrderHelper;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementation class for the OrdersService interface.
@@ -21,28 +41,72 @@ import java.util.List;
  * uses Lombok annotations for logging and dependency injection.
  * <p>
  * Responsibilities include:
- * - Fetching all orders from the repository and mapping them to response DTOs.
- * - Saving a new order to
+ * - Fetching the orders page by page by keyset, or streaming all of them, as response DTOs.
+ * Reads are served by projection queries selecting the response columns and the customer name in one
+ * statement, so they never load the customer entities.
+ * - Saving a new order to the repository.
+ * - Saving batches of new orders, validated up front and inserted in chunks with JDBC batching.
+ * - Reading single orders through the {@link ReferenceCache}, and invalidating them there when they are
+ * updated or deleted.
+ * <p>
+ * Configuration:
+ * - `pagination.default-limit`: Page size when the client does not ask for one.
+ * - `pagination.max-limit`: Largest page size a client can ask for.
+ * - `orders.batch.max-size`: Largest number of orders accepted in one batch.
+ * - `orders.batch.chunk-size`: Number of orders inserted per transaction.
  */
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 @Slf4j
 @RequiredArgsConstructor
 public class OrdersServiceImpl implements OrdersService {
     private final OrdersRepository ordersRepository;
+    private final PersonRepository personRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ReferenceCache referenceCache;
+
+    @Value("${pagination.default-limit:100}")
+    private int defaultLimit = 100;
+
+    @Value("${pagination.max-limit:1000}")
+    private int maxLimit = 1000;
+
+    @Value("${orders.batch.max-size:5000}")
+    private int maxBatchSize = 5000;
+
+    @Value("${orders.batch.chunk-size:500}")
+    private int chunkSize = 500;
+
+    /**
+     * Retrieves the page of orders following the given continuation token, ordered by ID.
+     *
+     * @param after the continuation token of the previous page, or null for the first page
+     * @param limit the page size, {@code pagination.default-limit} if null, capped at {@code pagination.max-limit}
+     * @return the page of orders with the continuation token of the next page, if any
+     * @throws IllegalArgumentException if the token is invalid or the limit is not positive
+     */
+    @Override
+    public KeysetPage<OrderResponse> getPage(String after, Integer limit) {
+        log.debug("Entered into getPage Orders, After:{}, Limit:{}", after, limit);
+        long afterId = ContinuationToken.decode(after);
+        int pageSize = pageSize(limit);
+        return KeysetPage.of(ordersRepository.findOrderResponsesAfter(afterId, Limit.of(pageSize + 1)),
+                pageSize, OrderResponse::id);
+    }
 
     /**
-     * Retrieves all orders from the repository, maps them to OrderResponse DTO objects,
-     * and returns the resulting list.
+     * Hands all orders, ordered by ID, to the consumer one at a time as they are read from a database cursor.
      *
-     * @return a list of OrderResponse objects representing all orders in the repository
+     * @param consumer the consumer of the orders, e.g. writing them to the response
      */
     @Override
-    public List<OrderResponse> getAll() {
-        log.info("Entered into getAll Orders");
-        return ordersRepository.findAll()
-                .stream()
-                .map(OrderHelper::mapToOrdersResponse)
-                .toList();
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<OrderResponse> consumer) {
+        log.debug("Entered into streamAll Orders");
+        try ( Stream<OrderResponse> orders = ordersRepository.streamAllOrderResponses() ) {
+            orders.forEach(consumer);
+        }
+        log.debug("Exiting from streamAll Orders");
     }
 
     /**
@@ -53,14 +117,107 @@ public class OrdersServiceImpl implements OrdersService {
      */
     @Override
     public OrderResponse save(Orders ord) {
-        log.info("Entered into save Orders");
+        log.debug("Entered into save Orders");
         Orders savedOrder = ordersRepository.save(ord);
-        log.info("Exiting from save Order:{}", savedOrder);
+        log.debug("Exiting from save Order, Order Id:{}", savedOrder.getId());
         return OrderHelper.mapToOrdersResponse(savedOrder);
     }
 
+    /**
+     * Saves a batch of new orders and reports the outcome of each one.
+     * <p>
+     * The orders are validated up front, with the existence of all their customers checked in one query;
+     * invalid orders are reported as failed and skipped. The valid orders are inserted in chunks of
+     * {@code orders.batch.chunk-size}, each chunk in its own transaction. Their IDs come from the pooled
+     * sequence, so Hibernate sends the inserts of a chunk as JDBC batches. When a chunk fails, all its
+     * orders are reported as failed and the following chunks are still inserted.
+     *
+     * @param orders the orders to be saved; they must not have an ID
+     * @return the number of saved and failed orders, and the result of every order in request order
+     * @throws IllegalArgumentException if the batch holds more than {@code orders.batch.max-size} orders
+     */
+    @Override
+    public BatchResponse saveBatch(List<Orders> orders) {
+        log.debug("Entered into saveBatch Orders, Size:{}", orders.size());
+        if ( orders.size() > maxBatchSize ) {
+            throw new IllegalArgumentException("A batch holds at most " + maxBatchSize + " orders");
+        }
+        BatchItemResult[] results = new BatchItemResult[orders.size()];
+        Set<Long> customerIds = orders.stream()
+                .map(OrdersServiceImpl::customerIdOf)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<Long> existingCustomerIds = customerIds.isEmpty() ? Set.of() : personRepository.findExistingIds(customerIds);
+
+        List<Integer> valid = new ArrayList<>();
+        for ( int index = 0; index < orders.size(); index++ ) {
+            String error = validateNewOrder(orders.get(index), existingCustomerIds);
+            if ( error != null ) {
+                results[index] = BatchItemResult.failed(index, error);
+            } else {
+                valid.add(index);
+            }
+        }
+        int chunk = Math.max(chunkSize, 1);
+        for ( int from = 0; from < valid.size(); from += chunk ) {
+            insertChunk(orders, valid.subList(from, Math.min(from + chunk, valid.size())), results);
+        }
+        BatchResponse response = BatchResponse.of(Arrays.asList(results));
+        log.debug("Exiting from saveBatch Orders, Succeeded:{}, Failed:{}", response.succeeded(), response.failed());
+        return response;
+    }
+
+    private void insertChunk(List<Orders> orders, List<Integer> indexes, BatchItemResult[] results) {
+        List<Orders> chunk = indexes.stream().map(orders::get).toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                chunk.forEach(order -> order.setCustomer(personRepository.getReferenceById(customerIdOf(order))));
+                ordersRepository.saveAll(chunk);
+            });
+            for ( int i = 0; i < indexes.size(); i++ ) {
+                results[indexes.get(i)] = BatchItemResult.succeeded(indexes.get(i), chunk.get(i).getId());
+            }
+        } catch ( DataAccessException e ) {
+            log.error("Error while saving a chunk of {} orders: {}", chunk.size(), e.getMessage(), e);
+            for ( Integer index : indexes ) {
+                results[index] = BatchItemResult.failed(index, "Order could not be saved: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+
+    private static String validateNewOrder(Orders order, Set<Long> existingCustomerIds) {
+        if ( order == null ) {
+            return "Order is required";
+        }
+        if ( order.getId() != null ) {
+            return "Order ID must not be set";
+        }
+        if ( order.getOrderName() == null || order.getOrderName().isBlank() ) {
+            return "Order name is required";
+        }
+        if ( order.getOrderPrice() < 0 ) {
+            return "Order price must not be negative";
+        }
+        if ( order.getOrderTime() == null ) {
+            return "Order time is required";
+        }
+        Long customerId = customerIdOf(order);
+        if ( customerId == null ) {
+            return "Customer is required";
+        }
+        if ( !existingCustomerIds.contains(customerId) ) {
+            return "Customer not found with ID: " + customerId;
+        }
+        return null;
+    }
+
+    private static Long customerIdOf(Orders order) {
+        return order == null || order.getCustomer() == null ? null : order.getCustomer().getId();
+    }
+
     /**
      * Retrieves an order by its unique identifier and maps it to an OrderResponse DTO.
+     * The order is served from the reference cache when present there.
      * If the order is not found, throws an OrderNotFoundException.
      *
      * @param orderId the unique identifier of the order to be retrieved
@@ -69,17 +226,44 @@ public class OrdersServiceImpl implements OrdersService {
      */
     @Override
     public OrderResponse findById(Long orderId) {
-        log.info("Entered into findById Orders of OrderId :{}", orderId);
-        return ordersRepository.findById(orderId).map(orders -> {
-                    log.info("Found order and Exiting: {}", orders);
-                    return OrderHelper.mapToOrdersResponse(orders);
+        return findById(orderId, null);
+    }
+
+    /**
+     * Retrieves an order for the version just read by {@link #findVersion(Long)}, to answer a read tagged with
+     * that version. The order is only served from the reference cache when it was cached for the same version,
+     * so the response is never older than its ETag.
+     *
+     * @param orderId the unique identifier of the order to be retrieved
+     * @param version the current version of the order, or null to accept any cached order
+     * @return an OrderResponse object representing the order
+     * @throws OrderNotFoundException if no order is found with the given ID
+     */
+    @Override
+    public OrderResponse findById(Long orderId, String version) {
+        log.debug("Entered into findById Orders of OrderId :{}", orderId);
+        return referenceCache.findOrder(orderId, version, ordersRepository::findOrderResponseById).map(orders -> {
+                    log.debug("Found order and Exiting, Order Id:{}", orderId);
+                    return orders;
                 })
                 .orElseThrow(() -> new OrderNotFoundException("Order not found with ID: " + orderId));
 
     }
 
     /**
-     * Deletes an order from the repository by its unique identifier.
+     * Reads the version of an order without loading it. The version changes whenever the order, its customer or
+     * the name of its customer changes, and is used to answer conditional reads of an unchanged order.
+     *
+     * @param orderId the unique identifier of the order
+     * @return the version of the order, or empty if no order is found with the given ID
+     */
+    @Override
+    public Optional<String> findVersion(Long orderId) {
+        return ordersRepository.findVersionById(orderId);
+    }
+
+    /**
+     * Deletes an order from the repository by its unique identifier and drops it from the reference cache.
      * If the order is not found, throws an OrderNotFoundException.
      *
      * @param orderId the unique identifier of the order to be deleted
@@ -87,15 +271,18 @@ public class OrdersServiceImpl implements OrdersService {
      */
     @Override
     public void deleteById(Long orderId) {
-        log.info("Entered into deleteById Orders of OrderId :{}", orderId);
+        log.debug("Entered into deleteById Orders of OrderId :{}", orderId);
         Orders order = ordersRepository.findById(orderId).orElseThrow(() -> new OrderNotFoundException("Order not found with ID: " + orderId));
         ordersRepository.delete(order);
-        log.info("Exiting from deleteById Orders of OrderId :{}", orderId);
+        referenceCache.invalidateOrder(orderId);
+        log.debug("Exiting from deleteById Orders of OrderId :{}", orderId);
     }
 
     /**
      * Updates the details of an existing order.
      * If the order with the specified ID does not exist, an exception is thrown.
+     * Runs in a transaction, so the lazily loaded customer can be read for the response and the other
+     * instances only drop the order from their reference cache once the update has committed.
      *
      * @param orderId      the unique identifier of the order to be updated
      * @param updatedOrder the object containing updated order details
@@ -103,8 +290,9 @@ public class OrdersServiceImpl implements OrdersService {
      * @throws OrderNotFoundException if no order is found with the given ID
      */
     @Override
+    @Transactional
     public OrderResponse updateOrder(Long orderId, Orders updatedOrder) {
-        log.info("Entered into updateOrder Orders of OrderId :{}", orderId);
+        log.debug("Entered into updateOrder Orders of OrderId :{}", orderId);
         Orders existingOrder = ordersRepository.findById(orderId).orElseThrow(() -> new OrderNotFoundException("Order not found with ID: " + orderId));
 
         existingOrder.setOrderName(updatedOrder.getOrderName());
@@ -112,9 +300,18 @@ public class OrdersServiceImpl implements OrdersService {
         existingOrder.setCustomer(updatedOrder.getCustomer());
 
         Orders savedOrder = ordersRepository.save(existingOrder);
-        log.info("Exiting from updateOrder Orders of OrderId :{}", orderId);
+        referenceCache.invalidateOrder(orderId);
+        log.debug("Exiting from updateOrder Orders of OrderId :{}", orderId);
         return OrderHelper.mapToOrdersResponse(savedOrder);
     }
 
-
+    private int pageSize(Integer limit) {
+        if ( limit == null ) {
+            return defaultLimit;
+        }
+        if ( limit < 1 ) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        return Math.min(limit, maxLimit);
+    }
 }
@@ -1,9 +1,11 @@
 package com.bayzdelivery.service;
 
+import com.bayzdelivery.dto.KeysetPage;
 import com.bayzdelivery.dto.PersonRegisterResponse;
 import com.bayzdelivery.model.Person;
 
-import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * PersonService interface defines the operations for managing person-related
@@ -11,18 +13,24 @@ import java.util.List;
  * registration, retrieval, and querying by ID.
  * <p>
  * Core Features:
- * - Retrieve a list of all registered persons.
+ * - Retrieve the registered persons page by page, or stream all of them.
  * - Save a new person's details in the system.
- * - Fetch details of a specific person using their unique identifier.
+ * - Fetch details of a specific person using their unique identifier, or only their version for conditional reads.
  * <p>
  * This service ensures proper handling of person-related data, playing a crucial
  * role in user management operations.
  */
 public interface PersonService {
-    List<PersonRegisterResponse> getAll();
+    KeysetPage<PersonRegisterResponse> getPage(String after, Integer limit);
+
+    void streamAll(Consumer<PersonRegisterResponse> consumer);
 
     PersonRegisterResponse save(Person p);
 
     PersonRegisterResponse findById(Long personId);
 
+    PersonRegisterResponse findById(Long personId, Long version);
+
+    Optional<Long> findVersion(Long personId);
+
 }
@@ -1,67 +1,130 @@
 package com.bayzdelivery.service;
 
+import com.bayzdelivery.config.MetricsConfig;
+import com.bayzdelivery.dto.KeysetPage;
 import com.bayzdelivery.dto.PersonRegisterResponse;
 import com.bayzdelivery.exceptions.PersonNotFoundException;
 import com.bayzdelivery.model.Person;
 import com.bayzdelivery.repositories.PersonRepository;
+import com.bayzdelivery.utils.ContinuationToken;
 import com.bayzdelivery.utils.PersonHelper;
 import com.bayzdelivery.utils.PersonRole;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Implementation of the PersonService interface responsible for managing person-related
  * operations such as retrieval, saving, and querying of person data in the system.
  * <p>
  * This class integrates with the PersonRepository to perform database operations and
- * utilizes helper
+ * utilizes helper methods to map person entities to response DTOs. Single persons are read through the
+ * {@link ReferenceCache}, which drops a person when it is saved again.
+ * <p>
+ * Configuration:
+ * - `pagination.default-limit`: Page size when the client does not ask for one.
+ * - `pagination.max-limit`: Largest page size a client can ask for.
  */
 @Slf4j
 @Service
+@Timed(value = MetricsConfig.SERVICE_TIMER, histogram = true)
 @RequiredArgsConstructor
 public class PersonServiceImpl implements PersonService {
 
 
     private final PersonRepository personRepository;
+    private final ReferenceCache referenceCache;
+
+    @Value("${pagination.default-limit:100}")
+    private int defaultLimit = 100;
+
+    @Value("${pagination.max-limit:1000}")
+    private int maxLimit = 1000;
 
     /**
-     * Retrieves a list of all registered persons in the system.
+     * Retrieves the page of registered persons following the given continuation token, ordered by ID.
      *
-     * @return a list of {@code PersonRegisterResponse} objects representing the
-     * details of each registered person.
+     * @param after the continuation token of the previous page, or null for the first page
+     * @param limit the page size, {@code pagination.default-limit} if null, capped at {@code pagination.max-limit}
+     * @return the page of {@code PersonRegisterResponse} objects with the continuation token of the next page, if any
+     * @throws IllegalArgumentException if the token is invalid or the limit is not positive
      */
     @Override
-    public List<PersonRegisterResponse> getAll() {
-        log.info("Entered into getAll Users");
-        return personRepository.findAll()
+    public KeysetPage<PersonRegisterResponse> getPage(String after, Integer limit) {
+        log.debug("Entered into getPage Users, After:{}, Limit:{}", after, limit);
+        long afterId = ContinuationToken.decode(after);
+        int pageSize = pageSize(limit);
+        return KeysetPage.of(personRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(pageSize + 1))
                 .stream()
                 .map(PersonHelper::mapRegistedPerson)
-                .toList();
+                .toList(), pageSize, PersonRegisterResponse::id);
+    }
+
+    /**
+     * Hands all registered persons, ordered by ID, to the consumer one at a time as they are read
+     * from a database cursor.
+     *
+     * @param consumer the consumer of the persons, e.g. writing them to the response
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<PersonRegisterResponse> consumer) {
+        log.debug("Entered into streamAll Users");
+        try ( Stream<PersonRegisterResponse> persons = personRepository.streamAllRegisteredPersons() ) {
+            persons.forEach(consumer);
+        }
+        log.debug("Exiting from streamAll Users");
     }
 
     /**
      * Saves a person in the repository and returns the corresponding registration response.
+     * <p>
+     * A person with an ID updates the existing person: it is loaded and its editable details are copied onto it,
+     * so the update is checked against the current row version rather than the version sent by the client,
+     * which registration responses do not carry. Runs in a transaction, so the load and the update see the same
+     * row. Saving an existing person drops it from the reference cache.
      *
      * @param user The person object to be saved. The role of the person must be either
      *             CUSTOMER or DELIVERY_MAN; otherwise, an {@code IllegalArgumentException}
      *             will be thrown.
-     * @return A {@code PersonRegisterResponse} containing the
+     * @return A {@code PersonRegisterResponse} containing the registration details of the saved person.
+     * @throws PersonNotFoundException If the person has an ID and no person with that ID is found.
      */
+    @Override
+    @Transactional
     public PersonRegisterResponse save(Person user) {
-        log.info("Entered into save Users");
+        log.debug("Entered into save Users");
         if ( !PersonRole.CUSTOMER.equals(user.getRole()) && !PersonRole.DELIVERY_MAN.equals(user.getRole()) ) {
             throw new IllegalArgumentException("Role must be either CUSTOMER or DELIVERY_MAN");
         }
-        Person personReg = personRepository.save(user);
-        log.info("Exiting from save Users");
+        Person personReg;
+        if ( user.getId() == null ) {
+            personReg = personRepository.save(user);
+        } else {
+            Person existingPerson = personRepository.findById(user.getId())
+                    .orElseThrow(() -> new PersonNotFoundException("Person not found with ID: " + user.getId()));
+            existingPerson.setName(user.getName());
+            existingPerson.setEmail(user.getEmail());
+            existingPerson.setRegistrationNumber(user.getRegistrationNumber());
+            existingPerson.setRole(user.getRole());
+            personReg = personRepository.save(existingPerson);
+            referenceCache.invalidatePerson(personReg.getId());
+        }
+        log.debug("Exiting from save Users");
         return new PersonRegisterResponse(personReg.getId(), personReg.getName(), personReg.getRegistrationNumber(), personReg.getRole());
     }
 
     /**
      * Retrieves a person's registration details based on their unique identifier.
+     * The person is served from the reference cache when present there.
      *
      * @param userId The unique identifier of the person to be retrieved.
      * @return A {@code PersonRegisterResponse} containing the registration details
@@ -70,11 +133,48 @@ public class PersonServiceImpl implements PersonService {
      */
     @Override
     public PersonRegisterResponse findById(Long userId) {
-        log.info("Entered into findById Users of User Id :{}", userId);
-        return personRepository.findById(userId).map(userDtl -> {
-            log.info("Found user and Exiting: {}", userDtl);
-            return PersonHelper.mapRegistedPerson(userDtl);
+        return findById(userId, null);
+    }
+
+    /**
+     * Retrieves a person for the version just read by {@link #findVersion(Long)}, to answer a read tagged with
+     * that version. The person is only served from the reference cache when it was cached for the same version,
+     * so the response is never older than its ETag.
+     *
+     * @param userId  The unique identifier of the person to be retrieved.
+     * @param version The current version of the person, or null to accept any cached person.
+     * @return A {@code PersonRegisterResponse} containing the registration details of the person if found.
+     * @throws PersonNotFoundException If no person with the given ID is found.
+     */
+    @Override
+    public PersonRegisterResponse findById(Long userId, Long version) {
+        log.debug("Entered into findById Users of User Id :{}", userId);
+        return referenceCache.findPerson(userId, version, id -> personRepository.findById(id).map(PersonHelper::mapRegistedPerson)).map(userDtl -> {
+            log.debug("Found user and Exiting, User Id:{}", userId);
+            return userDtl;
         }).orElseThrow(() -> new PersonNotFoundException("Person not found with ID: " + userId));
 
     }
+
+    /**
+     * Reads the row version of a person, which changes with every update of the person, without loading it.
+     * Used to answer conditional reads of an unchanged person.
+     *
+     * @param userId The unique identifier of the person.
+     * @return The version of the person, or empty if no person with the given ID is found.
+     */
+    @Override
+    public Optional<Long> findVersion(Long userId) {
+        return personRepository.findVersionById(userId);
+    }
+
+    private int pageSize(Integer limit) {
+        if ( limit == null ) {
+            return defaultLimit;
+        }
+        if ( limit < 1 ) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        return Math.min(limit, maxLimit);
+    }
 }
@@ -0,0 +1,41 @@
+package com.bayzdelivery.service;
+
+import com.bayzdelivery.dto.OrderResponse;
+import com.bayzdelivery.dto.PersonRegisterResponse;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * ReferenceCache interface provides a bounded in-process cache of the person and order reads, which rarely change,
+ * that stays coherent across the instances of the application.
+ * <p>
+ * Features:
+ * - Read persons and orders through the cache, loading them from the database on a miss, optionally only
+ * accepting an entry cached for a given row version.
+ * - Invalidate a person or an order after a write, on this instance and, once the write has committed,
+ * on all other instances.
+ * - Apply the invalidations received from other instances.
+ */
+public interface ReferenceCache {
+
+    default Optional<PersonRegisterResponse> findPerson(Long personId, Function<Long, Optional<PersonRegisterResponse>> loader) {
+        return findPerson(personId, null, loader);
+    }
+
+    Optional<PersonRegisterResponse> findPerson(Long personId, Long version, Function<Long, Optional<PersonRegisterResponse>> loader);
+
+    default Optional<OrderResponse> findOrder(Long orderId, Function<Long, Optional<OrderResponse>> loader) {
+        return findOrder(orderId, null, loader);
+    }
+
+    Optional<OrderResponse> findOrder(Long orderId, String version, Function<Long, Optional<OrderResponse>> loader);
+
+    void invalidatePerson(Long personId);
+
+    void invalidateOrder(Long orderId);
+
+    void evict(String invalidation);
+
+    void evictAll();
+}
@@ -0,0 +1,247 @@
+package com.bayzdelivery.service;
+
+import com.bayzdelivery.dto.OrderResponse;
+import com.bayzdelivery.dto.PersonRegisterResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/**
+ * Caches the person and order responses in memory, bounded by size and time to live.
+ * <p>
+ * Only existing rows are cached; a miss of the loader is not. The cached order responses hold the name of their
+ * customer, so a change of a person also drops all cached orders.
+ * <p>
+ * An entry remembers the row version it was loaded for, when the caller read one just before. A read for a version
+ * is only answered from an entry of the same version, so a response tagged with that version as ETag is never
+ * older than its tag. As the version is read before the row, an entry is at least as new as its version; once the
+ * row has changed, its version differs and the entry is loaded again.
+ * <p>
+ * Misses are loaded outside of the cache, so an invalidation can arrive while a miss is being loaded, with the
+ * row read before the write. Every invalidation bumps the invalidation generation of its key, hashed onto
+ * {@value #GENERATION_STRIPES} stripes, before dropping the entry; a loaded row is only kept in the cache if the
+ * generation of its key is still the one read before loading, so no invalidation is lost to a concurrent load.
+ * <p>
+ * Writes invalidate their entries on this instance right away and notify the other instances with a PostgreSQL
+ * {@code NOTIFY} on the {@code reference-cache.channel} channel. The notification is sent in the transaction of the
+ * write, so other instances only drop their entries once the write has committed; the
+ * {@code ReferenceCacheListener} applies them through {@link #evict(String)}. On other databases invalidations stay
+ * local and the time to live bounds how long other instances serve stale entries.
+ * <p>
+ * Configuration:
+ * - `reference-cache.maximum-size`: Largest number of persons and of orders held.
+ * - `reference-cache.expire-after-write-seconds`: Time an entry is served before it is loaded again.
+ * - `reference-cache.channel`: Channel the invalidations are sent on.
+ * <p>
+ * Metrics:
+ * - `cache.gets`, `cache.evictions`, `cache.size`: Hits and misses, evictions and size, tagged with
+ * `cache=persons` or `cache=orders`. Misses are loaded outside of Caffeine, so its load metrics stay at zero.
+ */
+@Slf4j
+@Service
+public class ReferenceCacheImpl implements ReferenceCache {
+
+    static final String PERSONS = "persons";
+    static final String ORDERS = "orders";
+    static final String PERSON_PREFIX = "person:";
+    static final String ORDER_PREFIX = "order:";
+    static final String ALL = "*";
+
+    private static final String POSTGRESQL = "PostgreSQL";
+    static final int GENERATION_STRIPES = 64;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<Long, Versioned<PersonRegisterResponse>> persons;
+    private final Cache<Long, Versioned<OrderResponse>> orders;
+    private final AtomicLongArray personGenerations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicLongArray orderGenerations = new AtomicLongArray(GENERATION_STRIPES);
+
+    @Value("${reference-cache.channel:reference_cache}")
+    private String channel = "reference_cache";
+
+    private boolean notifySupported;
+
+    public ReferenceCacheImpl(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                              @Value("${reference-cache.maximum-size:10000}") long maximumSize,
+                              @Value("${reference-cache.expire-after-write-seconds:300}") long expireAfterWriteSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.persons = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+        this.orders = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, persons, PERSONS);
+        CaffeineCacheMetrics.monitor(meterRegistry, orders, ORDERS);
+    }
+
+    /**
+     * Checks whether the database can notify the other instances.
+     */
+    @PostConstruct
+    public void detectNotifySupport() {
+        notifySupported = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                POSTGRESQL.equals(connection.getMetaData().getDatabaseProductName())));
+        if ( !notifySupported ) {
+            log.warn("Database does not support NOTIFY, reference cache invalidations stay local to this instance");
+        }
+    }
+
+    /**
+     * Reads a person through the cache.
+     *
+     * @param personId the ID of the person
+     * @param version  the row version read just before, or null to accept any cached person
+     * @param loader   loads the person from the database on a miss
+     * @return the person, or empty if it does not exist
+     */
+    @Override
+    public Optional<PersonRegisterResponse> findPerson(Long personId, Long version, Function<Long, Optional<PersonRegisterResponse>> loader) {
+        return find(persons, personGenerations, personId, version, loader);
+    }
+
+    /**
+     * Reads an order through the cache.
+     *
+     * @param orderId the ID of the order
+     * @param version the version read just before, or null to accept any cached order
+     * @param loader  loads the order from the database on a miss
+     * @return the order, or empty if it does not exist
+     */
+    @Override
+    public Optional<OrderResponse> findOrder(Long orderId, String version, Function<Long, Optional<OrderResponse>> loader) {
+        return find(orders, orderGenerations, orderId, version, loader);
+    }
+
+    /**
+     * Drops a person, and the orders holding its name, on all instances. Call it within the transaction
+     * of the write, if any.
+     *
+     * @param personId the ID of the changed person
+     */
+    @Override
+    public void invalidatePerson(Long personId) {
+        invalidate(PERSON_PREFIX + personId);
+    }
+
+    /**
+     * Drops an order on all instances. Call it within the transaction of the write, if any.
+     *
+     * @param orderId the ID of the changed order
+     */
+    @Override
+    public void invalidateOrder(Long orderId) {
+        invalidate(ORDER_PREFIX + orderId);
+    }
+
+    /**
+     * Drops the entries named by an invalidation on this instance.
+     *
+     * @param invalidation the invalidation, e.g. {@code person:42} or {@code order:42}
+     */
+    @Override
+    public void evict(String invalidation) {
+        if ( invalidation == null || ALL.equals(invalidation) ) {
+            evictAll();
+        } else if ( invalidation.startsWith(PERSON_PREFIX) ) {
+            drop(persons, personGenerations, parseId(invalidation, PERSON_PREFIX));
+            dropAll(orders, orderGenerations);
+        } else if ( invalidation.startsWith(ORDER_PREFIX) ) {
+            drop(orders, orderGenerations, parseId(invalidation, ORDER_PREFIX));
+        } else {
+            log.warn("Ignoring unknown reference cache invalidation: {}", invalidation);
+        }
+    }
+
+    /**
+     * Drops all entries on this instance, e.g. after invalidations may have been missed.
+     */
+    @Override
+    public void evictAll() {
+        dropAll(persons, personGenerations);
+        dropAll(orders, orderGenerations);
+    }
+
+    /**
+     * Loads a miss outside of the cache: {@code Cache.get(key, loader)} runs the loader while holding the monitor of
+     * a hash bin, which pins a virtual thread to its carrier for the whole database round trip. Concurrent misses of
+     * the same key may load it twice. An entry of another version than the one asked for counts as a miss.
+     * <p>
+     * The loaded row is put into the cache and taken out again if its key was invalidated meanwhile: either the
+     * invalidation drops the entry after the put, or the generation read after the put differs from the one read
+     * before loading.
+     */
+    private static <T> Optional<T> find(Cache<Long, Versioned<T>> cache, AtomicLongArray generations, Long id,
+                                        Object version, Function<Long, Optional<T>> loader) {
+        Versioned<T> cached = cache.getIfPresent(id);
+        if ( cached != null && (version == null || version.equals(cached.version())) ) {
+            return Optional.of(cached.value());
+        }
+        int stripe = stripe(id);
+        long generation = generations.get(stripe);
+        Optional<T> loaded = loader.apply(id);
+        loaded.ifPresent(value -> {
+            Versioned<T> entry = new Versioned<>(version, value);
+            cache.put(id, entry);
+            if ( generations.get(stripe) != generation ) {
+                // invalidated while loading, the loaded row may predate the write
+                cache.asMap().remove(id, entry);
+            }
+        });
+        return loaded;
+    }
+
+    private static void drop(Cache<Long, ?> cache, AtomicLongArray generations, Long id) {
+        generations.incrementAndGet(stripe(id));
+        cache.invalidate(id);
+    }
+
+    private static void dropAll(Cache<Long, ?> cache, AtomicLongArray generations) {
+        for ( int stripe = 0; stripe < GENERATION_STRIPES; stripe++ ) {
+            generations.incrementAndGet(stripe);
+        }
+        cache.invalidateAll();
+    }
+
+    private static int stripe(Long id) {
+        return Math.floorMod(id.hashCode(), GENERATION_STRIPES);
+    }
+
+    private void invalidate(String invalidation) {
+        evict(invalidation);
+        if ( notifySupported ) {
+            // delivered to the listeners, this instance included, when the surrounding transaction commits
+            jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", channel, invalidation);
+        }
+    }
+
+    /**
+     * A cached response with the row version it was loaded for, null if unknown.
+     */
+    private record Versioned<T>(Object version, T value) {
+    }
+
+    private static Long parseId(String invalidation, String prefix) {
+        try {
+            return Long.valueOf(invalidation.substring(prefix.length()));
+        } catch ( NumberFormatException e ) {
+            throw new IllegalArgumentException("Invalid reference cache invalidation: " + invalidation, e);
+        }
+    }
+}
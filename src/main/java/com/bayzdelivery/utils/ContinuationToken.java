@@ -0,0 +1,54 @@
+package com.bayzdelivery.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Utility class for the continuation tokens of keyset-paginated endpoints.
+ * <p>
+ * A continuation token is the opaque, URL-safe encoding of the ID of the last row of a page.
+ * The next page starts right after that ID, so it is read from the primary key index however deep the
+ * client has paged, and rows inserted in the meantime neither shift nor repeat the following pages.
+ * Clients pass the token back as-is in the {@code after} request parameter; its content is not part of the API.
+ */
+public class ContinuationToken {
+
+    /**
+     * Response header carrying the token of the next page; absent on the last page.
+     */
+    public static final String HEADER = "X-Continuation-Token";
+
+    private static final String PREFIX = "id:";
+
+    private ContinuationToken() {
+    }
+
+    /**
+     * @param lastId the ID of the last row of a page
+     * @return the continuation token of the page following that row
+     */
+    public static String encode(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token a continuation token, or null for the first page
+     * @return the ID after which the page starts, 0 for the first page
+     * @throws IllegalArgumentException if the token was not issued by {@link #encode(Long)}
+     */
+    public static long decode(String token) {
+        if ( token == null || token.isBlank() ) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if ( decoded.startsWith(PREFIX) ) {
+                return Long.parseLong(decoded.substring(PREFIX.length()));
+            }
+        } catch ( IllegalArgumentException e ) {
+            throw new IllegalArgumentException("Invalid continuation token: " + token, e);
+        }
+        throw new IllegalArgumentException("Invalid continuation token: " + token);
+    }
+}
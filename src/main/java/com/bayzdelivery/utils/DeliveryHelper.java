@@ -2,12 +2,17 @@ package com.bayzdelivery.utils;
 
 import com.bayzdelivery.dto.DeliveryManCommission;
 import com.bayzdelivery.dto.DeliveryResponse;
-import com.bayzdelivery.model.Delivery;
+import com.bayzdelivery.dto.OverdueDelivery;
+import com.bayzdelivery.events.DeliveryCompletedEvent;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
 
 /**
  * Utility class for handling delivery-related data transformations.
  * <p>
- * This class consists of static methods to map delivery-related entities
+ * This class consists of static methods to map the rows of the delivery queries
  * to their corresponding response or DTO objects. It also provides
  * internal helper methods for data extraction and computation required
  * within these mappings.
@@ -50,6 +55,81 @@ public class DeliveryHelper {
         );
     }
 
+    /**
+     * Maps an array of objects to an OverdueDelivery record.
+     *
+     * @param row an Object array containing overdue delivery data. Expected to have:
+     *            - row[0]: Delivery ID (Long),
+     *            - row[1]: Delivery man ID (Long),
+     *            - row[2]: Start time (Timestamp).
+     * @return an OverdueDelivery record encapsulating the parsed values.
+     * @throws IllegalArgumentException if the input array is null or has less than 3 elements.
+     */
+    public static OverdueDelivery mapToOverdueDelivery(Object[] row) {
+        if ( row == null || row.length < 3 ) {
+            throw new IllegalArgumentException("Invalid data format for OverdueDelivery mapping.");
+        }
+
+        return new OverdueDelivery(
+                extractLong(row[0]),
+                row[1] instanceof Number number ? number.longValue() : null,
+                extractInstant(row[2])
+        );
+    }
+
+    /**
+     * Maps a row of a completed delivery to a DeliveryCompletedEvent record.
+     *
+     * @param row an Object array containing completed delivery data. Expected to have:
+     *            - row[0]: Delivery ID (Long),
+     *            - row[1]: Delivery man ID (Long),
+     *            - row[2]: Delivery man name (String),
+     *            - row[3]: Start time (Timestamp),
+     *            - row[4]: End time (Timestamp),
+     *            - row[5]: Commission (Double).
+     * @return a DeliveryCompletedEvent record encapsulating the parsed values.
+     * @throws IllegalArgumentException if the input array is null or has less than 6 elements.
+     */
+    public static DeliveryCompletedEvent mapToDeliveryCompletedEvent(Object[] row) {
+        if ( row == null || row.length < 6 ) {
+            throw new IllegalArgumentException("Invalid data format for DeliveryCompletedEvent mapping.");
+        }
+
+        return new DeliveryCompletedEvent(
+                extractLong(row[0]),
+                extractLong(row[1]),
+                extractString(row[2]),
+                extractInstant(row[3]),
+                extractInstant(row[4]),
+                extractDouble(row[5])
+        );
+    }
+
+    /**
+     * Maps a row of a completed delivery to a DeliveryResponse record.
+     *
+     * @param row an Object array containing completed delivery data, laid out as for
+     *            {@link #mapToDeliveryCompletedEvent(Object[])} followed by:
+     *            - row[6]: Distance (Double).
+     * @return a DeliveryResponse record of the COMPLETED delivery.
+     * @throws IllegalArgumentException if the input array is null or has less than 7 elements.
+     */
+    public static DeliveryResponse mapToCompletedDeliveryResponse(Object[] row) {
+        if ( row == null || row.length < 7 ) {
+            throw new IllegalArgumentException("Invalid data format for DeliveryResponse mapping.");
+        }
+
+        return new DeliveryResponse(
+                extractLong(row[0]),
+                extractLong(row[1]),
+                extractInstant(row[3]),
+                extractInstant(row[4]),
+                DeliveryStatus.COMPLETED.toString(),
+                extractDouble(row[5]),
+                extractDouble(row[6])
+        );
+    }
+
     // Helper methods to get Data
     private static Long extractLong(Object obj) {
         return (obj instanceof Number number) ? number.longValue() : 0L;
@@ -59,6 +139,16 @@ public class DeliveryHelper {
         return (obj instanceof Number number) ? number.doubleValue() : 0.0;
     }
 
+    private static Instant extractInstant(Object obj) {
+        if ( obj instanceof Timestamp timestamp ) {
+            return timestamp.toInstant();
+        }
+        if ( obj instanceof OffsetDateTime offsetDateTime ) {
+            return offsetDateTime.toInstant();
+        }
+        return obj instanceof Instant instant ? instant : null;
+    }
+
     private static String extractString(Object obj) {
         return obj instanceof String str ? str : "";
     }
@@ -67,16 +157,4 @@ public class DeliveryHelper {
         long orders = extractLong(totalOrders);
         return (orders > 0) ? extractDouble(totalCommission) / orders : 0.0;
     }
-
-    public static DeliveryResponse mapToDeliveryResponse(Delivery delivery) {
-        return new DeliveryResponse(
-                delivery.getId(),
-                delivery.getDeliveryMan().getId(),
-                delivery.getStartTime(),
-                delivery.getEndTime(),
-                delivery.getStatus().toString(),
-                delivery.getCommission(),
-                delivery.getDistance()
-        );
-    }
 }
@@ -0,0 +1,139 @@
+package com.bayzdelivery.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A hashed timer wheel holding one deadline per key.
+ * <p>
+ * Deadlines are hashed onto a fixed ring of buckets by the tick they fall into; deadlines further away than one
+ * turn of the ring wait for the required number of rounds in their bucket. Scheduling and cancelling cost O(1)
+ * whatever the number of pending deadlines, and {@link #advance(long)} only visits the buckets of the ticks
+ * that have passed. Deadlines fire at the end of their tick, so never early and at most one tick late.
+ * <p>
+ * The wheel does not run a thread of its own; the owner calls {@link #advance(long)} once per tick.
+ * All methods are thread-safe.
+ *
+ * @param <K> the key of a deadline, e.g. an entity ID
+ * @param <V> the value handed back when the deadline expires
+ */
+public class HashedTimerWheel<K, V> {
+
+    private final long tickMillis;
+    private final int mask;
+    private final List<ArrayDeque<Timeout<K, V>>> buckets;
+    private final Map<K, Timeout<K, V>> timeouts = new HashMap<>();
+    private final long startMillis;
+    private long currentTick;
+
+    /**
+     * @param tickMillis  the duration of one tick in milliseconds
+     * @param wheelSize   the minimum number of buckets; rounded up to the next power of two
+     * @param startMillis the time of the first tick, in epoch milliseconds
+     * @throws IllegalArgumentException if tickMillis or wheelSize is not positive
+     */
+    public HashedTimerWheel(long tickMillis, int wheelSize, long startMillis) {
+        if ( tickMillis <= 0 || wheelSize <= 0 ) {
+            throw new IllegalArgumentException("Tick duration and wheel size must be positive");
+        }
+        int size = Integer.highestOneBit(wheelSize);
+        if ( size < wheelSize ) {
+            size <<= 1;
+        }
+        this.tickMillis = tickMillis;
+        this.mask = size - 1;
+        this.buckets = new ArrayList<>(size);
+        for ( int i = 0; i < size; i++ ) {
+            this.buckets.add(new ArrayDeque<>());
+        }
+        this.startMillis = startMillis;
+    }
+
+    /**
+     * Schedules the deadline of a key, replacing a deadline already scheduled for it.
+     * A deadline in the past expires with the next tick.
+     *
+     * @param key            the key of the deadline
+     * @param value          the value handed back when the deadline expires
+     * @param deadlineMillis the deadline, in epoch milliseconds
+     */
+    public synchronized void schedule(K key, V value, long deadlineMillis) {
+        cancel(key);
+        // the tick whose end is the first one at or after the deadline
+        long tick = Math.max(ceilDiv(deadlineMillis - startMillis, tickMillis) - 1, currentTick);
+        Timeout<K, V> timeout = new Timeout<>(key, value, (tick - currentTick) / buckets.size());
+        buckets.get((int) (tick & mask)).add(timeout);
+        timeouts.put(key, timeout);
+    }
+
+    /**
+     * Cancels the deadline of a key.
+     *
+     * @param key the key of the deadline
+     * @return true if a deadline was pending for the key
+     */
+    public synchronized boolean cancel(K key) {
+        Timeout<K, V> timeout = timeouts.remove(key);
+        if ( timeout == null ) {
+            return false;
+        }
+        // removed from its bucket lazily, when the bucket is visited
+        timeout.cancelled = true;
+        return true;
+    }
+
+    /**
+     * Advances the wheel over all ticks that have ended by the given time.
+     *
+     * @param nowMillis the current time, in epoch milliseconds
+     * @return the values of the deadlines that expired, in no particular order
+     */
+    public synchronized List<V> advance(long nowMillis) {
+        List<V> expired = new ArrayList<>();
+        while ( startMillis + (currentTick + 1) * tickMillis <= nowMillis ) {
+            Iterator<Timeout<K, V>> iterator = buckets.get((int) (currentTick & mask)).iterator();
+            while ( iterator.hasNext() ) {
+                Timeout<K, V> timeout = iterator.next();
+                if ( timeout.cancelled ) {
+                    iterator.remove();
+                } else if ( timeout.rounds == 0 ) {
+                    iterator.remove();
+                    timeouts.remove(timeout.key);
+                    expired.add(timeout.value);
+                } else {
+                    timeout.rounds--;
+                }
+            }
+            currentTick++;
+        }
+        return expired;
+    }
+
+    /**
+     * @return the number of pending deadlines
+     */
+    public synchronized int size() {
+        return timeouts.size();
+    }
+
+    private static long ceilDiv(long dividend, long divisor) {
+        return -Math.floorDiv(-dividend, divisor);
+    }
+
+    private static final class Timeout<K, V> {
+        private final K key;
+        private final V value;
+        private long rounds;
+        private boolean cancelled;
+
+        private Timeout(K key, V value, long rounds) {
+            this.key = key;
+            this.value = value;
+            this.rounds = rounds;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.bayzdelivery.utils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Writes items to an output stream as newline-delimited JSON, one JSON document per line.
+ * <p>
+ * Each item is serialized on its own as it is accepted, so streaming a listing holds a single item
+ * in memory at a time. A failed write, e.g. because the client went away, is rethrown as an
+ * {@link UncheckedIOException} to stop the producer.
+ *
+ * @param <T> the type of the items
+ */
+public class NdjsonWriter<T> implements Consumer<T> {
+
+    private static final int NEWLINE = '\n';
+
+    private final ObjectWriter objectWriter;
+    private final OutputStream outputStream;
+
+    public NdjsonWriter(ObjectMapper objectMapper, OutputStream outputStream) {
+        this.objectWriter = objectMapper.writer();
+        this.outputStream = outputStream;
+    }
+
+    @Override
+    public void accept(T item) {
+        try {
+            outputStream.write(objectWriter.writeValueAsBytes(item));
+            outputStream.write(NEWLINE);
+        } catch ( IOException e ) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.bayzdelivery.utils;
+
+import com.bayzdelivery.dto.TraceSpan;
+import com.bayzdelivery.dto.TraceSummary;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The trace of the request handled by the current thread.
+ * <p>
+ * A trace is begun for the sampled requests only; everywhere else {@link #current()} is null, so the
+ * instrumentation of an unsampled request costs one thread-local lookup per span. Spans are opened and closed
+ * in stack order on the request thread and are kept as plain values until the trace is finished. A trace keeps
+ * at most {@code maxSpans} spans, so a batch request with thousands of statements stays bounded in memory; the
+ * spans beyond the limit are only counted.
+ * <p>
+ * Work handed to other threads, e.g. {@code @Async} listeners and streamed responses, is not traced.
+ */
+public final class RequestTrace {
+
+    private static final ThreadLocal<RequestTrace> CURRENT = new ThreadLocal<>();
+    private static final int MAX_NAME_LENGTH = 500;
+
+    private final String traceId;
+    private final String method;
+    private final String path;
+    private final Instant startTime = Instant.now();
+    private final long startNanos = System.nanoTime();
+    private final int maxSpans;
+    private final List<TraceSpan> spans = new ArrayList<>();
+    private final ArrayDeque<OpenSpan> openSpans = new ArrayDeque<>();
+    private int droppedSpans;
+    private String preparedSql;
+
+    private RequestTrace(String traceId, String method, String path, int maxSpans) {
+        this.traceId = traceId;
+        this.method = method;
+        this.path = path;
+        this.maxSpans = maxSpans;
+    }
+
+    /**
+     * Begins the trace of the request handled by the current thread.
+     *
+     * @return the new trace
+     */
+    public static RequestTrace begin(String traceId, String method, String path, int maxSpans) {
+        RequestTrace trace = new RequestTrace(traceId, method, path, maxSpans);
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    /**
+     * @return the trace of the current thread, or null if its request is not sampled
+     */
+    public static RequestTrace current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Detaches the trace from the current thread.
+     */
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public void startSpan(String kind, String name) {
+        String shortName = name != null && name.length() > MAX_NAME_LENGTH ? name.substring(0, MAX_NAME_LENGTH) : name;
+        openSpans.push(new OpenSpan(kind, shortName, openSpans.size(), System.nanoTime()));
+    }
+
+    /**
+     * Closes the most recently opened span.
+     */
+    public void endSpan() {
+        OpenSpan span = openSpans.poll();
+        if ( span == null ) {
+            return;
+        }
+        if ( spans.size() >= maxSpans ) {
+            droppedSpans++;
+            return;
+        }
+        long end = System.nanoTime();
+        spans.add(new TraceSpan(span.kind(), span.name(), span.depth(), (span.startNanos() - startNanos) / 1_000,
+                (end - span.startNanos()) / 1_000));
+    }
+
+    /**
+     * Remembers the SQL of the statement being prepared, which names the span of its execution.
+     */
+    public void prepared(String sql) {
+        this.preparedSql = sql;
+    }
+
+    /**
+     * @return the SQL of the statement prepared last
+     */
+    public String preparedSql() {
+        return preparedSql;
+    }
+
+    /**
+     * Closes the spans left open and summarizes the trace.
+     *
+     * @param status the HTTP status of the response
+     * @return the finished trace
+     */
+    public TraceSummary finish(int status) {
+        while ( !openSpans.isEmpty() ) {
+            endSpan();
+        }
+        List<TraceSpan> ordered = new ArrayList<>(spans);
+        ordered.sort(Comparator.comparingLong(TraceSpan::startMicros).thenComparingInt(TraceSpan::depth));
+        return new TraceSummary(traceId, method, path, status, startTime, (System.nanoTime() - startNanos) / 1_000,
+                List.copyOf(ordered), droppedSpans);
+    }
+
+    private record OpenSpan(String kind, String name, int depth, long startNanos) {
+    }
+}
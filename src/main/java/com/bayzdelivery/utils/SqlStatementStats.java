@@ -0,0 +1,70 @@
+package com.bayzdelivery.utils;
+
+/**
+ * The JDBC statements, rows and database time of the request handled by the current thread.
+ * <p>
+ * The counters are begun for every request and filled in by the {@code SqlCountingDataSource}; outside of a
+ * request, e.g. in scheduled jobs, {@link #current()} is null and nothing is counted. A statement is one round
+ * trip to the database: an {@code execute*} call, or one {@code executeBatch} however many rows it holds. The
+ * database time is the time spent in these calls; reading the rows of a result set afterwards is not included,
+ * the number of rows read is counted instead.
+ * <p>
+ * Statements run on other threads, e.g. by {@code @Async} listeners and streamed responses, are not counted.
+ */
+public final class SqlStatementStats {
+
+    private static final ThreadLocal<SqlStatementStats> CURRENT = new ThreadLocal<>();
+
+    private long statements;
+    private long rows;
+    private long nanos;
+
+    private SqlStatementStats() {
+    }
+
+    /**
+     * Begins counting the statements of the current thread.
+     *
+     * @return the new counters
+     */
+    public static SqlStatementStats begin() {
+        SqlStatementStats stats = new SqlStatementStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * @return the counters of the current thread, or null if its statements are not counted
+     */
+    public static SqlStatementStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Stops counting the statements of the current thread.
+     */
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public void recordStatement(long durationNanos) {
+        statements++;
+        nanos += durationNanos;
+    }
+
+    public void recordRow() {
+        rows++;
+    }
+
+    public long statements() {
+        return statements;
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    public long nanos() {
+        return nanos;
+    }
+}
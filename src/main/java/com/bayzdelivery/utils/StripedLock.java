@@ -0,0 +1,57 @@
+package com.bayzdelivery.utils;
+
+import java.util.Objects;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks shared by an unbounded set of keys.
+ * <p>
+ * Every key is mapped onto one of the stripes by its hash, so work on the same key is always serialized while
+ * work on different keys only contends when two keys happen to share a stripe. The memory used is fixed by the
+ * number of stripes and does not grow with the number of keys.
+ * <p>
+ * The locks are only valid within one JVM; callers that run on several instances need a database constraint
+ * that guards the same invariant.
+ */
+public class StripedLock {
+
+    private final Lock[] stripes;
+    private final int mask;
+
+    /**
+     * @param stripes the minimum number of stripes; rounded up to the next power of two
+     * @throws IllegalArgumentException if stripes is not positive
+     */
+    public StripedLock(int stripes) {
+        if ( stripes <= 0 ) {
+            throw new IllegalArgumentException("Number of stripes must be positive");
+        }
+        int size = Integer.highestOneBit(stripes);
+        if ( size < stripes ) {
+            size <<= 1;
+        }
+        this.stripes = new Lock[size];
+        for ( int i = 0; i < size; i++ ) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Returns the lock guarding the given key. The same key always maps to the same lock.
+     *
+     * @param key the key to lock, may be null
+     * @return the lock of the stripe the key belongs to
+     */
+    public Lock lockFor(Object key) {
+        int hash = Objects.hashCode(key);
+        // spread the high bits, ids are mostly sequential
+        hash ^= (hash >>> 16);
+        return stripes[hash & mask];
+    }
+
+    public int size() {
+        return stripes.length;
+    }
+}
@@ -0,0 +1,82 @@
+package com.bayzdelivery.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@code RequestLogSamplingFilter} and {@code SampledRequestTurboFilter} classes.
+ * <p>
+ * Test Scenarios:
+ * - Resolving the sampling rate of a path from the longest configured prefix.
+ * - Marking sampled requests in the MDC while they are handled, and only them.
+ * - Accepting the DEBUG events of the application loggers of a sampled request only.
+ */
+public class RequestLogSamplingFilterTest {
+
+    @Test
+    public void testRateOf_LongestPrefix() {
+        RequestLogSamplingFilter filter = new RequestLogSamplingFilter(0.01,
+                new String[]{"/delivery=0.1", "/delivery/getDelivery=0.001"});
+
+        assertEquals(0.001, filter.rateOf("/delivery/getDelivery/1"));
+        assertEquals(0.1, filter.rateOf("/delivery/top-delivery-men"));
+        assertEquals(0.01, filter.rateOf("/orders/getOrder/1"));
+    }
+
+    @Test
+    public void testRejectsInvalidRates() {
+        assertThrows(IllegalArgumentException.class, () -> new RequestLogSamplingFilter(0.0, new String[]{"/delivery"}));
+    }
+
+    @Test
+    public void testDoFilter_MarksSampledRequests() throws Exception {
+        assertEquals("true", sampledMarkDuring(new RequestLogSamplingFilter(0.0, new String[]{"/delivery=1.0"}), "/delivery/getDelivery/1"));
+        assertNull(sampledMarkDuring(new RequestLogSamplingFilter(0.0, new String[]{"/delivery=1.0"}), "/orders/getOrder/1"));
+        assertNull(MDC.get(RequestLogSamplingFilter.SAMPLED_MDC_KEY));
+    }
+
+    @Test
+    public void testTurboFilter_AcceptsDebugOfSampledRequests() {
+        SampledRequestTurboFilter turboFilter = new SampledRequestTurboFilter();
+        LoggerContext loggerContext = new LoggerContext();
+        ch.qos.logback.classic.Logger applicationLogger = loggerContext.getLogger("com.bayzdelivery.service.DeliveryServiceImpl");
+        ch.qos.logback.classic.Logger libraryLogger = loggerContext.getLogger("org.hibernate.SQL");
+
+        assertEquals(FilterReply.NEUTRAL, turboFilter.decide(null, applicationLogger, Level.DEBUG, "", null, null));
+        MDC.put(RequestLogSamplingFilter.SAMPLED_MDC_KEY, "true");
+        try {
+            assertEquals(FilterReply.ACCEPT, turboFilter.decide(null, applicationLogger, Level.DEBUG, "", null, null));
+            assertEquals(FilterReply.NEUTRAL, turboFilter.decide(null, applicationLogger, Level.INFO, "", null, null));
+            assertEquals(FilterReply.NEUTRAL, turboFilter.decide(null, libraryLogger, Level.DEBUG, "", null, null));
+        } finally {
+            MDC.remove(RequestLogSamplingFilter.SAMPLED_MDC_KEY);
+        }
+    }
+
+    private static String sampledMarkDuring(RequestLogSamplingFilter filter, String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/assessment" + path);
+        request.setContextPath("/assessment");
+        AtomicReference<String> mark = new AtomicReference<>();
+        filter.doFilter(request, new MockHttpServletResponse(),
+                new MockFilterChain(new HttpServlet() {
+                    @Override
+                    protected void service(HttpServletRequest req, HttpServletResponse res) {
+                        mark.set(MDC.get(RequestLogSamplingFilter.SAMPLED_MDC_KEY));
+                    }
+                }));
+        return mark.get();
+    }
+}
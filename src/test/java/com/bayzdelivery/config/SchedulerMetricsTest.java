@@ -0,0 +1,78 @@
+package com.bayzdelivery.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Unit tests for the {@code SchedulerMetrics} class.
+ * <p>
+ * Test Scenarios:
+ * - Resolving the period of fixed-rate, fixed-delay and cron tasks, including placeholders and durations.
+ * - Timing every run and counting the runs longer than the period as overruns.
+ */
+public class SchedulerMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SchedulerMetrics schedulerMetrics;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        schedulerMetrics = new SchedulerMetrics(meterRegistry);
+        schedulerMetrics.setEmbeddedValueResolver(value -> value.replace("${rate}", "900000"));
+    }
+
+    @Test
+    public void testPeriodMillis() throws NoSuchMethodException {
+        assertEquals(30_000, schedulerMetrics.periodMillis(scheduled("fixedDelay")));
+        assertEquals(900_000, schedulerMetrics.periodMillis(scheduled("fixedRatePlaceholder")));
+        assertEquals(120_000, schedulerMetrics.periodMillis(scheduled("fixedRateDuration")));
+        assertEquals(5_000, schedulerMetrics.periodMillis(scheduled("fixedRateSeconds")));
+        assertEquals(0, schedulerMetrics.periodMillis(scheduled("cron")));
+    }
+
+    @Test
+    public void testRecord_CountsOverruns() {
+        schedulerMetrics.record("Job.run", 100, TimeUnit.MILLISECONDS.toNanos(50));
+        schedulerMetrics.record("Job.run", 100, TimeUnit.MILLISECONDS.toNanos(150));
+        schedulerMetrics.record("Job.cron", 0, TimeUnit.MILLISECONDS.toNanos(150));
+
+        assertEquals(2, meterRegistry.get(SchedulerMetrics.RUN_TIMER).tag("task", "Job.run").timer().count());
+        assertEquals(1.0, meterRegistry.get(SchedulerMetrics.OVERRUNS_COUNTER).tag("task", "Job.run").counter().count());
+        assertNull(meterRegistry.find(SchedulerMetrics.OVERRUNS_COUNTER).tag("task", "Job.cron").counter());
+    }
+
+    private static Scheduled scheduled(String method) throws NoSuchMethodException {
+        return Tasks.class.getDeclaredMethod(method).getAnnotation(Scheduled.class);
+    }
+
+    static class Tasks {
+
+        @Scheduled(fixedDelay = 30000)
+        void fixedDelay() {
+        }
+
+        @Scheduled(fixedRateString = "${rate}")
+        void fixedRatePlaceholder() {
+        }
+
+        @Scheduled(fixedRateString = "PT2M")
+        void fixedRateDuration() {
+        }
+
+        @Scheduled(fixedRate = 5, timeUnit = TimeUnit.SECONDS)
+        void fixedRateSeconds() {
+        }
+
+        @Scheduled(cron = "0 0 * * * *")
+        void cron() {
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.bayzdelivery.config;
+
+import com.bayzdelivery.exceptions.SqlBudgetExceededException;
+import com.bayzdelivery.utils.SqlStatementStats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@code SqlBudgetFilter} class.
+ * <p>
+ * Test Scenarios:
+ * - Recording the statements, rows and database time of a request as metrics tagged with its URI template.
+ * - Returning the counters as response headers, set before the body is written.
+ * - Counting a request over its budget, and failing it with {@code sql-budget.fail-on-exceed}.
+ */
+public class SqlBudgetFilterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SqlBudgetFilter filter;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new SqlBudgetFilter(meterRegistry);
+    }
+
+    @Test
+    public void testDoFilter_RecordsMetricsAndHeaders() throws Exception {
+        ReflectionTestUtils.setField(filter, "responseHeaders", true);
+
+        MockHttpServletResponse response = handle(2, 10);
+
+        assertEquals("2", response.getHeader(SqlBudgetFilter.STATEMENTS_HEADER));
+        assertEquals("10", response.getHeader(SqlBudgetFilter.ROWS_HEADER));
+        assertEquals("6", response.getHeader(SqlBudgetFilter.TIME_HEADER));
+        assertEquals(2.0, meterRegistry.get(SqlBudgetFilter.STATEMENTS_SUMMARY).tag("uri", "/delivery/createDelivery")
+                .summary().totalAmount());
+        assertEquals(10.0, meterRegistry.get(SqlBudgetFilter.ROWS_SUMMARY).summary().totalAmount());
+        assertEquals(6.0, meterRegistry.get(SqlBudgetFilter.TIME_TIMER).timer().totalTime(TimeUnit.MILLISECONDS));
+        assertNull(meterRegistry.find(SqlBudgetFilter.EXCEEDED_COUNTER).counter());
+        assertNull(SqlStatementStats.current());
+    }
+
+    @Test
+    public void testDoFilter_WithoutHeaders() throws Exception {
+        MockHttpServletResponse response = handle(1, 1);
+
+        assertNull(response.getHeader(SqlBudgetFilter.STATEMENTS_HEADER));
+        assertEquals(1, meterRegistry.get(SqlBudgetFilter.STATEMENTS_SUMMARY).summary().count());
+    }
+
+    @Test
+    public void testDoFilter_CountsRequestOverBudget() throws Exception {
+        handle(4, 0);
+
+        assertEquals(1.0, meterRegistry.get(SqlBudgetFilter.EXCEEDED_COUNTER).tag("uri", "/delivery/createDelivery")
+                .counter().count());
+    }
+
+    @Test
+    public void testDoFilter_FailsRequestOverBudget() {
+        ReflectionTestUtils.setField(filter, "failOnExceed", true);
+
+        SqlBudgetExceededException exception = assertThrows(SqlBudgetExceededException.class, () -> handle(4, 0));
+
+        assertTrue(exception.getMessage().contains("issued 4 SQL statements, over its budget of 3"));
+    }
+
+    private MockHttpServletResponse handle(int statements, int rows) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/assessment/delivery/createDelivery");
+        request.setContextPath("/assessment");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        HandlerMethod handlerMethod = new HandlerMethod(new BudgetedController(), "createDelivery");
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, handlerMethod);
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/delivery/createDelivery");
+                SqlStatementStats stats = SqlStatementStats.current();
+                for ( int i = 0; i < statements; i++ ) {
+                    stats.recordStatement(TimeUnit.MILLISECONDS.toNanos(3));
+                }
+                for ( int i = 0; i < rows; i++ ) {
+                    stats.recordRow();
+                }
+                res.getWriter().write("{}");
+            }
+        }));
+        return response;
+    }
+
+    static class BudgetedController {
+
+        @SqlBudget(3)
+        public void createDelivery() {
+        }
+    }
+}
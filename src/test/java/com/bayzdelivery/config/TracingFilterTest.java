@@ -0,0 +1,110 @@
+package com.bayzdelivery.config;
+
+import com.bayzdelivery.dto.TraceSpan;
+import com.bayzdelivery.dto.TraceSummary;
+import com.bayzdelivery.utils.RequestTrace;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@code TracingFilter} and {@code SqlTracingListener} classes.
+ * <p>
+ * Test Scenarios:
+ * - Putting the trace ID into the MDC and the response header of every request.
+ * - Recording nested service and SQL spans of a sampled request and exporting the trace.
+ * - Not tracing unsampled requests.
+ * - Bounding the number of spans of a trace.
+ */
+public class TracingFilterTest {
+
+    private final List<TraceSummary> exported = new ArrayList<>();
+
+    @Test
+    public void testDoFilter_TracesSampledRequest() throws Exception {
+        TracingFilter filter = filter(0.0, 256);
+        SqlTracingListener sqlListener = new SqlTracingListener();
+        AtomicReference<String> mdcTraceId = new AtomicReference<>();
+
+        MockHttpServletResponse response = handle(filter, true, () -> {
+            mdcTraceId.set(MDC.get(TracingFilter.TRACE_ID_MDC_KEY));
+            RequestTrace trace = RequestTrace.current();
+            trace.startSpan("service", "DeliveryServiceImpl.createDelivery");
+            sqlListener.inspect("select p1_0.id from person p1_0 where p1_0.id=?");
+            sqlListener.jdbcExecuteStatementStart();
+            sqlListener.jdbcExecuteStatementEnd();
+            trace.endSpan();
+        });
+
+        assertEquals(1, exported.size());
+        TraceSummary trace = exported.get(0);
+        assertEquals(response.getHeader(TracingFilter.TRACE_ID_HEADER), trace.traceId());
+        assertEquals(trace.traceId(), mdcTraceId.get());
+        assertEquals("/delivery/createDelivery", trace.path());
+        assertEquals(List.of("service", "sql"), trace.spans().stream().map(TraceSpan::kind).toList());
+        assertEquals(1, trace.spans().get(1).depth());
+        assertEquals("select p1_0.id from person p1_0 where p1_0.id=?", trace.spans().get(1).name());
+        assertNull(RequestTrace.current());
+        assertNull(MDC.get(TracingFilter.TRACE_ID_MDC_KEY));
+    }
+
+    @Test
+    public void testDoFilter_SkipsUnsampledRequest() throws Exception {
+        AtomicReference<RequestTrace> current = new AtomicReference<>();
+
+        MockHttpServletResponse response = handle(filter(0.0, 256), false, () -> current.set(RequestTrace.current()));
+
+        assertNull(current.get());
+        assertNotNull(response.getHeader(TracingFilter.TRACE_ID_HEADER));
+        assertTrue(exported.isEmpty());
+    }
+
+    @Test
+    public void testDoFilter_BoundsSpans() throws Exception {
+        handle(filter(1.0, 2), false, () -> {
+            RequestTrace trace = RequestTrace.current();
+            for ( int i = 0; i < 5; i++ ) {
+                trace.startSpan("service", "span" + i);
+                trace.endSpan();
+            }
+        });
+
+        assertEquals(2, exported.get(0).spans().size());
+        assertEquals(3, exported.get(0).droppedSpans());
+    }
+
+    private TracingFilter filter(double sampleRate, int maxSpans) {
+        TracingFilter filter = new TracingFilter(List.of(exported::add));
+        ReflectionTestUtils.setField(filter, "sampleRate", sampleRate);
+        ReflectionTestUtils.setField(filter, "maxSpans", maxSpans);
+        return filter;
+    }
+
+    private static MockHttpServletResponse handle(TracingFilter filter, boolean forceSampled, Runnable handler) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/assessment/delivery/createDelivery");
+        request.setContextPath("/assessment");
+        if ( forceSampled ) {
+            request.addHeader(TracingFilter.SAMPLED_HEADER, "true");
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) {
+                handler.run();
+            }
+        }));
+        return response;
+    }
+}
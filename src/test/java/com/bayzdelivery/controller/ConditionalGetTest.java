@@ -0,0 +1,115 @@
+package com.bayzdelivery.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@code ConditionalGet} class.
+ * <p>
+ * Test Scenarios:
+ * - Matching the tags of an If-None-Match header, including lists, weak tags and the wildcard.
+ * - Answering a matching request with 304 without reading the response, and reading it for its version otherwise.
+ * - Answering reads without a version without an ETag.
+ * - Tagging responses with a version made of several row versions and keys.
+ * - Counting the results per endpoint, from which the 304 ratio is derived.
+ */
+public class ConditionalGetTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConditionalGet conditionalGet;
+    private AtomicInteger reads;
+    private Object readVersion;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        conditionalGet = new ConditionalGet(meterRegistry);
+        reads = new AtomicInteger();
+    }
+
+    @Test
+    public void testMatches() {
+        assertTrue(ConditionalGet.matches("\"3\"", "\"3\""));
+        assertTrue(ConditionalGet.matches("\"1\", \"3\"", "\"3\""));
+        assertTrue(ConditionalGet.matches("W/\"3\"", "\"3\""));
+        assertTrue(ConditionalGet.matches("*", "\"3\""));
+        assertFalse(ConditionalGet.matches("\"2\"", "\"3\""));
+        assertFalse(ConditionalGet.matches("3", "\"3\""));
+        assertFalse(ConditionalGet.matches(null, "\"3\""));
+        assertFalse(ConditionalGet.matches(" ", "\"3\""));
+    }
+
+    @Test
+    public void testRespond_NotModified() {
+        ResponseEntity<String> response = conditionalGet.respond("/test", "\"3\"", () -> Optional.of(3L), this::read);
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals("\"3\"", response.getHeaders().getETag());
+        assertNull(response.getBody());
+        assertEquals(0, reads.get());
+    }
+
+    @Test
+    public void testRespond_Modified() {
+        ResponseEntity<String> response = conditionalGet.respond("/test", "\"2\"", () -> Optional.of(3L), this::read);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("\"3\"", response.getHeaders().getETag());
+        assertEquals("body", response.getBody());
+        assertEquals(3L, readVersion);
+    }
+
+    @Test
+    public void testRespond_CompositeVersion() {
+        ResponseEntity<String> moved = conditionalGet.respond("/test", "\"3-7-2\"", () -> Optional.of("3-8-2"), this::read);
+        ResponseEntity<String> unchanged = conditionalGet.respond("/test", "\"3-8-2\"", () -> Optional.of("3-8-2"), this::read);
+
+        assertEquals(HttpStatus.OK, moved.getStatusCode());
+        assertEquals("\"3-8-2\"", moved.getHeaders().getETag());
+        assertEquals(HttpStatus.NOT_MODIFIED, unchanged.getStatusCode());
+        assertEquals(1, reads.get());
+    }
+
+    @Test
+    public void testRespond_WithoutVersion() {
+        ResponseEntity<String> found = conditionalGet.respond("/test", "*", Optional::empty, this::read);
+        ResponseEntity<String> missing = conditionalGet.respond("/test", null, Optional::empty, version -> null);
+
+        assertEquals(HttpStatus.OK, found.getStatusCode());
+        assertNull(found.getHeaders().getETag());
+        assertEquals(HttpStatus.NOT_FOUND, missing.getStatusCode());
+        assertTrue(meterRegistry.find(ConditionalGet.READS_COUNTER).counters().isEmpty());
+    }
+
+    @Test
+    public void testRespond_CountsResultsPerEndpoint() {
+        conditionalGet.respond("/test", "\"3\"", () -> Optional.of(3L), this::read);
+        conditionalGet.respond("/test", "\"3\"", () -> Optional.of(3L), this::read);
+        conditionalGet.respond("/test", "\"2\"", () -> Optional.of(3L), this::read);
+        conditionalGet.respond("/test", null, () -> Optional.of(3L), this::read);
+        conditionalGet.respond("/other", "\"3\"", () -> Optional.of(3L), this::read);
+
+        assertEquals(2.0, count("/test", "not_modified"));
+        assertEquals(1.0, count("/test", "modified"));
+        assertEquals(1.0, count("/test", "unconditional"));
+        assertEquals(1.0, count("/other", "not_modified"));
+    }
+
+    private String read(Object version) {
+        readVersion = version;
+        reads.incrementAndGet();
+        return "body";
+    }
+
+    private double count(String endpoint, String result) {
+        return meterRegistry.get(ConditionalGet.READS_COUNTER).tag("endpoint", endpoint).tag("result", result).counter().count();
+    }
+}
@@ -1,14 +1,19 @@
 package com.bayzdelivery.controller;
 
+import com.bayzdelivery.dto.BatchItemResult;
+import com.bayzdelivery.dto.BatchResponse;
+import com.bayzdelivery.dto.DeliveryCompletion;
 import com.bayzdelivery.dto.DeliveryManCommission;
 import com.bayzdelivery.dto.DeliveryResponse;
 import com.bayzdelivery.dto.TopDeliveryMenResponse;
 import com.bayzdelivery.service.DeliveryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
@@ -17,12 +22,16 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -34,7 +43,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * Test methods include:
  * - Testing successful and error scenarios for creating a delivery.
  * - Testing completion of deliveries with valid and invalid input data.
+ * - Testing completion of a batch of deliveries with a result per completion.
  * - Fetching delivery details by ID, including both valid requests and error conditions like "not found".
+ * - Answering a conditional fetch of an unchanged delivery with 304 Not Modified from its version alone.
  * - Retrieving the top-performing delivery personnel within a time range, including both correct input and bad requests.
  * <p>
  * MockMvc is initialized in the setup method to configure standalone testing of DeliveryController.
@@ -46,6 +57,9 @@ public class DeliveryControllerTest {
     @Mock
     private DeliveryService deliveryService;
 
+    @Spy
+    private ConditionalGet conditionalGet = new ConditionalGet(new SimpleMeterRegistry());
+
     @InjectMocks
     private DeliveryController deliveryController;
 
@@ -99,6 +113,37 @@ public class DeliveryControllerTest {
                 .andExpect(jsonPath("$.status").value("COMPLETED"));
     }
 
+    /**
+     * Tests the completion of a batch of deliveries through the DeliveryController.
+     * <p>
+     * Steps:
+     * 1. Mocks the deliveryService's `completeDeliveries` method with one completed and one failed delivery.
+     * 2. Sends a POST request with both completions to the `/delivery/completeDelivery/batch` endpoint.
+     * 3. Verifies that the response HTTP status is 200 (OK) and holds the counts and the result of each completion.
+     */
+    @Test
+    public void testCompleteDeliveries() throws Exception {
+        BatchResponse mockResponse = BatchResponse.of(List.of(
+                BatchItemResult.succeeded(0, 1L),
+                BatchItemResult.failed(1, "Delivery is already completed")));
+
+        when(deliveryService.completeDeliveries(List.of(new DeliveryCompletion(1L, 10.5), new DeliveryCompletion(2L, 3.0))))
+                .thenReturn(mockResponse);
+        String completionsJson = """
+                [
+                    {"deliveryId": 1, "distance": 10.5},
+                    {"deliveryId": 2, "distance": 3.0}
+                ]
+                """;
+        mockMvc.perform(post("/delivery/completeDelivery/batch")
+                        .contentType(MediaType.APPLICATION_JSON).content(completionsJson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].id").value(1))
+                .andExpect(jsonPath("$.results[1].error").value("Delivery is already completed"));
+    }
+
     /**
      * Tests the functionality of retrieving a delivery by its ID through the DeliveryController.
      * <p>
@@ -135,6 +180,30 @@ public class DeliveryControllerTest {
                 .andExpect(jsonPath("$.status").value("DELIVERED"));
     }
 
+    @Test
+    public void testGetDeliveryById_ReturnsETag() throws Exception {
+        when(deliveryService.findVersion(1L)).thenReturn(Optional.of(3L));
+        when(deliveryService.findById(1L)).thenReturn(new DeliveryResponse(1L, 123L, Instant.now(), "ACTIVE"));
+
+        mockMvc.perform(get("/delivery/getDelivery/1")
+                        .header("If-None-Match", "\"2\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(jsonPath("$.status").value("ACTIVE"));
+    }
+
+    @Test
+    public void testGetDeliveryById_NotModified() throws Exception {
+        when(deliveryService.findVersion(1L)).thenReturn(Optional.of(3L));
+
+        mockMvc.perform(get("/delivery/getDelivery/1")
+                        .header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""));
+
+        verify(deliveryService, never()).findById(anyLong());
+    }
+
     @Test
     public void testGetDeliveryById_NotFound() throws Exception {
         when(deliveryService.findById(anyLong())).thenReturn(null);
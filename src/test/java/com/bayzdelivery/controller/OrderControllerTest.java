@@ -1,23 +1,34 @@
 package com.bayzdelivery.controller;
 
+import com.bayzdelivery.dto.BatchItemResult;
+import com.bayzdelivery.dto.BatchResponse;
+import com.bayzdelivery.dto.KeysetPage;
 import com.bayzdelivery.dto.OrderResponse;
 import com.bayzdelivery.model.Orders;
 import com.bayzdelivery.service.OrdersService;
+import com.bayzdelivery.utils.ContinuationToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -31,7 +42,9 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * <p>
  * Responsibilities:
  * - Verifying successful creation of a new order via the "/newOrder" endpoint.
- * - Ensuring that all orders are retrieved correctly through the "/getAllOrder" endpoint.
+ * - Verifying that a batch of orders is saved with a result per order through the "/batch" endpoint.
+ * - Ensuring that pages of orders and their continuation token are retrieved correctly through the "/getAllOrder" endpoint.
+ * - Ensuring that all orders are exported as newline-delimited JSON through the "/getAllOrder/stream" endpoint.
  * - Testing the retrieval of a specific order by ID through the "/getOrder/{id}" endpoint.
  * - Confirming appropriate responses when trying to retrieve a non-existent order by ID.
  * <p>
@@ -45,13 +58,22 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * Tests the order creation process and asserts that the response contains the correct data.
  * <p>
  * 2. getAllOrders_shouldReturnOkAndListOfOrderResponses:
- * Tests retrieval of all orders and validates the response structure and content.
+ * Tests retrieval of the first page of orders and validates the response structure, content and continuation token.
  * <p>
- * 3. getOrderById_shouldReturnOkAndOrderResponse_whenOrderExists:
+ * 3. getAllOrders_shouldOmitContinuationToken_onLastPage:
+ * Tests that the page requested with a continuation token is returned without a token when it is the last one.
+ * <p>
+ * 4. streamAllOrders_shouldWriteOneJsonDocumentPerLine:
+ * Tests that the export writes every order streamed by the service as one line of JSON.
+ * <p>
+ * 5. getOrderById_shouldReturnOkAndOrderResponse_whenOrderExists:
  * Validates that the correct response is returned when a valid order ID is specified.
  * <p>
- * 4. getOrderById_shouldReturnNotFound_whenOrderDoesNotExist:
+ * 6. getOrderById_shouldReturnNotFound_whenOrderDoesNotExist:
  * Ensures that a 404 status is returned when a nonexistent order ID is requested.
+ * <p>
+ * 7. getOrderById_shouldReturnNotModified_whenETagMatches:
+ * Ensures that a conditional request for an unchanged order is answered with 304 without reading the order.
  */
 @ExtendWith(MockitoExtension.class)
 class OrderControllerTest {
@@ -62,14 +84,17 @@ class OrderControllerTest {
     @InjectMocks
     private OrdersController ordersController;
 
-    private MockMvc mockMvc;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
 
-    private ObjectMapper objectMapper;
+    @Spy
+    private ConditionalGet conditionalGet = new ConditionalGet(new SimpleMeterRegistry());
+
+    private MockMvc mockMvc;
 
     @BeforeEach
     void setUp() {
         mockMvc = MockMvcBuilders.standaloneSetup(ordersController).build();
-        objectMapper = new ObjectMapper();
     }
 
     @Test
@@ -90,6 +115,27 @@ class OrderControllerTest {
         verify(orderService, times(1)).save(any(Orders.class));
     }
 
+    @Test
+    void newOrders_shouldReturnOkAndResultPerOrder() throws Exception {
+        BatchResponse batchResponse = BatchResponse.of(List.of(
+                BatchItemResult.succeeded(0, 1L),
+                BatchItemResult.failed(1, "Order name is required")));
+
+        when(orderService.saveBatch(anyList())).thenReturn(batchResponse);
+
+        mockMvc.perform(post("/orders/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(new Orders(), new Orders()))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.failed").value(1))
+                .andExpect(jsonPath("$.results[0].id").value(1))
+                .andExpect(jsonPath("$.results[1].status").value(BatchItemResult.FAILED))
+                .andExpect(jsonPath("$.results[1].error").value("Order name is required"));
+
+        verify(orderService, times(1)).saveBatch(anyList());
+    }
+
     @Test
     void getAllOrders_shouldReturnOkAndListOfOrderResponses() throws Exception {
         OrderResponse orderResponse1 = new OrderResponse(1L, "TestOrder", 100.0, "Assessment");
@@ -97,39 +143,87 @@ class OrderControllerTest {
         OrderResponse orderResponse2 = new OrderResponse(2L, "TestOrder1", 1020.0, "Susan");
 
         List<OrderResponse> orderResponses = Arrays.asList(orderResponse1, orderResponse2);
+        String token = ContinuationToken.encode(2L);
 
-        when(orderService.getAll()).thenReturn(orderResponses);
+        when(orderService.getPage(null, 2)).thenReturn(new KeysetPage<>(orderResponses, token));
 
-        mockMvc.perform(get("/orders/getAllOrder"))
+        mockMvc.perform(get("/orders/getAllOrder").param("limit", "2"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(ContinuationToken.HEADER, token))
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[1].id").value(2));
 
-        verify(orderService, times(1)).getAll();
+        verify(orderService, times(1)).getPage(null, 2);
+    }
+
+    @Test
+    void getAllOrders_shouldOmitContinuationToken_onLastPage() throws Exception {
+        String token = ContinuationToken.encode(2L);
+        OrderResponse orderResponse = new OrderResponse(3L, "TestOrder2", 50.0, "Assessment");
+
+        when(orderService.getPage(token, null)).thenReturn(new KeysetPage<>(List.of(orderResponse), null));
+
+        mockMvc.perform(get("/orders/getAllOrder").param("after", token))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(ContinuationToken.HEADER))
+                .andExpect(jsonPath("$[0].id").value(3));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamAllOrders_shouldWriteOneJsonDocumentPerLine() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<OrderResponse> consumer = invocation.getArgument(0);
+            consumer.accept(new OrderResponse(1L, "TestOrder", 100.0, "Assessment"));
+            consumer.accept(new OrderResponse(2L, "TestOrder1", 1020.0, "Susan"));
+            return null;
+        }).when(orderService).streamAll(any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/orders/getAllOrder/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(2L, objectMapper.readValue(lines[1], OrderResponse.class).id());
     }
 
     @Test
     void getOrderById_shouldReturnOkAndOrderResponse_whenOrderExists() throws Exception {
         OrderResponse orderResponse = new OrderResponse(1L, "TestOrder", 100.0, "COMPLETED");
 
-        when(orderService.findById(1L)).thenReturn(orderResponse);
+        when(orderService.findById(1L, null)).thenReturn(orderResponse);
 
         mockMvc.perform(get("/orders/getOrder/1"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id").value(1));
 
-        verify(orderService, times(1)).findById(1L);
+        verify(orderService, times(1)).findById(1L, null);
+    }
+
+    @Test
+    void getOrderById_shouldReturnNotModified_whenETagMatches() throws Exception {
+        when(orderService.findVersion(1L)).thenReturn(Optional.of("5-2-1"));
+
+        mockMvc.perform(get("/orders/getOrder/1").header("If-None-Match", "\"4-2-1\", \"5-2-1\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"5-2-1\""));
+
+        verify(orderService, never()).findById(anyLong(), any());
     }
 
     @Test
     void getOrderById_shouldReturnNotFound_whenOrderDoesNotExist() throws Exception {
-        when(orderService.findById(1L)).thenReturn(null);
+        when(orderService.findById(1L, null)).thenReturn(null);
 
         mockMvc.perform(get("/orders/getOrder/1"))
                 .andExpect(status().isNotFound());
 
-        verify(orderService, times(1)).findById(1L);
+        verify(orderService, times(1)).findById(1L, null);
     }
 }
\ No newline at end of file
@@ -1,24 +1,34 @@
 package com.bayzdelivery.controller;
 
+import com.bayzdelivery.dto.KeysetPage;
 import com.bayzdelivery.dto.PersonRegisterResponse;
+import com.bayzdelivery.exceptions.GlobalExceptionHandler;
 import com.bayzdelivery.model.Person;
 import com.bayzdelivery.service.PersonService;
+import com.bayzdelivery.utils.ContinuationToken;
 import com.bayzdelivery.utils.PersonRole;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -42,11 +52,19 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
  * 1. registerNewUser_shouldReturnOkAndPersonRegisterResponse:
  * Tests that registering a new user returns an HTTP 200 status and the expected PersonRegisterResponse.
  * 2. getAllUsers_shouldReturnOkAndListOfPersonRegisterResponses:
- * Verifies that fetching all users returns an HTTP 200 status and a list of user registration responses.
- * 3. getPersonById_shouldReturnOkAndPersonRegisterResponse_whenPersonExists:
+ * Verifies that fetching a page of users returns an HTTP 200 status, a list of user registration responses
+ * and the continuation token of the next page.
+ * 3. getAllUsers_shouldReturnBadRequest_whenServiceRejectsToken:
+ * Verifies that an invalid continuation token is answered with an HTTP 400 status.
+ * 4. streamAllUsers_shouldWriteOneJsonDocumentPerLine:
+ * Verifies that the export writes every user streamed by the service as one line of JSON.
+ * 5. getPersonById_shouldReturnOkAndPersonRegisterResponse_whenPersonExists:
  * Tests that fetching a user by ID returns an HTTP 200 status and the corresponding user details when the user exists.
- * 4. getPersonById_shouldReturnNotFound_whenPersonDoesNotExist:
+ * 6. getPersonById_shouldReturnNotFound_whenPersonDoesNotExist:
  * Validates that fetching a user by a non-existent ID returns an HTTP 404 status.
+ * 7. getPersonById_shouldReturnETag_andNotModifiedOnceKnown:
+ * Verifies that a user is returned with its version as ETag, and that repeating the request with that ETag
+ * returns an HTTP 304 status without reading the user again.
  */
 @ExtendWith(MockitoExtension.class)
 class PersonControllerTest {
@@ -57,14 +75,17 @@ class PersonControllerTest {
     @InjectMocks
     private PersonController personController;
 
-    private MockMvc mockMvc;
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Spy
+    private ConditionalGet conditionalGet = new ConditionalGet(new SimpleMeterRegistry());
 
-    private ObjectMapper objectMapper;
+    private MockMvc mockMvc;
 
     @BeforeEach
     void setUp() {
         mockMvc = MockMvcBuilders.standaloneSetup(personController).build();
-        objectMapper = new ObjectMapper();
     }
 
     @Test
@@ -92,16 +113,52 @@ class PersonControllerTest {
         PersonRegisterResponse response2 = new PersonRegisterResponse(2L, "TestMe1", "REG12558", PersonRole.DELIVERY_MAN);
 
         List<PersonRegisterResponse> responses = Arrays.asList(response1, response2);
+        String token = ContinuationToken.encode(2L);
 
-        when(personService.getAll()).thenReturn(responses);
+        when(personService.getPage(null, null)).thenReturn(new KeysetPage<>(responses, token));
 
         mockMvc.perform(get("/regapi/getAllUsers"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(header().string(ContinuationToken.HEADER, token))
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[1].id").value(2));
 
-        verify(personService, times(1)).getAll();
+        verify(personService, times(1)).getPage(null, null);
+    }
+
+    @Test
+    void getAllUsers_shouldReturnBadRequest_whenServiceRejectsToken() throws Exception {
+        when(personService.getPage("garbage", 10)).thenThrow(new IllegalArgumentException("Invalid continuation token: garbage"));
+
+        mockMvc = MockMvcBuilders.standaloneSetup(personController)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+
+        mockMvc.perform(get("/regapi/getAllUsers").param("after", "garbage").param("limit", "10"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamAllUsers_shouldWriteOneJsonDocumentPerLine() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<PersonRegisterResponse> consumer = invocation.getArgument(0);
+            consumer.accept(new PersonRegisterResponse(1L, "TestMe", "REG12547", PersonRole.CUSTOMER));
+            consumer.accept(new PersonRegisterResponse(2L, "TestMe1", "REG12558", PersonRole.DELIVERY_MAN));
+            return null;
+        }).when(personService).streamAll(any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/regapi/getAllUsers/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(PersonRole.DELIVERY_MAN, objectMapper.readValue(lines[1], PersonRegisterResponse.class).role());
     }
 
     @Test
@@ -109,23 +166,39 @@ class PersonControllerTest {
         PersonRegisterResponse response = new PersonRegisterResponse(1L, "TestMe", "REG12547", PersonRole.CUSTOMER);
 
 
-        when(personService.findById(1L)).thenReturn(response);
+        when(personService.findById(1L, null)).thenReturn(response);
 
         mockMvc.perform(get("/regapi/user/1"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id").value(1));
 
-        verify(personService, times(1)).findById(1L);
+        verify(personService, times(1)).findById(1L, null);
+    }
+
+    @Test
+    void getPersonById_shouldReturnETag_andNotModifiedOnceKnown() throws Exception {
+        when(personService.findVersion(1L)).thenReturn(Optional.of(2L));
+        when(personService.findById(1L, 2L)).thenReturn(new PersonRegisterResponse(1L, "TestMe", "REG12547", PersonRole.CUSTOMER));
+
+        String eTag = mockMvc.perform(get("/regapi/user/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/regapi/user/1").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+
+        assertEquals("\"2\"", eTag);
+        verify(personService, times(1)).findById(1L, 2L);
     }
 
     @Test
     void getPersonById_shouldReturnNotFound_whenPersonDoesNotExist() throws Exception {
-        when(personService.findById(1L)).thenReturn(null);
+        when(personService.findById(1L, null)).thenReturn(null);
 
         mockMvc.perform(get("/regapi/user/1"))
                 .andExpect(status().isNotFound());
 
-        verify(personService, times(1)).findById(1L);
+        verify(personService, times(1)).findById(1L, null);
     }
 }
\ No newline at end of file
@@ -0,0 +1,201 @@
+package com.bayzdelivery.jobs;
+
+import com.bayzdelivery.dto.OverdueDelivery;
+import com.bayzdelivery.repositories.DeliveryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@code DelayedDeliveryNotifier} class.
+ * <p>
+ * The notifier sends to a recording sink, so the batches it produces can be inspected;
+ * the clock of the notifier is fixed and moved explicitly where the renotify window matters.
+ * <p>
+ * Test Scenarios:
+ * - Closing a batch once it is full, or once the flush interval has passed.
+ * - Skipping deliveries notified within the renotify window and notifying them again afterward.
+ * - Rejecting deliveries when the queue is full and releasing their overdue notification mark.
+ * - Releasing the overdue notification marks of a failed batch, so it is notified again.
+ * - Releasing the overdue notification marks of the deliveries still queued when stopping times out.
+ */
+public class DelayedDeliveryNotifierTest {
+
+    private static final Instant NOW = Instant.parse("2025-03-20T12:00:00Z");
+
+    private final BlockingQueue<List<OverdueDelivery>> batches = new LinkedBlockingQueue<>();
+    private SimpleMeterRegistry meterRegistry;
+    private NotificationSink sink;
+    private DeliveryRepository deliveryRepository;
+    private DelayedDeliveryNotifier notifier;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        deliveryRepository = mock(DeliveryRepository.class);
+        sink = batches::add;
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if ( notifier != null ) {
+            notifier.stop();
+        }
+    }
+
+    @Test
+    public void testNotifyCustomerSupport_ClosesFullBatch() throws InterruptedException {
+        start(3, 10_000, 100);
+
+        for ( long id = 1; id <= 4; id++ ) {
+            assertTrue(notifier.notifyCustomerSupport(delivery(id)));
+        }
+
+        List<OverdueDelivery> batch = batches.poll(5, TimeUnit.SECONDS);
+        assertNotNull(batch);
+        assertEquals(List.of(1L, 2L, 3L), batch.stream().map(OverdueDelivery::id).toList());
+        assertEquals(4.0, meterRegistry.get(DelayedDeliveryNotifier.ENQUEUED_COUNTER).counter().count());
+    }
+
+    @Test
+    public void testNotifyCustomerSupport_ClosesBatchAfterFlushInterval() throws InterruptedException {
+        start(100, 50, 100);
+
+        notifier.notifyCustomerSupport(delivery(1L));
+        notifier.notifyCustomerSupport(delivery(2L));
+
+        List<OverdueDelivery> batch = batches.poll(5, TimeUnit.SECONDS);
+        assertNotNull(batch);
+        assertEquals(List.of(1L, 2L), batch.stream().map(OverdueDelivery::id).toList());
+        // the sent counter is incremented after the sink returns, so wait for the dispatcher to finish
+        notifier.stop();
+        assertEquals(2.0, meterRegistry.get(DelayedDeliveryNotifier.SENT_COUNTER).counter().count());
+    }
+
+    @Test
+    public void testNotifyCustomerSupport_SkipsRecentlyNotifiedDelivery() throws InterruptedException {
+        start(100, 50, 100);
+
+        assertTrue(notifier.notifyCustomerSupport(delivery(1L)));
+        assertFalse(notifier.notifyCustomerSupport(delivery(1L)));
+        assertNotNull(batches.poll(5, TimeUnit.SECONDS));
+
+        ReflectionTestUtils.setField(notifier, "clock", Clock.fixed(NOW.plusSeconds(59 * 60), ZoneOffset.UTC));
+        assertFalse(notifier.notifyCustomerSupport(delivery(1L)));
+        ReflectionTestUtils.setField(notifier, "clock", Clock.fixed(NOW.plusSeconds(61 * 60), ZoneOffset.UTC));
+        assertTrue(notifier.notifyCustomerSupport(delivery(1L)));
+
+        assertEquals(2.0, meterRegistry.get(DelayedDeliveryNotifier.DEDUPLICATED_COUNTER).counter().count());
+    }
+
+    @Test
+    public void testNotifyCustomerSupport_RejectsWhenQueueIsFull() throws InterruptedException {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        sink = deliveries -> {
+            sending.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+            }
+            batches.add(deliveries);
+        };
+        start(1, 10_000, 1);
+
+        assertTrue(notifier.notifyCustomerSupport(delivery(1L)));
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+        assertTrue(notifier.notifyCustomerSupport(delivery(2L)));
+        assertFalse(notifier.notifyCustomerSupport(delivery(3L)));
+        release.countDown();
+
+        assertEquals(1.0, meterRegistry.get(DelayedDeliveryNotifier.REJECTED_COUNTER).counter().count());
+        verify(deliveryRepository).releaseOverdueNotifications(List.of(3L));
+        // a rejected delivery is not remembered as notified
+        assertNotNull(batches.poll(5, TimeUnit.SECONDS));
+        assertNotNull(batches.poll(5, TimeUnit.SECONDS));
+        assertTrue(notifier.notifyCustomerSupport(delivery(3L)));
+    }
+
+    @Test
+    public void testNotifyCustomerSupport_SinkFailure() throws InterruptedException {
+        CountDownLatch failedOnce = new CountDownLatch(1);
+        sink = deliveries -> {
+            failedOnce.countDown();
+            throw new IllegalStateException("Mail server unavailable");
+        };
+        start(100, 50, 100);
+
+        assertTrue(notifier.notifyCustomerSupport(delivery(1L)));
+        assertTrue(failedOnce.await(5, TimeUnit.SECONDS));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ( meterRegistry.get(DelayedDeliveryNotifier.FAILED_COUNTER).counter().count() < 1 && System.nanoTime() < deadline ) {
+            Thread.sleep(10);
+        }
+        assertEquals(1.0, meterRegistry.get(DelayedDeliveryNotifier.FAILED_COUNTER).counter().count());
+        verify(deliveryRepository).releaseOverdueNotifications(List.of(1L));
+        assertTrue(notifier.notifyCustomerSupport(delivery(1L)));
+    }
+
+    @Test
+    public void testStop_ReleasesQueuedDeliveriesOnTimeout() throws InterruptedException {
+        CountDownLatch sending = new CountDownLatch(1);
+        sink = deliveries -> {
+            sending.countDown();
+            try {
+                new CountDownLatch(1).await(5, TimeUnit.SECONDS);
+            } catch ( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+            }
+            batches.add(deliveries);
+        };
+        start(1, 50, 100);
+
+        assertTrue(notifier.notifyCustomerSupport(delivery(1L)));
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+        assertTrue(notifier.notifyCustomerSupport(delivery(2L)));
+        assertTrue(notifier.notifyCustomerSupport(delivery(3L)));
+
+        notifier.stop();
+
+        verify(deliveryRepository).releaseOverdueNotifications(List.of(2L, 3L));
+        assertEquals(0.0, meterRegistry.get(DelayedDeliveryNotifier.QUEUE_SIZE_GAUGE).gauge().value());
+    }
+
+    @Test
+    public void testNotifyCustomerSupport_NullDelivery() {
+        start(100, 50, 100);
+
+        assertFalse(notifier.notifyCustomerSupport(null));
+        assertEquals(0.0, meterRegistry.get(DelayedDeliveryNotifier.QUEUE_SIZE_GAUGE).gauge().value());
+    }
+
+    private void start(int batchSize, long flushIntervalMs, int queueCapacity) {
+        notifier = new DelayedDeliveryNotifier(sink, deliveryRepository, meterRegistry);
+        ReflectionTestUtils.setField(notifier, "batchSize", batchSize);
+        ReflectionTestUtils.setField(notifier, "flushIntervalMs", flushIntervalMs);
+        ReflectionTestUtils.setField(notifier, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(notifier, "renotifyAfterMinutes", 60L);
+        ReflectionTestUtils.setField(notifier, "clock", Clock.fixed(NOW, ZoneOffset.UTC));
+        notifier.start();
+    }
+
+    private static OverdueDelivery delivery(Long id) {
+        return new OverdueDelivery(id, 100L + id, NOW.minusSeconds(3600));
+    }
+}
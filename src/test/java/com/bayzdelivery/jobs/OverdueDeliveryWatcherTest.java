@@ -0,0 +1,148 @@
+package com.bayzdelivery.jobs;
+
+import com.bayzdelivery.dto.OverdueDelivery;
+import com.bayzdelivery.events.DeliveryCompletedEvent;
+import com.bayzdelivery.events.DeliveryStartedEvent;
+import com.bayzdelivery.repositories.DeliveryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@code OverdueDeliveryWatcher} class.
+ * <p>
+ * The ticker thread is stopped right after the wheel has been created and the wheel is advanced by the tests,
+ * moving the fixed clock of the watcher explicitly. The wheel has only 4 buckets of one second, so every
+ * 45 minute deadline waits several rounds.
+ * <p>
+ * Test Scenarios:
+ * - Notifying a delivery within a tick of crossing the overdue threshold, and not before.
+ * - Cancelling the deadline of a completed delivery.
+ * - Rebuilding the deadlines of the ACTIVE deliveries on startup.
+ * - Skipping expired deliveries that could not be claimed.
+ */
+@ExtendWith(MockitoExtension.class)
+public class OverdueDeliveryWatcherTest {
+
+    private static final Instant NOW = Instant.parse("2025-03-20T12:00:00Z");
+    private static final Duration THRESHOLD = Duration.ofMinutes(45);
+
+    @Mock
+    private DeliveryRepository deliveryRepository;
+
+    @Mock
+    private DelayedDeliveryNotifier delayedDeliveryNotifier;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private OverdueDeliveryWatcher watcher;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        watcher = new OverdueDeliveryWatcher(deliveryRepository, delayedDeliveryNotifier, meterRegistry);
+        ReflectionTestUtils.setField(watcher, "overdueThresholdMinutes", 45);
+        ReflectionTestUtils.setField(watcher, "batchSize", 2);
+        ReflectionTestUtils.setField(watcher, "tickMillis", 1000L);
+        ReflectionTestUtils.setField(watcher, "wheelSize", 4);
+        moveClockTo(NOW);
+        watcher.start();
+        // the wheel is advanced by the tests
+        watcher.stop();
+    }
+
+    @Test
+    public void testOnDeliveryStarted_NotifiedOnceOverdue() {
+        Instant startTime = NOW.minus(THRESHOLD).plusSeconds(30);
+        watcher.onDeliveryStarted(new DeliveryStartedEvent(1L, 101L, startTime));
+        when(deliveryRepository.claimOverdueDeliveriesById(eq(List.of(1L)), any(Instant.class)))
+                .thenReturn(List.<Object[]>of(row(1L, 101L, startTime)));
+
+        moveClockTo(NOW.plusSeconds(29));
+        watcher.tick();
+        verifyNoInteractions(deliveryRepository, delayedDeliveryNotifier);
+
+        moveClockTo(NOW.plusSeconds(31));
+        watcher.tick();
+
+        ArgumentCaptor<OverdueDelivery> captor = ArgumentCaptor.forClass(OverdueDelivery.class);
+        verify(delayedDeliveryNotifier).notifyCustomerSupport(captor.capture());
+        assertEquals(new OverdueDelivery(1L, 101L, startTime), captor.getValue());
+        assertEquals(1.0, meterRegistry.get(OverdueDeliveryWatcher.EXPIRED_COUNTER).counter().count());
+        assertEquals(0.0, meterRegistry.get(OverdueDeliveryWatcher.PENDING_GAUGE).gauge().value());
+
+        moveClockTo(NOW.plusSeconds(120));
+        watcher.tick();
+        verifyNoMoreInteractions(deliveryRepository, delayedDeliveryNotifier);
+    }
+
+    @Test
+    public void testOnDeliveryCompleted_CancelsDeadline() {
+        watcher.onDeliveryStarted(new DeliveryStartedEvent(1L, 101L, NOW.minus(THRESHOLD).plusSeconds(5)));
+        watcher.onDeliveryCompleted(new DeliveryCompletedEvent(1L, 101L, "John Doe",
+                NOW.minus(THRESHOLD).plusSeconds(5), NOW, 7.5));
+
+        moveClockTo(NOW.plusSeconds(60));
+        watcher.tick();
+
+        verifyNoInteractions(deliveryRepository, delayedDeliveryNotifier);
+        assertEquals(0.0, meterRegistry.get(OverdueDeliveryWatcher.PENDING_GAUGE).gauge().value());
+    }
+
+    @Test
+    public void testRebuild_ArmsActiveDeliveries() {
+        Instant overdueStart = NOW.minus(THRESHOLD).minusSeconds(600);
+        when(deliveryRepository.findActiveDeliveriesNotNotified(0L, Limit.of(2))).thenReturn(List.of(
+                new OverdueDelivery(3L, 103L, overdueStart),
+                new OverdueDelivery(5L, 105L, NOW.minusSeconds(60))));
+        when(deliveryRepository.findActiveDeliveriesNotNotified(5L, Limit.of(2))).thenReturn(List.of());
+        when(deliveryRepository.claimOverdueDeliveriesById(eq(List.of(3L)), any(Instant.class)))
+                .thenReturn(List.<Object[]>of(row(3L, 103L, overdueStart)));
+
+        watcher.rebuild();
+        assertEquals(2.0, meterRegistry.get(OverdueDeliveryWatcher.PENDING_GAUGE).gauge().value());
+
+        moveClockTo(NOW.plusSeconds(1));
+        watcher.tick();
+
+        verify(delayedDeliveryNotifier).notifyCustomerSupport(new OverdueDelivery(3L, 103L, overdueStart));
+        assertEquals(1.0, meterRegistry.get(OverdueDeliveryWatcher.PENDING_GAUGE).gauge().value());
+    }
+
+    @Test
+    public void testTick_SkipsDeliveriesNotClaimed() {
+        watcher.onDeliveryStarted(new DeliveryStartedEvent(1L, 101L, NOW.minus(THRESHOLD)));
+        when(deliveryRepository.claimOverdueDeliveriesById(eq(List.of(1L)), any(Instant.class))).thenReturn(List.of());
+
+        moveClockTo(NOW.plusSeconds(1));
+        watcher.tick();
+
+        verify(deliveryRepository).claimOverdueDeliveriesById(eq(List.of(1L)), any(Instant.class));
+        verifyNoInteractions(delayedDeliveryNotifier);
+    }
+
+    private void moveClockTo(Instant instant) {
+        ReflectionTestUtils.setField(watcher, "clock", Clock.fixed(instant, ZoneOffset.UTC));
+    }
+
+    private static Object[] row(Long id, Long deliveryManId, Instant startTime) {
+        return new Object[]{id, deliveryManId, Timestamp.from(startTime)};
+    }
+}
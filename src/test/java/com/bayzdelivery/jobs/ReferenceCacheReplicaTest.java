@@ -0,0 +1,87 @@
+package com.bayzdelivery.jobs;
+
+import com.bayzdelivery.BayzDeliveryApplication;
+import com.bayzdelivery.model.Person;
+import com.bayzdelivery.service.PersonService;
+import com.bayzdelivery.utils.PersonRole;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Integration test of the reference cache across two instances of the application.
+ * <p>
+ * Two application contexts are started against the PostgreSQL database configured in {@code application.yml}, so
+ * the test only runs with {@code -Dit.postgres=true}. Both contexts cache the same person, one of them renames it,
+ * and the other must serve the new name once the invalidation has arrived over {@code LISTEN/NOTIFY}.
+ * <p>
+ * Test Scenarios:
+ * - A person changed on one instance is dropped from the cache of the other instance.
+ */
+@EnabledIfSystemProperty(named = "it.postgres", matches = "true")
+public class ReferenceCacheReplicaTest {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private ConfigurableApplicationContext first;
+    private ConfigurableApplicationContext second;
+    private Long personId;
+
+    @BeforeEach
+    public void setUp() {
+        first = start();
+        second = start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if ( personId != null ) {
+            first.getBean(JdbcTemplate.class).update("DELETE FROM person WHERE id = ?", personId);
+        }
+        second.close();
+        first.close();
+    }
+
+    @Test
+    public void testSave_InvalidatesOtherInstance() throws InterruptedException {
+        PersonService writer = first.getBean(PersonService.class);
+        PersonService reader = second.getBean(PersonService.class);
+        String email = "replica." + UUID.randomUUID() + "@example.com";
+        personId = writer.save(newPerson(null, "Before", email)).id();
+
+        assertEquals("Before", reader.findById(personId).name());
+        assertEquals("Before", writer.findById(personId).name());
+
+        writer.save(newPerson(personId, "After", email));
+
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while ( !"After".equals(reader.findById(personId).name()) && System.currentTimeMillis() < deadline ) {
+            Thread.sleep(50);
+        }
+        assertEquals("After", reader.findById(personId).name());
+        assertEquals("After", writer.findById(personId).name());
+    }
+
+    private static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(BayzDeliveryApplication.class)
+                .properties("server.port=0", "reference-cache.listen.poll-ms=50")
+                .run();
+    }
+
+    private static Person newPerson(Long id, String name, String email) {
+        Person person = new Person();
+        person.setId(id);
+        person.setName(name);
+        person.setEmail(email);
+        person.setRole(PersonRole.CUSTOMER);
+        return person;
+    }
+}
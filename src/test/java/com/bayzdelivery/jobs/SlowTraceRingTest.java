@@ -0,0 +1,65 @@
+package com.bayzdelivery.jobs;
+
+import com.bayzdelivery.dto.TraceSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the {@code SlowTraceRing} class.
+ * <p>
+ * Test Scenarios:
+ * - Ignoring traces shorter than the threshold.
+ * - Keeping only the most recent slow traces, newest first.
+ * - Finding a trace by its ID while it is in the ring.
+ */
+public class SlowTraceRingTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SlowTraceRing ring;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ring = new SlowTraceRing(100, 3, meterRegistry);
+    }
+
+    @Test
+    public void testExport_IgnoresFastTraces() {
+        ring.export(trace("fast", 99_000));
+
+        assertTrue(ring.recent(10).isEmpty());
+        assertEquals(0.0, meterRegistry.get(SlowTraceRing.SLOW_COUNTER).counter().count());
+    }
+
+    @Test
+    public void testRecent_KeepsMostRecentSlowTraces() {
+        for ( int i = 1; i <= 5; i++ ) {
+            ring.export(trace("t" + i, 200_000));
+        }
+
+        assertEquals(List.of("t5", "t4", "t3"), ring.recent(10).stream().map(TraceSummary::traceId).toList());
+        assertEquals(List.of("t5", "t4"), ring.recent(2).stream().map(TraceSummary::traceId).toList());
+        assertEquals(5.0, meterRegistry.get(SlowTraceRing.SLOW_COUNTER).counter().count());
+    }
+
+    @Test
+    public void testFind() {
+        ring.export(trace("t1", 200_000));
+        for ( int i = 2; i <= 4; i++ ) {
+            ring.export(trace("t" + i, 200_000));
+        }
+
+        assertTrue(ring.find("t4").isPresent());
+        assertTrue(ring.find("t1").isEmpty());
+    }
+
+    private static TraceSummary trace(String traceId, long durationMicros) {
+        return new TraceSummary(traceId, "GET", "/delivery/getDelivery/1", 200, Instant.now(), durationMicros, List.of(), 0);
+    }
+}
@@ -0,0 +1,66 @@
+package com.bayzdelivery.jobs;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@code VirtualThreadPinningMonitor} class against the JFR events of the test JVM.
+ * <p>
+ * A virtual thread sleeps inside a {@code synchronized} block, which pins it to its carrier up to Java 23;
+ * from Java 24 on, monitors no longer pin, so the test only runs on Java 21 to 23.
+ * <p>
+ * Test Scenarios:
+ * - Recording a virtual thread that blocks while pinned.
+ */
+@EnabledForJreRange(min = JRE.JAVA_21, max = JRE.JAVA_23)
+public class VirtualThreadPinningMonitorTest {
+
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    private SimpleMeterRegistry meterRegistry;
+    private VirtualThreadPinningMonitor monitor;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new VirtualThreadPinningMonitor(meterRegistry);
+        ReflectionTestUtils.setField(monitor, "thresholdMillis", 10L);
+        monitor.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        monitor.stop();
+    }
+
+    @Test
+    public void testOnPinned_RecordsBlockingInsideMonitor() throws InterruptedException {
+        Object lock = new Object();
+        Thread.ofVirtual().start(() -> {
+            synchronized ( lock ) {
+                try {
+                    Thread.sleep(100);
+                } catch ( InterruptedException e ) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }).join();
+
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while ( pinnedCount() == 0 && System.currentTimeMillis() < deadline ) {
+            Thread.sleep(50);
+        }
+        assertTrue(pinnedCount() >= 1);
+    }
+
+    private long pinnedCount() {
+        return meterRegistry.get(VirtualThreadPinningMonitor.PINNED_TIMER).timer().count();
+    }
+}
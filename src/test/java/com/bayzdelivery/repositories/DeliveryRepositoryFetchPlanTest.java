@@ -0,0 +1,142 @@
+package com.bayzdelivery.repositories;
+
+import com.bayzdelivery.dto.DeliveryResponse;
+import com.bayzdelivery.model.Delivery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the fetch plans of the delivery reads.
+ * <p>
+ * A delivery with a delivery man, a customer and an order is inserted with plain JDBC, and the statements
+ * and entity loads of each read are counted with Hibernate's statistics.
+ * <p>
+ * Test Scenarios:
+ * - The delivery response is read in one statement without loading any entity.
+ * - The existing IDs of a failed batch completion are read in one statement without loading any entity.
+ * - The completed IDs checked by the leaderboard rebuild are read in one statement without loading any entity.
+ * - A plain lookup leaves all associations unloaded.
+ * - The version of a delivery is read in one statement without loading it, and changes with a native update.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:delivery-fetch-plans;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=update",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class DeliveryRepositoryFetchPlanTest {
+
+    private static final Instant START_TIME = Instant.parse("2025-03-20T10:00:00Z");
+
+    @Autowired
+    private DeliveryRepository deliveryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private long deliveryId;
+    private long deliveryManId;
+
+    @BeforeEach
+    public void setUp() {
+        deliveryManId = insertPerson("Delivery Man", "DELIVERY_MAN");
+        long customerId = insertPerson("Customer", "CUSTOMER");
+        jdbcTemplate.update("INSERT INTO orders (id, order_name, order_price, customer_id, order_time) VALUES (NEXT VALUE FOR orders_seq, 'Order', 40.0, ?, ?)",
+                customerId, Timestamp.from(START_TIME));
+        long orderId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM orders", Long.class);
+        jdbcTemplate.update("""
+                INSERT INTO delivery (delivery_man_id, customer_id, order_id, start_time, distance, price, commission, status)
+                VALUES (?, ?, ?, ?, 3.0, 40.0, 2.0, 'ACTIVE')""", deliveryManId, customerId, orderId, Timestamp.from(START_TIME));
+        deliveryId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM delivery", Long.class);
+
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void testFindDeliveryResponseById_ReadsDeliveryTableOnly() {
+        DeliveryResponse response = deliveryRepository.findDeliveryResponseById(deliveryId).orElseThrow();
+
+        assertEquals(deliveryId, response.id());
+        assertEquals(deliveryManId, response.deliveryManId());
+        assertEquals("ACTIVE", response.status());
+        assertEquals(3.0, response.distance());
+        assertNull(response.endTime());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void testFindIdsByIdIn_LoadsNoEntity() {
+        List<Long> existing = deliveryRepository.findIdsByIdIn(List.of(deliveryId, -1L));
+
+        assertEquals(List.of(deliveryId), existing);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void testFindCompletedIdsByIdIn_LoadsNoEntity() {
+        assertTrue(deliveryRepository.findCompletedIdsByIdIn(List.of(deliveryId)).isEmpty());
+
+        jdbcTemplate.update("UPDATE delivery SET status = 'COMPLETED' WHERE id = ?", deliveryId);
+
+        assertEquals(List.of(deliveryId), deliveryRepository.findCompletedIdsByIdIn(List.of(deliveryId, -1L)));
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void testFindById_LeavesAssociationsUnloaded() {
+        Delivery delivery = deliveryRepository.findById(deliveryId).orElseThrow();
+
+        assertFalse(Hibernate.isInitialized(delivery.getDeliveryMan()));
+        assertFalse(Hibernate.isInitialized(delivery.getCustomer()));
+        assertFalse(Hibernate.isInitialized(delivery.getOrders()));
+        assertEquals(1, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void testFindVersionById_ReadsVersionOnly() {
+        assertEquals(0L, deliveryRepository.findVersionById(deliveryId).orElseThrow());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        deliveryRepository.releaseOverdueNotifications(List.of(deliveryId));
+
+        assertEquals(1L, deliveryRepository.findVersionById(deliveryId).orElseThrow());
+        assertTrue(deliveryRepository.findVersionById(-1L).isEmpty());
+    }
+
+    private long insertPerson(String name, String role) {
+        jdbcTemplate.update("INSERT INTO person (name, email, role) VALUES (?, ?, ?)",
+                name, name.toLowerCase().replace(' ', '.') + "@example.com", role);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM person", Long.class);
+    }
+}
@@ -0,0 +1,105 @@
+package com.bayzdelivery.repositories;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Integration tests for the delivery indexes created by {@code db.changelog-0000005.xml}.
+ * <p>
+ * The schema is created by the Liquibase changelogs on an in-memory H2 database in PostgreSQL mode,
+ * followed by Hibernate's schema update as in the application. A delivery history is inserted and
+ * analyzed before the query plans of the scans against the delivery table are checked.
+ * <p>
+ * Test Scenarios:
+ * - The overdue scan uses {@code idx_delivery_status_start_time}.
+ * - The active delivery lookup of a delivery man uses {@code idx_delivery_delivery_man_status}.
+ * - A start time window uses {@code idx_delivery_start_time}.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:delivery-indexes;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=update"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+public class DeliveryRepositoryIndexTest {
+
+    private static final int DELIVERY_MEN = 20;
+    private static final int DELIVERIES = 2000;
+    private static final Instant NOW = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long deliveryManId;
+
+    @BeforeEach
+    public void setUp() {
+        List<Long> deliveryMen = new ArrayList<>();
+        for ( int i = 0; i < DELIVERY_MEN; i++ ) {
+            jdbcTemplate.update("INSERT INTO person (name, email, role) VALUES (?, ?, 'DELIVERY_MAN')",
+                    "Delivery Man " + i, "delivery.man." + i + "@example.com");
+            deliveryMen.add(jdbcTemplate.queryForObject("SELECT MAX(id) FROM person", Long.class));
+        }
+        deliveryManId = deliveryMen.get(0);
+
+        List<Object[]> deliveries = new ArrayList<>();
+        for ( int i = 0; i < DELIVERIES; i++ ) {
+            Long courier = deliveryMen.get(i % DELIVERY_MEN);
+            boolean active = i >= DELIVERIES - DELIVERY_MEN;
+            Instant startTime = NOW.minus(DELIVERIES - i, ChronoUnit.HOURS);
+            deliveries.add(new Object[]{courier, courier, Timestamp.from(startTime),
+                    active ? null : Timestamp.from(startTime.plus(30, ChronoUnit.MINUTES)),
+                    active ? "ACTIVE" : "COMPLETED", 5.0});
+        }
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO delivery (delivery_man_id, customer_id, start_time, end_time, status, commission)
+                VALUES (?, ?, ?, ?, ?, ?)""", deliveries);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    public void testOverdueScan_UsesStatusStartTimeIndex() {
+        String plan = explain("SELECT d.id FROM delivery d WHERE d.status = 'ACTIVE' AND d.start_time < ?",
+                Timestamp.from(NOW.minus(45, ChronoUnit.MINUTES)));
+
+        assertUsesIndex(plan, "idx_delivery_status_start_time");
+    }
+
+    @Test
+    public void testActiveDeliveryOfDeliveryMan_UsesDeliveryManStatusIndex() {
+        String plan = explain("SELECT 1 FROM delivery d WHERE d.delivery_man_id = ? AND d.status = 'ACTIVE'",
+                deliveryManId);
+
+        assertUsesIndex(plan, "idx_delivery_delivery_man_status");
+    }
+
+    @Test
+    public void testStartTimeWindow_UsesStartTimeIndex() {
+        String plan = explain("SELECT d.delivery_man_id, d.commission FROM delivery d WHERE d.start_time >= ? AND d.start_time <= ?",
+                Timestamp.from(NOW.minus(7, ChronoUnit.DAYS)), Timestamp.from(NOW));
+
+        assertUsesIndex(plan, "idx_delivery_start_time");
+    }
+
+    private String explain(String sql, Object... args) {
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class, args);
+    }
+
+    private static void assertUsesIndex(String plan, String indexName) {
+        assertTrue(plan.toLowerCase().contains(indexName), () -> "Expected " + indexName + " in plan: " + plan);
+    }
+}
@@ -0,0 +1,128 @@
+package com.bayzdelivery.repositories;
+
+import com.bayzdelivery.dto.KeysetPage;
+import com.bayzdelivery.dto.OrderResponse;
+import com.bayzdelivery.service.OrdersService;
+import com.bayzdelivery.service.OrdersServiceImpl;
+import com.bayzdelivery.service.ReferenceCacheImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Integration tests for the number of SQL statements the order reads issue.
+ * <p>
+ * 10,000 orders of 500 customers are inserted with plain JDBC, so no entity is cached in the persistence
+ * context, and the statements prepared by Hibernate are counted with its statistics. Listing the orders must
+ * not fetch their customers one by one: the statement count depends on the number of pages, never on the
+ * number of orders or customers.
+ * <p>
+ * Test Scenarios:
+ * - Streaming all 10,000 orders issues a single statement.
+ * - Paging through all 10,000 orders issues one statement per page.
+ * - Reading a single order issues a single statement, and none when it is read again from the reference cache.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:orders-listing;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=update",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({OrdersServiceImpl.class, ReferenceCacheImpl.class, SimpleMeterRegistry.class})
+public class OrdersListingStatementCountTest {
+
+    private static final int CUSTOMERS = 500;
+    private static final int ORDERS = 10_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OrdersService ordersService;
+
+    private Statistics statistics;
+    private long firstOrderId;
+
+    @BeforeEach
+    public void setUp() {
+        List<Object[]> customers = new ArrayList<>();
+        for ( int i = 0; i < CUSTOMERS; i++ ) {
+            customers.add(new Object[]{"Customer " + i, "customer." + i + "@example.com"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO person (name, email, role) VALUES (?, ?, 'CUSTOMER')", customers);
+        long firstCustomerId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM person", Long.class);
+
+        Timestamp orderTime = Timestamp.from(Instant.now());
+        List<Object[]> orders = new ArrayList<>();
+        for ( int i = 0; i < ORDERS; i++ ) {
+            orders.add(new Object[]{"Order " + i, 10.0 + i % 100, firstCustomerId + i % CUSTOMERS, orderTime});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO orders (id, order_name, order_price, customer_id, order_time) VALUES (NEXT VALUE FOR orders_seq, ?, ?, ?, ?)", orders);
+        firstOrderId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM orders", Long.class);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    public void testStreamAll_IssuesOneStatement() {
+        AtomicInteger streamed = new AtomicInteger();
+
+        ordersService.streamAll(order -> streamed.incrementAndGet());
+
+        assertEquals(ORDERS, streamed.get());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void testGetPage_IssuesOneStatementPerPage() {
+        int pages = 0;
+        int listed = 0;
+        String after = null;
+        do {
+            KeysetPage<OrderResponse> page = ordersService.getPage(after, 1000);
+            listed += page.items().size();
+            after = page.continuationToken();
+            pages++;
+        } while ( after != null );
+
+        assertEquals(ORDERS, listed);
+        assertEquals(pages, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    public void testFindById_IssuesOneStatement() {
+        OrderResponse order = ordersService.findById(firstOrderId);
+
+        assertEquals("Customer 0", order.customer());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        assertEquals(order, ordersService.findById(firstOrderId));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+}
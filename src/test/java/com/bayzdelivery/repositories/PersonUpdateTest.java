@@ -0,0 +1,75 @@
+package com.bayzdelivery.repositories;
+
+import com.bayzdelivery.dto.PersonRegisterResponse;
+import com.bayzdelivery.model.Person;
+import com.bayzdelivery.service.PersonService;
+import com.bayzdelivery.service.PersonServiceImpl;
+import com.bayzdelivery.service.ReferenceCacheImpl;
+import com.bayzdelivery.utils.PersonRole;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for updating a registered person through the {@code PersonService}.
+ * <p>
+ * The tests run without a surrounding transaction, so every save commits on its own as it does for a request,
+ * and the row version of the person is incremented by each update.
+ * <p>
+ * Test Scenarios:
+ * - Updating the same person twice in a row with a body that carries no version, as sent by clients.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:person-update;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=update"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PersonServiceImpl.class, ReferenceCacheImpl.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PersonUpdateTest {
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM person");
+    }
+
+    @Test
+    public void testSave_UpdatesSamePersonTwice() {
+        Long id = personService.save(person(null, "John Doe")).id();
+
+        personService.save(person(id, "Jane Doe"));
+        PersonRegisterResponse response = personService.save(person(id, "Jane Roe"));
+
+        assertEquals("Jane Roe", response.name());
+        assertEquals("Jane Roe", personService.findById(id).name());
+        assertEquals(2L, personService.findVersion(id).orElseThrow());
+    }
+
+    private static Person person(Long id, String name) {
+        Person person = new Person();
+        person.setId(id);
+        person.setName(name);
+        person.setEmail("person@example.com");
+        person.setRegistrationNumber("12345");
+        person.setRole(PersonRole.CUSTOMER);
+        return person;
+    }
+}
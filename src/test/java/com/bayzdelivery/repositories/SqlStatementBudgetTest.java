@@ -0,0 +1,116 @@
+package com.bayzdelivery.repositories;
+
+import com.bayzdelivery.config.SqlBudget;
+import com.bayzdelivery.config.SqlStatsConfig;
+import com.bayzdelivery.controller.OrdersController;
+import com.bayzdelivery.dto.KeysetPage;
+import com.bayzdelivery.dto.OrderResponse;
+import com.bayzdelivery.service.OrdersService;
+import com.bayzdelivery.service.OrdersServiceImpl;
+import com.bayzdelivery.service.ReferenceCacheImpl;
+import com.bayzdelivery.utils.SqlStatementStats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.lang.reflect.Method;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for the {@code @SqlBudget} of the order endpoints, against the statements counted by the
+ * {@code SqlCountingDataSource}.
+ * <p>
+ * 1,000 orders of 100 customers are inserted with plain JDBC. The service calls of each endpoint are run with the
+ * statement counters of a request and must stay within the budget declared on the controller method, whatever the
+ * number of orders and customers read.
+ * <p>
+ * Test Scenarios:
+ * - Counting the statements and the rows read through the wrapped data source.
+ * - Reading a page of orders within the budget of `getAllOrders`.
+ * - Reading a single order with its version within the budget of `getOrderById`.
+ */
+@DataJpaTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sql-budget;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=update"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SqlStatsConfig.class, OrdersServiceImpl.class, ReferenceCacheImpl.class, SimpleMeterRegistry.class})
+public class SqlStatementBudgetTest {
+
+    private static final int CUSTOMERS = 100;
+    private static final int ORDERS = 1_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private OrdersService ordersService;
+
+    private long firstOrderId;
+    private SqlStatementStats stats;
+
+    @BeforeEach
+    public void setUp() {
+        List<Object[]> customers = new ArrayList<>();
+        for ( int i = 0; i < CUSTOMERS; i++ ) {
+            customers.add(new Object[]{"Customer " + i, "budget." + i + "@example.com"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO person (name, email, role) VALUES (?, ?, 'CUSTOMER')", customers);
+        long firstCustomerId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM person", Long.class);
+
+        Timestamp orderTime = Timestamp.from(Instant.now());
+        List<Object[]> orders = new ArrayList<>();
+        for ( int i = 0; i < ORDERS; i++ ) {
+            orders.add(new Object[]{"Order " + i, 10.0 + i % 100, firstCustomerId + i % CUSTOMERS, orderTime});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO orders (id, order_name, order_price, customer_id, order_time) VALUES (NEXT VALUE FOR orders_seq, ?, ?, ?, ?)", orders);
+        firstOrderId = jdbcTemplate.queryForObject("SELECT MIN(id) FROM orders", Long.class);
+
+        stats = SqlStatementStats.begin();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        SqlStatementStats.clear();
+    }
+
+    @Test
+    public void testGetAllOrders_WithinBudget() throws Exception {
+        KeysetPage<OrderResponse> page = ordersService.getPage(null, 500);
+
+        assertEquals(500, page.items().size());
+        assertTrue(stats.rows() > 500);
+        assertTrue(stats.nanos() > 0);
+        assertWithinBudget(OrdersController.class.getMethod("getAllOrders", String.class, Integer.class));
+    }
+
+    @Test
+    public void testGetOrderById_WithinBudget() throws Exception {
+        assertTrue(ordersService.findVersion(firstOrderId).orElseThrow().matches("0-\\d+-0"));
+        assertEquals("Customer 0", ordersService.findById(firstOrderId).customer());
+
+        assertEquals(2, stats.statements());
+        assertWithinBudget(OrdersController.class.getMethod("getOrderById", Long.class, String.class));
+    }
+
+    private void assertWithinBudget(Method endpoint) {
+        SqlBudget budget = endpoint.getAnnotation(SqlBudget.class);
+        assertNotNull(budget, endpoint.getName() + " declares no @SqlBudget");
+        assertTrue(stats.statements() <= budget.value(),
+                endpoint.getName() + " issued " + stats.statements() + " statements, over its budget of " + budget.value());
+    }
+}
@@ -1,20 +1,24 @@
 package com.bayzdelivery.service;
 
-import com.bayzdelivery.model.Delivery;
+import com.bayzdelivery.dto.OverdueDelivery;
+import com.bayzdelivery.jobs.DelayedDeliveryNotifier;
 import com.bayzdelivery.repositories.DeliveryRepository;
-import com.bayzdelivery.utils.DeliveryStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -24,10 +28,11 @@ import static org.mockito.Mockito.*;
  * <p>
  * The class contains unit tests for the following:
  * - Handling of overdue deliveries, including scenarios with no overdue deliveries and multiple overdue deliveries.
- * - Notifying customer support for specific delivery instances.
+ * - Claiming newly overdue deliveries in batches of the configured size.
+ * - Recording the scan duration and the rows claimed.
+ * - Handing overdue deliveries to the DelayedDeliveryNotifier.
  * - Behavior of the service when the overdue threshold is set to zero or negative values.
  * - Handling repository exceptions during delivery checks.
- * - Scenarios involving no active deliveries, mixed delivery statuses, and deliveries with future start times.
  * <p>
  * Each test case uses mocking to simulate different states and interactions with the DeliveryRepository
  * and verifies that the methods behave as expected.
@@ -39,163 +44,148 @@ public class DeliveryCheckServiceImplTest {
     @Mock
     private DeliveryRepository deliveryRepository;
 
-    @InjectMocks
+    @Mock
+    private DelayedDeliveryNotifier delayedDeliveryNotifier;
+
+    private SimpleMeterRegistry meterRegistry;
+
     private DeliveryCheckServiceImpl deliveryCheckService;
 
     @BeforeEach
     public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        deliveryCheckService = new DeliveryCheckServiceImpl(deliveryRepository, delayedDeliveryNotifier, meterRegistry);
         // Set the overdueThresholdMinutes value using ReflectionTestUtils
         ReflectionTestUtils.setField(deliveryCheckService, "overdueThresholdMinutes", 45);
+        ReflectionTestUtils.setField(deliveryCheckService, "batchSize", 2);
     }
 
     @Test
     public void testCheckDelivery_NoOverdueDeliveries() {
-        when(deliveryRepository.findByStatusAndStartTimeBefore(eq(DeliveryStatus.ACTIVE), any(Instant.class))).thenReturn(Collections.emptyList());
+        when(deliveryRepository.claimOverdueDeliveries(any(Instant.class), any(Instant.class), eq(2)))
+                .thenReturn(Collections.emptyList());
         deliveryCheckService.checkDelivery();
-        verify(deliveryRepository, times(1)).findByStatusAndStartTimeBefore(eq(DeliveryStatus.ACTIVE), any(Instant.class));
+        verify(deliveryRepository, times(1)).claimOverdueDeliveries(any(Instant.class), any(Instant.class), eq(2));
         verifyNoMoreInteractions(deliveryRepository);
+        verifyNoInteractions(delayedDeliveryNotifier);
+        assertEquals(1, meterRegistry.get(DeliveryCheckServiceImpl.SCAN_TIMER).timer().count());
+        assertEquals(0.0, meterRegistry.get(DeliveryCheckServiceImpl.ROWS_COUNTER).counter().count());
     }
 
     @Test
     public void testCheckDelivery_WithOverdueDeliveries() {
-
-        Delivery overdueDelivery1 = new Delivery();
-        overdueDelivery1.setId(1L);
-        overdueDelivery1.setStartTime(Instant.now().minusSeconds(60 * 60)); // 1 hour ago
-
-        Delivery overdueDelivery2 = new Delivery();
-        overdueDelivery2.setId(2L);
-        overdueDelivery2.setStartTime(Instant.now().minusSeconds(60 * 90)); // 1.5 hours ago
-
-        List<Delivery> overdueDeliveries = List.of(overdueDelivery1, overdueDelivery2);
-
-        when(deliveryRepository.findByStatusAndStartTimeBefore(eq(DeliveryStatus.ACTIVE), any(Instant.class)))
-                .thenReturn(overdueDeliveries);
+        when(deliveryRepository.claimOverdueDeliveries(any(Instant.class), any(Instant.class), eq(2)))
+                .thenReturn(List.<Object[]>of(row(1L, 60))); // 1 hour ago
 
         deliveryCheckService.checkDelivery();
 
-        verify(deliveryRepository, times(1))
-                .findByStatusAndStartTimeBefore(eq(DeliveryStatus.ACTIVE), any(Instant.class));
+        verify(deliveryRepository, times(1)).claimOverdueDeliveries(any(Instant.class), any(Instant.class), eq(2));
         verifyNoMoreInteractions(deliveryRepository);
+        ArgumentCaptor<OverdueDelivery> captor = ArgumentCaptor.forClass(OverdueDelivery.class);
+        verify(delayedDeliveryNotifier).notifyCustomerSupport(captor.capture());
+        assertEquals(1L, captor.getValue().id());
+        assertEquals(101L, captor.getValue().deliveryManId());
+        assertEquals(1.0, meterRegistry.get(DeliveryCheckServiceImpl.ROWS_COUNTER).counter().count());
     }
 
     @Test
-    public void testNotifyCustomerSupport() {
-
-        Delivery delivery = new Delivery();
-        delivery.setId(1L);
-        delivery.setStartTime(Instant.now());
+    public void testCheckDelivery_ClaimsUntilBatchIsNotFull() {
+        when(deliveryRepository.claimOverdueDeliveries(any(Instant.class), any(Instant.class), eq(2)))
+                .thenReturn(List.of(row(1L, 90), row(4L, 80)))
+                .thenReturn(List.of(row(7L, 70), row(9L, 60)))
+                .thenReturn(List.<Object[]>of(row(12L, 50)));
 
-        deliveryCheckService.notifyCustomerSupport(delivery);
+        deliveryCheckService.checkDelivery();
 
+        verify(deliveryRepository, times(3)).claimOverdueDeliveries(any(Instant.class), any(Instant.class), eq(2));
+        verifyNoMoreInteractions(deliveryRepository);
+        verify(delayedDeliveryNotifier, times(5)).notifyCustomerSupport(any(OverdueDelivery.class));
+        assertEquals(5.0, meterRegistry.get(DeliveryCheckServiceImpl.ROWS_COUNTER).counter().count());
     }
 
     @Test
-    public void testCheckDelivery_ZeroOverdueThreshold() {
-
-        ReflectionTestUtils.setField(deliveryCheckService, "overdueThresholdMinutes", 0); // Set threshold to 0
-        when(deliveryRepository.findByStatusAndStartTimeBefore(eq(DeliveryStatus.ACTIVE), any(Instant.class)))
-                .thenReturn(Collections.emptyList());
+    public void testCheckDelivery_StopsWhenQueueIsFull() {
+        when(deliveryRepository.claimOverdueDeliveries(any(Instant.class), any(Instant.class), eq(2)))
+                .thenReturn(List.of(row(1L, 90), row(4L, 80)));
+        when(delayedDeliveryNotifier.notifyCustomerSupport(any(OverdueDelivery.class))).thenReturn(false);
+        when(delayedDeliveryNotifier.isFull()).thenReturn(true);
 
         deliveryCheckService.checkDelivery();
 
-        verify(deliveryRepository, times(1))
-                .findByStatusAndStartTimeBefore(eq(DeliveryStatus.ACTIVE), any(Instant.class));
+        verify(deliveryRepository, times(1)).claimOverdueDeliveries(any(Instant.class), any(Instant.class), eq(2));
+        verify(deliveryRepository).releaseOverdueNotifications(List.of(4L));
         verifyNoMoreInteractions(deliveryRepository);
+        verify(delayedDeliveryNotifier, times(1)).notifyCustomerSupport(any(OverdueDelivery.class));
     }
 
     @Test
-    public void testCheckDelivery_NegativeOverdueThreshold() {
-        ReflectionTestUtils.setField(deliveryCheckService, "overdueThresholdMinutes", -10); // Set threshold to -10
-        when(deliveryRepository.findByStatusAndStartTimeBefore(eq(DeliveryStatus.ACTIVE), any(Instant.class)))
+    public void testCheckDelivery_UsesOverdueThreshold() {
+        when(deliveryRepository.claimOverdueDeliveries(any(Instant.class), any(Instant.class), eq(2)))
                 .thenReturn(Collections.emptyList());
+        Instant before = Instant.now();
 
         deliveryCheckService.checkDelivery();
 
-        verify(deliveryRepository, times(1))
-                .findByStatusAndStartTimeBefore(eq(DeliveryStatus.ACTIVE), any(Instant.class));
-        verifyNoMoreInteractions(deliveryRepository);
-    }
-
-    @Test
-    public void testCheckDelivery_RepositoryThrowsException() {
-        when(deliveryRepository.findByStatusAndStartTimeBefore(eq(DeliveryStatus.ACTIVE), any(Instant.class))).thenThrow(new RuntimeException("Database connection failed"));
-        deliveryCheckService.checkDelivery();
-        verify(deliveryRepository, times(1)).findByStatusAndStartTimeBefore(eq(DeliveryStatus.ACTIVE), any(Instant.class));
-        verifyNoMoreInteractions(deliveryRepository);
+        ArgumentCaptor<Instant> threshold = ArgumentCaptor.forClass(Instant.class);
+        ArgumentCaptor<Instant> notifiedAt = ArgumentCaptor.forClass(Instant.class);
+        verify(deliveryRepository).claimOverdueDeliveries(threshold.capture(), notifiedAt.capture(), eq(2));
+        assertTrue(!threshold.getValue().isBefore(before.minusSeconds(45 * 60)));
+        assertTrue(threshold.getValue().isBefore(notifiedAt.getValue()));
     }
 
     @Test
-    public void testCheckDelivery_MultipleOverdueDeliveries() {
+    public void testNotifyCustomerSupport() {
+        OverdueDelivery delivery = new OverdueDelivery(1L, 2L, Instant.now());
+        when(delayedDeliveryNotifier.notifyCustomerSupport(delivery)).thenReturn(true);
 
-        Delivery overdueDelivery1 = new Delivery();
-        overdueDelivery1.setId(1L);
-        overdueDelivery1.setStartTime(Instant.now().minusSeconds(60 * 60)); // 1 hour ago
+        deliveryCheckService.notifyCustomerSupport(delivery);
 
-        Delivery overdueDelivery2 = new Delivery();
-        overdueDelivery2.setId(2L);
-        overdueDelivery2.setStartTime(Instant.now().minusSeconds(60 * 90)); // 1.5 hours ago
+        verify(delayedDeliveryNotifier).notifyCustomerSupport(delivery);
+    }
 
-        List<Delivery> overdueDeliveries = List.of(overdueDelivery1, overdueDelivery2);
+    @Test
+    public void testCheckDelivery_ZeroOverdueThreshold() {
 
-        when(deliveryRepository.findByStatusAndStartTimeBefore(eq(DeliveryStatus.ACTIVE), any(Instant.class)))
-                .thenReturn(overdueDeliveries);
+        ReflectionTestUtils.setField(deliveryCheckService, "overdueThresholdMinutes", 0); // Set threshold to 0
+        when(deliveryRepository.claimOverdueDeliveries(any(Instant.class), any(Instant.class), eq(2)))
+                .thenReturn(Collections.emptyList());
 
         deliveryCheckService.checkDelivery();
 
-        verify(deliveryRepository, times(1))
-                .findByStatusAndStartTimeBefore(eq(DeliveryStatus.ACTIVE), any(Instant.class));
+        verify(deliveryRepository, times(1)).claimOverdueDeliveries(any(Instant.class), any(Instant.class), eq(2));
         verifyNoMoreInteractions(deliveryRepository);
     }
 
     @Test
-    public void testNotifyCustomerSupport_NullDelivery() {
-        deliveryCheckService.notifyCustomerSupport(null);
-    }
-
-    @Test
-    public void testCheckDelivery_NoActiveDeliveries() {
-        when(deliveryRepository.findByStatusAndStartTimeBefore(eq(DeliveryStatus.ACTIVE), any(Instant.class)))
+    public void testCheckDelivery_NegativeOverdueThreshold() {
+        ReflectionTestUtils.setField(deliveryCheckService, "overdueThresholdMinutes", -10); // Set threshold to -10
+        when(deliveryRepository.claimOverdueDeliveries(any(Instant.class), any(Instant.class), eq(2)))
                 .thenReturn(Collections.emptyList());
+
         deliveryCheckService.checkDelivery();
-        verify(deliveryRepository, times(1))
-                .findByStatusAndStartTimeBefore(eq(DeliveryStatus.ACTIVE), any(Instant.class));
+
+        verify(deliveryRepository, times(1)).claimOverdueDeliveries(any(Instant.class), any(Instant.class), eq(2));
         verifyNoMoreInteractions(deliveryRepository);
     }
 
     @Test
-    public void testCheckDelivery_MixedStatusDeliveries() {
-        Delivery activeDelivery = new Delivery();
-        activeDelivery.setId(1L);
-        activeDelivery.setStatus(DeliveryStatus.ACTIVE);
-        activeDelivery.setStartTime(Instant.now().minusSeconds(60 * 60)); // 1 hour ago
-
-        Delivery completedDelivery = new Delivery();
-        completedDelivery.setId(2L);
-        completedDelivery.setStatus(DeliveryStatus.COMPLETED);
-        completedDelivery.setStartTime(Instant.now().minusSeconds(60 * 90)); // 1.5 hours ago
-
-        List<Delivery> deliveries = List.of(activeDelivery, completedDelivery);
-
-        when(deliveryRepository.findByStatusAndStartTimeBefore(eq(DeliveryStatus.ACTIVE), any(Instant.class)))
-                .thenReturn(List.of(activeDelivery));
+    public void testCheckDelivery_RepositoryThrowsException() {
+        when(deliveryRepository.claimOverdueDeliveries(any(Instant.class), any(Instant.class), eq(2)))
+                .thenThrow(new RuntimeException("Database connection failed"));
         deliveryCheckService.checkDelivery();
-        verify(deliveryRepository, times(1))
-                .findByStatusAndStartTimeBefore(eq(DeliveryStatus.ACTIVE), any(Instant.class));
+        verify(deliveryRepository, times(1)).claimOverdueDeliveries(any(Instant.class), any(Instant.class), eq(2));
         verifyNoMoreInteractions(deliveryRepository);
+        verifyNoInteractions(delayedDeliveryNotifier);
+        assertEquals(1, meterRegistry.get(DeliveryCheckServiceImpl.SCAN_TIMER).timer().count());
     }
 
     @Test
-    public void testCheckDelivery_FutureStartTime() {
-        Delivery futureDelivery = new Delivery();
-        futureDelivery.setId(1L);
-        futureDelivery.setStartTime(Instant.now().plusSeconds(60 * 60)); // 1 hour in the future
+    public void testNotifyCustomerSupport_NullDelivery() {
+        deliveryCheckService.notifyCustomerSupport(null);
+        verifyNoInteractions(delayedDeliveryNotifier);
+    }
 
-        when(deliveryRepository.findByStatusAndStartTimeBefore(eq(DeliveryStatus.ACTIVE), any(Instant.class)))
-                .thenReturn(Collections.emptyList());
-        deliveryCheckService.checkDelivery();
-        verify(deliveryRepository, times(1))
-                .findByStatusAndStartTimeBefore(eq(DeliveryStatus.ACTIVE), any(Instant.class));
-        verifyNoMoreInteractions(deliveryRepository);
+    private static Object[] row(Long id, int startedMinutesAgo) {
+        return new Object[]{id, 100L + id, Timestamp.from(Instant.now().minusSeconds(60L * startedMinutesAgo))};
     }
 }
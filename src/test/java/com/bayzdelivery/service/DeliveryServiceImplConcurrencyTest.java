@@ -0,0 +1,144 @@
+package com.bayzdelivery.service;
+
+import com.bayzdelivery.model.Delivery;
+import com.bayzdelivery.model.Orders;
+import com.bayzdelivery.model.Person;
+import com.bayzdelivery.repositories.DeliveryRepository;
+import com.bayzdelivery.repositories.OrdersRepository;
+import com.bayzdelivery.repositories.PersonRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Multi-threaded stress test for the "one active delivery per delivery man" rule of
+ * {@code DeliveryServiceImpl.createDelivery}.
+ * <p>
+ * The repository is replaced by an in-memory stand-in whose guarded insert is deliberately not atomic:
+ * it checks for an ACTIVE delivery, yields, and only then registers the new one. Without the striped lock
+ * of the service, concurrent pickups of the same delivery man slip through that window. The test hammers
+ * createDelivery from many threads for a handful of delivery men, completes deliveries while others are
+ * being picked up, and asserts that no delivery man is ever seen with more than one ACTIVE delivery.
+ */
+@ExtendWith(MockitoExtension.class)
+public class DeliveryServiceImplConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int DELIVERY_MEN = 8;
+    private static final int PICKUPS_PER_THREAD = 250;
+
+    @Mock
+    private DeliveryRepository deliveryRepository;
+
+    @Mock
+    private OrdersRepository ordersRepository;
+
+    @Mock
+    private PersonRepository personRepository;
+
+    @Mock(stubOnly = true)
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private DeliveryServiceImpl deliveryService;
+
+    private final Map<Long, AtomicInteger> activeByDeliveryMan = new ConcurrentHashMap<>();
+    private final AtomicInteger maxActiveSeen = new AtomicInteger();
+    private final AtomicLong deliveryIds = new AtomicLong();
+
+    @BeforeEach
+    public void setUp() {
+        for ( long deliveryManId = 1; deliveryManId <= DELIVERY_MEN; deliveryManId++ ) {
+            activeByDeliveryMan.put(deliveryManId, new AtomicInteger());
+        }
+        lenient().when(deliveryRepository.insertActiveDelivery(anyLong(), anyLong(), any(), any(), any(), anyDouble(), anyDouble()))
+                .thenAnswer(invocation -> {
+                    AtomicInteger active = activeByDeliveryMan.get(invocation.<Long>getArgument(1));
+                    if ( active.get() > 0 ) {
+                        return Optional.empty();
+                    }
+                    // widen the check-then-insert window
+                    Thread.yield();
+                    int nowActive = active.incrementAndGet();
+                    maxActiveSeen.accumulateAndGet(nowActive, Math::max);
+                    return Optional.of(deliveryIds.incrementAndGet());
+                });
+        lenient().when(ordersRepository.existsById(anyLong())).thenReturn(true);
+        lenient().when(personRepository.existsById(anyLong())).thenReturn(true);
+    }
+
+    @Test
+    public void testCreateDelivery_NeverMoreThanOneActiveDeliveryPerDeliveryMan() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for ( int thread = 0; thread < THREADS; thread++ ) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for ( int i = 0; i < PICKUPS_PER_THREAD; i++ ) {
+                        long deliveryManId = ThreadLocalRandom.current().nextLong(1, DELIVERY_MEN + 1);
+                        try {
+                            deliveryService.createDelivery(delivery(deliveryManId));
+                            accepted.incrementAndGet();
+                            // the delivery man drives the order and completes it
+                            Thread.yield();
+                            activeByDeliveryMan.get(deliveryManId).decrementAndGet();
+                        } catch ( IllegalArgumentException e ) {
+                            assertEquals("Delivery man is already delivering an order", e.getMessage());
+                            rejected.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for ( Future<?> future : futures ) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(THREADS * PICKUPS_PER_THREAD, accepted.get() + rejected.get());
+        assertTrue(accepted.get() > 0);
+        assertEquals(1, maxActiveSeen.get(), "A delivery man had more than one ACTIVE delivery");
+    }
+
+    private static Delivery delivery(long deliveryManId) {
+        Orders order = new Orders();
+        order.setId(deliveryManId);
+        Person deliveryMan = new Person();
+        deliveryMan.setId(deliveryManId);
+        Delivery delivery = new Delivery();
+        delivery.setOrders(order);
+        delivery.setDeliveryMan(deliveryMan);
+        delivery.setStartTime(Instant.now());
+        delivery.setDistance(5.0);
+        return delivery;
+    }
+}
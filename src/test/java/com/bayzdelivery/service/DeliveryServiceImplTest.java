@@ -1,28 +1,44 @@
 package com.bayzdelivery.service;
 
+import com.bayzdelivery.dto.BatchItemResult;
+import com.bayzdelivery.dto.BatchResponse;
+import com.bayzdelivery.dto.DeliveryCompletion;
+import com.bayzdelivery.dto.DeliveryManCommission;
 import com.bayzdelivery.dto.DeliveryResponse;
 import com.bayzdelivery.dto.TopDeliveryMenResponse;
+import com.bayzdelivery.events.DeliveryCompletedEvent;
+import com.bayzdelivery.events.DeliveryStartedEvent;
 import com.bayzdelivery.exceptions.DeliveryNotFoundException;
 import com.bayzdelivery.model.Delivery;
 import com.bayzdelivery.model.Orders;
 import com.bayzdelivery.model.Person;
+import com.bayzdelivery.repositories.CommissionLedgerRepository;
 import com.bayzdelivery.repositories.DeliveryRepository;
 import com.bayzdelivery.repositories.OrdersRepository;
 import com.bayzdelivery.repositories.PersonRepository;
 import com.bayzdelivery.utils.DeliveryStatus;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.sql.SQLException;
+import java.sql.Timestamp;
 import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -33,17 +49,20 @@ import static org.mockito.Mockito.*;
  * <p>
  * The following scenarios are covered in this test class:
  * <p>
- * 1. Creating a delivery with all valid inputs.
+ * 1. Creating a delivery with all valid inputs through a single guarded insert.
  * 2. Handling the case where the associated order does not exist.
  * 3. Handling the case where the delivery person does not exist.
  * 4. Handling the case where the delivery person already has an active delivery.
- * 5. Successfully completing a delivery.
+ * 5. Successfully completing a delivery with a single conditional update.
  * 6. Handling the case where a delivery to complete is not found.
- * 7. Handling the case where a delivery to complete is already in a completed state.
- * 8. Retrieving a delivery by its ID.
- * 9. Handling the case where the delivery to retrieve by ID is not found.
- * 10. Retrieving the top-performing delivery personnel by commission within a time range.
- * 11. Handling invalid time ranges when retrieving top delivery personnel.
+ * 7. Handling the case where a delivery to complete is already in a completed state or completed concurrently.
+ * 8. Completing a batch of deliveries with a single conditional update and a result per completion, where a
+ * delivery completed concurrently only fails that completion.
+ * 9. Rejecting a batch of completions larger than the configured maximum.
+ * 10. Retrieving a delivery by its ID.
+ * 11. Handling the case where the delivery to retrieve by ID is not found.
+ * 12. Retrieving the top-performing delivery personnel by commission within a time range from the commission ledger.
+ * 13. Handling invalid time ranges when retrieving top delivery personnel.
  * <p>
  * Dependencies are mocked using Mockito, and assertions are used to verify
  * expected behavior under different test scenarios.
@@ -59,6 +78,15 @@ public class DeliveryServiceImplTest {
     @Mock
     private PersonRepository personRepository;
 
+    @Mock
+    private CommissionLedgerRepository commissionLedgerRepository;
+
+    @Mock
+    private LeaderboardService leaderboardService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private DeliveryServiceImpl deliveryService;
     private Delivery delivery;
@@ -82,30 +110,47 @@ public class DeliveryServiceImplTest {
         delivery.setStartTime(Instant.now());
         delivery.setStatus(DeliveryStatus.ACTIVE);
         delivery.setDistance(10.0);
+        delivery.setPrice(order.getOrderPrice());
     }
 
     @Test
     public void testCreateDelivery_Success() {
-        when(ordersRepository.existsById(eq(order.getId()))).thenReturn(true);
-        when(personRepository.existsById(eq(deliveryMan.getId()))).thenReturn(true);
-        when(deliveryRepository.countByDeliveryManIdAndStatus(eq(deliveryMan.getId()), any(DeliveryStatus.class)))
-                .thenReturn(0);
-        when(deliveryRepository.save(delivery)).thenReturn(delivery);
+        when(deliveryRepository.insertActiveDelivery(eq(order.getId()), eq(deliveryMan.getId()), isNull(),
+                eq(delivery.getStartTime()), eq(delivery.getDistance()), anyDouble(), anyDouble()))
+                .thenReturn(Optional.of(delivery.getId()));
         DeliveryResponse response = deliveryService.createDelivery(delivery);
 
         assertNotNull(response);
         assertEquals(delivery.getId(), response.id());
         assertEquals(delivery.getDeliveryMan().getId(), response.deliveryManId());
-        assertEquals(delivery.getStatus().toString(), response.status());
+        assertEquals(DeliveryStatus.ACTIVE.toString(), response.status());
+
+        verify(deliveryRepository, times(1)).insertActiveDelivery(eq(order.getId()), eq(deliveryMan.getId()), isNull(),
+                eq(delivery.getStartTime()), eq(delivery.getDistance()), eq(0.05), eq(0.5));
+        verifyNoInteractions(ordersRepository, personRepository);
+        verifyNoMoreInteractions(deliveryRepository);
+        verify(eventPublisher, times(1)).publishEvent(
+                new DeliveryStartedEvent(delivery.getId(), deliveryMan.getId(), delivery.getStartTime()));
+    }
 
-        verify(ordersRepository, times(1)).existsById(eq(order.getId()));
-        verify(personRepository, times(1)).existsById(eq(deliveryMan.getId()));
-        verify(deliveryRepository, times(1)).countByDeliveryManIdAndStatus(eq(deliveryMan.getId()), any(DeliveryStatus.class));
-        verify(deliveryRepository, times(1)).save(delivery);
+    @Test
+    public void testCreateDelivery_UsesCustomerOfRequest() {
+        Person customer = new Person();
+        customer.setId(2L);
+        delivery.setCustomer(customer);
+        when(deliveryRepository.insertActiveDelivery(eq(order.getId()), eq(deliveryMan.getId()), eq(customer.getId()),
+                any(Instant.class), any(), anyDouble(), anyDouble()))
+                .thenReturn(Optional.of(delivery.getId()));
+
+        DeliveryResponse response = deliveryService.createDelivery(delivery);
+
+        assertEquals(delivery.getId(), response.id());
     }
 
     @Test
     public void testCreateDelivery_OrderDoesNotExist() {
+        when(deliveryRepository.insertActiveDelivery(anyLong(), anyLong(), any(), any(), any(), anyDouble(), anyDouble()))
+                .thenReturn(Optional.empty());
         when(ordersRepository.existsById(eq(order.getId()))).thenReturn(false);
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
             deliveryService.createDelivery(delivery);
@@ -114,12 +159,12 @@ public class DeliveryServiceImplTest {
 
         verify(ordersRepository, times(1)).existsById(eq(order.getId()));
         verify(personRepository, never()).existsById(anyLong());
-        verify(deliveryRepository, never()).countByDeliveryManIdAndStatus(anyLong(), any());
-        verify(deliveryRepository, never()).save(any());
     }
 
     @Test
     public void testCreateDelivery_DeliveryManDoesNotExist() {
+        when(deliveryRepository.insertActiveDelivery(anyLong(), anyLong(), any(), any(), any(), anyDouble(), anyDouble()))
+                .thenReturn(Optional.empty());
         when(ordersRepository.existsById(eq(order.getId()))).thenReturn(true);
         when(personRepository.existsById(eq(deliveryMan.getId()))).thenReturn(false);
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
@@ -129,107 +174,258 @@ public class DeliveryServiceImplTest {
 
         verify(ordersRepository, times(1)).existsById(eq(order.getId()));
         verify(personRepository, times(1)).existsById(eq(deliveryMan.getId()));
-        verify(deliveryRepository, never()).countByDeliveryManIdAndStatus(anyLong(), any());
-        verify(deliveryRepository, never()).save(any());
     }
 
     @Test
     public void testCreateDelivery_DeliveryManHasActiveDelivery() {
+        when(deliveryRepository.insertActiveDelivery(anyLong(), anyLong(), any(), any(), any(), anyDouble(), anyDouble()))
+                .thenReturn(Optional.empty());
         when(ordersRepository.existsById(eq(order.getId()))).thenReturn(true);
         when(personRepository.existsById(eq(deliveryMan.getId()))).thenReturn(true);
-        when(deliveryRepository.countByDeliveryManIdAndStatus(eq(deliveryMan.getId()), any(DeliveryStatus.class)))
-                .thenReturn(1);
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
             deliveryService.createDelivery(delivery);
         });
         assertEquals("Delivery man is already delivering an order", exception.getMessage());
 
-        verify(ordersRepository, times(1)).existsById(eq(order.getId()));
-        verify(personRepository, times(1)).existsById(eq(deliveryMan.getId()));
-        verify(deliveryRepository, times(1)).countByDeliveryManIdAndStatus(eq(deliveryMan.getId()), any(DeliveryStatus.class));
+        verify(deliveryRepository, times(1)).insertActiveDelivery(anyLong(), anyLong(), any(), any(), any(), anyDouble(), anyDouble());
         verify(deliveryRepository, never()).save(any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    public void testCreateDelivery_ConcurrentPickupRejectedByIndex() {
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("duplicate key",
+                new ConstraintViolationException("duplicate key", new SQLException(), "ux_delivery_active_delivery_man"));
+        when(deliveryRepository.insertActiveDelivery(anyLong(), anyLong(), any(), any(), any(), anyDouble(), anyDouble()))
+                .thenThrow(violation);
+        when(ordersRepository.existsById(eq(order.getId()))).thenReturn(true);
+        when(personRepository.existsById(eq(deliveryMan.getId()))).thenReturn(true);
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> {
+            deliveryService.createDelivery(delivery);
+        });
+        assertEquals("Delivery man is already delivering an order", exception.getMessage());
+    }
+
+    @Test
+    public void testCreateDelivery_OtherConstraintViolationIsRethrown() {
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("foreign key",
+                new ConstraintViolationException("foreign key", new SQLException(), "fk_address_person_customer"));
+        when(deliveryRepository.insertActiveDelivery(anyLong(), anyLong(), any(), any(), any(), anyDouble(), anyDouble()))
+                .thenThrow(violation);
+
+        assertThrows(DataIntegrityViolationException.class, () -> deliveryService.createDelivery(delivery));
+        verifyNoInteractions(ordersRepository, personRepository);
     }
 
     @Test
     public void testCompleteDelivery_Success() {
-        when(deliveryRepository.findById(eq(delivery.getId()))).thenReturn(Optional.of(delivery));
-        when(deliveryRepository.save(delivery)).thenReturn(delivery);
+        Instant endTime = delivery.getStartTime().plusSeconds(1200);
+        Object[] completed = {delivery.getId(), deliveryMan.getId(), deliveryMan.getName(),
+                Timestamp.from(delivery.getStartTime()), Timestamp.from(endTime), 12.5, 10.0};
+        when(deliveryRepository.completeActiveDelivery(eq(delivery.getId()), any(Instant.class), eq(15.0),
+                eq(DeliveryServiceImpl.ORDER_PRICE_COMMISSION_RATE), eq(DeliveryServiceImpl.DISTANCE_COMMISSION_RATE)))
+                .thenReturn(List.<Object[]>of(completed));
         DeliveryResponse response = deliveryService.completeDelivery(15.0, delivery.getId());
         assertNotNull(response);
         assertEquals(delivery.getId(), response.id());
         assertEquals(DeliveryStatus.COMPLETED.toString(), response.status());
+        assertEquals(12.5, response.commission());
         assertNotNull(response.endTime());
 
-        verify(deliveryRepository, times(1)).findById(eq(delivery.getId()));
-        verify(deliveryRepository, times(1)).save(delivery);
+        verify(deliveryRepository, never()).findById(any());
+        verify(deliveryRepository, never()).save(any());
+        verifyNoInteractions(commissionLedgerRepository);
+        verify(eventPublisher, times(1)).publishEvent(new DeliveryCompletedEvent(delivery.getId(), deliveryMan.getId(),
+                deliveryMan.getName(), delivery.getStartTime(), endTime, 12.5));
     }
 
     @Test
     public void testCompleteDelivery_DeliveryNotFound() {
-        when(deliveryRepository.findById(eq(delivery.getId()))).thenReturn(Optional.empty());
+        when(deliveryRepository.completeActiveDelivery(eq(delivery.getId()), any(Instant.class), anyDouble(), anyDouble(), anyDouble()))
+                .thenReturn(List.of());
+        when(deliveryRepository.existsById(delivery.getId())).thenReturn(false);
         DeliveryNotFoundException exception = assertThrows(DeliveryNotFoundException.class, () -> {
             deliveryService.completeDelivery(15.0, delivery.getId());
         });
         assertEquals("Delivery not found", exception.getMessage());
 
-        verify(deliveryRepository, times(1)).findById(eq(delivery.getId()));
-        verify(deliveryRepository, never()).save(any());
+        verify(deliveryRepository, times(1)).existsById(delivery.getId());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     public void testCompleteDelivery_DeliveryAlreadyCompleted() {
-        delivery.setStatus(DeliveryStatus.COMPLETED);
-        when(deliveryRepository.findById(eq(delivery.getId()))).thenReturn(Optional.of(delivery));
+        when(deliveryRepository.completeActiveDelivery(eq(delivery.getId()), any(Instant.class), anyDouble(), anyDouble(), anyDouble()))
+                .thenReturn(List.of());
+        when(deliveryRepository.existsById(delivery.getId())).thenReturn(true);
 
         IllegalStateException exception = assertThrows(IllegalStateException.class, () -> {
             deliveryService.completeDelivery(15.0, delivery.getId());
         });
         assertEquals("Delivery is already completed", exception.getMessage());
 
-        verify(deliveryRepository, times(1)).findById(eq(delivery.getId()));
-        verify(deliveryRepository, never()).save(any());
+        verify(deliveryRepository, times(1)).existsById(delivery.getId());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    public void testCompleteDeliveries_ReportsEachCompletion() {
+        when(deliveryRepository.completeActiveDeliveries(aryEq(new Long[]{1L, 2L, 3L}), aryEq(new Double[]{15.0, 15.0, 15.0}),
+                any(Instant.class), eq(DeliveryServiceImpl.ORDER_PRICE_COMMISSION_RATE), eq(DeliveryServiceImpl.DISTANCE_COMMISSION_RATE)))
+                .thenReturn(List.<Object[]>of(completedRow(1L, 12.5)));
+        when(deliveryRepository.findIdsByIdIn(Set.of(2L, 3L))).thenReturn(List.of(2L));
+
+        BatchResponse response = deliveryService.completeDeliveries(List.of(
+                new DeliveryCompletion(1L, 15.0),
+                new DeliveryCompletion(2L, 15.0),
+                new DeliveryCompletion(3L, 15.0),
+                new DeliveryCompletion(1L, 15.0),
+                new DeliveryCompletion(null, 15.0),
+                new DeliveryCompletion(1L, null)));
+
+        assertEquals(1, response.succeeded());
+        assertEquals(5, response.failed());
+        assertEquals(BatchItemResult.succeeded(0, 1L), response.results().get(0));
+        assertEquals(BatchItemResult.failed(1, "Delivery is already completed"), response.results().get(1));
+        assertEquals(BatchItemResult.failed(2, "Delivery not found with ID: 3"), response.results().get(2));
+        assertEquals(BatchItemResult.failed(3, "Delivery is already completed"), response.results().get(3));
+        assertEquals(BatchItemResult.failed(4, "Delivery ID is required"), response.results().get(4));
+        assertEquals(BatchItemResult.failed(5, "Distance is required"), response.results().get(5));
+
+        verify(deliveryRepository, never()).saveAll(any());
+        verifyNoInteractions(commissionLedgerRepository);
+        verify(eventPublisher, times(1)).publishEvent(any(DeliveryCompletedEvent.class));
+    }
+
+    @Test
+    public void testCompleteDeliveries_ConcurrentCompletionFailsOnlyThatDelivery() {
+        // delivery 2 was completed by another request after the batch was sent
+        when(deliveryRepository.completeActiveDeliveries(aryEq(new Long[]{1L, 2L}), aryEq(new Double[]{15.0, 5.0}),
+                any(Instant.class), anyDouble(), anyDouble()))
+                .thenReturn(List.<Object[]>of(completedRow(1L, 12.5)));
+        when(deliveryRepository.findIdsByIdIn(Set.of(2L))).thenReturn(List.of(2L));
+
+        BatchResponse response = deliveryService.completeDeliveries(List.of(
+                new DeliveryCompletion(1L, 15.0),
+                new DeliveryCompletion(2L, 5.0)));
+
+        assertEquals(1, response.succeeded());
+        assertEquals(BatchItemResult.succeeded(0, 1L), response.results().get(0));
+        assertEquals(BatchItemResult.failed(1, "Delivery is already completed"), response.results().get(1));
+        verify(deliveryRepository, never()).completeActiveDelivery(any(), any(), anyDouble(), anyDouble(), anyDouble());
+        verify(eventPublisher, times(1)).publishEvent(any(DeliveryCompletedEvent.class));
+    }
+
+    @Test
+    public void testCompleteDeliveries_AllCompletedReadsNoIds() {
+        when(deliveryRepository.completeActiveDeliveries(any(), any(), any(Instant.class), anyDouble(), anyDouble()))
+                .thenReturn(List.of(completedRow(1L, 12.5), completedRow(2L, 7.5)));
+
+        BatchResponse response = deliveryService.completeDeliveries(List.of(
+                new DeliveryCompletion(1L, 15.0),
+                new DeliveryCompletion(2L, 5.0)));
+
+        assertEquals(2, response.succeeded());
+        assertEquals(0, response.failed());
+        verify(deliveryRepository, never()).findIdsByIdIn(any());
+        verify(eventPublisher, times(2)).publishEvent(any(DeliveryCompletedEvent.class));
+    }
+
+    @Test
+    public void testCompleteDeliveries_TooManyCompletions() {
+        ReflectionTestUtils.setField(deliveryService, "maxBatchSize", 1);
+
+        assertThrows(IllegalArgumentException.class, () -> deliveryService.completeDeliveries(List.of(
+                new DeliveryCompletion(1L, 15.0),
+                new DeliveryCompletion(2L, 15.0))));
+        verifyNoInteractions(deliveryRepository, commissionLedgerRepository, eventPublisher);
     }
 
     @Test
     public void testFindById_Success() {
-        when(deliveryRepository.findById(eq(delivery.getId()))).thenReturn(Optional.of(delivery));
+        when(deliveryRepository.findDeliveryResponseById(eq(delivery.getId())))
+                .thenReturn(Optional.of(new DeliveryResponse(delivery.getId(), delivery.getDeliveryMan().getId(),
+                        delivery.getStartTime(), delivery.getEndTime(), delivery.getStatus().toString(),
+                        delivery.getCommission(), delivery.getDistance())));
         DeliveryResponse response = deliveryService.findById(delivery.getId());
 
         assertNotNull(response);
         assertEquals(delivery.getId(), response.id());
         assertEquals(delivery.getDeliveryMan().getId(), response.deliveryManId());
 
-        verify(deliveryRepository, times(1)).findById(eq(delivery.getId()));
+        verify(deliveryRepository, times(1)).findDeliveryResponseById(eq(delivery.getId()));
     }
 
     @Test
     public void testFindById_DeliveryNotFound() {
-        when(deliveryRepository.findById(eq(delivery.getId()))).thenReturn(Optional.empty());
+        when(deliveryRepository.findDeliveryResponseById(eq(delivery.getId()))).thenReturn(Optional.empty());
         DeliveryNotFoundException exception = assertThrows(DeliveryNotFoundException.class, () -> {
             deliveryService.findById(delivery.getId());
         });
         assertEquals("Delivery not found with ID: " + delivery.getId(), exception.getMessage());
 
-        verify(deliveryRepository, times(1)).findById(eq(delivery.getId()));
+        verify(deliveryRepository, times(1)).findDeliveryResponseById(eq(delivery.getId()));
     }
 
     @Test
     public void testGetTopDeliveryMen_Success() {
-        LocalDateTime startTime = LocalDateTime.now().minusDays(1);
-        LocalDateTime endTime = LocalDateTime.now();
+        LocalDateTime startTime = LocalDateTime.of(2025, 3, 10, 8, 30);
+        LocalDateTime endTime = LocalDateTime.of(2025, 3, 11, 17, 15);
 
         List<Object[]> top3DeliveryMen = List.of(
-                new Object[]{1L, "John Doe", 100.0, 5L},
-                new Object[]{2L, "Jane Doe", 200.0, 10L}
+                new Object[]{2L, "Jane Doe", 200.0, 10L},
+                new Object[]{1L, "John Doe", 100.0, 5L}
         );
 
-        when(deliveryRepository.findTopDeliveryMenByCommission(startTime, endTime)).thenReturn(top3DeliveryMen);
+        when(commissionLedgerRepository.findTopDeliveryMen(startTime, endTime,
+                LocalDateTime.of(2025, 3, 10, 9, 0), LocalDateTime.of(2025, 3, 11, 17, 0), 3))
+                .thenReturn(top3DeliveryMen);
         TopDeliveryMenResponse response = deliveryService.getTopDeliveryMen(startTime, endTime);
         assertNotNull(response);
         assertEquals(2, response.topDeliveryMen().size());
+        assertEquals(2L, response.topDeliveryMen().get(0).deliveryManId());
         assertEquals(150.0, response.averageCommissionOfTop3());
+    }
 
-        verify(deliveryRepository, times(1)).findTopDeliveryMenByCommission(startTime, endTime);
+    @Test
+    public void testGetTopDeliveryMen_AnsweredFromMemory() {
+        LocalDateTime startTime = LocalDate.now().atStartOfDay();
+        LocalDateTime endTime = LocalDateTime.now();
+        when(leaderboardService.findTopDeliveryMen(startTime, endTime, 3)).thenReturn(Optional.of(List.of(
+                new DeliveryManCommission(1L, "John Doe", 30.0, 2L, 15.0),
+                new DeliveryManCommission(2L, "Jane Doe", 10.0, 1L, 10.0))));
+
+        TopDeliveryMenResponse response = deliveryService.getTopDeliveryMen(startTime, endTime);
+
+        assertEquals(2, response.topDeliveryMen().size());
+        assertEquals(20.0, response.averageCommissionOfTop3());
+        verifyNoInteractions(commissionLedgerRepository);
+    }
+
+    @Test
+    public void testGetTopDeliveryMen_WholeHoursReadFromLedger() {
+        LocalDateTime startTime = LocalDateTime.of(2025, 3, 10, 8, 0);
+        LocalDateTime endTime = LocalDateTime.of(2025, 3, 10, 12, 0);
+        when(commissionLedgerRepository.findTopDeliveryMen(any(), any(), any(), any(), anyInt())).thenReturn(List.of());
+
+        TopDeliveryMenResponse response = deliveryService.getTopDeliveryMen(startTime, endTime);
+
+        assertTrue(response.topDeliveryMen().isEmpty());
+        assertEquals(0.0, response.averageCommissionOfTop3());
+        verify(commissionLedgerRepository, times(1)).findTopDeliveryMen(startTime, endTime, startTime, endTime, 3);
+    }
+
+    @Test
+    public void testGetTopDeliveryMen_RangeWithinOneHour() {
+        LocalDateTime startTime = LocalDateTime.of(2025, 3, 10, 8, 10);
+        LocalDateTime endTime = LocalDateTime.of(2025, 3, 10, 8, 50);
+        when(commissionLedgerRepository.findTopDeliveryMen(any(), any(), any(), any(), anyInt())).thenReturn(List.of());
+
+        deliveryService.getTopDeliveryMen(startTime, endTime);
+
+        // no whole hour in range: the ledger range is empty and everything is read from the delivery table
+        verify(commissionLedgerRepository, times(1)).findTopDeliveryMen(startTime, endTime, endTime, endTime, 3);
     }
 
     @Test
@@ -241,6 +437,11 @@ public class DeliveryServiceImplTest {
         });
         assertEquals("StartTime must be before endTime", exception.getMessage());
 
-        verify(deliveryRepository, never()).findTopDeliveryMenByCommission(any(), any());
+        verify(commissionLedgerRepository, never()).findTopDeliveryMen(any(), any(), any(), any(), anyInt());
+    }
+
+    private Object[] completedRow(Long deliveryId, double commission) {
+        return new Object[]{deliveryId, deliveryMan.getId(), deliveryMan.getName(), Timestamp.from(delivery.getStartTime()),
+                Timestamp.from(delivery.getStartTime().plusSeconds(1200)), commission, 10.0};
     }
 }
@@ -0,0 +1,105 @@
+package com.bayzdelivery.service;
+
+import com.bayzdelivery.dto.JfrRecordingResponse;
+import com.bayzdelivery.events.jfr.PickupEvent;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the {@code JfrRecordingServiceImpl} class against the Flight Recorder of the test JVM.
+ * <p>
+ * Test Scenarios:
+ * - Recording a custom delivery event and reading it back from the downloaded `.jfr` data.
+ * - Rejecting unknown profiles, durations out of bounds and downloads of running recordings.
+ * - Closing the oldest stopped recording to make room for a new one, and rejecting it when all are running.
+ */
+public class JfrRecordingServiceImplTest {
+
+    private JfrRecordingServiceImpl jfrRecordingService;
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    public void setUp() {
+        jfrRecordingService = new JfrRecordingServiceImpl();
+        ReflectionTestUtils.setField(jfrRecordingService, "maxRecordings", 2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        jfrRecordingService.closeAll();
+    }
+
+    @Test
+    public void testStartStopAndDownload_ContainsDeliveryEvents() throws Exception {
+        JfrRecordingResponse started = jfrRecordingService.start("default", Duration.ofMinutes(1));
+        assertEquals("RUNNING", started.state());
+
+        PickupEvent event = new PickupEvent();
+        event.begin();
+        event.orderId = 7L;
+        event.deliveryManId = 3L;
+        event.deliveryId = 11L;
+        event.accepted = true;
+        event.commit();
+
+        assertEquals("STOPPED", jfrRecordingService.stop(started.id()).orElseThrow().state());
+        Path file = tempDir.resolve("recording.jfr");
+        try ( InputStream in = jfrRecordingService.openStream(started.id()).orElseThrow() ) {
+            Files.copy(in, file);
+        }
+
+        List<RecordedEvent> pickups = RecordingFile.readAllEvents(file).stream()
+                .filter(recorded -> recorded.getEventType().getName().equals("com.bayzdelivery.Pickup"))
+                .toList();
+        assertEquals(1, pickups.size());
+        assertEquals(3L, pickups.get(0).getLong("deliveryManId"));
+        assertTrue(pickups.get(0).getBoolean("accepted"));
+    }
+
+    @Test
+    public void testStart_InvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> jfrRecordingService.start("verbose", Duration.ofMinutes(1)));
+        assertThrows(IllegalArgumentException.class, () -> jfrRecordingService.start("default", Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> jfrRecordingService.start("default", Duration.ofHours(1)));
+        assertTrue(jfrRecordingService.findAll().isEmpty());
+    }
+
+    @Test
+    public void testOpenStream_RunningOrMissing() throws Exception {
+        JfrRecordingResponse started = jfrRecordingService.start("default", Duration.ofMinutes(1));
+
+        assertThrows(IllegalArgumentException.class, () -> jfrRecordingService.openStream(started.id()));
+        assertTrue(jfrRecordingService.openStream(-1).isEmpty());
+        assertTrue(jfrRecordingService.stop(-1).isEmpty());
+        assertFalse(jfrRecordingService.close(-1));
+    }
+
+    @Test
+    public void testStart_MakesRoomByClosingStoppedRecordings() {
+        JfrRecordingResponse first = jfrRecordingService.start("default", Duration.ofMinutes(1));
+        JfrRecordingResponse second = jfrRecordingService.start("default", Duration.ofMinutes(1));
+
+        assertThrows(IllegalArgumentException.class, () -> jfrRecordingService.start("default", Duration.ofMinutes(1)));
+
+        jfrRecordingService.stop(first.id());
+        JfrRecordingResponse third = jfrRecordingService.start("profile", Duration.ofMinutes(1));
+
+        assertEquals(List.of(second.id(), third.id()),
+                jfrRecordingService.findAll().stream().map(JfrRecordingResponse::id).toList());
+    }
+}
@@ -0,0 +1,200 @@
+package com.bayzdelivery.service;
+
+import com.bayzdelivery.dto.DeliveryManCommission;
+import com.bayzdelivery.events.DeliveryCompletedEvent;
+import com.bayzdelivery.repositories.CommissionLedgerRepository;
+import com.bayzdelivery.repositories.DeliveryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.sql.Date;
+import java.time.*;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@code LeaderboardServiceImpl} class.
+ * <p>
+ * The clock of the service is fixed to noon of 2025-03-20, so "today", "the last 7 days" and "this month"
+ * are stable across runs. The transaction manager is a mock, so the rebuild runs its reads inline.
+ * <p>
+ * Test Scenarios:
+ * - Answering the today, last 7 days and this month windows after a rebuild.
+ * - Recording completed deliveries and keeping only the top entries.
+ * - Falling back (returning empty) before the first rebuild and for windows that are not day-aligned.
+ * - Reading the ledger in a read-only repeatable read transaction.
+ * - Applying the completions recorded while the rebuild was running that the ledger read does not hold yet,
+ * whatever their end time.
+ * - Picking up the completions of other instances with the next rebuild.
+ */
+@ExtendWith(MockitoExtension.class)
+public class LeaderboardServiceImplTest {
+
+    private static final ZoneId ZONE = ZoneId.of("UTC");
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 20);
+
+    @Mock
+    private CommissionLedgerRepository commissionLedgerRepository;
+
+    @Mock
+    private DeliveryRepository deliveryRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private LeaderboardServiceImpl leaderboardService;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(leaderboardService, "clock",
+                Clock.fixed(TODAY.atTime(12, 0).atZone(ZONE).toInstant(), ZONE));
+        ReflectionTestUtils.setField(leaderboardService, "enabled", true);
+        ReflectionTestUtils.setField(leaderboardService, "retentionDays", 35);
+    }
+
+    @Test
+    public void testFindTopDeliveryMen_BeforeRebuild() {
+        Optional<List<DeliveryManCommission>> top = leaderboardService.findTopDeliveryMen(
+                TODAY.atStartOfDay(), TODAY.atTime(23, 59, 59), 3);
+
+        assertTrue(top.isEmpty());
+    }
+
+    @Test
+    public void testRebuild_AnswersCommonWindows() {
+        when(commissionLedgerRepository.findDailyCommissionsSince(TODAY.minusDays(34).atStartOfDay())).thenReturn(List.of(
+                row(1L, "John Doe", TODAY, 40.0, 4L),
+                row(2L, "Jane Doe", TODAY, 10.0, 1L),
+                row(2L, "Jane Doe", TODAY.minusDays(3), 100.0, 5L),
+                row(3L, "Max Doe", TODAY.minusDays(15), 500.0, 10L)
+        ));
+        leaderboardService.rebuild();
+
+        List<DeliveryManCommission> today = leaderboardService.findTopDeliveryMen(
+                TODAY.atStartOfDay(), TODAY.atTime(12, 0), 3).orElseThrow();
+        assertEquals(List.of(1L, 2L), today.stream().map(DeliveryManCommission::deliveryManId).toList());
+        assertEquals(10.0, today.get(0).averageCommissionPerOrder());
+
+        List<DeliveryManCommission> lastWeek = leaderboardService.findTopDeliveryMen(
+                TODAY.minusDays(6).atStartOfDay(), TODAY.atTime(23, 59, 59), 3).orElseThrow();
+        assertEquals(List.of(2L, 1L), lastWeek.stream().map(DeliveryManCommission::deliveryManId).toList());
+        assertEquals(110.0, lastWeek.get(0).totalCommission());
+        assertEquals(6L, lastWeek.get(0).totalCompletedOrders());
+
+        List<DeliveryManCommission> thisMonth = leaderboardService.findTopDeliveryMen(
+                TODAY.withDayOfMonth(1).atStartOfDay(), TODAY.atTime(12, 30), 3).orElseThrow();
+        assertEquals(List.of(3L, 2L, 1L), thisMonth.stream().map(DeliveryManCommission::deliveryManId).toList());
+        assertEquals("Max Doe", thisMonth.get(0).deliveryManName());
+        // nothing was completed during the rebuild, so no delivery is looked up
+        verifyNoInteractions(deliveryRepository);
+    }
+
+    @Test
+    public void testRebuild_ReadsInRepeatableReadTransaction() {
+        when(commissionLedgerRepository.findDailyCommissionsSince(any())).thenReturn(List.of());
+
+        leaderboardService.rebuild();
+
+        verify(transactionManager).getTransaction(argThat(definition -> definition.isReadOnly()
+                && definition.getIsolationLevel() == TransactionDefinition.ISOLATION_REPEATABLE_READ));
+    }
+
+    @Test
+    public void testFindTopDeliveryMen_KeepsOnlyTheTopEntries() {
+        when(commissionLedgerRepository.findDailyCommissionsSince(any())).thenReturn(List.of());
+        leaderboardService.rebuild();
+        Instant startTime = TODAY.atTime(9, 0).atZone(ZONE).toInstant();
+        for ( long deliveryManId = 1; deliveryManId <= 50; deliveryManId++ ) {
+            leaderboardService.onDeliveryCompleted(new DeliveryCompletedEvent(deliveryManId, deliveryManId,
+                    "Delivery Man " + deliveryManId, startTime, startTime.plusSeconds(600), deliveryManId));
+        }
+
+        List<DeliveryManCommission> top = leaderboardService.findTopDeliveryMen(
+                TODAY.atStartOfDay(), TODAY.atTime(12, 0), 3).orElseThrow();
+
+        assertEquals(List.of(50L, 49L, 48L), top.stream().map(DeliveryManCommission::deliveryManId).toList());
+        assertEquals("Delivery Man 50", top.get(0).deliveryManName());
+    }
+
+    @Test
+    public void testFindTopDeliveryMen_UnsupportedWindowsFallBack() {
+        when(commissionLedgerRepository.findDailyCommissionsSince(any())).thenReturn(List.of());
+        leaderboardService.rebuild();
+
+        // not starting at midnight
+        assertTrue(leaderboardService.findTopDeliveryMen(TODAY.atTime(8, 0), TODAY.atTime(12, 0), 3).isEmpty());
+        // ending in the middle of a past day
+        assertTrue(leaderboardService.findTopDeliveryMen(TODAY.minusDays(2).atStartOfDay(), TODAY.minusDays(1).atTime(10, 0), 3).isEmpty());
+        // older than the retained days
+        assertTrue(leaderboardService.findTopDeliveryMen(TODAY.minusDays(60).atStartOfDay(), TODAY.atTime(12, 0), 3).isEmpty());
+    }
+
+    @Test
+    public void testFindTopDeliveryMen_Disabled() {
+        ReflectionTestUtils.setField(leaderboardService, "enabled", false);
+        leaderboardService.rebuild();
+
+        assertTrue(leaderboardService.findTopDeliveryMen(TODAY.atStartOfDay(), TODAY.atTime(12, 0), 3).isEmpty());
+        verifyNoInteractions(commissionLedgerRepository, deliveryRepository);
+    }
+
+    @Test
+    public void testRebuild_RepositoryThrowsException() {
+        when(commissionLedgerRepository.findDailyCommissionsSince(any())).thenThrow(new RuntimeException("Database connection failed"));
+        leaderboardService.rebuild();
+
+        assertTrue(leaderboardService.findTopDeliveryMen(TODAY.atStartOfDay(), TODAY.atTime(12, 0), 3).isEmpty());
+    }
+
+    @Test
+    public void testRebuild_AppliesCompletionsRecordedWhileReading() {
+        Instant startTime = TODAY.atTime(9, 0).atZone(ZONE).toInstant();
+        when(commissionLedgerRepository.findDailyCommissionsSince(any())).thenAnswer(invocation -> {
+            // already contained in the rows read below
+            leaderboardService.onDeliveryCompleted(new DeliveryCompletedEvent(10L, 1L, "John Doe", startTime, startTime.plusSeconds(3600), 5.0));
+            // committed after the rows were read, though it ended earlier
+            leaderboardService.onDeliveryCompleted(new DeliveryCompletedEvent(11L, 2L, "Jane Doe", startTime, startTime.plusSeconds(600), 7.0));
+            return List.<Object[]>of(row(1L, "John Doe", TODAY, 5.0, 1L));
+        });
+        when(deliveryRepository.findCompletedIdsByIdIn(List.of(10L, 11L))).thenReturn(List.of(10L));
+
+        leaderboardService.rebuild();
+
+        List<DeliveryManCommission> top = leaderboardService.findTopDeliveryMen(
+                TODAY.atStartOfDay(), TODAY.atTime(12, 0), 3).orElseThrow();
+        assertEquals(2, top.size());
+        assertEquals(7.0, top.get(0).totalCommission());
+        assertEquals(5.0, top.get(1).totalCommission());
+        assertEquals(1L, top.get(1).totalCompletedOrders());
+    }
+
+    @Test
+    public void testRebuild_PicksUpCompletionsOfOtherInstances() {
+        when(commissionLedgerRepository.findDailyCommissionsSince(any()))
+                .thenReturn(List.<Object[]>of(row(1L, "John Doe", TODAY, 40.0, 4L)))
+                .thenReturn(List.of(row(1L, "John Doe", TODAY, 40.0, 4L), row(2L, "Jane Doe", TODAY, 90.0, 3L)));
+        leaderboardService.rebuild();
+        assertEquals(1, leaderboardService.findTopDeliveryMen(TODAY.atStartOfDay(), TODAY.atTime(12, 0), 3).orElseThrow().size());
+
+        leaderboardService.rebuild();
+
+        List<DeliveryManCommission> top = leaderboardService.findTopDeliveryMen(
+                TODAY.atStartOfDay(), TODAY.atTime(12, 0), 3).orElseThrow();
+        assertEquals(List.of(2L, 1L), top.stream().map(DeliveryManCommission::deliveryManId).toList());
+    }
+
+    private static Object[] row(Long deliveryManId, String name, LocalDate day, double commission, long count) {
+        return new Object[]{deliveryManId, name, Date.valueOf(day), commission, count};
+    }
+}
@@ -1,20 +1,40 @@
 package com.bayzdelivery.service;
 
+import com.bayzdelivery.dto.BatchItemResult;
+import com.bayzdelivery.dto.BatchResponse;
+import com.bayzdelivery.dto.KeysetPage;
 import com.bayzdelivery.dto.OrderResponse;
 import com.bayzdelivery.exceptions.OrderNotFoundException;
 import com.bayzdelivery.model.Orders;
 import com.bayzdelivery.model.Person;
 import com.bayzdelivery.repositories.OrdersRepository;
+import com.bayzdelivery.repositories.PersonRepository;
+import com.bayzdelivery.utils.ContinuationToken;
+import com.bayzdelivery.utils.OrderHelper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -28,9 +48,12 @@ import static org.mockito.Mockito.*;
  * handling business logic associated with Orders entities.
  * <p>
  * Test Scenarios:
- * - Successfully fetching all orders.
+ * - Fetching a page of orders, with and without a following page.
  * - Handling the case when no orders are present in the database.
+ * - Rejecting invalid continuation tokens and limits.
+ * - Streaming all orders to a consumer and closing the stream.
  * - Successfully saving an order.
+ * - Saving a batch of orders with a result per order, isolating failed chunks and rejecting oversized batches.
  * - Finding an order by its ID (success and failure scenarios).
  * - Deleting an order by its ID (success and failure scenarios).
  * - Updating an order (success and failure scenarios).
@@ -48,6 +71,9 @@ import static org.mockito.Mockito.*;
  * Mocked Dependencies:
  * - {@code OrdersRepository}: Interacts with the persistence layer for performing
  * operations like find, save, or delete on Orders entities.
+ * - {@code PersonRepository}: Checks the customers of a batch of orders.
+ * - {@code TransactionTemplate}: Runs the chunks of a batch; the mock runs them inline.
+ * - {@code ReferenceCache}: A spy on a real cache without database notifications, so reads are served from memory.
  * <p>
  * Test Data:
  * - {@code Orders}: Sample order entity with predefined attributes for testing.
@@ -60,6 +86,15 @@ public class OrdersServiceImplTest {
     @Mock
     private OrdersRepository ordersRepository;
 
+    @Mock
+    private PersonRepository personRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Spy
+    private ReferenceCache referenceCache = new ReferenceCacheImpl(mock(JdbcTemplate.class), new SimpleMeterRegistry(), 100, 60);
+
     @InjectMocks
     private OrdersServiceImpl ordersService;
 
@@ -80,27 +115,70 @@ public class OrdersServiceImplTest {
     }
 
     @Test
-    public void testGetAll_Success() {
-        when(ordersRepository.findAll()).thenReturn(List.of(order));
-        List<OrderResponse> response = ordersService.getAll();
+    public void testGetPage_Success() {
+        when(ordersRepository.findOrderResponsesAfter(0L, Limit.of(101))).thenReturn(List.of(OrderHelper.mapToOrdersResponse(order)));
+        KeysetPage<OrderResponse> response = ordersService.getPage(null, null);
         assertNotNull(response);
-        assertEquals(1, response.size());
-        assertEquals(order.getId(), response.get(0).id());
-        assertEquals(order.getOrderName(), response.get(0).orderName());
-        assertEquals(order.getOrderPrice(), response.get(0).orderPrice());
-        assertEquals(order.getCustomer().getName(), response.get(0).customer());
+        assertEquals(1, response.items().size());
+        assertEquals(order.getId(), response.items().get(0).id());
+        assertEquals(order.getOrderName(), response.items().get(0).orderName());
+        assertEquals(order.getOrderPrice(), response.items().get(0).orderPrice());
+        assertEquals(order.getCustomer().getName(), response.items().get(0).customer());
+        assertNull(response.continuationToken());
 
-        verify(ordersRepository, times(1)).findAll();
+        verify(ordersRepository, times(1)).findOrderResponsesAfter(0L, Limit.of(101));
     }
 
     @Test
-    public void testGetAll_NoOrders() {
-        when(ordersRepository.findAll()).thenReturn(Collections.emptyList());
-        List<OrderResponse> response = ordersService.getAll();
+    public void testGetPage_ReturnsTokenOfNextPage() {
+        List<OrderResponse> orders = new ArrayList<>();
+        for ( long id = 11; id <= 13; id++ ) {
+            orders.add(new OrderResponse(id, "Order " + id, 10.0, customer.getName()));
+        }
+        when(ordersRepository.findOrderResponsesAfter(10L, Limit.of(3))).thenReturn(orders);
+
+        KeysetPage<OrderResponse> response = ordersService.getPage(ContinuationToken.encode(10L), 2);
+
+        assertEquals(List.of(11L, 12L), response.items().stream().map(OrderResponse::id).toList());
+        assertEquals(12L, ContinuationToken.decode(response.continuationToken()));
+    }
+
+    @Test
+    public void testGetPage_NoOrders() {
+        when(ordersRepository.findOrderResponsesAfter(0L, Limit.of(101))).thenReturn(Collections.emptyList());
+        KeysetPage<OrderResponse> response = ordersService.getPage(null, null);
         assertNotNull(response);
-        assertTrue(response.isEmpty());
+        assertTrue(response.items().isEmpty());
+        assertNull(response.continuationToken());
+    }
+
+    @Test
+    public void testGetPage_CapsLimit() {
+        when(ordersRepository.findOrderResponsesAfter(0L, Limit.of(1001))).thenReturn(Collections.emptyList());
+        ordersService.getPage(null, 1_000_000);
 
-        verify(ordersRepository, times(1)).findAll();
+        verify(ordersRepository, times(1)).findOrderResponsesAfter(0L, Limit.of(1001));
+    }
+
+    @Test
+    public void testGetPage_InvalidTokenOrLimit() {
+        assertThrows(IllegalArgumentException.class, () -> ordersService.getPage("not-a-token", 10));
+        assertThrows(IllegalArgumentException.class, () -> ordersService.getPage(null, 0));
+        verifyNoInteractions(ordersRepository);
+    }
+
+    @Test
+    public void testStreamAll_Success() {
+        List<Boolean> closed = new ArrayList<>();
+        OrderResponse first = new OrderResponse(1L, "Test Order", 100.0, "John Doe");
+        OrderResponse second = new OrderResponse(2L, "Other Order", 50.0, "John Doe");
+        when(ordersRepository.streamAllOrderResponses()).thenReturn(Stream.of(first, second).onClose(() -> closed.add(true)));
+
+        List<OrderResponse> streamed = new ArrayList<>();
+        ordersService.streamAll(streamed::add);
+
+        assertEquals(List.of(first, second), streamed);
+        assertEquals(List.of(true), closed);
     }
 
     @Test
@@ -116,9 +194,50 @@ public class OrdersServiceImplTest {
         verify(ordersRepository, times(1)).save(order);
     }
 
+    @Test
+    public void testSaveBatch_ReportsEachOrder() {
+        stubBatchInsert();
+        when(personRepository.findExistingIds(Set.of(1L, 99L))).thenReturn(Set.of(1L));
+        Orders unnamed = newOrder(null, 1L);
+        Orders unknownCustomer = newOrder("Unknown", 99L);
+
+        BatchResponse response = ordersService.saveBatch(List.of(newOrder("First", 1L), unnamed, unknownCustomer));
+
+        assertEquals(1, response.succeeded());
+        assertEquals(2, response.failed());
+        assertEquals(BatchItemResult.succeeded(0, 1000L), response.results().get(0));
+        assertEquals(BatchItemResult.failed(1, "Order name is required"), response.results().get(1));
+        assertEquals(BatchItemResult.failed(2, "Customer not found with ID: 99"), response.results().get(2));
+        verify(ordersRepository, times(1)).saveAll(any());
+    }
+
+    @Test
+    public void testSaveBatch_FailedChunkDoesNotFailOtherChunks() {
+        stubBatchInsert();
+        ReflectionTestUtils.setField(ordersService, "chunkSize", 1);
+        when(personRepository.findExistingIds(Set.of(1L))).thenReturn(Set.of(1L));
+        Orders failing = newOrder("Failing", 1L);
+        doThrow(new DataIntegrityViolationException("value too long")).when(ordersRepository).saveAll(List.of(failing));
+
+        BatchResponse response = ordersService.saveBatch(List.of(failing, newOrder("Second", 1L)));
+
+        assertEquals(1, response.succeeded());
+        assertEquals(BatchItemResult.FAILED, response.results().get(0).status());
+        assertEquals(BatchItemResult.succeeded(1, 1000L), response.results().get(1));
+    }
+
+    @Test
+    public void testSaveBatch_TooManyOrders() {
+        ReflectionTestUtils.setField(ordersService, "maxBatchSize", 1);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> ordersService.saveBatch(List.of(newOrder("First", 1L), newOrder("Second", 1L))));
+        verifyNoInteractions(ordersRepository, personRepository, transactionTemplate);
+    }
+
     @Test
     public void testFindById_Success() {
-        when(ordersRepository.findById(order.getId())).thenReturn(Optional.of(order));
+        when(ordersRepository.findOrderResponseById(order.getId())).thenReturn(Optional.of(OrderHelper.mapToOrdersResponse(order)));
         OrderResponse response = ordersService.findById(order.getId());
         assertNotNull(response);
         assertEquals(order.getId(), response.id());
@@ -126,18 +245,32 @@ public class OrdersServiceImplTest {
         assertEquals(order.getOrderPrice(), response.orderPrice());
         assertEquals(order.getCustomer().getName(), response.customer());
 
-        verify(ordersRepository, times(1)).findById(order.getId());
+        verify(ordersRepository, times(1)).findOrderResponseById(order.getId());
+    }
+
+    @Test
+    public void testFindById_ServedFromCacheUntilUpdated() {
+        when(ordersRepository.findOrderResponseById(order.getId())).thenReturn(Optional.of(OrderHelper.mapToOrdersResponse(order)));
+        ordersService.findById(order.getId());
+        ordersService.findById(order.getId());
+        verify(ordersRepository, times(1)).findOrderResponseById(order.getId());
+
+        when(ordersRepository.findById(order.getId())).thenReturn(Optional.of(order));
+        when(ordersRepository.save(order)).thenReturn(order);
+        ordersService.updateOrder(order.getId(), order);
+        ordersService.findById(order.getId());
+        verify(ordersRepository, times(2)).findOrderResponseById(order.getId());
     }
 
     @Test
     public void testFindById_OrderNotFound() {
-        when(ordersRepository.findById(order.getId())).thenReturn(Optional.empty());
+        when(ordersRepository.findOrderResponseById(order.getId())).thenReturn(Optional.empty());
         OrderNotFoundException exception = assertThrows(OrderNotFoundException.class, () -> {
             ordersService.findById(order.getId());
         });
         assertEquals("Order not found with ID: " + order.getId(), exception.getMessage());
 
-        verify(ordersRepository, times(1)).findById(order.getId());
+        verify(ordersRepository, times(1)).findOrderResponseById(order.getId());
     }
 
     @Test
@@ -147,6 +280,7 @@ public class OrdersServiceImplTest {
         ordersService.deleteById(order.getId());
         verify(ordersRepository, times(1)).findById(order.getId());
         verify(ordersRepository, times(1)).delete(order);
+        verify(referenceCache, times(1)).invalidateOrder(order.getId());
     }
 
     @Test
@@ -179,6 +313,7 @@ public class OrdersServiceImplTest {
 
         verify(ordersRepository, times(1)).findById(order.getId());
         verify(ordersRepository, times(1)).save(order);
+        verify(referenceCache, times(1)).invalidateOrder(order.getId());
     }
 
     @Test
@@ -197,4 +332,34 @@ public class OrdersServiceImplTest {
         verify(ordersRepository, times(1)).findById(order.getId());
         verify(ordersRepository, never()).save(any());
     }
+
+    @SuppressWarnings("unchecked")
+    private void stubBatchInsert() {
+        AtomicLong ids = new AtomicLong(1000L);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(personRepository.getReferenceById(anyLong())).thenAnswer(invocation -> {
+            Person reference = new Person();
+            reference.setId(invocation.getArgument(0));
+            return reference;
+        });
+        lenient().when(ordersRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Orders> saved = (List<Orders>) invocation.getArgument(0);
+            saved.forEach(order -> order.setId(ids.getAndIncrement()));
+            return saved;
+        });
+    }
+
+    private static Orders newOrder(String name, Long customerId) {
+        Person orderCustomer = new Person();
+        orderCustomer.setId(customerId);
+        Orders newOrder = new Orders();
+        newOrder.setOrderName(name);
+        newOrder.setOrderPrice(25.0);
+        newOrder.setOrderTime(LocalDateTime.now());
+        newOrder.setCustomer(orderCustomer);
+        return newOrder;
+    }
 }
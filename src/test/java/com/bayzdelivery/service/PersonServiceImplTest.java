@@ -1,20 +1,28 @@
 package com.bayzdelivery.service;
 
+import com.bayzdelivery.dto.KeysetPage;
 import com.bayzdelivery.dto.PersonRegisterResponse;
 import com.bayzdelivery.exceptions.PersonNotFoundException;
 import com.bayzdelivery.model.Person;
 import com.bayzdelivery.repositories.PersonRepository;
+import com.bayzdelivery.utils.ContinuationToken;
 import com.bayzdelivery.utils.PersonRole;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -23,6 +31,7 @@ import static org.mockito.Mockito.*;
  * Unit tests for the PersonServiceImpl class.
  * This test class verifies the behavior of the service layer methods in the implementation of the PersonService interface.
  * It uses Mockito framework for mocking dependencies and JUnit 5 for test execution.
+ * The reference cache is a spy on a real cache without database notifications, so reads are served from memory.
  */
 @ExtendWith(MockitoExtension.class)
 public class PersonServiceImplTest {
@@ -31,6 +40,9 @@ public class PersonServiceImplTest {
     @Mock
     private PersonRepository personRepository;
 
+    @Spy
+    private ReferenceCache referenceCache = new ReferenceCacheImpl(mock(JdbcTemplate.class), new SimpleMeterRegistry(), 100, 60);
+
     @InjectMocks
     private PersonServiceImpl personService;
 
@@ -46,32 +58,62 @@ public class PersonServiceImplTest {
     }
 
     @Test
-    public void testGetAll_Success() {
-        when(personRepository.findAll()).thenReturn(List.of(person));
-        List<PersonRegisterResponse> response = personService.getAll();
+    public void testGetPage_Success() {
+        when(personRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(101))).thenReturn(List.of(person));
+        KeysetPage<PersonRegisterResponse> response = personService.getPage(null, null);
         assertNotNull(response);
-        assertEquals(1, response.size());
-        assertEquals(person.getId(), response.get(0).id());
-        assertEquals(person.getName(), response.get(0).name());
-        assertEquals(person.getRegistrationNumber(), response.get(0).registrationNumber());
-        assertEquals(person.getRole(), response.get(0).role());
+        assertEquals(1, response.items().size());
+        assertEquals(person.getId(), response.items().get(0).id());
+        assertEquals(person.getName(), response.items().get(0).name());
+        assertEquals(person.getRegistrationNumber(), response.items().get(0).registrationNumber());
+        assertEquals(person.getRole(), response.items().get(0).role());
+        assertNull(response.continuationToken());
+
+        verify(personRepository, times(1)).findByIdGreaterThanOrderByIdAsc(0L, Limit.of(101));
+    }
+
+    @Test
+    public void testGetPage_ReturnsTokenOfNextPage() {
+        Person next = new Person();
+        next.setId(2L);
+        next.setRole(PersonRole.DELIVERY_MAN);
+        when(personRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2))).thenReturn(List.of(person, next));
 
-        verify(personRepository, times(1)).findAll();
+        KeysetPage<PersonRegisterResponse> response = personService.getPage(null, 1);
+
+        assertEquals(1, response.items().size());
+        assertEquals(person.getId(), ContinuationToken.decode(response.continuationToken()));
     }
 
     @Test
-    public void testGetAll_NoPersons() {
-        when(personRepository.findAll()).thenReturn(Collections.emptyList());
-        List<PersonRegisterResponse> response = personService.getAll();
+    public void testGetPage_NoPersons() {
+        when(personRepository.findByIdGreaterThanOrderByIdAsc(5L, Limit.of(11))).thenReturn(Collections.emptyList());
+        KeysetPage<PersonRegisterResponse> response = personService.getPage(ContinuationToken.encode(5L), 10);
         assertNotNull(response);
-        assertTrue(response.isEmpty());
+        assertTrue(response.items().isEmpty());
+        assertNull(response.continuationToken());
+    }
+
+    @Test
+    public void testGetPage_InvalidToken() {
+        assertThrows(IllegalArgumentException.class, () -> personService.getPage("aWQ6YWJj", 10));
+        verifyNoInteractions(personRepository);
+    }
+
+    @Test
+    public void testStreamAll_Success() {
+        PersonRegisterResponse registered = new PersonRegisterResponse(1L, "John Doe", "12345", PersonRole.CUSTOMER);
+        when(personRepository.streamAllRegisteredPersons()).thenReturn(Stream.of(registered));
 
-        verify(personRepository, times(1)).findAll();
+        List<PersonRegisterResponse> streamed = new ArrayList<>();
+        personService.streamAll(streamed::add);
+
+        assertEquals(List.of(registered), streamed);
     }
 
     @Test
     public void testSave_Success() {
-
+        person.setId(null);
         when(personRepository.save(person)).thenReturn(person);
         PersonRegisterResponse response = personService.save(person);
         assertNotNull(response);
@@ -117,4 +159,75 @@ public class PersonServiceImplTest {
 
         verify(personRepository, times(1)).findById(person.getId());
     }
+
+    @Test
+    public void testFindById_ServedFromCache() {
+        when(personRepository.findById(person.getId())).thenReturn(Optional.of(person));
+        personService.findById(person.getId());
+        PersonRegisterResponse response = personService.findById(person.getId());
+        assertEquals(person.getName(), response.name());
+
+        verify(personRepository, times(1)).findById(person.getId());
+    }
+
+    @Test
+    public void testSave_ExistingPersonInvalidatesCache() {
+        when(personRepository.findById(person.getId())).thenReturn(Optional.of(person));
+        when(personRepository.save(person)).thenReturn(person);
+        personService.findById(person.getId());
+
+        personService.save(update("Jane Doe"));
+        PersonRegisterResponse response = personService.findById(person.getId());
+
+        assertEquals("Jane Doe", response.name());
+        verify(referenceCache, times(1)).invalidatePerson(person.getId());
+        verify(personRepository, times(3)).findById(person.getId());
+    }
+
+    @Test
+    public void testSave_ExistingPersonUpdatesLoadedPerson() {
+        person.setVersion(3);
+        person.setEmail("john.doe@example.com");
+        when(personRepository.findById(person.getId())).thenReturn(Optional.of(person));
+        when(personRepository.save(person)).thenReturn(person);
+
+        PersonRegisterResponse response = personService.save(update("Jane Doe"));
+
+        assertEquals("Jane Doe", response.name());
+        assertEquals("jane.doe@example.com", person.getEmail());
+        // the update is checked against the loaded version, not the one the client sent
+        assertEquals(3, person.getVersion());
+        verify(personRepository, times(1)).save(person);
+    }
+
+    @Test
+    public void testSave_ExistingPersonNotFound() {
+        when(personRepository.findById(person.getId())).thenReturn(Optional.empty());
+
+        PersonNotFoundException exception = assertThrows(PersonNotFoundException.class, () -> {
+            personService.save(update("Jane Doe"));
+        });
+        assertEquals("Person not found with ID: " + person.getId(), exception.getMessage());
+
+        verify(personRepository, never()).save(any());
+    }
+
+    @Test
+    public void testSave_NewPersonDoesNotInvalidateCache() {
+        person.setId(null);
+        when(personRepository.save(person)).thenReturn(person);
+        personService.save(person);
+
+        verify(referenceCache, never()).invalidatePerson(any());
+    }
+
+    private Person update(String name) {
+        Person update = new Person();
+        update.setId(person.getId());
+        update.setName(name);
+        update.setEmail("jane.doe@example.com");
+        update.setRegistrationNumber(person.getRegistrationNumber());
+        update.setRole(person.getRole());
+        return update;
+    }
 }
@@ -0,0 +1,197 @@
+package com.bayzdelivery.service;
+
+import com.bayzdelivery.dto.OrderResponse;
+import com.bayzdelivery.dto.PersonRegisterResponse;
+import com.bayzdelivery.utils.PersonRole;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the {@code ReferenceCacheImpl} class.
+ * <p>
+ * The database is a mocked {@link JdbcTemplate}; it reports PostgreSQL or another database when the cache
+ * checks whether it can notify the other instances.
+ * <p>
+ * Test Scenarios:
+ * - Serving hits from memory and not caching misses of the loader.
+ * - Serving a read for a row version only from an entry cached for the same version.
+ * - Not caching a row whose key was invalidated while it was loaded.
+ * - Dropping the cached orders when a person changes.
+ * - Applying invalidations received from other instances, and rejecting malformed ones.
+ * - Notifying the other instances only on PostgreSQL.
+ * - Recording hits and misses in the meter registry.
+ */
+@ExtendWith(MockitoExtension.class)
+public class ReferenceCacheImplTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReferenceCacheImpl referenceCache;
+    private AtomicInteger personLoads;
+    private AtomicInteger orderLoads;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        referenceCache = new ReferenceCacheImpl(jdbcTemplate, meterRegistry, 100, 60);
+        personLoads = new AtomicInteger();
+        orderLoads = new AtomicInteger();
+    }
+
+    @Test
+    public void testFindPerson_LoadsOnce() {
+        assertEquals("John Doe", referenceCache.findPerson(1L, personLoader()).orElseThrow().name());
+        assertEquals("John Doe", referenceCache.findPerson(1L, personLoader()).orElseThrow().name());
+
+        assertEquals(1, personLoads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "persons").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "persons").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    public void testFindOrder_ServesOnlyEntryOfSameVersion() {
+        referenceCache.findOrder(1L, "1-3-1", orderLoader());
+        referenceCache.findOrder(1L, "1-3-1", orderLoader());
+        assertEquals(1, orderLoads.get());
+
+        referenceCache.findOrder(1L, "2-3-1", orderLoader());
+        referenceCache.findOrder(1L, orderLoader());
+        assertEquals(2, orderLoads.get());
+
+        referenceCache.findOrder(1L, "1-3-1", orderLoader());
+        assertEquals(3, orderLoads.get());
+    }
+
+    @Test
+    public void testFindOrder_InvalidatedWhileLoadingIsNotCached() {
+        Function<Long, Optional<OrderResponse>> loadedBeforeWrite = id -> {
+            orderLoads.incrementAndGet();
+            // the write commits and its invalidation arrives before the stale row is put into the cache
+            referenceCache.evict(ReferenceCacheImpl.ORDER_PREFIX + id);
+            return Optional.of(new OrderResponse(id, "Old Name", 10.0, "John Doe"));
+        };
+
+        assertEquals("Old Name", referenceCache.findOrder(1L, loadedBeforeWrite).orElseThrow().orderName());
+        assertEquals("Order 1", referenceCache.findOrder(1L, orderLoader()).orElseThrow().orderName());
+        referenceCache.findOrder(1L, orderLoader());
+
+        assertEquals(2, orderLoads.get());
+    }
+
+    @Test
+    public void testFindOrder_MissIsNotCached() {
+        Function<Long, Optional<OrderResponse>> missing = id -> {
+            orderLoads.incrementAndGet();
+            return Optional.empty();
+        };
+
+        assertTrue(referenceCache.findOrder(1L, missing).isEmpty());
+        assertTrue(referenceCache.findOrder(1L, missing).isEmpty());
+
+        assertEquals(2, orderLoads.get());
+    }
+
+    @Test
+    public void testInvalidateOrder_DropsOnlyThatOrder() {
+        referenceCache.findOrder(1L, orderLoader());
+        referenceCache.findOrder(2L, orderLoader());
+
+        referenceCache.invalidateOrder(1L);
+        referenceCache.findOrder(1L, orderLoader());
+        referenceCache.findOrder(2L, orderLoader());
+
+        assertEquals(3, orderLoads.get());
+    }
+
+    @Test
+    public void testInvalidatePerson_DropsPersonAndOrders() {
+        referenceCache.findPerson(1L, personLoader());
+        referenceCache.findOrder(1L, orderLoader());
+
+        referenceCache.invalidatePerson(1L);
+        referenceCache.findPerson(1L, personLoader());
+        referenceCache.findOrder(1L, orderLoader());
+
+        assertEquals(2, personLoads.get());
+        assertEquals(2, orderLoads.get());
+    }
+
+    @Test
+    public void testEvict_AppliesReceivedInvalidations() {
+        referenceCache.findOrder(1L, orderLoader());
+        referenceCache.evict("order:1");
+        referenceCache.findOrder(1L, orderLoader());
+        assertEquals(2, orderLoads.get());
+
+        referenceCache.findPerson(1L, personLoader());
+        referenceCache.evict("*");
+        referenceCache.findPerson(1L, personLoader());
+        referenceCache.findOrder(1L, orderLoader());
+        assertEquals(2, personLoads.get());
+        assertEquals(3, orderLoads.get());
+
+        referenceCache.evict("unknown:1");
+        referenceCache.findOrder(1L, orderLoader());
+        assertEquals(3, orderLoads.get());
+    }
+
+    @Test
+    public void testEvict_MalformedInvalidation() {
+        assertThrows(IllegalArgumentException.class, () -> referenceCache.evict("order:abc"));
+    }
+
+    @Test
+    public void testInvalidate_NotifiesOnPostgreSql() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(true);
+        referenceCache.detectNotifySupport();
+
+        referenceCache.invalidateOrder(7L);
+        referenceCache.invalidatePerson(8L);
+
+        verify(jdbcTemplate, times(1)).queryForList("SELECT pg_notify(?, ?)", "reference_cache", "order:7");
+        verify(jdbcTemplate, times(1)).queryForList("SELECT pg_notify(?, ?)", "reference_cache", "person:8");
+    }
+
+    @Test
+    public void testInvalidate_StaysLocalOnOtherDatabases() {
+        when(jdbcTemplate.execute(any(ConnectionCallback.class))).thenReturn(false);
+        referenceCache.detectNotifySupport();
+        referenceCache.findOrder(7L, orderLoader());
+
+        referenceCache.invalidateOrder(7L);
+        referenceCache.findOrder(7L, orderLoader());
+
+        assertEquals(2, orderLoads.get());
+        verify(jdbcTemplate, only()).execute(any(ConnectionCallback.class));
+    }
+
+    private Function<Long, Optional<PersonRegisterResponse>> personLoader() {
+        return id -> {
+            personLoads.incrementAndGet();
+            return Optional.of(new PersonRegisterResponse(id, "John Doe", "john.doe@example.com", "12345", PersonRole.CUSTOMER));
+        };
+    }
+
+    private Function<Long, Optional<OrderResponse>> orderLoader() {
+        return id -> {
+            orderLoads.incrementAndGet();
+            return Optional.of(new OrderResponse(id, "Order " + id, 40.0, "John Doe"));
+        };
+    }
+}